@@ -0,0 +1,68 @@
+package com.fsavevsk.timetracking.api.controller;
+
+import com.fsavevsk.timetracking.api.dto.admin.ExportFormat;
+import com.fsavevsk.timetracking.api.dto.admin.TimeEntryExportFilter;
+import com.fsavevsk.timetracking.service.TimeEntryExportService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.annotation.Secured;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.time.LocalDate;
+import java.util.Locale;
+
+@RequestMapping("/api/admin/export")
+@RestController
+@RequiredArgsConstructor
+@Validated
+public class AdminExportController {
+
+    private final TimeEntryExportService service;
+
+    // streams every matching entry across all users
+    @Secured("ROLE_admin")
+    @GetMapping("/time-entries")
+    public ResponseEntity<StreamingResponseBody> exportTimeEntries(
+            @RequestParam(name = "format", required = false, defaultValue = "csv") String format,
+            @RequestParam(name = "startDate", required = false)
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam(name = "endDate", required = false)
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @RequestParam(name = "projectId", required = false) Long projectId,
+            @RequestParam(name = "userId", required = false) String userId
+    ) {
+        ExportFormat exportFormat = resolveFormat(format);
+        if (startDate != null && endDate != null && endDate.isBefore(startDate)) {
+            throw new IllegalArgumentException("endDate must be on or after startDate");
+        }
+
+        // date range is inclusive of endDate, i.e. [startDate 00:00, endDate + 1 day 00:00)
+        var filter = new TimeEntryExportFilter(
+                startDate != null ? startDate.atStartOfDay() : null,
+                endDate != null ? endDate.plusDays(1).atStartOfDay() : null,
+                projectId,
+                userId
+        );
+
+        StreamingResponseBody body = out -> service.export(exportFormat, filter, out);
+        String filename = "time-entries." + exportFormat.extension();
+        return ResponseEntity.ok()
+                .contentType(exportFormat.mediaType())
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        ContentDisposition.attachment().filename(filename).build().toString())
+                .body(body);
+    }
+
+    private ExportFormat resolveFormat(String format) {
+        try {
+            return ExportFormat.valueOf(format.toUpperCase(Locale.ROOT));
+        } catch (Exception e) {
+            throw new IllegalArgumentException("Invalid export format: " + format);
+        }
+    }
+}
@@ -1,16 +1,27 @@
 package com.fsavevsk.timetracking.api.controller;
 
 import com.fsavevsk.timetracking.api.dto.admin.OverviewReportResponse;
+import com.fsavevsk.timetracking.api.dto.admin.ProjectsReportFilter;
+import com.fsavevsk.timetracking.api.dto.admin.ProjectsReportPage;
 import com.fsavevsk.timetracking.api.dto.admin.ProjectsReportResponse;
+import com.fsavevsk.timetracking.api.dto.admin.ProjectsReportSort;
+import com.fsavevsk.timetracking.api.dto.admin.RollupRebuildResponse;
+import com.fsavevsk.timetracking.api.dto.admin.TimeBucket;
+import com.fsavevsk.timetracking.api.dto.admin.TimeSeriesFilter;
+import com.fsavevsk.timetracking.api.dto.admin.TimeSeriesReportResponse;
 import com.fsavevsk.timetracking.service.AdminReportsService;
+import com.fsavevsk.timetracking.service.TimeEntryRollupService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.annotation.Secured;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
 
 import java.time.*;
 import java.util.List;
+import java.util.Locale;
 
 @RequestMapping("/api/admin/reports")
 @RestController
@@ -18,25 +29,136 @@ import java.util.List;
 @Validated
 public class AdminSummaryController {
 
+    // a year of days, or a month of hours, with room to spare; finer series are what the range reports are for
+    private static final int MAX_POINTS = 5_000;
+
+    // parameters of the paged projects report, which the plain one would otherwise silently ignore
+    private static final List<String> PAGE_PARAMS = List.of("sort", "name", "cursor", "page", "size", "total");
+
+    private record Window(LocalDate from, LocalDate to) {}
+
     private final AdminReportsService service;
+    private final TimeEntryRollupService rollupService;
 
     @GetMapping("/overview")
     public ResponseEntity<OverviewReportResponse> overview(
-            @RequestParam(name = "timezone", required = false, defaultValue = "UTC") String timezone) {
-        return ResponseEntity.ok(service.overview(resolveZone(timezone)));
+            @RequestParam(name = "timezone", required = false, defaultValue = "UTC") String timezone,
+            ServletWebRequest request) {
+        ZoneId zone = resolveZone(timezone);
+        return ConditionalGet.ifNoneMatchVersioned(request, () -> service.overviewVersion(zone), () -> service.overview(zone));
     }
 
+    /** Every project, by week hours descending; {@code paged=true} asks for the paged report instead. */
     @GetMapping("/projects")
     public ResponseEntity<List<ProjectsReportResponse>> projectsSummary(
             @RequestParam(name = "timezone", required = false, defaultValue = "UTC") String timezone,
             @RequestParam(name = "startDate", required = false)
             @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
             @RequestParam(name = "endDate", required = false)
-            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            ServletWebRequest request
+    ) {
+        for (String param : PAGE_PARAMS) {
+            if (request.getParameter(param) != null) {
+                throw new IllegalArgumentException(param + " needs paged=true");
+            }
+        }
+        ZoneId zone = resolveZone(timezone);
+        Window window = resolveWindow(zone, startDate, endDate);
+        return ConditionalGet.ifNoneMatchVersioned(request,
+                () -> service.projectsSummaryVersion(zone, window.from(), window.to()),
+                () -> service.projectsSummary(zone, window.from(), window.to()));
+    }
+
+    /**
+     * The projects report a page at a time: sorted by {@code sort} ("column" or "column,asc|desc", by default
+     * "hoursWeek,desc"), filtered by {@code name}, paged with either {@code cursor} or {@code page};
+     * {@code total=false} leaves out the count of matching projects.
+     */
+    @GetMapping(value = "/projects", params = "paged=true")
+    public ResponseEntity<ProjectsReportPage> projectsPage(
+            @RequestParam(name = "timezone", required = false, defaultValue = "UTC") String timezone,
+            @RequestParam(name = "startDate", required = false)
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam(name = "endDate", required = false)
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @RequestParam(name = "sort", required = false, defaultValue = "hoursWeek,desc") String sort,
+            @RequestParam(name = "name", required = false) String name,
+            @RequestParam(name = "cursor", required = false) String cursor,
+            @RequestParam(name = "page", required = false) Integer page,
+            @RequestParam(name = "size", required = false) Integer size,
+            @RequestParam(name = "total", required = false, defaultValue = "true") boolean includeTotal,
+            ServletWebRequest request
     ) {
         ZoneId zone = resolveZone(timezone);
+        Window window = resolveWindow(zone, startDate, endDate);
+
+        String[] sortParts = sort.split(",", -1);
+        if (sortParts.length > 2) {
+            throw new IllegalArgumentException("Invalid sort: " + sort);
+        }
+        ProjectsReportSort column = ProjectsReportSort.ofColumn(sortParts[0].trim());
+        boolean descending = sortParts.length == 2 && resolveDescending(sortParts[1].trim());
+
+        var filter = new ProjectsReportFilter(zone, window.from(), window.to(), column, descending, name, cursor,
+                page, size, includeTotal);
+        return ConditionalGet.ifNoneMatchVersioned(request,
+                () -> service.projectsSummaryVersion(zone, window.from(), window.to()),
+                () -> service.projectsPage(filter));
+    }
 
-        // default window: last 30 days ending today in the given zone
+    @GetMapping("/timeseries")
+    public ResponseEntity<TimeSeriesReportResponse> timeSeries(
+            @RequestParam(name = "timezone", required = false, defaultValue = "UTC") String timezone,
+            @RequestParam(name = "bucket", required = false, defaultValue = "day") String bucket,
+            @RequestParam(name = "startDate", required = false)
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam(name = "endDate", required = false)
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @RequestParam(name = "projectId", required = false) Long projectId,
+            @RequestParam(name = "userId", required = false) String userId,
+            ServletWebRequest request
+    ) {
+        ZoneId zone = resolveZone(timezone);
+        TimeBucket timeBucket = resolveBucket(bucket);
+        Window window = resolveWindow(zone, startDate, endDate);
+        LocalDate from = window.from();
+        LocalDate to = window.to();
+
+        if (timeBucket.count(from.atStartOfDay(), to.plusDays(1).atStartOfDay()) > MAX_POINTS) {
+            throw new IllegalArgumentException("Range too long for " + bucket + " buckets; use a larger bucket");
+        }
+
+        var filter = new TimeSeriesFilter(timeBucket, from, to, projectId, userId);
+        return ConditionalGet.ifNoneMatchVersioned(request, () -> service.timeSeriesVersion(filter),
+                () -> service.timeSeries(filter));
+    }
+
+    // holds a SHARE lock on time_entries, blocking every entry write, until the rebuild commits
+    @Secured("ROLE_admin")
+    @PostMapping("/rollups/rebuild")
+    public ResponseEntity<RollupRebuildResponse> rebuildRollups() {
+        return ResponseEntity.ok(new RollupRebuildResponse(rollupService.rebuild()));
+    }
+
+    private boolean resolveDescending(String direction) {
+        return switch (direction.toLowerCase(Locale.ROOT)) {
+            case "asc" -> false;
+            case "desc" -> true;
+            default -> throw new IllegalArgumentException("Invalid sort direction: " + direction);
+        };
+    }
+
+    private TimeBucket resolveBucket(String bucket) {
+        try {
+            return TimeBucket.valueOf(bucket.toUpperCase(Locale.ROOT));
+        } catch (Exception e) {
+            throw new IllegalArgumentException("Invalid bucket: " + bucket);
+        }
+    }
+
+    /** Report days {@code [from, to]}; by default the last 30 days ending today in the given zone. */
+    private Window resolveWindow(ZoneId zone, LocalDate startDate, LocalDate endDate) {
         LocalDate today = LocalDate.now(zone);
         LocalDate from = startDate != null ? startDate : today.minusDays(29);
         LocalDate to = endDate != null ? endDate : today;
@@ -44,8 +166,7 @@ public class AdminSummaryController {
         if (to.isBefore(from)) {
             throw new IllegalArgumentException("endDate must be on or after startDate");
         }
-
-        return ResponseEntity.ok(service.projectsSummary(zone, from, to));
+        return new Window(from, to);
     }
 
     private ZoneId resolveZone(String tz) {
@@ -0,0 +1,61 @@
+package com.fsavevsk.timetracking.api.controller;
+
+import com.fsavevsk.timetracking.persistence.routing.ReplicaRoutingDataSource;
+import com.fsavevsk.timetracking.service.Versioned;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * GETs answered with 304 Not Modified, before the body is read or serialized, when the client's
+ * If-None-Match already names the current data version. Responses carry that version as a strong ETag.
+ * <p>
+ * The version is read before the body, on the same server (see {@link ReplicaRoutingDataSource#sticky}),
+ * so the body is never older than its tag: a client can only be told "not modified" about data it has.
+ */
+final class ConditionalGet {
+
+    // cacheable by the client only, and always revalidated; this also keeps Spring Security's no-store off
+    private static final String REVALIDATE = CacheControl.noCache().cachePrivate().getHeaderValue();
+
+    private ConditionalGet() {}
+
+    static <T> ResponseEntity<T> ifNoneMatch(ServletWebRequest request, Supplier<String> version, Supplier<T> body) {
+        return conditionally(request, version, current -> new Versioned<>(current, body.get()));
+    }
+
+    /**
+     * For bodies that come with the version they were read at, which may be newer than the one checked;
+     * the response is then tagged with the body's own version.
+     */
+    static <T> ResponseEntity<T> ifNoneMatchVersioned(ServletWebRequest request, Supplier<String> version,
+                                                      Supplier<Versioned<T>> body) {
+        return conditionally(request, version, current -> body.get());
+    }
+
+    private static <T> ResponseEntity<T> conditionally(ServletWebRequest request, Supplier<String> version,
+                                                       Function<String, Versioned<T>> body) {
+        return ReplicaRoutingDataSource.sticky(() -> {
+            String current = version.get();
+            request.getResponse().setHeader(HttpHeaders.CACHE_CONTROL, REVALIDATE);
+            // sets the status and ETag; the handler returns no body
+            if (request.checkNotModified(current)) {
+                return null;
+            }
+            Versioned<T> read = body.apply(current);
+            if (!Objects.equals(read.version(), current)) {
+                request.getResponse().setHeader(HttpHeaders.ETAG, etag(read.version()));
+            }
+            return ResponseEntity.ok(read.value());
+        });
+    }
+
+    private static String etag(String version) {
+        return '"' + version + '"';
+    }
+}
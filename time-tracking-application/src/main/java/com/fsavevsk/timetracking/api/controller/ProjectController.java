@@ -7,6 +7,7 @@ import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
 
 import java.util.List;
 
@@ -18,9 +19,8 @@ public class ProjectController {
     private final ProjectService projectService;
 
     @GetMapping
-    public ResponseEntity<List<Project>> getAllProjects() {
-        List<Project> projects = projectService.getAllProjects();
-        return ResponseEntity.ok(projects);
+    public ResponseEntity<List<Project>> getAllProjects(ServletWebRequest request) {
+        return ConditionalGet.ifNoneMatch(request, projectService::projectsVersion, projectService::getAllProjects);
     }
 
     @PostMapping
@@ -30,9 +30,9 @@ public class ProjectController {
     }
 
     @GetMapping("/search")
-    public ResponseEntity<Project> getProjectByName(@RequestParam String projectName) {
-        Project project = projectService.findProjectByName(projectName);
-        return ResponseEntity.ok(project);
+    public ResponseEntity<Project> getProjectByName(@RequestParam String projectName, ServletWebRequest request) {
+        return ConditionalGet.ifNoneMatch(request, projectService::projectsVersion,
+                () -> projectService.findProjectByName(projectName));
     }
 
     @DeleteMapping("/{projectId}")
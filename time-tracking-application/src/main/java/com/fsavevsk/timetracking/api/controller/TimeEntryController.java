@@ -1,12 +1,18 @@
 package com.fsavevsk.timetracking.api.controller;
 
+import com.fsavevsk.timetracking.api.dto.CreateTimeEntriesBatchRequest;
 import com.fsavevsk.timetracking.api.dto.CreateTimeEntryRequest;
+import com.fsavevsk.timetracking.api.dto.TimeEntryChanges;
+import com.fsavevsk.timetracking.api.dto.TimeEntryPage;
 import com.fsavevsk.timetracking.api.dto.TimeEntryResponse;
+import com.fsavevsk.timetracking.api.dto.TimeEntryUploadResult;
+import com.fsavevsk.timetracking.api.dto.UploadTimeEntriesRequest;
 import com.fsavevsk.timetracking.service.TimeEntryService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
 
 import java.util.List;
 
@@ -18,8 +24,21 @@ public class TimeEntryController {
     private final TimeEntryService service;
 
     @GetMapping
-    public List<TimeEntryResponse> list() {
-        return service.listForCurrentUser();
+    public ResponseEntity<List<TimeEntryResponse>> list(ServletWebRequest request) {
+        return ConditionalGet.ifNoneMatch(request, service::entriesVersion, service::listForCurrentUser);
+    }
+
+    @GetMapping("/page")
+    public ResponseEntity<TimeEntryPage> page(
+            @RequestParam(name = "cursor", required = false) String cursor,
+            @RequestParam(name = "size", required = false) Integer size,
+            ServletWebRequest request) {
+        return ConditionalGet.ifNoneMatch(request, service::entriesVersion, () -> service.pageForCurrentUser(cursor, size));
+    }
+
+    @GetMapping("/changes")
+    public TimeEntryChanges changes(@RequestParam(name = "since", required = false) String since) {
+        return service.changesForCurrentUser(since);
     }
 
     @PostMapping
@@ -27,6 +46,16 @@ public class TimeEntryController {
         return ResponseEntity.ok(service.createForCurrentUser(req));
     }
 
+    @PostMapping("/batch")
+    public ResponseEntity<List<TimeEntryResponse>> createBatch(@Valid @RequestBody CreateTimeEntriesBatchRequest req) {
+        return ResponseEntity.ok(service.createBatchForCurrentUser(req.entries()));
+    }
+
+    @PostMapping("/upload")
+    public ResponseEntity<List<TimeEntryUploadResult>> upload(@Valid @RequestBody UploadTimeEntriesRequest req) {
+        return ResponseEntity.ok(service.uploadForCurrentUser(req.entries()));
+    }
+
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> delete(@PathVariable Long id) {
         service.deleteForCurrentUser(id);
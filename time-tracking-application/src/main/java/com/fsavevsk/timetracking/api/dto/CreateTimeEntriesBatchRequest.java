@@ -0,0 +1,12 @@
+package com.fsavevsk.timetracking.api.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+public record CreateTimeEntriesBatchRequest(
+        @NotEmpty @Size(max = 5000) List<@Valid @NotNull CreateTimeEntryRequest> entries
+) {}
@@ -0,0 +1,16 @@
+package com.fsavevsk.timetracking.api.dto;
+
+import java.util.List;
+
+/**
+ * Entries created or updated, and ids deleted, since the token a client sent. With {@code reset} set the
+ * client should replace its copy with {@code changed}: there was no token, or it predates a bulk change
+ * (partition retention) that did not leave tombstones, or the tombstones it needs have been pruned.
+ * An entry may be repeated by the next sync.
+ */
+public record TimeEntryChanges(
+        List<TimeEntryResponse> changed,
+        List<Long> deleted,
+        String nextToken,
+        boolean reset
+) {}
@@ -0,0 +1,8 @@
+package com.fsavevsk.timetracking.api.dto;
+
+import java.util.List;
+
+public record TimeEntryPage(
+        List<TimeEntryResponse> items,
+        String nextCursor
+) {}
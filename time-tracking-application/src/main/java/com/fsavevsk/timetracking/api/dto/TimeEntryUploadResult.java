@@ -0,0 +1,16 @@
+package com.fsavevsk.timetracking.api.dto;
+
+import java.util.UUID;
+
+/**
+ * What an upload did with one entry. {@code UNCHANGED} is a retry of what is already stored; {@code DELETED}
+ * means the entry was deleted after an earlier upload, and is not created again.
+ */
+public record TimeEntryUploadResult(
+        UUID clientId,
+        Long id,
+        Outcome outcome
+) {
+
+    public enum Outcome { CREATED, UPDATED, UNCHANGED, DELETED }
+}
@@ -0,0 +1,20 @@
+package com.fsavevsk.timetracking.api.dto;
+
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * One entry of an offline upload, named by a client-generated (preferably time-ordered, v7) UUID. Uploading
+ * the same id again overwrites the entry instead of creating another one.
+ */
+public record UploadTimeEntryRequest(
+        @NotNull UUID clientId,
+        @NotNull Long projectId,
+        @NotNull @Size(min = 1, max = 120) String title,
+        @NotNull LocalDateTime startTime,
+        @NotNull LocalDateTime endTime,
+        @Size(max = 500) String description
+) {}
@@ -0,0 +1,24 @@
+package com.fsavevsk.timetracking.api.dto.admin;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+
+/**
+ * Paged projects report request: the report of {@code AdminReportsService#projectsSummary} for {@code zone}
+ * and the days {@code [startDate, endDate]}, sorted by {@code sort}, restricted to names containing
+ * {@code name} (ignoring case; {@code null} means all). A page either continues after {@code cursor} or
+ * is page number {@code page} (from 0) of {@code size} rows; with neither it is the first page.
+ * {@code includeTotal} asks for the number of matching projects.
+ */
+public record ProjectsReportFilter(
+        ZoneId zone,
+        LocalDate startDate,
+        LocalDate endDate,
+        ProjectsReportSort sort,
+        boolean descending,
+        String name,
+        String cursor,
+        Integer page,
+        Integer size,
+        boolean includeTotal
+) {}
@@ -0,0 +1,13 @@
+package com.fsavevsk.timetracking.api.dto.admin;
+
+import java.util.List;
+
+/**
+ * One page of the projects report. {@code total} is the number of matching projects, {@code null} unless
+ * asked for; {@code nextCursor} continues after the last item, {@code null} on the last page.
+ */
+public record ProjectsReportPage(
+        List<ProjectsReportResponse> items,
+        Long total,
+        String nextCursor
+) {}
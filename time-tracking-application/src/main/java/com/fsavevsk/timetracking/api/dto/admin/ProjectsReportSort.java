@@ -0,0 +1,34 @@
+package com.fsavevsk.timetracking.api.dto.admin;
+
+import java.util.Arrays;
+
+/**
+ * Columns of the projects report it can be sorted by, named as in {@link ProjectsReportResponse}. Hours sort
+ * by the exact minutes behind them, not the rounded value.
+ */
+public enum ProjectsReportSort {
+    PROJECT_ID("projectId"),
+    PROJECT_NAME("projectName"),
+    HOURS_WEEK("hoursWeek"),
+    HOURS_MONTH("hoursMonth"),
+    ENTRIES_WEEK("entriesWeek"),
+    LAST_ENTRY_AT("lastEntryAt");
+
+    private final String column;
+
+    ProjectsReportSort(String column) {
+        this.column = column;
+    }
+
+    public String column() {
+        return column;
+    }
+
+    /** Throws {@link IllegalArgumentException} (mapped to 400) for a name that is not a report column. */
+    public static ProjectsReportSort ofColumn(String column) {
+        return Arrays.stream(values())
+                .filter(s -> s.column.equals(column))
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException("Invalid sort column: " + column));
+    }
+}
@@ -0,0 +1,3 @@
+package com.fsavevsk.timetracking.api.dto.admin;
+
+public record RollupRebuildResponse(int buckets) {}
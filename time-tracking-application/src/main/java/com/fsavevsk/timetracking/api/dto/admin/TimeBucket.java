@@ -0,0 +1,50 @@
+package com.fsavevsk.timetracking.api.dto.admin;
+
+import java.time.DayOfWeek;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalAdjusters;
+import java.util.Locale;
+
+/**
+ * Bucket sizes of the time-series report. Buckets are calendar units of the wall-clock times entries are
+ * stored in, aligned like {@code DateRanges} (weeks start on Monday), so a day is always a whole calendar
+ * day, however many hours a DST transition gives it.
+ */
+public enum TimeBucket {
+    HOUR(ChronoUnit.HOURS),
+    DAY(ChronoUnit.DAYS),
+    WEEK(ChronoUnit.WEEKS),
+    MONTH(ChronoUnit.MONTHS);
+
+    private final ChronoUnit unit;
+
+    TimeBucket(ChronoUnit unit) {
+        this.unit = unit;
+    }
+
+    /** The matching {@code date_trunc} field. */
+    public String field() {
+        return name().toLowerCase(Locale.ROOT);
+    }
+
+    /** Start of the bucket {@code time} falls in. */
+    public LocalDateTime truncate(LocalDateTime time) {
+        return switch (this) {
+            case HOUR -> time.truncatedTo(ChronoUnit.HOURS);
+            case DAY -> time.truncatedTo(ChronoUnit.DAYS);
+            case WEEK -> time.toLocalDate().with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY)).atStartOfDay();
+            case MONTH -> time.toLocalDate().withDayOfMonth(1).atStartOfDay();
+        };
+    }
+
+    public LocalDateTime next(LocalDateTime bucketStart) {
+        return bucketStart.plus(1, unit);
+    }
+
+    /** Number of buckets overlapping {@code [from, to)}. */
+    public long count(LocalDateTime from, LocalDateTime to) {
+        if (!to.isAfter(from)) return 0;
+        return unit.between(truncate(from), truncate(to.minusNanos(1))) + 1;
+    }
+}
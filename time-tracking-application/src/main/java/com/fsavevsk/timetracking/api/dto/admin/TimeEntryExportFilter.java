@@ -0,0 +1,13 @@
+package com.fsavevsk.timetracking.api.dto.admin;
+
+import java.time.LocalDateTime;
+
+/**
+ * Optional export filters; {@code null} means "no restriction". The window is [from, to).
+ */
+public record TimeEntryExportFilter(
+        LocalDateTime from,
+        LocalDateTime to,
+        Long projectId,
+        String userId
+) {}
@@ -0,0 +1,15 @@
+package com.fsavevsk.timetracking.api.dto.admin;
+
+import java.time.LocalDate;
+
+/**
+ * Time-series report request: minutes per {@code bucket} over the days {@code [startDate, endDate]}, optionally
+ * restricted to one project and/or one user ({@code null} means "no restriction").
+ */
+public record TimeSeriesFilter(
+        TimeBucket bucket,
+        LocalDate startDate,
+        LocalDate endDate,
+        Long projectId,
+        String userId
+) {}
@@ -0,0 +1,18 @@
+package com.fsavevsk.timetracking.api.dto.admin;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Minutes per bucket, one point for every bucket overlapping the range, empty ones included. The first and
+ * last week or month bucket may extend past the range; only minutes inside it are counted.
+ */
+public record TimeSeriesReportResponse(
+        TimeBucket bucket,
+        LocalDate startDate,
+        LocalDate endDate,
+        List<Point> points
+) {
+    public record Point(LocalDateTime start, long minutes) {}
+}
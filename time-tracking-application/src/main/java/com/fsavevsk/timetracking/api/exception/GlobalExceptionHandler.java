@@ -2,15 +2,20 @@ package com.fsavevsk.timetracking.api.exception;
 
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.ConstraintViolationException;
+import org.springframework.core.NestedRuntimeException;
+import org.springframework.dao.DataAccessException;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.converter.HttpMessageNotReadableException;
 import org.springframework.security.access.AccessDeniedException;
+import org.springframework.transaction.TransactionException;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
 
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
 import java.util.stream.Collectors;
 
 @RestControllerAdvice
@@ -22,6 +27,35 @@ public class GlobalExceptionHandler {
         return ResponseEntity.status(HttpStatus.NOT_FOUND).body(body);
     }
 
+    @ExceptionHandler(ServiceUnavailableException.class)
+    public ResponseEntity<ApiError> handleServiceUnavailable(ServiceUnavailableException ex, HttpServletRequest req) {
+        var body = ApiError.of(503, "Service Unavailable", ex.getMessage(), req.getRequestURI());
+        var response = ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE);
+        if (ex.getRetryAfter() != null) {
+            response.header(HttpHeaders.RETRY_AFTER, retryAfterSeconds(ex.getRetryAfter()));
+        }
+        return response.body(body);
+    }
+
+    @ExceptionHandler(TooManyRequestsException.class)
+    public ResponseEntity<ApiError> handleTooManyRequests(TooManyRequestsException ex, HttpServletRequest req) {
+        var body = ApiError.of(429, "Too Many Requests", ex.getMessage(), req.getRequestURI());
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, retryAfterSeconds(ex.getRetryAfter()))
+                .body(body);
+    }
+
+    // a bulkhead pool that stays exhausted for its connection timeout fails the request instead of queueing it
+    @ExceptionHandler({DataAccessException.class, TransactionException.class})
+    public ResponseEntity<ApiError> handleDataAccess(NestedRuntimeException ex, HttpServletRequest req) {
+        if (ex.contains(SQLTransientConnectionException.class)) {
+            var body = ApiError.of(503, "Service Unavailable", "No database connection available, try again later",
+                    req.getRequestURI());
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(body);
+        }
+        return handleGeneric(ex, req);
+    }
+
     @ExceptionHandler(IllegalArgumentException.class)
     public ResponseEntity<ApiError> handleIllegalArgument(IllegalArgumentException ex, HttpServletRequest req) {
         var body = ApiError.of(400, "Bad Request", ex.getMessage(), req.getRequestURI());
@@ -65,4 +99,9 @@ public class GlobalExceptionHandler {
                 .headers(new HttpHeaders())
                 .body(body);
     }
+
+    // whole seconds, rounded up so clients never retry early
+    private static String retryAfterSeconds(Duration retryAfter) {
+        return Long.toString(Math.max(1, (retryAfter.toMillis() + 999) / 1000));
+    }
 }
@@ -0,0 +1,17 @@
+package com.fsavevsk.timetracking.api.exception;
+
+import java.time.Duration;
+
+public class ServiceUnavailableException extends RuntimeException {
+    private final Duration retryAfter;
+
+    public ServiceUnavailableException(String message) { this(message, null); }
+
+    public ServiceUnavailableException(String message, Duration retryAfter) {
+        super(message);
+        this.retryAfter = retryAfter;
+    }
+
+    /** Suggested client back-off, sent as {@code Retry-After}; null when there is no useful estimate. */
+    public Duration getRetryAfter() { return retryAfter; }
+}
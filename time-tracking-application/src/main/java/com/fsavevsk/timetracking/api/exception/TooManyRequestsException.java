@@ -0,0 +1,15 @@
+package com.fsavevsk.timetracking.api.exception;
+
+import java.time.Duration;
+
+public class TooManyRequestsException extends RuntimeException {
+    private final Duration retryAfter;
+
+    public TooManyRequestsException(String message, Duration retryAfter) {
+        super(message);
+        this.retryAfter = retryAfter;
+    }
+
+    /** Time until the caller may try again, sent as {@code Retry-After}. */
+    public Duration getRetryAfter() { return retryAfter; }
+}
@@ -0,0 +1,50 @@
+package com.fsavevsk.timetracking.api.interceptor;
+
+import com.fsavevsk.timetracking.api.exception.ServiceUnavailableException;
+import com.fsavevsk.timetracking.util.AdaptiveLimiter;
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+
+import java.time.Duration;
+
+/**
+ * Admits requests of one endpoint group through its {@link AdaptiveLimiter}; shed requests fail with
+ * {@link ServiceUnavailableException} (503 + Retry-After) before reaching the controller. The permit is
+ * held across async dispatches and returned when the request completes; a 503 response counts as a drop.
+ */
+public class AdmissionControlInterceptor implements AsyncHandlerInterceptor {
+
+    private final AdaptiveLimiter limiter;
+    private final Duration retryAfter;
+    private final String permitAttribute;
+
+    public AdmissionControlInterceptor(String group, AdaptiveLimiter limiter, Duration retryAfter) {
+        this.limiter = limiter;
+        this.retryAfter = retryAfter;
+        this.permitAttribute = AdmissionControlInterceptor.class.getName() + "." + group;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (request.getDispatcherType() == DispatcherType.ASYNC) {
+            return true; // admitted on the initial dispatch
+        }
+        AdaptiveLimiter.Permit permit = limiter.tryAcquire();
+        if (permit == null) {
+            throw new ServiceUnavailableException("Server is busy, try again later", retryAfter);
+        }
+        request.setAttribute(permitAttribute, permit);
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        if (request.getAttribute(permitAttribute) instanceof AdaptiveLimiter.Permit permit) {
+            request.removeAttribute(permitAttribute);
+            limiter.release(permit, response.getStatus() == HttpStatus.SERVICE_UNAVAILABLE.value());
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.fsavevsk.timetracking.api.interceptor;
+
+import com.fsavevsk.timetracking.api.exception.TooManyRequestsException;
+import com.fsavevsk.timetracking.security.AuthenticatedUser;
+import com.fsavevsk.timetracking.security.CurrentUserService;
+import com.fsavevsk.timetracking.util.TokenBucketRateLimiter;
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Takes one token from the current user's bucket per request and reports the bucket in the
+ * {@code RateLimit-Limit}, {@code RateLimit-Remaining} and {@code RateLimit-Reset} headers (reset in
+ * seconds until the bucket is full). An empty bucket fails the request with
+ * {@link TooManyRequestsException} (429 + Retry-After).
+ */
+public class RateLimitInterceptor implements HandlerInterceptor {
+
+    public static final String LIMIT_HEADER = "RateLimit-Limit";
+    public static final String REMAINING_HEADER = "RateLimit-Remaining";
+    public static final String RESET_HEADER = "RateLimit-Reset";
+
+    private final TokenBucketRateLimiter limiter;
+    private final CurrentUserService currentUserService;
+    private final TokenBucketRateLimiter.Limit defaults;
+    private final Map<String, TokenBucketRateLimiter.Limit> roleLimits;
+
+    public RateLimitInterceptor(TokenBucketRateLimiter limiter, CurrentUserService currentUserService,
+                                TokenBucketRateLimiter.Limit defaults,
+                                Map<String, TokenBucketRateLimiter.Limit> roleLimits) {
+        this.limiter = limiter;
+        this.currentUserService = currentUserService;
+        this.defaults = defaults;
+        this.roleLimits = Map.copyOf(roleLimits);
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (request.getDispatcherType() != DispatcherType.REQUEST) {
+            return true; // counted on the initial dispatch
+        }
+        AuthenticatedUser user;
+        try {
+            user = currentUserService.requireUser();
+        } catch (IllegalStateException e) {
+            return true; // not a JWT caller; security decides what happens to it
+        }
+        TokenBucketRateLimiter.Decision decision = limiter.tryConsume(user.id(), limitFor(user));
+        response.setHeader(LIMIT_HEADER, Integer.toString(decision.limit()));
+        response.setHeader(REMAINING_HEADER, Integer.toString(decision.remaining()));
+        response.setHeader(RESET_HEADER, Long.toString(ceilSeconds(decision.resetNanos())));
+        if (!decision.allowed()) {
+            throw new TooManyRequestsException("Rate limit exceeded, slow down",
+                    Duration.ofNanos(decision.retryAfterNanos()));
+        }
+        return true;
+    }
+
+    /** The configured role with the highest sustained rate, or the defaults when no role is configured. */
+    TokenBucketRateLimiter.Limit limitFor(AuthenticatedUser user) {
+        TokenBucketRateLimiter.Limit best = null;
+        for (String role : user.roles()) {
+            TokenBucketRateLimiter.Limit limit = roleLimits.get(role);
+            if (limit != null && (best == null || limit.refillInterval().compareTo(best.refillInterval()) < 0
+                    || limit.refillInterval().equals(best.refillInterval()) && limit.capacity() > best.capacity())) {
+                best = limit;
+            }
+        }
+        return best != null ? best : defaults;
+    }
+
+    private static long ceilSeconds(long nanos) {
+        return (nanos + 999_999_999L) / 1_000_000_000L;
+    }
+}
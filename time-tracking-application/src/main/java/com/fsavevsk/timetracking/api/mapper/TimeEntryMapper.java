@@ -1,9 +1,11 @@
 package com.fsavevsk.timetracking.api.mapper;
 
 import com.fsavevsk.timetracking.api.dto.CreateTimeEntryRequest;
+import com.fsavevsk.timetracking.api.dto.Project;
 import com.fsavevsk.timetracking.api.dto.TimeEntryResponse;
 import com.fsavevsk.timetracking.persistence.entity.ProjectEntity;
 import com.fsavevsk.timetracking.persistence.entity.TimeEntryEntity;
+import com.fsavevsk.timetracking.persistence.projection.TimeEntryView;
 import org.mapstruct.*;
 
 import java.time.Duration;
@@ -15,6 +17,15 @@ public interface TimeEntryMapper {
     @Mapping(target = "projectName", source = "project.name")
     TimeEntryResponse toResponse(TimeEntryEntity entity);
 
+    TimeEntryResponse toResponse(TimeEntryView view);
+
+    /** For entries whose project is an unloaded reference: the name comes from the catalog instead. */
+    @Mapping(target = "id", source = "entity.id")
+    @Mapping(target = "description", source = "entity.description")
+    @Mapping(target = "projectId", source = "project.id")
+    @Mapping(target = "projectName", source = "project.name")
+    TimeEntryResponse toResponse(TimeEntryEntity entity, Project project);
+
     @Mapping(target = "id", ignore = true)
     @Mapping(target = "project", ignore = true)
     @Mapping(target = "userId", ignore = true)
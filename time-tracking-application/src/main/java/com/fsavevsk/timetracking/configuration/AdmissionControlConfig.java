@@ -0,0 +1,98 @@
+package com.fsavevsk.timetracking.configuration;
+
+import com.fsavevsk.timetracking.api.interceptor.AdmissionControlInterceptor;
+import com.fsavevsk.timetracking.util.AdaptiveLimiter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.DoubleSupplier;
+
+/**
+ * One {@link AdaptiveLimiter} per configured endpoint group, in front of the controllers. Publishes
+ * {@code admission.limit}, {@code admission.inflight}, {@code admission.queued} and
+ * {@code admission.rejected} (tagged by group, and by reason for rejections).
+ */
+@Configuration
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "time-tracking.admission", name = "enabled", havingValue = "true", matchIfMissing = true)
+@EnableConfigurationProperties(AdmissionControlProperties.class)
+public class AdmissionControlConfig implements WebMvcConfigurer {
+
+    private final AdmissionControlProperties properties;
+    private final ObjectProvider<MeterRegistry> meterRegistry;
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        MeterRegistry meters = meterRegistry.getIfAvailable();
+        properties.groups().forEach((name, group) -> {
+            if (group.paths().isEmpty()) return;
+            AdaptiveLimiter limiter = limiter(name, group, meters);
+            registry.addInterceptor(new AdmissionControlInterceptor(name, limiter, group.retryAfter()))
+                    .addPathPatterns(group.paths());
+        });
+    }
+
+    private static AdaptiveLimiter limiter(String name, AdmissionControlProperties.Group group, MeterRegistry meters) {
+        Map<AdaptiveLimiter.Rejection, Counter> rejected = new EnumMap<>(AdaptiveLimiter.Rejection.class);
+        if (meters != null) {
+            for (AdaptiveLimiter.Rejection reason : AdaptiveLimiter.Rejection.values()) {
+                rejected.put(reason, Counter.builder("admission.rejected")
+                        .description("Requests shed by admission control")
+                        .tag("group", name)
+                        .tag("reason", reason.name().toLowerCase(Locale.ROOT))
+                        .register(meters));
+            }
+        }
+        var limiter = new AdaptiveLimiter(group.initialLimit(), group.minLimit(), group.maxLimit(),
+                group.queueSize(), group.maxWait(), poolPending(group.pool(), meters), System::nanoTime,
+                reason -> {
+                    Counter counter = rejected.get(reason);
+                    if (counter != null) counter.increment();
+                });
+        if (meters != null) {
+            Gauge.builder("admission.limit", limiter, AdaptiveLimiter::currentLimit)
+                    .description("Current concurrency limit").tag("group", name).register(meters);
+            Gauge.builder("admission.inflight", limiter, AdaptiveLimiter::inFlight)
+                    .description("Admitted requests in progress").tag("group", name).register(meters);
+            Gauge.builder("admission.queued", limiter, AdaptiveLimiter::queued)
+                    .description("Requests waiting for admission").tag("group", name).register(meters);
+        }
+        return limiter;
+    }
+
+    /**
+     * Callers waiting on the pool's connections, read from Hikari's gauge once the pool has started. Pools start
+     * lazily, so until the named pool has a gauge the primary's stands in, and the named one is looked up again
+     * on the next call.
+     */
+    private static DoubleSupplier poolPending(String pool, MeterRegistry meters) {
+        if (meters == null) return () -> 0;
+        return new DoubleSupplier() {
+            private Gauge gauge;
+            private Gauge fallback;
+
+            @Override
+            public double getAsDouble() {
+                if (gauge == null) {
+                    gauge = meters.find("hikaricp.connections.pending").tag("pool", pool).gauge();
+                }
+                if (gauge != null) return gauge.value();
+                if (fallback == null) {
+                    fallback = meters.find("hikaricp.connections.pending").tag("pool", "primary").gauge();
+                }
+                return fallback != null ? fallback.value() : 0;
+            }
+        };
+    }
+}
@@ -0,0 +1,32 @@
+package com.fsavevsk.timetracking.configuration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Adaptive concurrency limits per endpoint group. Requests matching a group's {@code paths} (Ant patterns)
+ * share one limit between {@code minLimit} and {@code maxLimit}; over the limit they wait up to
+ * {@code maxWait} in a queue of {@code queueSize}, then get 503 with {@code retryAfter}. {@code pool} names
+ * the Hikari pool whose waiting callers signal saturation (falls back to the primary pool). Paths in no
+ * group, such as streamed exports, are not limited.
+ */
+@ConfigurationProperties(prefix = "time-tracking.admission")
+public record AdmissionControlProperties(
+        @DefaultValue("true") boolean enabled,
+        @DefaultValue Map<String, Group> groups
+) {
+    public record Group(
+            @DefaultValue List<String> paths,
+            @DefaultValue("primary") String pool,
+            @DefaultValue("20") int initialLimit,
+            @DefaultValue("2") int minLimit,
+            @DefaultValue("200") int maxLimit,
+            @DefaultValue("100") int queueSize,
+            @DefaultValue("1s") Duration maxWait,
+            @DefaultValue("1s") Duration retryAfter
+    ) {}
+}
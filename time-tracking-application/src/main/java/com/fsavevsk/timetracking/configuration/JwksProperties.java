@@ -0,0 +1,37 @@
+package com.fsavevsk.timetracking.configuration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.net.URI;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Offline JWT validation. Tokens must be issued by {@code issuer} and signed with one of
+ * {@code jwsAlgorithms} by a key from {@code jwkSetUri} (Keycloak's certs endpoint under the issuer when
+ * unset). The key set is refreshed in the background every {@code refreshInterval}, or sooner (at most once
+ * per {@code minRefreshInterval}) when a token names an unknown key, and persisted to {@code cacheFile}.
+ * Keys stay trusted for {@code gracePeriod} after a refresh was due but failed.
+ */
+@ConfigurationProperties(prefix = "time-tracking.security.jwks")
+public record JwksProperties(
+        @DefaultValue("false") boolean enabled,
+        String issuer,
+        URI jwkSetUri,
+        @DefaultValue("jwks.json") Path cacheFile,
+        @DefaultValue("RS256") List<String> jwsAlgorithms,
+        @DefaultValue("5m") Duration refreshInterval,
+        @DefaultValue("30s") Duration minRefreshInterval,
+        @DefaultValue("24h") Duration gracePeriod,
+        @DefaultValue("5s") Duration timeout
+) {
+    public URI resolvedJwkSetUri() {
+        if (jwkSetUri != null) return jwkSetUri;
+        if (issuer == null || issuer.isBlank()) {
+            throw new IllegalStateException("time-tracking.security.jwks needs an issuer or a jwk-set-uri");
+        }
+        return URI.create(issuer.replaceAll("/+$", "") + "/protocol/openid-connect/certs");
+    }
+}
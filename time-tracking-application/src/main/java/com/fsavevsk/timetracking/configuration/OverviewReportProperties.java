@@ -0,0 +1,21 @@
+package com.fsavevsk.timetracking.configuration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * How the overview report is computed. {@code SINGLE_STATEMENT} answers it in one round trip;
+ * {@code PARALLEL} runs the sub-queries concurrently on one shared snapshot, bounded by {@code deadline};
+ * {@code SEQUENTIAL} runs them one after another in a single transaction. {@code topProjects} is the
+ * number of projects listed in the report.
+ */
+@ConfigurationProperties(prefix = "time-tracking.reports.overview")
+public record OverviewReportProperties(
+        @DefaultValue("SINGLE_STATEMENT") Mode mode,
+        @DefaultValue("10s") Duration deadline,
+        @DefaultValue("10") int topProjects
+) {
+    public enum Mode { SINGLE_STATEMENT, PARALLEL, SEQUENTIAL }
+}
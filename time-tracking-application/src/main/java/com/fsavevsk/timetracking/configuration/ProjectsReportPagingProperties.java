@@ -0,0 +1,13 @@
+package com.fsavevsk.timetracking.configuration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Page sizes for the paged projects report.
+ */
+@ConfigurationProperties(prefix = "time-tracking.reports.projects.paging")
+public record ProjectsReportPagingProperties(
+        @DefaultValue("50") int defaultSize,
+        @DefaultValue("500") int maxSize
+) {}
@@ -0,0 +1,48 @@
+package com.fsavevsk.timetracking.configuration;
+
+import com.fsavevsk.timetracking.api.interceptor.RateLimitInterceptor;
+import com.fsavevsk.timetracking.security.CurrentUserService;
+import com.fsavevsk.timetracking.util.TokenBucketRateLimiter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Per-user rate limiting in front of the controllers. It runs before admission control, so a user over
+ * their rate never takes one of the shared concurrency slots.
+ */
+@Configuration
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "time-tracking.rate-limit", name = "enabled", havingValue = "true", matchIfMissing = true)
+@EnableConfigurationProperties(RateLimitProperties.class)
+public class RateLimitConfig implements WebMvcConfigurer {
+
+    private final RateLimitProperties properties;
+    private final ObjectProvider<CurrentUserService> currentUserService;
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        CurrentUserService users = currentUserService.getIfAvailable();
+        if (users == null || properties.paths().isEmpty()) {
+            return;
+        }
+        Map<String, TokenBucketRateLimiter.Limit> roleLimits = new HashMap<>();
+        properties.roles().forEach((role, limit) -> roleLimits.put(role, toLimit(limit)));
+        var limiter = new TokenBucketRateLimiter(properties.idleAfter(), System::nanoTime);
+        registry.addInterceptor(new RateLimitInterceptor(limiter, users, toLimit(properties.defaults()), roleLimits))
+                .addPathPatterns(properties.paths())
+                .order(Ordered.HIGHEST_PRECEDENCE);
+    }
+
+    private static TokenBucketRateLimiter.Limit toLimit(RateLimitProperties.Limit limit) {
+        return new TokenBucketRateLimiter.Limit(limit.capacity(), limit.refillInterval());
+    }
+}
@@ -0,0 +1,27 @@
+package com.fsavevsk.timetracking.configuration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Per-user token buckets on requests matching {@code paths} (Ant patterns), keyed on the JWT subject.
+ * {@code roles} overrides {@code defaults} for users holding a realm role; a user with several configured
+ * roles gets the one with the highest sustained rate. Buckets idle for {@code idleAfter} are evicted.
+ */
+@ConfigurationProperties(prefix = "time-tracking.rate-limit")
+public record RateLimitProperties(
+        @DefaultValue("true") boolean enabled,
+        @DefaultValue("/api/**") List<String> paths,
+        @DefaultValue("10m") Duration idleAfter,
+        @DefaultValue Limit defaults,
+        @DefaultValue Map<String, Limit> roles
+) {
+    public record Limit(
+            @DefaultValue("100") int capacity,
+            @DefaultValue("100ms") Duration refillInterval
+    ) {}
+}
@@ -0,0 +1,13 @@
+package com.fsavevsk.timetracking.configuration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * In-memory analytics store for the admin reports (see {@code TimeEntryAnalytics}). Off by default: it keeps
+ * every time entry in memory, about 16 bytes each.
+ */
+@ConfigurationProperties(prefix = "time-tracking.reports.analytics")
+public record ReportAnalyticsProperties(
+        @DefaultValue("false") boolean enabled
+) {}
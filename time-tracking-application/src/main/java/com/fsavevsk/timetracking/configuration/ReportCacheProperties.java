@@ -0,0 +1,19 @@
+package com.fsavevsk.timetracking.configuration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * In-process cache for the admin reports. Writes evict the affected windows right away; the TTL only
+ * bounds staleness for changes made outside the services (rollup rebuilds, manual SQL). Reports whose
+ * windows have all ended are kept for {@code closedTtl} instead, as only backdated edits still change them.
+ */
+@ConfigurationProperties(prefix = "time-tracking.reports.cache")
+public record ReportCacheProperties(
+        @DefaultValue("true") boolean enabled,
+        @DefaultValue("500") long maximumSize,
+        @DefaultValue("60s") Duration ttl,
+        @DefaultValue("10m") Duration closedTtl
+) {}
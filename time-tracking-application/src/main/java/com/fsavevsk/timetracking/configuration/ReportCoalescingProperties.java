@@ -0,0 +1,16 @@
+package com.fsavevsk.timetracking.configuration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Coalescing of identical concurrent report requests: callers that arrive while the same report is
+ * being computed wait up to {@code timeout} for that computation instead of starting their own.
+ */
+@ConfigurationProperties(prefix = "time-tracking.reports.coalescing")
+public record ReportCoalescingProperties(
+        @DefaultValue("true") boolean enabled,
+        @DefaultValue("30s") Duration timeout
+) {}
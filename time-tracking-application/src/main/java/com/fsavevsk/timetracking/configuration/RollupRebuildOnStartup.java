@@ -0,0 +1,24 @@
+package com.fsavevsk.timetracking.configuration;
+
+import com.fsavevsk.timetracking.service.TimeEntryRollupService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Optional repair step: rebuilds the report rollups once the application is up.
+ */
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "time-tracking.reports.rollups", name = "rebuild-on-startup", havingValue = "true")
+public class RollupRebuildOnStartup {
+
+    private final TimeEntryRollupService rollupService;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        rollupService.rebuild();
+    }
+}
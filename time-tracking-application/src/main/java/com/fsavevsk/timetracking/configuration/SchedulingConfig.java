@@ -0,0 +1,12 @@
+package com.fsavevsk.timetracking.configuration;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Turns on {@code @Scheduled} methods regardless of which optional maintenance jobs are enabled.
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
@@ -0,0 +1,13 @@
+package com.fsavevsk.timetracking.configuration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Page sizes for the cursor-based time entry listing.
+ */
+@ConfigurationProperties(prefix = "time-tracking.time-entries.paging")
+public record TimeEntryPagingProperties(
+        @DefaultValue("50") int defaultSize,
+        @DefaultValue("200") int maxSize
+) {}
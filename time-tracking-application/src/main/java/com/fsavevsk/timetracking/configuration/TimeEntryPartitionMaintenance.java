@@ -0,0 +1,31 @@
+package com.fsavevsk.timetracking.configuration;
+
+import com.fsavevsk.timetracking.service.TimeEntryPartitionService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+
+/**
+ * Keeps time_entries partitioned ahead of time: once at startup, then on the configured cron (scheduling is
+ * turned on by {@link SchedulingConfig}).
+ */
+@Configuration
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "time-tracking.time-entries.partitions", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class TimeEntryPartitionMaintenance {
+
+    private final TimeEntryPartitionService partitionService;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onStartup() {
+        partitionService.maintain();
+    }
+
+    @Scheduled(cron = "${time-tracking.time-entries.partitions.cron:0 15 3 * * *}")
+    public void onSchedule() {
+        partitionService.maintain();
+    }
+}
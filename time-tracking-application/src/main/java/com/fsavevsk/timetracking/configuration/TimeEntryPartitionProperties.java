@@ -0,0 +1,24 @@
+package com.fsavevsk.timetracking.configuration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Maintenance of the monthly time_entries partitions.
+ * <p>
+ * {@code retentionMonths} keeps the current month plus that many previous ones; older partitions are
+ * detached (kept as standalone tables) or dropped. Unset means keep everything. Report rollups are not
+ * touched, so retired months still show up in reports until the rollups are rebuilt.
+ */
+@ConfigurationProperties(prefix = "time-tracking.time-entries.partitions")
+public record TimeEntryPartitionProperties(
+        @DefaultValue("true") boolean enabled,
+        @DefaultValue("3") int monthsAhead,
+        Integer retentionMonths,
+        @DefaultValue("DETACH") RetentionAction retentionAction,
+        @DefaultValue("0 15 3 * * *") String cron
+) {
+
+    public enum RetentionAction { DETACH, DROP }
+
+}
@@ -0,0 +1,24 @@
+package com.fsavevsk.timetracking.configuration;
+
+import com.fsavevsk.timetracking.persistence.repository.TimeEntryRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Prunes the delete tombstones past retention on the configured cron.
+ */
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "time-tracking.time-entries.tombstones", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class TimeEntryTombstoneMaintenance {
+
+    private final TimeEntryRepository timeEntryRepository;
+    private final TimeEntryTombstoneProperties properties;
+
+    @Scheduled(cron = "${time-tracking.time-entries.tombstones.cron:0 45 3 * * *}")
+    public void onSchedule() {
+        timeEntryRepository.pruneTombstones(properties.retention());
+    }
+}
@@ -0,0 +1,17 @@
+package com.fsavevsk.timetracking.configuration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Pruning of the delete tombstones kept for delta sync. A change token last used more than
+ * {@code retention} ago may need tombstones that are gone; it gets a full resync instead.
+ */
+@ConfigurationProperties(prefix = "time-tracking.time-entries.tombstones")
+public record TimeEntryTombstoneProperties(
+        @DefaultValue("true") boolean enabled,
+        @DefaultValue("30d") Duration retention,
+        @DefaultValue("0 45 3 * * *") String cron
+) {}
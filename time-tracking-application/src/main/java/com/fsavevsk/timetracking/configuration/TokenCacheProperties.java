@@ -0,0 +1,14 @@
+package com.fsavevsk.timetracking.configuration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Optional cache of decoded bearer tokens in front of the JWT decoder: at most {@code maximumSize}
+ * entries, each kept until its token's {@code exp}.
+ */
+@ConfigurationProperties(prefix = "time-tracking.security.token-cache")
+public record TokenCacheProperties(
+        @DefaultValue("false") boolean enabled,
+        @DefaultValue("10000") long maximumSize
+) {}
@@ -1,5 +1,8 @@
 package com.fsavevsk.timetracking.security;
 
+import org.springframework.security.oauth2.jwt.Jwt;
+
+import java.util.List;
 import java.util.Set;
 
 public record AuthenticatedUser(
@@ -7,4 +10,46 @@ public record AuthenticatedUser(
         String username,
         String email,
         Set<String> roles
-) {}
\ No newline at end of file
+) {
+    public AuthenticatedUser {
+        roles = Set.copyOf(roles);
+    }
+
+    /** Reads the principal from a validated token's claims; fails if it has no {@code sub}. */
+    public static AuthenticatedUser fromJwt(Jwt jwt) {
+        String id = jwt.getSubject();
+        if (id == null || id.isBlank()) throw new IllegalStateException("Missing claim: sub");
+
+        String username = firstNonBlank(
+                claimOrNull(jwt, "preferred_username"),
+                claimOrNull(jwt, "username"),
+                id
+        );
+        String email = firstNonBlank(
+                claimOrNull(jwt, "email"),
+                claimOrNull(jwt, "upn")
+        );
+        return new AuthenticatedUser(id, username, email, realmRoles(jwt));
+    }
+
+    /** Roles listed under the {@code realm_access} claim. */
+    static Set<String> realmRoles(Jwt jwt) {
+        var realm = jwt.getClaimAsMap("realm_access");
+        if (realm == null) return Set.of();
+
+        Object roles = realm.get("roles");
+        if (roles instanceof List<?> list) {
+            return Set.copyOf(list.stream().map(String::valueOf).toList());
+        }
+        return Set.of();
+    }
+
+    private static String claimOrNull(Jwt jwt, String name) {
+        try { return jwt.getClaimAsString(name); } catch (Exception e) { return null; }
+    }
+
+    private static String firstNonBlank(String... vals) {
+        for (String v : vals) if (v != null && !v.isBlank()) return v;
+        return null;
+    }
+}
@@ -0,0 +1,25 @@
+package com.fsavevsk.timetracking.security;
+
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
+
+import java.util.Collection;
+
+/**
+ * JWT authentication whose principal has already been read from the claims, once, when the token was
+ * converted. Still a {@link JwtAuthenticationToken}, so code that only needs the raw token keeps working.
+ */
+public class AuthenticatedUserToken extends JwtAuthenticationToken {
+
+    private final AuthenticatedUser user;
+
+    public AuthenticatedUserToken(Jwt jwt, Collection<? extends GrantedAuthority> authorities, AuthenticatedUser user) {
+        super(jwt, authorities, user.id());
+        this.user = user;
+    }
+
+    public AuthenticatedUser getUser() {
+        return user;
+    }
+}
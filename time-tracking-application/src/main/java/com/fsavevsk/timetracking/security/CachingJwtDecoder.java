@@ -0,0 +1,70 @@
+package com.fsavevsk.timetracking.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtException;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HexFormat;
+
+/**
+ * Remembers tokens the delegate has already decoded and validated, so a client repeating the same bearer
+ * token skips signature verification. Entries are keyed by the token's SHA-256, not the token itself, and
+ * expire at the token's {@code exp}; tokens without one are never cached. Failed decodes are not cached.
+ */
+public class CachingJwtDecoder implements JwtDecoder {
+
+    private final JwtDecoder delegate;
+    private final Clock clock;
+    private final Cache<String, Jwt> tokens;
+
+    public CachingJwtDecoder(JwtDecoder delegate, long maximumSize, Clock clock) {
+        this.delegate = delegate;
+        this.clock = clock;
+        this.tokens = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfter(Expiry.creating((String key, Jwt jwt) -> untilExpiry(jwt)))
+                .recordStats()
+                .build();
+    }
+
+    @Override
+    public Jwt decode(String token) throws JwtException {
+        String key = sha256(token);
+        Jwt cached = tokens.getIfPresent(key);
+        if (cached != null && cached.getExpiresAt().isAfter(clock.instant())) {
+            return cached;
+        }
+        Jwt jwt = delegate.decode(token);
+        if (jwt.getExpiresAt() != null && jwt.getExpiresAt().isAfter(clock.instant())) {
+            tokens.put(key, jwt);
+        }
+        return jwt;
+    }
+
+    Cache<String, Jwt> cache() {
+        return tokens;
+    }
+
+    private Duration untilExpiry(Jwt jwt) {
+        Duration remaining = Duration.between(clock.instant(), jwt.getExpiresAt());
+        return remaining.isNegative() ? Duration.ZERO : remaining;
+    }
+
+    private static String sha256(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
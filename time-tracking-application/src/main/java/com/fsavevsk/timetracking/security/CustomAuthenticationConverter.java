@@ -2,7 +2,6 @@ package com.fsavevsk.timetracking.security;
 
 import java.util.ArrayList;
 import java.util.Collection;
-import java.util.List;
 
 import org.springframework.core.convert.converter.Converter;
 import org.springframework.lang.NonNull;
@@ -16,25 +15,20 @@ public class CustomAuthenticationConverter implements Converter<Jwt, AbstractAut
 
     @Override
     public AbstractAuthenticationToken convert(@NonNull Jwt jwt) {
-        Collection<GrantedAuthority> authorities = extractAuthorities(jwt);
-        return new JwtAuthenticationToken(jwt, authorities);
+        String subject = jwt.getSubject();
+        if (subject == null || subject.isBlank()) {
+            // no principal to prebuild; CurrentUserService rejects it if a service asks for the user
+            return new JwtAuthenticationToken(jwt, extractAuthorities(AuthenticatedUser.realmRoles(jwt)));
+        }
+        AuthenticatedUser user = AuthenticatedUser.fromJwt(jwt);
+        return new AuthenticatedUserToken(jwt, extractAuthorities(user.roles()), user);
     }
 
-    private Collection<GrantedAuthority> extractAuthorities(Jwt jwt) {
+    private Collection<GrantedAuthority> extractAuthorities(Collection<String> roles) {
         Collection<GrantedAuthority> grantedAuthorities = new ArrayList<>();
-        for (String role : getRoles(jwt)) {
+        for (String role : roles) {
             grantedAuthorities.add(new SimpleGrantedAuthority("ROLE_" + role));
         }
         return grantedAuthorities;
     }
-
-    private Collection<String> getRoles(Jwt jwt) {
-        var realmAccess = jwt.getClaimAsMap("realm_access");
-        if (realmAccess == null) return List.of();
-
-        Object rolesObj = realmAccess.get("roles");
-        if (!(rolesObj instanceof List<?> list)) return List.of();
-
-        return list.stream().map(String::valueOf).toList();
-    }
 }
@@ -0,0 +1,21 @@
+package com.fsavevsk.timetracking.security;
+
+import com.fsavevsk.timetracking.persistence.routing.WriterKeyResolver;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
+import org.springframework.stereotype.Component;
+
+/**
+ * Read-your-writes key for replica routing: the JWT subject of the current request, if any. Work outside
+ * a request (startup, scheduled maintenance) is not tracked.
+ */
+@Component
+public class JwtWriterKeyResolver implements WriterKeyResolver {
+
+    @Override
+    public String currentWriterKey() {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        return auth instanceof JwtAuthenticationToken jwtAuth ? jwtAuth.getToken().getSubject() : null;
+    }
+}
@@ -0,0 +1,190 @@
+package com.fsavevsk.timetracking.security;
+
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.JWKSelector;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.source.JWKSource;
+import com.nimbusds.jose.proc.SecurityContext;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.text.ParseException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Signing keys for offline JWT validation. Keys are served from memory and never fetched on the request
+ * path: a background thread pulls the issuer's JWKS every {@code refreshInterval} and writes it to
+ * {@code cacheFile}, which is read back on startup so the app can validate tokens before (or without)
+ * reaching the issuer.
+ * <p>
+ * A token signed with an unknown key id fails, and asks the background thread for an early refresh (at
+ * most once per {@code minRefreshInterval}), which is how rotated keys are picked up. If refreshes keep
+ * failing, the keys are trusted for {@code gracePeriod} past the refresh that was due; after that every
+ * token is rejected until the issuer answers again.
+ * <p>
+ * Publishes {@code security.jwks.keys}, {@code security.jwks.age} (seconds since the keys were fetched)
+ * and {@code security.jwks.refresh} (tagged by outcome).
+ */
+public class LocalJwkSetCache implements JWKSource<SecurityContext>, AutoCloseable {
+
+    private record Snapshot(JWKSet keys, Instant fetchedAt) {}
+
+    private final URI jwkSetUri;
+    private final Path cacheFile;
+    private final Duration refreshInterval;
+    private final Duration minRefreshInterval;
+    private final Duration gracePeriod;
+    private final Duration timeout;
+    private final Clock clock;
+    private final HttpClient http;
+    private final ScheduledExecutorService scheduler;
+    private final AtomicBoolean refreshQueued = new AtomicBoolean();
+    private final Counter refreshed;
+    private final Counter failed;
+    private volatile Snapshot snapshot;
+    private volatile Instant lastAttempt = Instant.MIN;
+
+    public LocalJwkSetCache(URI jwkSetUri, Path cacheFile, Duration refreshInterval, Duration minRefreshInterval,
+                            Duration gracePeriod, Duration timeout, Clock clock, MeterRegistry meterRegistry) {
+        this.jwkSetUri = jwkSetUri;
+        this.cacheFile = cacheFile;
+        this.refreshInterval = refreshInterval;
+        this.minRefreshInterval = minRefreshInterval;
+        this.gracePeriod = gracePeriod;
+        this.timeout = timeout;
+        this.clock = clock;
+        this.http = HttpClient.newBuilder().connectTimeout(timeout).build();
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform()
+                .name("jwks-refresh").daemon(true).factory());
+        this.refreshed = Counter.builder("security.jwks.refresh").tag("outcome", "success")
+                .description("Background JWKS refreshes").register(meterRegistry);
+        this.failed = Counter.builder("security.jwks.refresh").tag("outcome", "failure")
+                .description("Background JWKS refreshes").register(meterRegistry);
+        Gauge.builder("security.jwks.keys", this, cache -> cache.snapshot != null ? cache.snapshot.keys().size() : 0)
+                .description("Signing keys available for validation").register(meterRegistry);
+        Gauge.builder("security.jwks.age", this, LocalJwkSetCache::ageSeconds)
+                .description("Seconds since the signing keys were fetched").baseUnit("seconds").register(meterRegistry);
+    }
+
+    /** Loads the keys persisted by an earlier run, then schedules background refreshes. */
+    public void start() {
+        loadCacheFile();
+        Snapshot current = snapshot;
+        long firstDelay = current == null ? 0
+                : Math.max(0, Duration.between(clock.instant(), current.fetchedAt().plus(refreshInterval)).toMillis());
+        scheduler.scheduleWithFixedDelay(this::refresh, firstDelay, refreshInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public List<JWK> get(JWKSelector selector, SecurityContext context) {
+        Snapshot current = snapshot;
+        if (current == null) {
+            requestRefresh();
+            return List.of();
+        }
+        if (clock.instant().isAfter(current.fetchedAt().plus(refreshInterval).plus(gracePeriod))) {
+            requestRefresh();
+            return List.of(); // too stale to trust
+        }
+        List<JWK> keys = selector.select(current.keys());
+        if (keys.isEmpty()) {
+            requestRefresh(); // most likely a key the issuer rotated in since the last refresh
+        }
+        return keys;
+    }
+
+    /**
+     * Fetches the issuer's JWKS and, if it parses, persists and serves it; normally driven by the scheduler.
+     * Returns whether the keys were replaced.
+     */
+    public boolean refresh() {
+        lastAttempt = clock.instant();
+        refreshQueued.set(false);
+        try {
+            var request = HttpRequest.newBuilder(jwkSetUri).timeout(timeout)
+                    .header("Accept", "application/json").GET().build();
+            HttpResponse<String> response = http.send(request, HttpResponse.BodyHandlers.ofString());
+            if (response.statusCode() != 200) {
+                throw new IOException("JWKS endpoint answered " + response.statusCode());
+            }
+            JWKSet keys = JWKSet.parse(response.body()).toPublicJWKSet();
+            if (keys.isEmpty()) {
+                throw new IOException("JWKS endpoint returned no keys");
+            }
+            snapshot = new Snapshot(keys, clock.instant());
+            refreshed.increment();
+            persist(keys);
+            return true;
+        } catch (IOException | ParseException | RuntimeException e) {
+            failed.increment();
+            return false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            failed.increment();
+            return false;
+        }
+    }
+
+    @Override
+    public void close() {
+        scheduler.shutdownNow();
+    }
+
+    private void requestRefresh() {
+        if (clock.instant().isBefore(lastAttempt.plus(minRefreshInterval))) return;
+        if (refreshQueued.compareAndSet(false, true)) {
+            scheduler.execute(this::refresh);
+        }
+    }
+
+    private void loadCacheFile() {
+        if (!Files.isRegularFile(cacheFile)) return;
+        try {
+            JWKSet keys = JWKSet.parse(Files.readString(cacheFile, StandardCharsets.UTF_8));
+            snapshot = new Snapshot(keys, Files.getLastModifiedTime(cacheFile).toInstant());
+        } catch (IOException | ParseException e) {
+            // unreadable or corrupt: behave as if there were no file and fetch fresh keys
+        }
+    }
+
+    /** Best effort: an unwritable file only costs the next startup its head start. */
+    private void persist(JWKSet keys) {
+        try {
+            Path dir = cacheFile.toAbsolutePath().getParent();
+            Files.createDirectories(dir);
+            Path tmp = Files.createTempFile(dir, cacheFile.getFileName().toString(), ".tmp");
+            try {
+                Files.writeString(tmp, keys.toString(true), StandardCharsets.UTF_8);
+                Files.setLastModifiedTime(tmp, FileTime.from(clock.instant()));
+                Files.move(tmp, cacheFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                Files.deleteIfExists(tmp);
+            }
+        } catch (IOException e) {
+            // keep serving the fresh keys from memory
+        }
+    }
+
+    private double ageSeconds() {
+        Snapshot current = snapshot;
+        return current != null ? Duration.between(current.fetchedAt(), clock.instant()).toSeconds() : Double.NaN;
+    }
+}
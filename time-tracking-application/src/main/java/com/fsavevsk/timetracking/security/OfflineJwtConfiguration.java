@@ -0,0 +1,61 @@
+package com.fsavevsk.timetracking.security;
+
+import com.fsavevsk.timetracking.configuration.JwksProperties;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.jwk.source.JWKSource;
+import com.nimbusds.jose.proc.JWSVerificationKeySelector;
+import com.nimbusds.jose.proc.SecurityContext;
+import com.nimbusds.jwt.proc.DefaultJWTProcessor;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.security.oauth2.core.OAuth2TokenValidator;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtValidators;
+import org.springframework.security.oauth2.jwt.NimbusJwtDecoder;
+
+import java.time.Clock;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Replaces the issuer-discovered JWT decoder with one that validates against {@link LocalJwkSetCache}, so
+ * neither startup nor any request waits on the issuer.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "time-tracking.security.jwks", name = "enabled", havingValue = "true")
+@EnableConfigurationProperties(JwksProperties.class)
+public class OfflineJwtConfiguration {
+
+    @Bean(initMethod = "start", destroyMethod = "close")
+    public LocalJwkSetCache localJwkSetCache(JwksProperties properties, Clock clock, MeterRegistry meterRegistry) {
+        return new LocalJwkSetCache(properties.resolvedJwkSetUri(), properties.cacheFile(),
+                properties.refreshInterval(), properties.minRefreshInterval(), properties.gracePeriod(),
+                properties.timeout(), clock, meterRegistry);
+    }
+
+    @Bean
+    public JwtDecoder jwtDecoder(LocalJwkSetCache keys, JwksProperties properties) {
+        return offlineDecoder(keys, properties.issuer(), properties.jwsAlgorithms());
+    }
+
+    /** Signature checks against {@code keys}; timestamps, and the issuer when given, checked locally. */
+    public static JwtDecoder offlineDecoder(JWKSource<SecurityContext> keys, String issuer, List<String> algorithms) {
+        Set<JWSAlgorithm> accepted = algorithms.stream().map(JWSAlgorithm::parse).collect(Collectors.toSet());
+        var processor = new DefaultJWTProcessor<SecurityContext>();
+        processor.setJWSKeySelector(new JWSVerificationKeySelector<>(accepted, keys));
+        // claims are checked by the Spring validators below
+        processor.setJWTClaimsSetVerifier((claims, context) -> {});
+
+        var decoder = new NimbusJwtDecoder(processor);
+        OAuth2TokenValidator<Jwt> validator = issuer == null || issuer.isBlank()
+                ? JwtValidators.createDefault()
+                : JwtValidators.createDefaultWithIssuer(issuer);
+        decoder.setJwtValidator(validator);
+        return decoder;
+    }
+}
@@ -1,34 +1,65 @@
 package com.fsavevsk.timetracking.security;
 
+import com.fsavevsk.timetracking.configuration.TokenCacheProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.actuate.autoconfigure.security.servlet.EndpointRequest;
+import org.springframework.boot.actuate.metrics.MetricsEndpoint;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.HttpStatus;
 import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.HttpStatusEntryPoint;
 
+import java.time.Clock;
+
 import static org.springframework.security.config.Customizer.withDefaults;
 import static org.springframework.security.config.http.SessionCreationPolicy.STATELESS;
 
 @Configuration
 @EnableMethodSecurity(securedEnabled = true)
+@EnableConfigurationProperties(TokenCacheProperties.class)
 public class WebSecurityConfiguration {
 
     @Bean
-    public SecurityFilterChain securityFilterChain(HttpSecurity httpSecurity) throws Exception {
+    public SecurityFilterChain securityFilterChain(HttpSecurity httpSecurity, TokenCacheProperties tokenCache,
+                                                   ObjectProvider<JwtDecoder> jwtDecoder,
+                                                   ObjectProvider<MeterRegistry> meterRegistry,
+                                                   Clock clock) throws Exception {
         httpSecurity
                 .authorizeHttpRequests(auth -> auth
                         .requestMatchers("/api/**").authenticated()
+                        // cache hit ratios, pool state and request rates are operational detail
+                        .requestMatchers(EndpointRequest.to(MetricsEndpoint.class)).hasRole("admin")
                         .anyRequest().permitAll()
                 )
                 .sessionManagement(sm -> sm.sessionCreationPolicy(STATELESS))
                 .cors(withDefaults())
                 .csrf(csrf -> csrf.ignoringRequestMatchers("/api/**"))
                 .oauth2ResourceServer(oauth2 ->
-                        oauth2.jwt(jwt -> jwt.jwtAuthenticationConverter(new CustomAuthenticationConverter())))
+                        oauth2.jwt(jwt -> {
+                            jwt.jwtAuthenticationConverter(new CustomAuthenticationConverter());
+                            JwtDecoder decoder = jwtDecoder.getIfAvailable();
+                            if (tokenCache.enabled() && decoder != null) {
+                                jwt.decoder(cachingDecoder(decoder, tokenCache, meterRegistry.getIfAvailable(), clock));
+                            }
+                        }))
                 .exceptionHandling(ex -> ex.authenticationEntryPoint(new HttpStatusEntryPoint(HttpStatus.UNAUTHORIZED)));;
         return httpSecurity.build();
     }
-}
\ No newline at end of file
+
+    private static JwtDecoder cachingDecoder(JwtDecoder decoder, TokenCacheProperties tokenCache,
+                                             MeterRegistry meterRegistry, Clock clock) {
+        var caching = new CachingJwtDecoder(decoder, tokenCache.maximumSize(), clock);
+        if (meterRegistry != null) {
+            CaffeineCacheMetrics.monitor(meterRegistry, caching.cache(), "security.tokens");
+        }
+        return caching;
+    }
+}
@@ -1,15 +1,31 @@
 package com.fsavevsk.timetracking.service;
 
 import com.fsavevsk.timetracking.api.dto.admin.OverviewReportResponse;
+import com.fsavevsk.timetracking.api.dto.admin.ProjectsReportFilter;
+import com.fsavevsk.timetracking.api.dto.admin.ProjectsReportPage;
 import com.fsavevsk.timetracking.api.dto.admin.ProjectsReportResponse;
+import com.fsavevsk.timetracking.api.dto.admin.TimeSeriesFilter;
+import com.fsavevsk.timetracking.api.dto.admin.TimeSeriesReportResponse;
 
 import java.time.LocalDate;
 import java.time.ZoneId;
 import java.util.List;
 
 public interface AdminReportsService {
-    OverviewReportResponse overview(ZoneId zone);
 
-    List<ProjectsReportResponse> projectsSummary(ZoneId zone, LocalDate startDate, LocalDate endDate);
-}
+    /** Current data version of the overview; cheap, and equal as long as the overview would be. */
+    String overviewVersion(ZoneId zone);
+
+    Versioned<OverviewReportResponse> overview(ZoneId zone);
+
+    String projectsSummaryVersion(ZoneId zone, LocalDate startDate, LocalDate endDate);
+
+    Versioned<List<ProjectsReportResponse>> projectsSummary(ZoneId zone, LocalDate startDate, LocalDate endDate);
 
+    /** One page of {@link #projectsSummary}; its version is that of the whole report. */
+    Versioned<ProjectsReportPage> projectsPage(ProjectsReportFilter filter);
+
+    String timeSeriesVersion(TimeSeriesFilter filter);
+
+    Versioned<TimeSeriesReportResponse> timeSeries(TimeSeriesFilter filter);
+}
@@ -11,6 +11,9 @@ public interface ProjectService {
 
     List<Project> getAllProjects();
 
+    /** Data version of the project reads; changes whenever any project does. */
+    String projectsVersion();
+
     Project findProjectByName(String name);
 
     void delete(Long id);
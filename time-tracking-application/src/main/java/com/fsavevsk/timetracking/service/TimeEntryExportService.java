@@ -0,0 +1,13 @@
+package com.fsavevsk.timetracking.service;
+
+import com.fsavevsk.timetracking.api.dto.admin.ExportFormat;
+import com.fsavevsk.timetracking.api.dto.admin.TimeEntryExportFilter;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+public interface TimeEntryExportService {
+
+    void export(ExportFormat format, TimeEntryExportFilter filter, OutputStream out) throws IOException;
+
+}
@@ -0,0 +1,8 @@
+package com.fsavevsk.timetracking.service;
+
+public interface TimeEntryPartitionService {
+
+    /** Creates the partitions for the coming months and retires the ones past retention. */
+    void maintain();
+
+}
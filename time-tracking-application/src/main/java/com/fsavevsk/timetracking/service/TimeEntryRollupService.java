@@ -0,0 +1,8 @@
+package com.fsavevsk.timetracking.service;
+
+public interface TimeEntryRollupService {
+
+    /** Recomputes every hourly rollup bucket from raw time entries and returns the number of buckets. */
+    int rebuild();
+
+}
@@ -1,14 +1,25 @@
 package com.fsavevsk.timetracking.service;
 
 import com.fsavevsk.timetracking.api.dto.CreateTimeEntryRequest;
+import com.fsavevsk.timetracking.api.dto.TimeEntryChanges;
+import com.fsavevsk.timetracking.api.dto.TimeEntryPage;
 import com.fsavevsk.timetracking.api.dto.TimeEntryResponse;
+import com.fsavevsk.timetracking.api.dto.TimeEntryUploadResult;
+import com.fsavevsk.timetracking.api.dto.UploadTimeEntryRequest;
 
 import java.util.List;
 
 public interface TimeEntryService {
 
+    /** Data version of the current user's entries; changes on every write to them. */
+    String entriesVersion();
     List<TimeEntryResponse> listForCurrentUser();
+    TimeEntryPage pageForCurrentUser(String cursor, Integer size);
+    TimeEntryChanges changesForCurrentUser(String since);
     TimeEntryResponse createForCurrentUser(CreateTimeEntryRequest req);
+    List<TimeEntryResponse> createBatchForCurrentUser(List<CreateTimeEntryRequest> requests);
+    /** Creates or overwrites entries by client id, in one transaction; results are in request order. */
+    List<TimeEntryUploadResult> uploadForCurrentUser(List<UploadTimeEntryRequest> requests);
     void deleteForCurrentUser(Long entryId);
 
 }
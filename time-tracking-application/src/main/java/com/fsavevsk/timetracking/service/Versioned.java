@@ -0,0 +1,4 @@
+package com.fsavevsk.timetracking.service;
+
+/** A value together with the data version it was read at. */
+public record Versioned<T>(String version, T value) {}
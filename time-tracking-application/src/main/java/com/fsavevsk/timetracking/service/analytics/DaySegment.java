@@ -0,0 +1,212 @@
+package com.fsavevsk.timetracking.service.analytics;
+
+import com.fsavevsk.timetracking.persistence.repository.TimeEntryRollupDelta;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+
+/**
+ * The minutes worked on one day, as parallel primitive columns sorted by start, plus their totals per
+ * project, so that a window covering the whole day never touches the rows. Immutable once built.
+ * <p>
+ * Rows are the pieces of {@link TimeEntryRollupDelta#of}: an entry's minutes within each hour it overlaps.
+ * The first piece of an entry starts where the entry does and counts the entry; the others start on the hour
+ * and carry minutes only, so an overnight entry adds to the segments of both days.
+ * <p>
+ * Times are local epoch values, the {@code LocalDateTime} read as if it were UTC: every day has 1440
+ * minutes and values order exactly as the {@code LocalDateTime}s do. The start is kept as a minute, which
+ * is all windows need, plus the microseconds within it for reporting the exact last start.
+ */
+final class DaySegment {
+
+    static final int MINUTES_PER_DAY = 24 * 60;
+    private static final long MICROS_PER_MINUTE = 60_000_000L;
+    /** {@code startMicros} of a piece that continues an entry started in an earlier hour. */
+    private static final int CONTINUED = -1;
+
+    final LocalDate day;
+    final long version;
+    private final int firstMinute;
+
+    private final int[] startMinute;
+    private final int[] startMicros;
+    private final int[] minutes;
+    private final int[] project;
+
+    private final int[] totalProject;
+    private final long[] totalMinutes;
+    private final int[] totalEntries;
+    private final long[] lastStart;
+    private final long dayMinutes;
+    private final int entries;
+
+    private DaySegment(LocalDate day, long version, int[] startMinute, int[] startMicros, int[] minutes, int[] project,
+                       int codes) {
+        this.day = day;
+        this.version = version;
+        this.firstMinute = Math.toIntExact(day.toEpochDay() * MINUTES_PER_DAY);
+        this.startMinute = startMinute;
+        this.startMicros = startMicros;
+        this.minutes = minutes;
+        this.project = project;
+
+        // per-project totals, indexed densely by the codes that occur on this day
+        boolean[] seen = new boolean[codes];
+        long[] minutesByCode = new long[codes];
+        int[] entriesByCode = new int[codes];
+        long[] lastByCode = new long[codes];
+        Arrays.fill(lastByCode, Totals.NONE);
+        long sum = 0;
+        int starts = 0;
+        for (int k = 0; k < minutes.length; k++) {
+            int p = project[k];
+            seen[p] = true;
+            minutesByCode[p] += minutes[k];
+            sum += minutes[k];
+            if (startMicros[k] == CONTINUED) continue;
+            entriesByCode[p]++;
+            lastByCode[p] = Math.max(lastByCode[p], startOf(k));
+            starts++;
+        }
+        int present = 0;
+        for (boolean s : seen) if (s) present++;
+        this.totalProject = new int[present];
+        this.totalMinutes = new long[present];
+        this.totalEntries = new int[present];
+        this.lastStart = new long[present];
+        for (int p = 0, i = 0; p < codes; p++) {
+            if (!seen[p]) continue;
+            totalProject[i] = p;
+            totalMinutes[i] = minutesByCode[p];
+            totalEntries[i] = entriesByCode[p];
+            lastStart[i] = lastByCode[p];
+            i++;
+        }
+        this.dayMinutes = sum;
+        this.entries = starts;
+    }
+
+    static DaySegment empty(LocalDate day, long version) {
+        return new DaySegment(day, version, new int[0], new int[0], new int[0], new int[0], 0);
+    }
+
+    /** Number of entries starting on this day. */
+    int entries() {
+        return entries;
+    }
+
+    /** Sum of the minutes of pieces starting in {@code [fromMinute, toMinute)}. */
+    long sumMinutes(int fromMinute, int toMinute) {
+        if (covers(fromMinute, toMinute)) {
+            return dayMinutes;
+        }
+        int from = lowerBound(fromMinute);
+        int to = lowerBound(toMinute);
+        long sum = 0;
+        // a plain reduction over a primitive array, which the JIT vectorizes
+        for (int k = from; k < to; k++) {
+            sum += minutes[k];
+        }
+        return sum;
+    }
+
+    /** Adds the pieces starting in {@code [fromMinute, toMinute)} to {@code into}, per project. */
+    void accumulate(int fromMinute, int toMinute, Totals into) {
+        if (covers(fromMinute, toMinute)) {
+            for (int i = 0; i < totalProject.length; i++) {
+                into.add(totalProject[i], totalMinutes[i], totalEntries[i], lastStart[i]);
+            }
+            return;
+        }
+        int to = lowerBound(toMinute);
+        for (int k = lowerBound(fromMinute); k < to; k++) {
+            if (startMicros[k] == CONTINUED) into.add(project[k], minutes[k], 0, Totals.NONE);
+            else into.add(project[k], minutes[k], 1, startOf(k));
+        }
+    }
+
+    static long toLocalMicros(LocalDateTime time) {
+        return time.toEpochSecond(ZoneOffset.UTC) * 1_000_000L + time.getNano() / 1_000;
+    }
+
+    static LocalDateTime fromLocalMicros(long micros) {
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(micros, 1_000_000L),
+                (int) Math.floorMod(micros, 1_000_000L) * 1_000, ZoneOffset.UTC);
+    }
+
+    private boolean covers(int fromMinute, int toMinute) {
+        return fromMinute <= firstMinute && toMinute >= firstMinute + MINUTES_PER_DAY;
+    }
+
+    private long startOf(int k) {
+        return startMinute[k] * MICROS_PER_MINUTE + startMicros[k];
+    }
+
+    /** First row starting at or after {@code minute}. */
+    private int lowerBound(int minute) {
+        int lo = 0;
+        int hi = startMinute.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (startMinute[mid] < minute) lo = mid + 1;
+            else hi = mid;
+        }
+        return lo;
+    }
+
+    /** Collects one day's pieces, in any order. */
+    static final class Builder {
+
+        private final LocalDate day;
+        private int size;
+        private int[] startMinute = new int[16];
+        private int[] startMicros = new int[16];
+        private int[] minutes = new int[16];
+        private int[] project = new int[16];
+
+        Builder(LocalDate day) {
+            this.day = day;
+        }
+
+        LocalDate day() {
+            return day;
+        }
+
+        void add(TimeEntryRollupDelta piece, int projectCode) {
+            if (size == minutes.length) {
+                int capacity = size * 2;
+                startMinute = Arrays.copyOf(startMinute, capacity);
+                startMicros = Arrays.copyOf(startMicros, capacity);
+                minutes = Arrays.copyOf(minutes, capacity);
+                project = Arrays.copyOf(project, capacity);
+            }
+            boolean first = piece.lastStart() != null;
+            long micros = toLocalMicros(first ? piece.lastStart() : piece.bucketStart());
+            startMinute[size] = Math.toIntExact(Math.floorDiv(micros, MICROS_PER_MINUTE));
+            startMicros[size] = first ? (int) Math.floorMod(micros, MICROS_PER_MINUTE) : CONTINUED;
+            minutes[size] = Math.toIntExact(piece.minutes());
+            project[size] = projectCode;
+            size++;
+        }
+
+        /** {@code codes} bounds the project codes used, i.e. the size of the dictionary they come from. */
+        DaySegment build(long version, int codes) {
+            // sorts by (minute, arrival) through packed keys, then lays the columns out in that order
+            long[] keys = new long[size];
+            for (int k = 0; k < size; k++) keys[k] = (long) startMinute[k] << 32 | k;
+            Arrays.sort(keys);
+            int[] sortedMinute = new int[size], sortedMicros = new int[size], sortedMinutes = new int[size],
+                    sortedProject = new int[size];
+            for (int i = 0; i < size; i++) {
+                int k = (int) keys[i];
+                sortedMinute[i] = startMinute[k];
+                sortedMicros[i] = startMicros[k];
+                sortedMinutes[i] = minutes[k];
+                sortedProject[i] = project[k];
+            }
+            return new DaySegment(day, version, sortedMinute, sortedMicros, sortedMinutes, sortedProject, codes);
+        }
+    }
+}
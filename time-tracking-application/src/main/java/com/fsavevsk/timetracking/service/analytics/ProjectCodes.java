@@ -0,0 +1,70 @@
+package com.fsavevsk.timetracking.service.analytics;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Dictionary of project ids to dense codes 0..n-1, so that segments store an int per entry and queries
+ * accumulate into plain arrays. Append-only: a code, once given, means the same project in every later
+ * dictionary, and segments built against an older one stay valid.
+ */
+final class ProjectCodes {
+
+    static final ProjectCodes EMPTY = new ProjectCodes(Map.of(), new long[0]);
+
+    private final Map<Long, Integer> codes;
+    private final long[] ids;
+
+    private ProjectCodes(Map<Long, Integer> codes, long[] ids) {
+        this.codes = codes;
+        this.ids = ids;
+    }
+
+    int size() {
+        return ids.length;
+    }
+
+    long id(int code) {
+        return ids[code];
+    }
+
+    /** Code of {@code projectId}, or -1 when no entry of it has been seen. */
+    int code(long projectId) {
+        return codes.getOrDefault(projectId, -1);
+    }
+
+    Builder toBuilder() {
+        return new Builder(this);
+    }
+
+    static final class Builder {
+
+        private final Map<Long, Integer> codes;
+        private long[] ids;
+        private int size;
+
+        private Builder(ProjectCodes base) {
+            this.codes = new HashMap<>(base.codes);
+            this.ids = Arrays.copyOf(base.ids, Math.max(16, base.ids.length * 2));
+            this.size = base.ids.length;
+        }
+
+        int code(long projectId) {
+            Integer code = codes.get(projectId);
+            if (code != null) return code;
+            if (size == ids.length) ids = Arrays.copyOf(ids, size * 2);
+            ids[size] = projectId;
+            codes.put(projectId, size);
+            return size++;
+        }
+
+        int size() {
+            return size;
+        }
+
+        ProjectCodes build() {
+            return new ProjectCodes(Map.copyOf(codes), Arrays.copyOf(ids, size));
+        }
+    }
+}
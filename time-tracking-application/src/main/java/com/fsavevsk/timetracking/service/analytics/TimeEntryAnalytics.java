@@ -0,0 +1,383 @@
+package com.fsavevsk.timetracking.service.analytics;
+
+import com.fsavevsk.timetracking.api.dto.Project;
+import com.fsavevsk.timetracking.configuration.ReportAnalyticsProperties;
+import com.fsavevsk.timetracking.persistence.projection.ProjectMinutes;
+import com.fsavevsk.timetracking.persistence.projection.ProjectSummary;
+import com.fsavevsk.timetracking.persistence.projection.ProjectSummaryAggregate;
+import com.fsavevsk.timetracking.persistence.projection.TimeEntryFact;
+import com.fsavevsk.timetracking.persistence.repository.TimeEntryRepository;
+import com.fsavevsk.timetracking.persistence.repository.TimeEntryRollupDelta;
+import com.fsavevsk.timetracking.persistence.routing.Workload;
+import com.fsavevsk.timetracking.persistence.routing.Workloads;
+import com.fsavevsk.timetracking.service.cache.ProjectCatalog;
+import com.fsavevsk.timetracking.service.event.TimeEntriesChangedEvent;
+import com.fsavevsk.timetracking.service.impl.SnapshotFanout;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Optional;
+import java.util.Set;
+import java.util.SortedSet;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+/**
+ * Optional in-memory copy of every time entry for the admin reports, kept as primitive columns (start
+ * minute, minutes, dictionary-encoded project) in one immutable {@link DaySegment} per day, long entries
+ * apportioned over the hours they overlap as in the rollups. Report windows
+ * then cost a loop over the rows of their partial days and one pre-aggregated row per project for every
+ * day they cover completely, instead of a scan of the rollups.
+ * <p>
+ * The whole store is loaded in the background once the application is up. Until then, and while a bulk
+ * change to the entries (partition retention) is being reloaded, {@link #current} is empty and reports use SQL.
+ * Local writes refresh their days right after commit. Writes made through other nodes are caught by
+ * {@link #current} itself: it compares the day versions of the window (see V8__entry_versions.sql), read in
+ * the caller's transaction, with those of the loaded segments. When days moved, the report uses SQL and the
+ * days are reloaded in the background, so no report waits for another one's scan.
+ * <p>
+ * Publishes {@code reports.analytics.entries}, the number of entries held.
+ */
+@Component
+public class TimeEntryAnalytics {
+
+    private record Snapshot(long epoch, ProjectCodes codes, NavigableMap<LocalDate, DaySegment> days,
+                            long entries) {}
+
+    private final TimeEntryRepository timeEntryRepository;
+    private final ProjectCatalog projectCatalog;
+    private final SnapshotFanout snapshotFanout;
+    private final boolean enabled;
+    private final Executor background;
+    // guards replacing the snapshot, so that a refresh does not undo a reload it did not start from
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private final AtomicBoolean reloading = new AtomicBoolean();
+    private final AtomicBoolean refreshing = new AtomicBoolean();
+    private final Set<LocalDate> pendingDays = ConcurrentHashMap.newKeySet();
+    private volatile Snapshot snapshot;
+
+    @Autowired
+    public TimeEntryAnalytics(TimeEntryRepository timeEntryRepository, ProjectCatalog projectCatalog,
+                              SnapshotFanout snapshotFanout, ReportAnalyticsProperties properties,
+                              MeterRegistry meterRegistry) {
+        this(timeEntryRepository, projectCatalog, snapshotFanout, properties, meterRegistry,
+                task -> Thread.ofVirtual().name("report-analytics").start(task));
+    }
+
+    /** {@code background} runs loads and refreshes off the calling thread. */
+    public TimeEntryAnalytics(TimeEntryRepository timeEntryRepository, ProjectCatalog projectCatalog,
+                              SnapshotFanout snapshotFanout, ReportAnalyticsProperties properties,
+                              MeterRegistry meterRegistry, Executor background) {
+        this.timeEntryRepository = timeEntryRepository;
+        this.projectCatalog = projectCatalog;
+        this.snapshotFanout = snapshotFanout;
+        this.enabled = properties.enabled();
+        this.background = background;
+        Gauge.builder("reports.analytics.entries", this, TimeEntryAnalytics::entries)
+                .description("Time entries held in memory for the admin reports").register(meterRegistry);
+    }
+
+    /**
+     * The store as of the caller's transaction for the days of {@code [from, to)}; empty when disabled, not
+     * loaded, or behind on some of those days, which are then reloaded in the background. Call it in the
+     * transaction that read the report's version, so that the answer is at least as new as that version.
+     */
+    public Optional<View> current(LocalDateTime from, LocalDateTime to) {
+        if (!enabled) return Optional.empty();
+        Snapshot current = snapshot;
+        if (current == null) {
+            startReload(); // a no-op while the startup load is running
+            return Optional.empty();
+        }
+        return isCurrent(current, from.toLocalDate(), to.minusNanos(1).toLocalDate())
+                ? Optional.of(new View(current)) : Optional.empty();
+    }
+
+    /** Loads every entry, replacing whatever is held. Runs in a read-only snapshot of its own. */
+    public void reload() {
+        Snapshot loaded = Workloads.callAs(Workload.ANALYTICS, () -> snapshotFanout.inSnapshot(() -> {
+            long epoch = timeEntryRepository.syncEpoch();
+            Map<LocalDate, Long> versions = timeEntryRepository.dayVersions(null, null);
+            ProjectCodes.Builder codes = ProjectCodes.EMPTY.toBuilder();
+            NavigableMap<LocalDate, DaySegment> days = new TreeMap<>();
+            try (Stream<TimeEntryFact> facts = timeEntryRepository.streamFacts(null, null)) {
+                load(facts, codes, versions, day -> true, days);
+            }
+            // days whose entries were all deleted still carry the version that says so
+            versions.forEach((day, version) -> days.putIfAbsent(day, DaySegment.empty(day, version)));
+            return new Snapshot(epoch, codes.build(), days, count(days.values()));
+        }));
+        writeLock.lock();
+        try {
+            snapshot = loaded;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOnStartup() {
+        if (enabled) startReload();
+    }
+
+    /** Refreshes the written days once the write is visible, off the writer's thread. */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTimeEntriesChanged(TimeEntriesChangedEvent event) {
+        if (!enabled || snapshot == null) return;
+        refreshLater(event.times().stream().map(LocalDateTime::toLocalDate).toList());
+    }
+
+    /** Number of entries held. */
+    public long entries() {
+        Snapshot current = snapshot;
+        return current != null ? current.entries() : 0;
+    }
+
+    /**
+     * Whether {@code current} holds the days of {@code [first, last]} at the versions the caller's transaction
+     * sees. If not, the days that moved, or the whole store after a bulk change, are reloaded in the background.
+     */
+    private boolean isCurrent(Snapshot current, LocalDate first, LocalDate last) {
+        long epoch = timeEntryRepository.syncEpoch();
+        if (epoch != current.epoch()) {
+            if (epoch > current.epoch()) startReload();
+            return false;
+        }
+        SortedSet<LocalDate> stale = staleDays(current, timeEntryRepository.dayVersions(first, last));
+        if (stale.isEmpty()) return true;
+        refreshLater(stale);
+        return false;
+    }
+
+    /**
+     * Reloads the days of {@code [first, last]} whose version moved, in the caller's transaction. Reports keep
+     * reading the previous snapshot meanwhile; the lock is only held to swap it.
+     */
+    private void refresh(LocalDate first, LocalDate last) {
+        Snapshot base = snapshot;
+        if (base == null || base.epoch() != timeEntryRepository.syncEpoch()) return; // a reload is due instead
+        Map<LocalDate, Long> versions = timeEntryRepository.dayVersions(first, last);
+        SortedSet<LocalDate> stale = staleDays(base, versions);
+        if (stale.isEmpty()) return;
+        Snapshot refreshed = withDays(base, stale, versions);
+        writeLock.lock();
+        try {
+            if (snapshot == base) {
+                snapshot = refreshed;
+                return;
+            }
+        } finally {
+            writeLock.unlock();
+        }
+        // a reload replaced the store meanwhile; check the days against that
+        pendingDays.addAll(stale);
+    }
+
+    /** Days whose version is newer than that of their segment; a day without either is at version 0. */
+    private static SortedSet<LocalDate> staleDays(Snapshot snapshot, Map<LocalDate, Long> versions) {
+        SortedSet<LocalDate> stale = new TreeSet<>();
+        versions.forEach((day, version) -> {
+            DaySegment held = snapshot.days().get(day);
+            if (version > (held != null ? held.version : 0)) stale.add(day);
+        });
+        return stale;
+    }
+
+    /** Reloads {@code stale} in the caller's transaction, one query per run of consecutive days. */
+    private Snapshot withDays(Snapshot base, SortedSet<LocalDate> stale, Map<LocalDate, Long> versions) {
+        ProjectCodes.Builder codes = base.codes().toBuilder();
+        Map<LocalDate, DaySegment> loaded = new HashMap<>();
+        for (List<LocalDate> run : runs(stale)) {
+            LocalDateTime from = run.getFirst().atStartOfDay();
+            LocalDateTime to = run.getLast().plusDays(1).atStartOfDay();
+            try (Stream<TimeEntryFact> facts = timeEntryRepository.streamFacts(from, to)) {
+                load(facts, codes, versions, run::contains, loaded);
+            }
+        }
+        NavigableMap<LocalDate, DaySegment> days = new TreeMap<>(base.days());
+        long entries = base.entries();
+        for (LocalDate day : stale) {
+            DaySegment segment = loaded.getOrDefault(day, DaySegment.empty(day, versions.getOrDefault(day, 0L)));
+            DaySegment replaced = days.put(day, segment);
+            entries += segment.entries() - (replaced != null ? replaced.entries() : 0);
+        }
+        return new Snapshot(base.epoch(), codes.build(), days, entries);
+    }
+
+    /** Cuts facts into hourly pieces and those into one segment per day, keeping the days {@code keep} accepts. */
+    private static void load(Stream<TimeEntryFact> facts, ProjectCodes.Builder codes, Map<LocalDate, Long> versions,
+                             Predicate<LocalDate> keep, Map<LocalDate, DaySegment> into) {
+        Map<LocalDate, DaySegment.Builder> builders = new HashMap<>();
+        facts.forEach(fact -> {
+            int code = codes.code(fact.projectId());
+            for (TimeEntryRollupDelta piece : TimeEntryRollupDelta.of(fact.projectId(), null, fact.startTime(),
+                    fact.durationMinutes())) {
+                LocalDate day = piece.bucketStart().toLocalDate();
+                if (keep.test(day)) builders.computeIfAbsent(day, DaySegment.Builder::new).add(piece, code);
+            }
+        });
+        builders.forEach((day, builder) -> into.put(day, builder.build(versions.getOrDefault(day, 0L), codes.size())));
+    }
+
+    private static List<List<LocalDate>> runs(SortedSet<LocalDate> days) {
+        List<List<LocalDate>> runs = new ArrayList<>();
+        for (LocalDate day : days) {
+            if (runs.isEmpty() || !runs.getLast().getLast().plusDays(1).equals(day)) runs.add(new ArrayList<>());
+            runs.getLast().add(day);
+        }
+        return runs;
+    }
+
+    private static long count(Collection<DaySegment> segments) {
+        return segments.stream().mapToLong(DaySegment::entries).sum();
+    }
+
+    private void startReload() {
+        if (!reloading.compareAndSet(false, true)) return;
+        background.execute(() -> {
+            try {
+                reload();
+            } catch (RuntimeException e) {
+                // reports keep using SQL; the next one that finds the store missing or behind retries
+            } finally {
+                reloading.set(false);
+            }
+        });
+    }
+
+    private void refreshLater(Collection<LocalDate> days) {
+        pendingDays.addAll(days);
+        if (refreshing.compareAndSet(false, true)) {
+            background.execute(this::refreshPending);
+        }
+    }
+
+    private void refreshPending() {
+        do {
+            try {
+                while (!pendingDays.isEmpty()) {
+                    SortedSet<LocalDate> days = new TreeSet<>(pendingDays);
+                    pendingDays.removeAll(days);
+                    Workloads.callAs(Workload.ANALYTICS,
+                            () -> snapshotFanout.inSnapshot(() -> {
+                                refresh(days.first(), days.last());
+                                return null;
+                            }));
+                }
+            } catch (RuntimeException e) {
+                // the next report over these days finds them behind and schedules them again
+                pendingDays.clear();
+            } finally {
+                refreshing.set(false);
+            }
+        } while (!pendingDays.isEmpty() && refreshing.compareAndSet(false, true));
+    }
+
+    /**
+     * Pieces count towards a window by their hour bucket, as in the rollups; for an hour bucket that is the
+     * same as starting before the first whole hour at or after the bound.
+     */
+    private static int bucketBound(LocalDateTime bound) {
+        LocalDateTime hour = bound.truncatedTo(ChronoUnit.HOURS);
+        if (hour.isBefore(bound)) hour = hour.plusHours(1);
+        return Math.toIntExact(hour.toEpochSecond(ZoneOffset.UTC) / 60);
+    }
+
+    /** Read access to one consistent state of the store; the queries mirror those of the rollup repository. */
+    public final class View {
+
+        private final Snapshot snapshot;
+
+        private View(Snapshot snapshot) {
+            this.snapshot = snapshot;
+        }
+
+        public long projectCount() {
+            return projectCatalog.all().size();
+        }
+
+        public long sumMinutes(LocalDateTime from, LocalDateTime to) {
+            int fromMinute = bucketBound(from);
+            int toMinute = bucketBound(to);
+            long sum = 0;
+            for (DaySegment day : days(fromMinute, toMinute)) {
+                sum += day.sumMinutes(fromMinute, toMinute);
+            }
+            return sum;
+        }
+
+        /** Projects with minutes or entries in the window, most minutes first. */
+        public List<ProjectMinutes> topProjects(LocalDateTime from, LocalDateTime to, int limit) {
+            Totals totals = totals(from, to);
+            List<ProjectMinutes> rows = new ArrayList<>();
+            for (int code = 0; code < totals.entries.length; code++) {
+                if (totals.entries[code] == 0 && totals.minutes[code] == 0) continue;
+                long minutes = totals.minutes[code];
+                projectCatalog.findById(snapshot.codes().id(code))
+                        .ifPresent(p -> rows.add(new ProjectMinutes(p.id(), p.name(), minutes)));
+            }
+            return rows.stream()
+                    .sorted(Comparator.comparing(ProjectMinutes::minutes).reversed().thenComparing(ProjectMinutes::projectId))
+                    .limit(limit)
+                    .toList();
+        }
+
+        /** Every project, idle ones with zeros, as {@code summarizeProjects} of the rollup repository but unordered. */
+        public List<ProjectSummaryAggregate> summarizeAllProjects(LocalDateTime weekStart, LocalDateTime weekEnd,
+                                                                  LocalDateTime rangeStart, LocalDateTime rangeEnd) {
+            Totals week = totals(weekStart, weekEnd);
+            Totals range = totals(rangeStart, rangeEnd);
+            List<ProjectSummaryAggregate> rows = new ArrayList<>();
+            for (Project p : projectCatalog.all()) {
+                int code = snapshot.codes().code(p.id());
+                if (code < 0) {
+                    rows.add(new ProjectSummary(p.id(), p.name(), 0L, 0L, 0L, null));
+                    continue;
+                }
+                long last = range.lastStart[code];
+                rows.add(new ProjectSummary(p.id(), p.name(), week.minutes[code], range.minutes[code],
+                        week.entries[code], last != Totals.NONE ? DaySegment.fromLocalMicros(last) : null));
+            }
+            return rows;
+        }
+
+        private Totals totals(LocalDateTime from, LocalDateTime to) {
+            int fromMinute = bucketBound(from);
+            int toMinute = bucketBound(to);
+            Totals totals = new Totals(snapshot.codes().size());
+            for (DaySegment day : days(fromMinute, toMinute)) {
+                day.accumulate(fromMinute, toMinute, totals);
+            }
+            return totals;
+        }
+
+        private Collection<DaySegment> days(int fromMinute, int toMinute) {
+            if (toMinute <= fromMinute) return List.of();
+            LocalDate first = LocalDate.ofEpochDay(Math.floorDiv(fromMinute, DaySegment.MINUTES_PER_DAY));
+            LocalDate last = LocalDate.ofEpochDay(Math.floorDiv(toMinute - 1, DaySegment.MINUTES_PER_DAY));
+            return snapshot.days().subMap(first, true, last, true).values();
+        }
+    }
+}
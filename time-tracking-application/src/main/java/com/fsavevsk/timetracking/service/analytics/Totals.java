@@ -0,0 +1,27 @@
+package com.fsavevsk.timetracking.service.analytics;
+
+import java.util.Arrays;
+
+/** Per-project accumulators of one query, indexed by project code. */
+final class Totals {
+
+    static final long NONE = Long.MIN_VALUE;
+
+    final long[] minutes;
+    final long[] entries;
+    /** Latest start, as local epoch microseconds; {@link #NONE} for a project without entries. */
+    final long[] lastStart;
+
+    Totals(int codes) {
+        this.minutes = new long[codes];
+        this.entries = new long[codes];
+        this.lastStart = new long[codes];
+        Arrays.fill(lastStart, NONE);
+    }
+
+    void add(int code, long minutes, long entries, long lastStart) {
+        this.minutes[code] += minutes;
+        this.entries[code] += entries;
+        if (lastStart > this.lastStart[code]) this.lastStart[code] = lastStart;
+    }
+}
@@ -0,0 +1,175 @@
+package com.fsavevsk.timetracking.service.cache;
+
+import com.fsavevsk.timetracking.api.dto.Project;
+import com.fsavevsk.timetracking.api.mapper.ProjectMapper;
+import com.fsavevsk.timetracking.persistence.entity.ProjectEntity;
+import com.fsavevsk.timetracking.persistence.repository.ProjectRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * All projects in memory, as an immutable snapshot indexed by id and by name. Readers take whatever
+ * snapshot is current without locking; writers build a new one and swap it in (copy on write).
+ * <p>
+ * The snapshot carries the {@code catalog_versions} counter it was loaded at. Local creates and deletes
+ * are applied to the snapshot directly; changes made through other nodes are picked up when the scheduled
+ * poll sees the counter move. Until then a lookup that misses falls back to the database, so a project
+ * created elsewhere is never reported missing; a project deleted elsewhere may still be found, and writes
+ * referencing it are rejected by the foreign key (see {@link #remove}).
+ * <p>
+ * Each snapshot also carries a digest of its contents ({@link #tag()}), the ETag of project reads. Unlike the
+ * counter it follows local writes, and two nodes holding the same projects agree on it.
+ */
+@Component
+@RequiredArgsConstructor
+public class ProjectCatalog {
+
+    private record Snapshot(long version, String tag, List<Project> all, Map<Long, Project> byId,
+                            Map<String, Project> byName) {
+
+        static Snapshot of(long version, List<Project> projects) {
+            List<Project> sorted = projects.stream().sorted(Comparator.comparing(Project::id)).toList();
+            Map<Long, Project> byId = sorted.stream()
+                    .collect(Collectors.toMap(Project::id, Function.identity(), (a, b) -> b, LinkedHashMap::new));
+            Map<String, Project> byName = sorted.stream()
+                    .collect(Collectors.toUnmodifiableMap(Project::name, Function.identity(), (a, b) -> b));
+            return new Snapshot(version, digest(sorted), sorted, Collections.unmodifiableMap(byId), byName);
+        }
+
+        private static String digest(List<Project> projects) {
+            MessageDigest sha256 = sha256();
+            for (Project p : projects) {
+                // length-prefixed, so no two different catalogs encode to the same bytes
+                for (String field : new String[]{ String.valueOf(p.id()), p.name(), String.valueOf(p.description()) }) {
+                    byte[] bytes = field.getBytes(StandardCharsets.UTF_8);
+                    sha256.update(ByteBuffer.allocate(Integer.BYTES).putInt(bytes.length).array());
+                    sha256.update(bytes);
+                }
+            }
+            return HexFormat.of().formatHex(sha256.digest(), 0, 16);
+        }
+
+        private static MessageDigest sha256() {
+            try {
+                return MessageDigest.getInstance("SHA-256");
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+
+    private final ProjectRepository projectRepository;
+    private final ProjectMapper projectMapper;
+    // not synchronized: a reload blocks on the database, which would pin a virtual thread's carrier
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private volatile Snapshot snapshot;
+
+    /** Every project, ordered by id. */
+    public List<Project> all() {
+        return current().all();
+    }
+
+    /** Changes whenever the projects do; equal on every node serving the same projects. */
+    public String tag() {
+        return current().tag();
+    }
+
+    public Optional<Project> findById(Long id) {
+        Project project = current().byId().get(id);
+        if (project != null) return Optional.of(project);
+        return projectRepository.findById(id).map(this::putLoaded);
+    }
+
+    public Optional<Project> findByName(String name) {
+        Project project = current().byName().get(name);
+        if (project != null) return Optional.of(project);
+        return projectRepository.findProjectByName(name).map(this::putLoaded);
+    }
+
+    /** Adds or replaces a project that was just written. */
+    public void put(Project project) {
+        writeLock.lock();
+        try {
+            Snapshot current = snapshot;
+            if (current == null) return; // the first load will see it
+            var projects = new ArrayList<>(current.all());
+            projects.removeIf(p -> p.id().equals(project.id()) || p.name().equals(project.name()));
+            projects.add(project);
+            snapshot = Snapshot.of(current.version(), projects);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /** Drops a project that was deleted, or that a write found to be gone. */
+    public void remove(Long id) {
+        writeLock.lock();
+        try {
+            Snapshot current = snapshot;
+            if (current == null || !current.byId().containsKey(id)) return;
+            snapshot = Snapshot.of(current.version(),
+                    current.all().stream().filter(p -> !p.id().equals(id)).toList());
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /** Forgets the snapshot; the next read loads a fresh one. */
+    public void invalidate() {
+        snapshot = null;
+    }
+
+    /** Reloads if another node has changed projects since the snapshot was taken. */
+    @Scheduled(fixedDelayString = "${time-tracking.projects.catalog.refresh-interval:5s}")
+    public void refreshIfChanged() {
+        Snapshot current = snapshot;
+        if (current != null && projectRepository.catalogVersion() != current.version()) {
+            reload(current);
+        }
+    }
+
+    private Snapshot current() {
+        Snapshot current = snapshot;
+        return current != null ? current : reload(null);
+    }
+
+    /** Loads a new snapshot unless another thread already replaced {@code stale} meanwhile. */
+    private Snapshot reload(Snapshot stale) {
+        writeLock.lock();
+        try {
+            Snapshot current = snapshot;
+            if (current != null && current != stale) return current;
+            // version first: a change landing in between only makes the snapshot look older than it is
+            long version = projectRepository.catalogVersion();
+            List<Project> projects = projectRepository.findAll().stream().map(projectMapper::toDomain).toList();
+            Snapshot loaded = Snapshot.of(version, projects);
+            snapshot = loaded;
+            return loaded;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private Project putLoaded(ProjectEntity entity) {
+        Project project = projectMapper.toDomain(entity);
+        put(project);
+        return project;
+    }
+}
@@ -0,0 +1,156 @@
+package com.fsavevsk.timetracking.service.cache;
+
+import com.fsavevsk.timetracking.api.dto.admin.OverviewReportResponse;
+import com.fsavevsk.timetracking.api.dto.admin.ProjectsReportResponse;
+import com.fsavevsk.timetracking.configuration.ReportCacheProperties;
+import com.fsavevsk.timetracking.configuration.ReportCoalescingProperties;
+import com.fsavevsk.timetracking.service.Versioned;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Bounded, TTL'd cache of the admin report responses, keyed by zone and the windows they aggregate. The TTL
+ * is per entry: reports whose windows have all ended in their zone keep the longer closed TTL.
+ * Hit, miss and eviction counts are published as the cache.* meters (cache=reports.overview|reports.projects).
+ * <p>
+ * Misses go through a {@link RequestCoalescer}, so a burst of identical requests runs the report queries
+ * once. Flights are keyed by the invalidation generation as well: a caller arriving after a write never
+ * joins a computation that started before it, and such a computation is not cached.
+ * <p>
+ * Reports are stored with the data version they were computed at, and a lookup only hits when that is
+ * still the current version. Local writes evict eagerly; the version check catches writes made through
+ * other nodes, which would otherwise be served stale until the TTL.
+ */
+@Component
+public class ReportCache {
+
+    /** Key of a cached report: its zone and the local times its windows cover. */
+    public sealed interface Key {
+        ZoneId zone();
+
+        /** End of the latest window, in {@link #zone}. */
+        LocalDateTime end();
+
+        boolean covers(LocalDateTime t);
+    }
+
+    public record OverviewKey(ZoneId zone, LocalDateTime dayStart, LocalDateTime weekStart) implements Key {
+        @Override
+        public LocalDateTime end() {
+            return max(dayStart.plusDays(1), weekStart.plusWeeks(1));
+        }
+
+        @Override
+        public boolean covers(LocalDateTime t) {
+            return within(t, dayStart, dayStart.plusDays(1)) || within(t, weekStart, weekStart.plusWeeks(1));
+        }
+    }
+
+    public record ProjectsKey(ZoneId zone, LocalDateTime weekStart, LocalDateTime weekEnd,
+                              LocalDateTime rangeStart, LocalDateTime rangeEnd) implements Key {
+        @Override
+        public LocalDateTime end() {
+            return max(weekEnd, rangeEnd);
+        }
+
+        @Override
+        public boolean covers(LocalDateTime t) {
+            return within(t, weekStart, weekEnd) || within(t, rangeStart, rangeEnd);
+        }
+    }
+
+    private record Flight<K>(K key, String version, long generation) {}
+
+    private final boolean enabled;
+    private final boolean coalescing;
+    private final AtomicLong generation = new AtomicLong();
+    private final Cache<OverviewKey, Versioned<OverviewReportResponse>> overview;
+    private final Cache<ProjectsKey, Versioned<List<ProjectsReportResponse>>> projects;
+    private final RequestCoalescer<Flight<OverviewKey>, Versioned<OverviewReportResponse>> overviewFlights;
+    private final RequestCoalescer<Flight<ProjectsKey>, Versioned<List<ProjectsReportResponse>>> projectsFlights;
+
+    public ReportCache(ReportCacheProperties properties, ReportCoalescingProperties coalescingProperties,
+                       MeterRegistry meterRegistry, Clock clock) {
+        this.enabled = properties.enabled();
+        this.coalescing = coalescingProperties.enabled();
+        this.overview = build(properties, clock);
+        this.projects = build(properties, clock);
+        this.overviewFlights = new RequestCoalescer<>("overview", coalescingProperties.timeout(), meterRegistry);
+        this.projectsFlights = new RequestCoalescer<>("projects", coalescingProperties.timeout(), meterRegistry);
+        CaffeineCacheMetrics.monitor(meterRegistry, overview, "reports.overview");
+        CaffeineCacheMetrics.monitor(meterRegistry, projects, "reports.projects");
+    }
+
+    /**
+     * The overview for {@code key} at {@code version} or later. The loader must read the version it returns
+     * no later than the report itself.
+     */
+    public Versioned<OverviewReportResponse> overview(OverviewKey key, String version,
+                                                      Supplier<Versioned<OverviewReportResponse>> loader) {
+        return lookup(overview, overviewFlights, key, version, loader);
+    }
+
+    public Versioned<List<ProjectsReportResponse>> projectsSummary(ProjectsKey key, String version,
+                                                                   Supplier<Versioned<List<ProjectsReportResponse>>> loader) {
+        return lookup(projects, projectsFlights, key, version, loader);
+    }
+
+    /** Drops every cached report whose windows contain one of the given times (see {@code TimeEntriesChangedEvent}). */
+    public void invalidateCovering(Collection<LocalDateTime> times) {
+        generation.incrementAndGet();
+        overview.asMap().keySet().removeIf(key -> times.stream().anyMatch(key::covers));
+        projects.asMap().keySet().removeIf(key -> times.stream().anyMatch(key::covers));
+    }
+
+    public void invalidateAll() {
+        generation.incrementAndGet();
+        overview.invalidateAll();
+        projects.invalidateAll();
+    }
+
+    private <K, V> Versioned<V> lookup(Cache<K, Versioned<V>> cache, RequestCoalescer<Flight<K>, Versioned<V>> flights,
+                                       K key, String version, Supplier<Versioned<V>> loader) {
+        if (enabled) {
+            Versioned<V> cached = cache.getIfPresent(key);
+            if (cached != null && cached.version().equals(version)) return cached;
+        }
+        long startedAt = generation.get();
+        Versioned<V> value = coalescing ? flights.execute(new Flight<>(key, version, startedAt), loader) : loader.get();
+        if (enabled) {
+            // checked under the key's lock: an invalidation bumps the generation before it evicts, so it either
+            // makes this skip the write or evicts what was written
+            cache.asMap().compute(key, (k, current) -> generation.get() == startedAt ? value : current);
+        }
+        return value;
+    }
+
+    private static <K extends Key, V> Cache<K, V> build(ReportCacheProperties properties, Clock clock) {
+        return Caffeine.newBuilder()
+                .maximumSize(properties.maximumSize())
+                .expireAfter(Expiry.<K, V>writing((key, value) ->
+                        key.end().isAfter(LocalDateTime.now(clock.withZone(key.zone())))
+                                ? properties.ttl() : properties.closedTtl()))
+                .recordStats()
+                .build();
+    }
+
+    private static LocalDateTime max(LocalDateTime a, LocalDateTime b) {
+        return a.isAfter(b) ? a : b;
+    }
+
+    private static boolean within(LocalDateTime t, LocalDateTime from, LocalDateTime to) {
+        return !t.isBefore(from) && t.isBefore(to);
+    }
+}
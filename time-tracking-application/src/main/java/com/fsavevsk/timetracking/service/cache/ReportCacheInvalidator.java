@@ -0,0 +1,35 @@
+package com.fsavevsk.timetracking.service.cache;
+
+import com.fsavevsk.timetracking.service.event.ProjectsChangedEvent;
+import com.fsavevsk.timetracking.service.event.RollupsRebuiltEvent;
+import com.fsavevsk.timetracking.service.event.TimeEntriesChangedEvent;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Evicts cached reports once a write has committed; evicting earlier would let a concurrent read re-cache
+ * totals that do not include the write yet.
+ */
+@Component
+@RequiredArgsConstructor
+public class ReportCacheInvalidator {
+
+    private final ReportCache reportCache;
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTimeEntriesChanged(TimeEntriesChangedEvent event) {
+        reportCache.invalidateCovering(event.times());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProjectsChanged(ProjectsChangedEvent event) {
+        // project count and the per-project rows change for every window
+        reportCache.invalidateAll();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onRollupsRebuilt(RollupsRebuiltEvent event) {
+        reportCache.invalidateAll();
+    }
+}
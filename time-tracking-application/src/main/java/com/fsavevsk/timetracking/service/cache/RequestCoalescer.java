@@ -0,0 +1,76 @@
+package com.fsavevsk.timetracking.service.cache;
+
+import com.fsavevsk.timetracking.api.exception.ServiceUnavailableException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Single-flight execution: the first caller for a key computes the value on its own thread, callers
+ * arriving for the same key meanwhile wait for that result instead of repeating the work.
+ * <p>
+ * Followers give up after the timeout with a {@link ServiceUnavailableException}; the leader is never
+ * interrupted. A failed computation is rethrown to every caller that shared it and is not remembered.
+ */
+public class RequestCoalescer<K, V> {
+
+    private final ConcurrentMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+    private final Duration timeout;
+    private final Counter coalesced;
+    private final Counter timedOut;
+
+    public RequestCoalescer(String name, Duration timeout, MeterRegistry meterRegistry) {
+        this.timeout = timeout;
+        this.coalesced = Counter.builder("reports.requests.coalesced")
+                .description("Report requests served by an identical in-flight computation")
+                .tag("report", name)
+                .register(meterRegistry);
+        this.timedOut = Counter.builder("reports.requests.coalesced.timeouts")
+                .description("Coalesced report requests that gave up waiting")
+                .tag("report", name)
+                .register(meterRegistry);
+    }
+
+    public V execute(K key, Supplier<V> loader) {
+        CompletableFuture<V> mine = new CompletableFuture<>();
+        CompletableFuture<V> existing = inFlight.putIfAbsent(key, mine);
+        if (existing != null) {
+            coalesced.increment();
+            return await(existing);
+        }
+        try {
+            V value = loader.get();
+            mine.complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, mine);
+        }
+    }
+
+    private V await(CompletableFuture<V> flight) {
+        try {
+            return flight.get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            timedOut.increment();
+            throw new ServiceUnavailableException("Report is still being computed, please retry");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ServiceUnavailableException("Interrupted while waiting for report");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException re) throw re;
+            if (e.getCause() instanceof Error err) throw err;
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+}
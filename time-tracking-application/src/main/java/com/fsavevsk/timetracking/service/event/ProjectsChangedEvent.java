@@ -0,0 +1,6 @@
+package com.fsavevsk.timetracking.service.event;
+
+/**
+ * Published when a project is created or deleted.
+ */
+public record ProjectsChangedEvent() {}
@@ -0,0 +1,6 @@
+package com.fsavevsk.timetracking.service.event;
+
+/**
+ * Published when the report rollups have been recomputed from raw time entries.
+ */
+public record RollupsRebuiltEvent(int buckets) {}
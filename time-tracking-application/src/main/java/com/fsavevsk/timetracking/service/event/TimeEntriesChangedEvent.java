@@ -0,0 +1,15 @@
+package com.fsavevsk.timetracking.service.event;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Published when time entries are created, changed or deleted; carries their start times, and the midnights
+ * their minutes run past (before and after a change), so listeners can tell which report windows are affected.
+ */
+public record TimeEntriesChangedEvent(List<LocalDateTime> times) {
+
+    public TimeEntriesChangedEvent {
+        times = List.copyOf(times);
+    }
+}
@@ -1,56 +1,141 @@
 package com.fsavevsk.timetracking.service.impl;
 
 import com.fsavevsk.timetracking.api.dto.admin.OverviewReportResponse;
+import com.fsavevsk.timetracking.api.dto.admin.ProjectsReportFilter;
+import com.fsavevsk.timetracking.api.dto.admin.ProjectsReportPage;
 import com.fsavevsk.timetracking.api.dto.admin.ProjectsReportResponse;
+import com.fsavevsk.timetracking.api.dto.admin.ProjectsReportSort;
+import com.fsavevsk.timetracking.api.dto.admin.TimeSeriesFilter;
+import com.fsavevsk.timetracking.api.dto.admin.TimeSeriesReportResponse;
+import com.fsavevsk.timetracking.configuration.OverviewReportProperties;
+import com.fsavevsk.timetracking.configuration.ProjectsReportPagingProperties;
+import com.fsavevsk.timetracking.persistence.projection.BucketMinutes;
+import com.fsavevsk.timetracking.persistence.projection.OverviewAggregate;
+import com.fsavevsk.timetracking.persistence.projection.ProjectMinutes;
+import com.fsavevsk.timetracking.persistence.projection.ProjectSummaryAggregate;
+import com.fsavevsk.timetracking.persistence.projection.ProjectSummaryPage;
 import com.fsavevsk.timetracking.persistence.repository.ProjectRepository;
+import com.fsavevsk.timetracking.persistence.repository.ProjectSummaryQuery;
+import com.fsavevsk.timetracking.persistence.repository.ProjectSummarySort;
 import com.fsavevsk.timetracking.persistence.repository.TimeEntryRepository;
+import com.fsavevsk.timetracking.persistence.repository.TimeEntryRollupRepository;
+import com.fsavevsk.timetracking.persistence.routing.Workload;
 import com.fsavevsk.timetracking.service.AdminReportsService;
+import com.fsavevsk.timetracking.service.Versioned;
+import com.fsavevsk.timetracking.service.analytics.TimeEntryAnalytics;
+import com.fsavevsk.timetracking.service.cache.ReportCache;
+import com.fsavevsk.timetracking.util.ProjectsReportCursor;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 
 import java.time.Clock;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
-import java.util.Comparator;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
 
 import static com.fsavevsk.timetracking.util.DateRanges.*;
 
 @Service
+@Workload(Workload.ANALYTICS)
 @RequiredArgsConstructor
 public class AdminReportsServiceImpl implements AdminReportsService {
 
     private final ProjectRepository projectRepository;
+    private final TimeEntryRollupRepository rollupRepository;
     private final TimeEntryRepository timeEntryRepository;
+    private final ReportCache reportCache;
+    private final SnapshotFanout snapshotFanout;
+    private final TimeEntryAnalytics analytics;
+    private final OverviewReportProperties overviewProperties;
+    private final ProjectsReportPagingProperties pagingProperties;
     private final Clock clock;
 
     @Override
-    public OverviewReportResponse overview(ZoneId zone) {
-        LocalDateTime startOfDay = startOfToday(zone, clock);
-        LocalDateTime endOfDay = endOfToday(zone, clock);
-        LocalDateTime startOfWeek = startOfWeek(zone, clock);
-        LocalDateTime endOfWeek = endOfWeek(zone, clock);
-
-        int totalProjects = Math.toIntExact(projectRepository.count());
-        double hoursToday = toHours1(timeEntryRepository.sumMinutesBetweenAll(startOfDay, endOfDay));
-        double hoursWeek = toHours1(timeEntryRepository.sumMinutesBetweenAll(startOfWeek, endOfWeek));
-
-        // reuse your existing top-projects query if you like
-        var topProjects = timeEntryRepository.topProjectsByMinutes(startOfWeek, endOfWeek).stream()
-                .map(r -> new OverviewReportResponse.TopProject(
-                        (Long) r[0],
-                        (String) r[1],
-                        toHours1(((Number) r[2]).intValue())
-                ))
-                .limit(10)
+    public String overviewVersion(ZoneId zone) {
+        return version(overviewKey(zone));
+    }
+
+    @Override
+    public Versioned<OverviewReportResponse> overview(ZoneId zone) {
+        ReportCache.OverviewKey key = overviewKey(zone);
+        LocalDateTime endOfDay = key.dayStart().plusDays(1);
+        LocalDateTime endOfWeek = key.weekStart().plusWeeks(1);
+
+        return reportCache.overview(key, version(key), () -> loadVersioned(() -> version(key),
+                () -> loadOverview(key.dayStart(), endOfDay, key.weekStart(), endOfWeek)));
+    }
+
+    private ReportCache.OverviewKey overviewKey(ZoneId zone) {
+        return new ReportCache.OverviewKey(zone, startOfToday(zone, clock), startOfWeek(zone, clock));
+    }
+
+    private OverviewReportResponse loadOverview(LocalDateTime startOfDay, LocalDateTime endOfDay,
+                                                LocalDateTime startOfWeek, LocalDateTime endOfWeek) {
+        var store = analytics.current(min(startOfDay, startOfWeek), max(endOfDay, endOfWeek));
+        if (store.isPresent()) {
+            var view = store.get();
+            return toOverview(view.projectCount(), view.sumMinutes(startOfDay, endOfDay),
+                    view.sumMinutes(startOfWeek, endOfWeek),
+                    view.topProjects(startOfWeek, endOfWeek, overviewProperties.topProjects()));
+        }
+        Limit top = Limit.of(overviewProperties.topProjects());
+        return switch (overviewProperties.mode()) {
+            case SINGLE_STATEMENT -> fromAggregateRows(rollupRepository.overview(
+                    startOfDay, endOfDay, startOfWeek, endOfWeek, overviewProperties.topProjects()));
+            case SEQUENTIAL -> snapshotFanout.inSnapshot(() -> toOverview(projectRepository.count(),
+                    rollupRepository.sumMinutesBetweenAll(startOfDay, endOfDay),
+                    rollupRepository.sumMinutesBetweenAll(startOfWeek, endOfWeek),
+                    rollupRepository.topProjectsByMinutes(startOfWeek, endOfWeek, top)));
+            // independent queries: run them side by side on one snapshot, latency ~ the slowest one
+            case PARALLEL -> snapshotFanout.inSnapshot(overviewProperties.deadline(), scope -> {
+                var totalProjects = scope.fork(projectRepository::count);
+                var minutesToday = scope.fork(() -> rollupRepository.sumMinutesBetweenAll(startOfDay, endOfDay));
+                var minutesWeek = scope.fork(() -> rollupRepository.sumMinutesBetweenAll(startOfWeek, endOfWeek));
+                var topProjects = scope.fork(() -> rollupRepository.topProjectsByMinutes(startOfWeek, endOfWeek, top));
+                scope.join();
+                return toOverview(totalProjects.get(), minutesToday.get(), minutesWeek.get(), topProjects.get());
+            });
+        };
+    }
+
+    // totals repeat on every row; a row without a project id means nothing was booked this week
+    private static OverviewReportResponse fromAggregateRows(List<OverviewAggregate> rows) {
+        OverviewAggregate totals = rows.getFirst();
+        var topProjects = rows.stream()
+                .filter(r -> r.getProjectId() != null)
+                .map(r -> new ProjectMinutes(r.getProjectId(), r.getProjectName(), r.getProjectMinutes()))
                 .toList();
+        return toOverview(totals.getTotalProjects(), totals.getMinutesToday(), totals.getMinutesWeek(), topProjects);
+    }
 
-        return new OverviewReportResponse(totalProjects, hoursToday, hoursWeek, topProjects);
+    private static OverviewReportResponse toOverview(long projects, long minutesToday, long minutesWeek,
+                                                     List<ProjectMinutes> topRows) {
+        var topProjects = topRows.stream()
+                .map(p -> new OverviewReportResponse.TopProject(p.projectId(), p.projectName(), toHours1(p.minutes())))
+                .toList();
+
+        return new OverviewReportResponse(Math.toIntExact(projects), toHours1(minutesToday), toHours1(minutesWeek), topProjects);
     }
 
     @Override
-    public List<ProjectsReportResponse> projectsSummary(ZoneId zone, LocalDate startDate, LocalDate endDate) {
+    public String projectsSummaryVersion(ZoneId zone, LocalDate startDate, LocalDate endDate) {
+        return version(projectsKey(zone, startDate, endDate));
+    }
+
+    @Override
+    public Versioned<List<ProjectsReportResponse>> projectsSummary(ZoneId zone, LocalDate startDate, LocalDate endDate) {
+        ReportCache.ProjectsKey key = projectsKey(zone, startDate, endDate);
+        return reportCache.projectsSummary(key, version(key), () -> loadVersioned(() -> version(key),
+                () -> loadProjectsSummary(key.weekStart(), key.weekEnd(), key.rangeStart(), key.rangeEnd())));
+    }
+
+    private ReportCache.ProjectsKey projectsKey(ZoneId zone, LocalDate startDate, LocalDate endDate) {
         // week window (for “hoursWeek” & “entriesWeek”)
         LocalDateTime weekStart = startOfWeek(zone, clock);
         LocalDateTime weekEnd = endOfWeek(zone, clock);
@@ -64,22 +149,165 @@ public class AdminReportsServiceImpl implements AdminReportsService {
         LocalDateTime rangeStart = from.atStartOfDay();
         LocalDateTime rangeEnd = to.plusDays(1).atStartOfDay().minusNanos(1);
 
-        var aggregates = timeEntryRepository.summarizeAllProjects(weekStart, weekEnd, rangeStart, rangeEnd);
-
-        return aggregates.stream()
-                .map(a -> new ProjectsReportResponse(
-                        a.getProjectId(),
-                        a.getProjectName(),
-                        toHours1(a.getMinutesWeek()),
-                        toHours1(a.getMinutesRange()),
-                        a.getEntriesWeek(),
-                        a.getLastEntryAt()
-                ))
-                .sorted(Comparator.comparing(ProjectsReportResponse::hoursWeek).reversed())
+        return new ReportCache.ProjectsKey(zone, weekStart, weekEnd, rangeStart, rangeEnd);
+    }
+
+    private List<ProjectsReportResponse> loadProjectsSummary(LocalDateTime weekStart, LocalDateTime weekEnd,
+                                                             LocalDateTime rangeStart, LocalDateTime rangeEnd) {
+        var query = ProjectSummaryQuery.all(ProjectSummarySort.MINUTES_WEEK, true);
+        return analytics.current(min(weekStart, rangeStart), max(weekEnd, rangeEnd))
+                .map(view -> query.apply(view.summarizeAllProjects(weekStart, weekEnd, rangeStart, rangeEnd)))
+                .orElseGet(() -> rollupRepository.summarizeProjects(weekStart, weekEnd, rangeStart, rangeEnd, query))
+                .rows()
+                .stream()
+                .map(AdminReportsServiceImpl::toProjectsRow)
                 .toList();
     }
 
-    private static double toHours1(int minutes) {
+    @Override
+    public Versioned<ProjectsReportPage> projectsPage(ProjectsReportFilter filter) {
+        ReportCache.ProjectsKey key = projectsKey(filter.zone(), filter.startDate(), filter.endDate());
+        return loadVersioned(() -> version(key), () -> loadProjectsPage(key, filter));
+    }
+
+    private ProjectsReportPage loadProjectsPage(ReportCache.ProjectsKey key, ProjectsReportFilter filter) {
+        int size = resolvePageSize(filter.size());
+        String sort = filter.sort().column() + (filter.descending() ? ",desc" : ",asc");
+        String name = filter.name() == null || filter.name().isBlank() ? null : filter.name();
+
+        // fetch one extra row to learn whether another page exists
+        ProjectSummaryQuery query;
+        if (filter.cursor() != null && !filter.cursor().isBlank()) {
+            if (filter.page() != null) {
+                throw new IllegalArgumentException("page and cursor cannot be combined");
+            }
+            ProjectsReportCursor after = ProjectsReportCursor.decode(filter.cursor());
+            if (!after.sort().equals(sort)) {
+                throw new IllegalArgumentException("cursor was issued for sort " + after.sort());
+            }
+            query = new ProjectSummaryQuery(summarySort(filter.sort()), filter.descending(), name,
+                    after.key(), after.projectId(), 0, size + 1, filter.includeTotal());
+        } else {
+            int page = filter.page() != null ? filter.page() : 0;
+            if (page < 0) throw new IllegalArgumentException("page must not be negative");
+            query = new ProjectSummaryQuery(summarySort(filter.sort()), filter.descending(), name,
+                    null, null, (long) page * size, size + 1, filter.includeTotal());
+        }
+
+        ProjectSummaryPage result = analytics.current(min(key.weekStart(), key.rangeStart()), max(key.weekEnd(), key.rangeEnd()))
+                .map(view -> query.apply(view.summarizeAllProjects(key.weekStart(), key.weekEnd(), key.rangeStart(), key.rangeEnd())))
+                .orElseGet(() -> rollupRepository.summarizeProjects(key.weekStart(), key.weekEnd(), key.rangeStart(), key.rangeEnd(), query));
+        List<ProjectSummaryAggregate> rows = result.rows();
+
+        boolean hasNext = rows.size() > size;
+        List<ProjectSummaryAggregate> page = hasNext ? rows.subList(0, size) : rows;
+        String nextCursor = null;
+        if (hasNext) {
+            ProjectSummaryAggregate last = page.getLast();
+            nextCursor = new ProjectsReportCursor(sort, query.sort().cursorKey(last), last.getProjectId()).encode();
+        }
+        return new ProjectsReportPage(page.stream().map(AdminReportsServiceImpl::toProjectsRow).toList(), result.total(), nextCursor);
+    }
+
+    private int resolvePageSize(Integer size) {
+        if (size == null) return pagingProperties.defaultSize();
+        if (size < 1) throw new IllegalArgumentException("size must be at least 1");
+        return Math.min(size, pagingProperties.maxSize());
+    }
+
+    private static ProjectSummarySort summarySort(ProjectsReportSort sort) {
+        return switch (sort) {
+            case PROJECT_ID -> ProjectSummarySort.PROJECT_ID;
+            case PROJECT_NAME -> ProjectSummarySort.PROJECT_NAME;
+            case HOURS_WEEK -> ProjectSummarySort.MINUTES_WEEK;
+            case HOURS_MONTH -> ProjectSummarySort.MINUTES_RANGE;
+            case ENTRIES_WEEK -> ProjectSummarySort.ENTRIES_WEEK;
+            case LAST_ENTRY_AT -> ProjectSummarySort.LAST_ENTRY_AT;
+        };
+    }
+
+    private static ProjectsReportResponse toProjectsRow(ProjectSummaryAggregate a) {
+        return new ProjectsReportResponse(
+                a.getProjectId(),
+                a.getProjectName(),
+                toHours1(a.getMinutesWeek()),
+                toHours1(a.getMinutesRange()),
+                a.getEntriesWeek(),
+                a.getLastEntryAt()
+        );
+    }
+
+    @Override
+    public String timeSeriesVersion(TimeSeriesFilter filter) {
+        return version(filter);
+    }
+
+    @Override
+    public Versioned<TimeSeriesReportResponse> timeSeries(TimeSeriesFilter filter) {
+        return loadVersioned(() -> version(filter), () -> loadTimeSeries(filter));
+    }
+
+    private TimeSeriesReportResponse loadTimeSeries(TimeSeriesFilter filter) {
+        LocalDateTime from = filter.startDate().atStartOfDay();
+        LocalDateTime to = filter.endDate().plusDays(1).atStartOfDay();
+        Map<LocalDateTime, Long> minutes = rollupRepository
+                .minutesPerBucket(filter.bucket().field(), from, to, filter.projectId(), filter.userId()).stream()
+                // two rows can name the same local bucket, e.g. the repeated hour of a DST fall-back
+                .collect(Collectors.toMap(BucketMinutes::bucketStart, BucketMinutes::minutes, Long::sum));
+
+        // dense series: the chart gets a point for every bucket, not only for those with entries
+        List<TimeSeriesReportResponse.Point> points = new ArrayList<>();
+        for (LocalDateTime b = filter.bucket().truncate(from); b.isBefore(to); b = filter.bucket().next(b)) {
+            points.add(new TimeSeriesReportResponse.Point(b, minutes.getOrDefault(b, 0L)));
+        }
+        return new TimeSeriesReportResponse(filter.bucket(), filter.startDate(), filter.endDate(), points);
+    }
+
+    /*
+     * Report versions: the windows' first days (so that the tag of a URL moves when "today" does) followed by
+     * the data version over every day the windows touch.
+     */
+    private String version(ReportCache.OverviewKey key) {
+        LocalDateTime from = min(key.dayStart(), key.weekStart());
+        LocalDateTime to = max(key.dayStart().plusDays(1), key.weekStart().plusWeeks(1));
+        return key.dayStart().toLocalDate() + "." + key.weekStart().toLocalDate() + "-" + dataVersion(from, to);
+    }
+
+    private String version(ReportCache.ProjectsKey key) {
+        LocalDateTime from = min(key.weekStart(), key.rangeStart());
+        LocalDateTime to = max(key.weekEnd(), key.rangeEnd());
+        return key.weekStart().toLocalDate() + "." + key.rangeStart().toLocalDate() + "." + key.rangeEnd().toLocalDate()
+                + "-" + dataVersion(from, to);
+    }
+
+    // bucket and filters are part of the URL; the range is too, but defaults to one that moves with "today"
+    private String version(TimeSeriesFilter filter) {
+        return filter.startDate() + "." + filter.endDate() + "-"
+                + dataVersion(filter.startDate().atStartOfDay(), filter.endDate().plusDays(1).atStartOfDay());
+    }
+
+    private String dataVersion(LocalDateTime from, LocalDateTime toExclusive) {
+        return timeEntryRepository.reportVersion(from.toLocalDate(), toExclusive.minusNanos(1).toLocalDate());
+    }
+
+    /*
+     * Version and report are read in one snapshot, so the report is exactly as of the version it is cached
+     * and tagged with. The report's own inSnapshot calls join this transaction, and the in-memory store
+     * catches up to it before answering.
+     */
+    private <T> Versioned<T> loadVersioned(Supplier<String> version, Supplier<T> report) {
+        return snapshotFanout.inSnapshot(() -> new Versioned<>(version.get(), report.get()));
+    }
+
+    private static LocalDateTime min(LocalDateTime a, LocalDateTime b) {
+        return a.isBefore(b) ? a : b;
+    }
+
+    private static LocalDateTime max(LocalDateTime a, LocalDateTime b) {
+        return a.isAfter(b) ? a : b;
+    }
+
+    private static double toHours1(long minutes) {
         return Math.round((minutes / 60.0) * 10.0) / 10.0;
     }
 
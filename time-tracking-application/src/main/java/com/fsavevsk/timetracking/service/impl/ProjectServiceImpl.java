@@ -7,11 +7,13 @@ import com.fsavevsk.timetracking.api.dto.Project;
 import com.fsavevsk.timetracking.service.ProjectService;
 import com.fsavevsk.timetracking.persistence.entity.ProjectEntity;
 import com.fsavevsk.timetracking.persistence.repository.ProjectRepository;
+import com.fsavevsk.timetracking.service.cache.ProjectCatalog;
+import com.fsavevsk.timetracking.service.event.ProjectsChangedEvent;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
-import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
@@ -19,26 +21,32 @@ public class ProjectServiceImpl implements ProjectService {
 
     private final ProjectRepository projectRepository;
     private final ProjectMapper projectMapper;
+    private final ProjectCatalog projectCatalog;
+    private final ApplicationEventPublisher events;
 
     @Override
     public Project createProject(CreateProject project) {
         ProjectEntity saved = projectRepository.save(projectMapper.toEntity(project));
-        return projectMapper.toDomain(saved);
+        Project created = projectMapper.toDomain(saved);
+        projectCatalog.put(created);
+        events.publishEvent(new ProjectsChangedEvent());
+        return created;
     }
 
     @Override
     public List<Project> getAllProjects() {
-        return projectRepository.findAll()
-                .stream()
-                .map(projectMapper::toDomain)
-                .collect(Collectors.toList());
+        return projectCatalog.all();
+    }
+
+    @Override
+    public String projectsVersion() {
+        return projectCatalog.tag();
     }
 
     @Override
     public Project findProjectByName(String name) {
-        ProjectEntity project = projectRepository.findProjectByName(name)
+        return projectCatalog.findByName(name)
                 .orElseThrow(() -> new NotFoundException("Project not found"));
-        return projectMapper.toDomain(project);
     }
 
     @Override
@@ -46,5 +54,7 @@ public class ProjectServiceImpl implements ProjectService {
         ProjectEntity project = projectRepository.findById(id)
                 .orElseThrow(() -> new NotFoundException("Project not found"));
         projectRepository.delete(project);
+        projectCatalog.remove(id);
+        events.publishEvent(new ProjectsChangedEvent());
     }
 }
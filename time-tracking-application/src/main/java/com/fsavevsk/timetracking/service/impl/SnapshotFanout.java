@@ -0,0 +1,152 @@
+package com.fsavevsk.timetracking.service.impl;
+
+import com.fsavevsk.timetracking.persistence.routing.ReplicaRoutingDataSource;
+import com.fsavevsk.timetracking.persistence.routing.WorkloadPoolsProperties;
+import com.fsavevsk.timetracking.persistence.routing.Workloads;
+import com.fsavevsk.timetracking.util.ParallelScope;
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
+
+/**
+ * Runs read-only queries concurrently, each on its own connection, while all of them see one database
+ * snapshot: a REPEATABLE READ transaction on the calling thread exports its snapshot
+ * ({@code pg_export_snapshot()}) and every forked task imports it before its first query. The exporting
+ * transaction stays open until the body returns, which keeps the snapshot importable.
+ * <p>
+ * Costs one extra pooled connection per call for the exporter. Forks across all calls may hold at most half
+ * of their pool; a fork that finds no permit runs on the calling thread, in the exporting transaction,
+ * instead of waiting for a connection while the exporter holds one.
+ */
+@Component
+@RequiredArgsConstructor
+public class SnapshotFanout {
+
+    // what pg_export_snapshot() returns, e.g. 00000003-0000001B-1; checked before it goes into SQL text
+    private static final Pattern SNAPSHOT_ID = Pattern.compile("[0-9A-F]+(-[0-9A-F]+)+");
+    // Hikari's default maximumPoolSize, for a DataSource that is not a Hikari pool
+    private static final int DEFAULT_POOL_SIZE = 10;
+
+    private final PlatformTransactionManager transactionManager;
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectProvider<HikariDataSource> primaryPool;
+    private final ObjectProvider<WorkloadPoolsProperties> workloadPools;
+    private final ConcurrentMap<String, Semaphore> forkPermits = new ConcurrentHashMap<>();
+
+    public final class Scope {
+        private final ParallelScope scope;
+        private final String snapshotId;
+        private final String route;
+        private final String workload;
+        private final long statementTimeoutMs;
+        private final Semaphore permits;
+        // one per fork holding a permit; whoever sets it first (the task starting, or cleanup) releases it
+        private final List<AtomicBoolean> claims = new ArrayList<>();
+
+        private Scope(ParallelScope scope, String snapshotId, String route, Duration deadline) {
+            this.scope = scope;
+            this.snapshotId = snapshotId;
+            this.route = route;
+            this.workload = Workloads.current();
+            this.statementTimeoutMs = deadline.toMillis();
+            this.permits = forkPermits(workload);
+        }
+
+        public <T> Supplier<T> fork(Supplier<T> query) {
+            if (!permits.tryAcquire()) {
+                // the calling thread is inside the exporting transaction, so it sees the same snapshot
+                T result = query.get();
+                return () -> result;
+            }
+            var claim = new AtomicBoolean();
+            claims.add(claim);
+            // snapshots are server-local: import on whichever server (primary or replica) exported it,
+            // drawing from the caller's workload pool
+            return scope.fork(() -> {
+                if (!claim.compareAndSet(false, true)) {
+                    throw new IllegalStateException("Fork cancelled before it started");
+                }
+                try {
+                    return Workloads.callAs(workload, () -> ReplicaRoutingDataSource.pinnedTo(route,
+                            () -> readOnlySnapshot().execute(status -> {
+                                jdbcTemplate.execute("SET TRANSACTION SNAPSHOT '" + snapshotId + "'");
+                                // a cancelled task cannot interrupt a running statement; let the server stop it at the deadline
+                                jdbcTemplate.execute("SET LOCAL statement_timeout = " + statementTimeoutMs);
+                                return query.get();
+                            })));
+                } finally {
+                    permits.release();
+                }
+            });
+        }
+
+        public void join() {
+            scope.join();
+        }
+
+        // forks cancelled before they started never run their finally
+        private void releaseUnstarted() {
+            claims.forEach(claim -> {
+                if (claim.compareAndSet(false, true)) permits.release();
+            });
+        }
+    }
+
+    public <T> T inSnapshot(Duration deadline, Function<Scope, T> body) {
+        return readOnlySnapshot().execute(status -> {
+            String snapshotId = jdbcTemplate.queryForObject("SELECT pg_export_snapshot()", String.class);
+            if (snapshotId == null || !SNAPSHOT_ID.matcher(snapshotId).matches()) {
+                throw new IllegalStateException("Unexpected snapshot id: " + snapshotId);
+            }
+            Scope fanout = null;
+            try (var scope = new ParallelScope(deadline)) {
+                fanout = new Scope(scope, snapshotId, ReplicaRoutingDataSource.currentRoute(), deadline);
+                return body.apply(fanout);
+            } finally {
+                if (fanout != null) fanout.releaseUnstarted();
+            }
+        });
+    }
+
+    /** Sequential variant: the body's queries share one REPEATABLE READ transaction on the calling thread. */
+    public <T> T inSnapshot(Supplier<T> body) {
+        return readOnlySnapshot().execute(status -> body.get());
+    }
+
+    private Semaphore forkPermits(String workload) {
+        return forkPermits.computeIfAbsent(workload != null ? workload : "", key -> {
+            HikariDataSource primary = primaryPool.getIfUnique();
+            int poolSize = primary != null ? primary.getMaximumPoolSize() : DEFAULT_POOL_SIZE;
+            WorkloadPoolsProperties pools = workloadPools.getIfAvailable();
+            WorkloadPoolsProperties.Pool pool = workload != null && pools != null ? pools.pools().get(workload) : null;
+            if (pool != null && pool.maximumPoolSize() != null) {
+                poolSize = pool.maximumPoolSize();
+            }
+            // the other half stays for exporters and every other request
+            return new Semaphore(Math.max(1, poolSize / 2));
+        });
+    }
+
+    private TransactionTemplate readOnlySnapshot() {
+        var template = new TransactionTemplate(transactionManager);
+        template.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+        template.setReadOnly(true);
+        return template;
+    }
+}
@@ -0,0 +1,90 @@
+package com.fsavevsk.timetracking.service.impl;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fsavevsk.timetracking.api.dto.admin.ExportFormat;
+import com.fsavevsk.timetracking.api.dto.admin.TimeEntryExportFilter;
+import com.fsavevsk.timetracking.persistence.projection.TimeEntryExportRow;
+import com.fsavevsk.timetracking.persistence.repository.TimeEntryRepository;
+import com.fsavevsk.timetracking.persistence.routing.Workload;
+import com.fsavevsk.timetracking.service.TimeEntryExportService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Writes rows to the response as they come off the JDBC cursor; nothing is collected, so heap use
+ * does not depend on how many rows match.
+ */
+@Service
+@Workload(Workload.ANALYTICS)
+@RequiredArgsConstructor
+public class TimeEntryExportServiceImpl implements TimeEntryExportService {
+
+    private static final String CSV_HEADER =
+            "id,projectId,projectName,userId,title,description,startTime,endTime,durationMinutes";
+
+    private final TimeEntryRepository timeEntryRepository;
+    private final ObjectMapper objectMapper;
+
+    @Override
+    @Transactional(readOnly = true)
+    public void export(ExportFormat format, TimeEntryExportFilter filter, OutputStream out) throws IOException {
+        try (Stream<TimeEntryExportRow> rows = timeEntryRepository.streamForExport(
+                filter.from(), filter.to(), filter.projectId(), filter.userId())) {
+            switch (format) {
+                case CSV -> writeCsv(rows.iterator(), out);
+                case NDJSON -> writeNdjson(rows.iterator(), out);
+            }
+        }
+    }
+
+    private void writeCsv(Iterator<TimeEntryExportRow> rows, OutputStream out) throws IOException {
+        Writer w = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        w.write(CSV_HEADER);
+        w.write("\r\n");
+        while (rows.hasNext()) {
+            TimeEntryExportRow r = rows.next();
+            w.write(String.valueOf(r.id()));
+            w.write(',');
+            w.write(String.valueOf(r.projectId()));
+            w.write(',');
+            w.write(csv(r.projectName()));
+            w.write(',');
+            w.write(csv(r.userId()));
+            w.write(',');
+            w.write(csv(r.title()));
+            w.write(',');
+            w.write(csv(r.description()));
+            w.write(',');
+            w.write(r.startTime() != null ? r.startTime().toString() : "");
+            w.write(',');
+            w.write(r.endTime() != null ? r.endTime().toString() : "");
+            w.write(',');
+            w.write(r.durationMinutes() != null ? r.durationMinutes().toString() : "");
+            w.write("\r\n");
+        }
+        w.flush();
+    }
+
+    private void writeNdjson(Iterator<TimeEntryExportRow> rows, OutputStream out) throws IOException {
+        OutputStream buffered = new BufferedOutputStream(out);
+        while (rows.hasNext()) {
+            buffered.write(objectMapper.writeValueAsBytes(rows.next()));
+            buffered.write('\n');
+        }
+        buffered.flush();
+    }
+
+    /** RFC 4180 quoting: wrap in quotes when the value has a delimiter, quote or line break. */
+    private static String csv(String value) {
+        if (value == null) return "";
+        boolean quote = value.indexOf(',') >= 0 || value.indexOf('"') >= 0
+                || value.indexOf('\n') >= 0 || value.indexOf('\r') >= 0;
+        return quote ? '"' + value.replace("\"", "\"\"") + '"' : value;
+    }
+}
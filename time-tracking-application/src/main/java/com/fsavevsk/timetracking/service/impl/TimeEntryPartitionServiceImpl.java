@@ -0,0 +1,57 @@
+package com.fsavevsk.timetracking.service.impl;
+
+import com.fsavevsk.timetracking.configuration.TimeEntryPartitionProperties;
+import com.fsavevsk.timetracking.persistence.repository.TimeEntryPartitionRepository;
+import com.fsavevsk.timetracking.persistence.repository.TimeEntryRepository;
+import com.fsavevsk.timetracking.service.TimeEntryPartitionService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Clock;
+import java.time.YearMonth;
+import java.util.List;
+
+@Service
+@RequiredArgsConstructor
+public class TimeEntryPartitionServiceImpl implements TimeEntryPartitionService {
+
+    private final TimeEntryPartitionRepository partitionRepository;
+    private final TimeEntryRepository timeEntryRepository;
+    private final TimeEntryPartitionProperties properties;
+    private final Clock clock;
+
+    @Override
+    @Transactional
+    public void maintain() {
+        partitionRepository.lockForMaintenance();
+        YearMonth current = YearMonth.now(clock);
+        List<YearMonth> existing = partitionRepository.findMonthlyPartitions();
+
+        for (int i = 0; i <= properties.monthsAhead(); i++) {
+            YearMonth month = current.plusMonths(i);
+            if (!existing.contains(month)) {
+                partitionRepository.createMonthlyPartition(month);
+            }
+        }
+
+        if (properties.retentionMonths() == null) return;
+        YearMonth oldestKept = current.minusMonths(properties.retentionMonths());
+        boolean removed = false;
+        for (YearMonth month : existing) {
+            if (!month.isBefore(oldestKept)) continue;
+            partitionRepository.removeFromRollups(month);
+            switch (properties.retentionAction()) {
+                case DETACH -> partitionRepository.detachMonthlyPartition(month);
+                case DROP -> partitionRepository.dropMonthlyPartition(month);
+            }
+            removed = true;
+        }
+        if (removed) {
+            // removes entries of every user at once, which no per-user or per-day version records
+            timeEntryRepository.bumpBulkVersion();
+            timeEntryRepository.bumpSyncEpoch();
+            timeEntryRepository.deleteAllTombstones();
+        }
+    }
+}
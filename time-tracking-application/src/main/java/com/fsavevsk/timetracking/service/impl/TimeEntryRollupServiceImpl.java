@@ -0,0 +1,33 @@
+package com.fsavevsk.timetracking.service.impl;
+
+import com.fsavevsk.timetracking.persistence.repository.TimeEntryRepository;
+import com.fsavevsk.timetracking.persistence.repository.TimeEntryRollupRepository;
+import com.fsavevsk.timetracking.persistence.routing.Workload;
+import com.fsavevsk.timetracking.service.TimeEntryRollupService;
+import com.fsavevsk.timetracking.service.event.RollupsRebuiltEvent;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+@Service
+@Workload(Workload.ANALYTICS)
+@RequiredArgsConstructor
+public class TimeEntryRollupServiceImpl implements TimeEntryRollupService {
+
+    private final TimeEntryRollupRepository rollupRepository;
+    private final TimeEntryRepository timeEntryRepository;
+    private final ApplicationEventPublisher events;
+
+    @Override
+    @Transactional
+    public int rebuild() {
+        // share lock keeps writers out so the rebuilt buckets match the entries exactly
+        rollupRepository.lockEntriesForRebuild();
+        rollupRepository.deleteAllRollups();
+        int buckets = rollupRepository.insertAllFromEntries();
+        timeEntryRepository.bumpBulkVersion();
+        events.publishEvent(new RollupsRebuiltEvent(buckets));
+        return buckets;
+    }
+}
@@ -1,50 +1,248 @@
 package com.fsavevsk.timetracking.service.impl;
 
 import com.fsavevsk.timetracking.api.dto.CreateTimeEntryRequest;
+import com.fsavevsk.timetracking.api.dto.Project;
+import com.fsavevsk.timetracking.api.dto.TimeEntryChanges;
+import com.fsavevsk.timetracking.api.dto.TimeEntryPage;
 import com.fsavevsk.timetracking.api.dto.TimeEntryResponse;
+import com.fsavevsk.timetracking.api.dto.TimeEntryUploadResult;
+import com.fsavevsk.timetracking.api.dto.TimeEntryUploadResult.Outcome;
+import com.fsavevsk.timetracking.api.dto.UploadTimeEntryRequest;
 import com.fsavevsk.timetracking.api.exception.NotFoundException;
 import com.fsavevsk.timetracking.api.mapper.TimeEntryMapper;
+import com.fsavevsk.timetracking.configuration.TimeEntryPagingProperties;
 import com.fsavevsk.timetracking.persistence.entity.ProjectEntity;
 import com.fsavevsk.timetracking.persistence.entity.TimeEntryEntity;
+import com.fsavevsk.timetracking.persistence.projection.ClientEntryId;
+import com.fsavevsk.timetracking.persistence.projection.TimeEntryView;
 import com.fsavevsk.timetracking.persistence.repository.ProjectRepository;
 import com.fsavevsk.timetracking.persistence.repository.TimeEntryRepository;
+import com.fsavevsk.timetracking.persistence.repository.TimeEntryRollupDelta;
+import com.fsavevsk.timetracking.persistence.repository.TimeEntryRollupRepository;
+import com.fsavevsk.timetracking.persistence.repository.TimeEntryUpsert;
 import com.fsavevsk.timetracking.security.CurrentUserService;
 import com.fsavevsk.timetracking.service.TimeEntryService;
-import jakarta.transaction.Transactional;
+import com.fsavevsk.timetracking.service.cache.ProjectCatalog;
+import com.fsavevsk.timetracking.service.event.TimeEntriesChangedEvent;
+import com.fsavevsk.timetracking.util.ChangeToken;
+import com.fsavevsk.timetracking.util.TimeEntryCursor;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
 @Transactional
 public class TimeEntryServiceImpl implements TimeEntryService {
 
+    private static final String FOREIGN_KEY_VIOLATION = "23503";
+
     private final TimeEntryRepository timeEntryRepo;
     private final ProjectRepository projectRepo;
+    private final ProjectCatalog projectCatalog;
+    private final TimeEntryRollupRepository rollupRepo;
     private final TimeEntryMapper mapper;
     private final CurrentUserService currentUser;
+    private final TimeEntryPagingProperties paging;
+    private final ApplicationEventPublisher events;
+
+    @Override
+    @Transactional(readOnly = true)
+    public String entriesVersion() {
+        return timeEntryRepo.entriesVersion(currentUser.userId());
+    }
 
     @Override
+    @Transactional(readOnly = true)
     public List<TimeEntryResponse> listForCurrentUser() {
         String userId = currentUser.userId();
-        return timeEntryRepo.findByUserIdOrderByStartTimeDesc(userId)
+        return timeEntryRepo.findViewsByUserId(userId)
                 .stream().map(mapper::toResponse).toList();
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public TimeEntryPage pageForCurrentUser(String cursor, Integer size) {
+        int pageSize = resolvePageSize(size);
+        String userId = currentUser.userId();
+
+        // fetch one extra row to learn whether another page exists without a count query
+        Limit limit = Limit.of(pageSize + 1);
+        List<TimeEntryView> rows;
+        if (cursor == null || cursor.isBlank()) {
+            rows = timeEntryRepo.findFirstPageByUserId(userId, limit);
+        } else {
+            TimeEntryCursor after = TimeEntryCursor.decode(cursor);
+            rows = timeEntryRepo.findPageByUserIdAfter(userId, after.startTime(), after.id(), limit);
+        }
+
+        boolean hasNext = rows.size() > pageSize;
+        List<TimeEntryView> page = hasNext ? rows.subList(0, pageSize) : rows;
+        String nextCursor = null;
+        if (hasNext) {
+            TimeEntryView last = page.getLast();
+            nextCursor = new TimeEntryCursor(last.startTime(), last.id()).encode();
+        }
+        return new TimeEntryPage(page.stream().map(mapper::toResponse).toList(), nextCursor);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public TimeEntryChanges changesForCurrentUser(String since) {
+        String userId = currentUser.userId();
+        ChangeToken from = since == null || since.isBlank() ? null : ChangeToken.decode(since);
+
+        // horizon first: everything below it has finished, so the reads below cannot miss it
+        long horizon = timeEntryRepo.syncHorizon();
+        long epoch = timeEntryRepo.syncEpoch();
+        String next = new ChangeToken(epoch, horizon).encode();
+
+        if (from == null || from.epoch() != epoch) {
+            return resync(userId, next);
+        }
+        List<TimeEntryResponse> changed = timeEntryRepo.findChangedSince(userId, from.horizon())
+                .stream().map(mapper::toResponse).toList();
+        List<Long> deleted = timeEntryRepo.findDeletedSince(userId, from.horizon());
+        // after the tombstones: if a prune removed some of them, its floor is visible by now
+        if (from.horizon() < timeEntryRepo.syncFloor()) {
+            return resync(userId, next);
+        }
+        return new TimeEntryChanges(changed, deleted, next, false);
+    }
+
+    private TimeEntryChanges resync(String userId, String next) {
+        List<TimeEntryResponse> all = timeEntryRepo.findChangedSince(userId, 0)
+                .stream().map(mapper::toResponse).toList();
+        return new TimeEntryChanges(all, List.of(), next, true);
+    }
+
     @Override
     public TimeEntryResponse createForCurrentUser(CreateTimeEntryRequest req) {
         if (!req.endTime().isAfter(req.startTime())) {
             throw new IllegalArgumentException("Time entry end time must be after start time");
         }
         String userId = currentUser.userId();
-        ProjectEntity project = projectRepo.findById(req.projectId())
+        Project project = projectCatalog.findById(req.projectId())
                 .orElseThrow(() -> new NotFoundException("Project not found"));
 
-        TimeEntryEntity entity = mapper.toEntity(req, userId, project);
-        TimeEntryEntity saved  = timeEntryRepo.save(entity);
-        return mapper.toResponse(saved);
+        // a reference, not a SELECT: the foreign key catches a project deleted since the catalog saw it
+        TimeEntryEntity entity = mapper.toEntity(req, userId, projectRepo.getReferenceById(project.id()));
+        TimeEntryEntity saved = insert(() -> timeEntryRepo.saveAndFlush(entity), List.of(project.id()));
+        rollupRepo.applyDeltas(TimeEntryRollupDelta.forEntries(List.of(saved)));
+        changed(userId, touched(saved.getStartTime(), saved.getDurationMinutes()).toList());
+        return mapper.toResponse(saved, project);
+    }
+
+    @Override
+    public List<TimeEntryResponse> createBatchForCurrentUser(List<CreateTimeEntryRequest> requests) {
+        requireEndAfterStart(requests, CreateTimeEntryRequest::startTime, CreateTimeEntryRequest::endTime);
+        String userId = currentUser.userId();
+        Set<Long> projectIds = requests.stream().map(CreateTimeEntryRequest::projectId).collect(Collectors.toSet());
+        Map<Long, Project> projects = requireProjects(projectIds);
+
+        Map<Long, ProjectEntity> references = new HashMap<>();
+        List<TimeEntryEntity> entities = requests.stream()
+                .map(req -> mapper.toEntity(req, userId,
+                        references.computeIfAbsent(req.projectId(), projectRepo::getReferenceById)))
+                .toList();
+        // ids come from the pooled sequence, so the INSERTs are sent as JDBC batches by the flush
+        List<TimeEntryEntity> saved = insert(() -> {
+            List<TimeEntryEntity> all = timeEntryRepo.saveAll(entities);
+            timeEntryRepo.flush();
+            return all;
+        }, projectIds);
+        rollupRepo.applyDeltas(TimeEntryRollupDelta.forEntries(saved));
+        changed(userId, saved.stream().flatMap(e -> touched(e.getStartTime(), e.getDurationMinutes())).toList());
+        return saved.stream().map(e -> mapper.toResponse(e, projects.get(e.getProject().getId()))).toList();
+    }
+
+    @Override
+    public List<TimeEntryUploadResult> uploadForCurrentUser(List<UploadTimeEntryRequest> requests) {
+        requireEndAfterStart(requests, UploadTimeEntryRequest::startTime, UploadTimeEntryRequest::endTime);
+        Set<UUID> seen = new HashSet<>();
+        List<Integer> repeated = IntStream.range(0, requests.size())
+                .filter(i -> !seen.add(requests.get(i).clientId()))
+                .boxed()
+                .toList();
+        if (!repeated.isEmpty()) {
+            throw new IllegalArgumentException("Client ids must be unique within an upload (entries " + repeated + ")");
+        }
+        String userId = currentUser.userId();
+        Set<Long> projectIds = requests.stream().map(UploadTimeEntryRequest::projectId).collect(Collectors.toSet());
+        requireProjects(projectIds);
+
+        // keys stay locked until commit, so what is read below cannot change under a concurrent retry
+        Map<UUID, ClientEntryId> keys = timeEntryRepo.claimClientIds(userId, seen).stream()
+                .collect(Collectors.toMap(ClientEntryId::clientId, Function.identity()));
+        List<Long> knownIds = keys.values().stream().filter(k -> !k.claimed()).map(ClientEntryId::entryId).toList();
+        Map<Long, TimeEntryView> stored = knownIds.isEmpty() ? Map.of()
+                : timeEntryRepo.findViewsByUserIdAndIdIn(userId, knownIds).stream()
+                        .collect(Collectors.toMap(TimeEntryView::id, Function.identity()));
+
+        List<TimeEntryUpsert> inserts = new ArrayList<>();
+        List<TimeEntryUpsert> updates = new ArrayList<>();
+        List<TimeEntryView> replaced = new ArrayList<>();
+        List<TimeEntryUploadResult> results = new ArrayList<>(requests.size());
+        for (UploadTimeEntryRequest req : requests) {
+            ClientEntryId key = keys.get(req.clientId());
+            TimeEntryUpsert entry = toUpsert(key.entryId(), req);
+            TimeEntryView old = stored.get(key.entryId());
+            Outcome outcome;
+            if (key.claimed()) {
+                inserts.add(entry);
+                outcome = Outcome.CREATED;
+            } else if (old == null) {
+                outcome = Outcome.DELETED;
+            } else if (sameContents(old, entry)) {
+                outcome = Outcome.UNCHANGED;
+            } else {
+                updates.add(entry);
+                replaced.add(old);
+                outcome = Outcome.UPDATED;
+            }
+            results.add(new TimeEntryUploadResult(req.clientId(), key.entryId(), outcome));
+        }
+        if (inserts.isEmpty() && updates.isEmpty()) {
+            return results; // a retry of what is stored already: nothing to write
+        }
+
+        insert(() -> {
+            timeEntryRepo.insertEntries(userId, inserts);
+            timeEntryRepo.updateEntries(userId, updates);
+            return null;
+        }, projectIds);
+        rollupRepo.removeDeltas(TimeEntryRollupDelta.merge(replaced.stream()
+                .flatMap(v -> TimeEntryRollupDelta.of(v.projectId(), userId, v.startTime(), v.durationMinutes()).stream())
+                .toList()));
+        List<TimeEntryUpsert> written = Stream.concat(inserts.stream(), updates.stream()).toList();
+        rollupRepo.applyDeltas(TimeEntryRollupDelta.merge(written.stream()
+                .flatMap(e -> TimeEntryRollupDelta.of(e.projectId(), userId, e.startTime(), e.durationMinutes()).stream())
+                .toList()));
+        changed(userId, Stream.concat(written.stream().flatMap(e -> touched(e.startTime(), e.durationMinutes())),
+                replaced.stream().flatMap(v -> touched(v.startTime(), v.durationMinutes()))).toList());
+        return results;
     }
 
     @Override
@@ -54,5 +252,95 @@ public class TimeEntryServiceImpl implements TimeEntryService {
                 .orElseThrow(() -> new NotFoundException("Time entry not found"));
 
         timeEntryRepo.delete(e);
+        timeEntryRepo.flush(); // the buckets' last_start is recomputed from the entries still there
+        rollupRepo.removeDeltas(TimeEntryRollupDelta.of(e.getProject().getId(), userId, e.getStartTime(),
+                e.getDurationMinutes()));
+        timeEntryRepo.insertTombstone(e.getId(), userId);
+        changed(userId, touched(e.getStartTime(), e.getDurationMinutes()).toList());
+    }
+
+    /**
+     * Moves the data versions behind conditional GETs and notifies listeners, in the writing transaction.
+     * {@code times} name every day whose report totals the write changes (see {@link #touched}).
+     */
+    private void changed(String userId, List<LocalDateTime> times) {
+        timeEntryRepo.bumpVersions(userId, times.stream().map(LocalDateTime::toLocalDate).toList());
+        events.publishEvent(new TimeEntriesChangedEvent(times));
+    }
+
+    /**
+     * The start of an entry and every midnight its minutes run past: rollups apportion minutes over the hours
+     * they overlap (see {@link TimeEntryRollupDelta}), so an overnight entry also counts towards the next day.
+     */
+    private static Stream<LocalDateTime> touched(LocalDateTime start, Integer durationMinutes) {
+        LocalDateTime end = start.truncatedTo(ChronoUnit.MINUTES).plusMinutes(durationMinutes != null ? durationMinutes : 0);
+        return Stream.concat(Stream.of(start),
+                Stream.iterate(start.toLocalDate().plusDays(1).atStartOfDay(), end::isAfter, day -> day.plusDays(1)));
+    }
+
+    private static <T> void requireEndAfterStart(List<T> requests, Function<T, LocalDateTime> start,
+                                                 Function<T, LocalDateTime> end) {
+        List<Integer> invalid = IntStream.range(0, requests.size())
+                .filter(i -> !end.apply(requests.get(i)).isAfter(start.apply(requests.get(i))))
+                .boxed()
+                .toList();
+        if (!invalid.isEmpty()) {
+            throw new IllegalArgumentException("Time entry end time must be after start time (entries " + invalid + ")");
+        }
+    }
+
+    /** Resolves every referenced project from the catalog; no query unless one is unknown to it. */
+    private Map<Long, Project> requireProjects(Set<Long> projectIds) {
+        Map<Long, Project> projects = new HashMap<>();
+        projectIds.forEach(id -> projectCatalog.findById(id).ifPresent(p -> projects.put(id, p)));
+        if (projects.size() != projectIds.size()) {
+            List<Long> missing = projectIds.stream().filter(id -> !projects.containsKey(id)).sorted().toList();
+            throw new NotFoundException("Project not found: " + missing);
+        }
+        return projects;
+    }
+
+    /** Stored at microsecond precision, like every timestamp column, so that a retry compares equal. */
+    private static TimeEntryUpsert toUpsert(Long id, UploadTimeEntryRequest req) {
+        LocalDateTime start = req.startTime().truncatedTo(ChronoUnit.MICROS);
+        LocalDateTime end = req.endTime().truncatedTo(ChronoUnit.MICROS);
+        return new TimeEntryUpsert(id, req.projectId(), req.title(), req.description(), start, end,
+                (int) Duration.between(start, end).toMinutes());
+    }
+
+    private static boolean sameContents(TimeEntryView stored, TimeEntryUpsert entry) {
+        return stored.projectId().equals(entry.projectId())
+                && stored.title().equals(entry.title())
+                && Objects.equals(stored.description(), entry.description())
+                && stored.startTime().equals(entry.startTime())
+                && Objects.equals(stored.endTime(), entry.endTime());
+    }
+
+    /**
+     * Runs the INSERTs, turning a foreign key violation into 404: one of {@code projectIds} was deleted after
+     * the catalog resolved it, and is dropped from the catalog.
+     */
+    private <T> T insert(Supplier<T> write, Collection<Long> projectIds) {
+        try {
+            return write.get();
+        } catch (DataIntegrityViolationException e) {
+            if (!isForeignKeyViolation(e)) throw e;
+            // the failed statement aborted the transaction, so which project went missing cannot be asked
+            projectIds.forEach(projectCatalog::remove);
+            throw new NotFoundException("Project not found");
+        }
+    }
+
+    private static boolean isForeignKeyViolation(Throwable e) {
+        for (Throwable t = e; t != null; t = t.getCause()) {
+            if (t instanceof SQLException sql && FOREIGN_KEY_VIOLATION.equals(sql.getSQLState())) return true;
+        }
+        return false;
+    }
+
+    private int resolvePageSize(Integer size) {
+        if (size == null) return paging.defaultSize();
+        if (size < 1) throw new IllegalArgumentException("size must be at least 1");
+        return Math.min(size, paging.maxSize());
     }
 }
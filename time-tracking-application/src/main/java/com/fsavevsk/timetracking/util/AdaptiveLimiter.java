@@ -0,0 +1,158 @@
+package com.fsavevsk.timetracking.util;
+
+import java.time.Duration;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.DoubleSupplier;
+import java.util.function.LongSupplier;
+
+/**
+ * Concurrency limit that adapts to observed latency, in the style of Netflix's Gradient2 limit.
+ * <p>
+ * A long-term average of response times is the baseline. When recent samples are no slower than the
+ * baseline (within {@link #TOLERANCE}) the limit grows by about its square root per sample; as they get
+ * slower, it shrinks in proportion to the ratio. While the connection pool has callers waiting, the limit
+ * backs off multiplicatively instead, so requests queue here rather than inside the pool. Samples taken
+ * while less than half the limit was in use are ignored, since they say nothing about capacity.
+ * <p>
+ * Callers over the limit wait up to {@code maxWait} in a queue of at most {@code queueSize}; beyond that
+ * {@link #tryAcquire()} returns null and the caller should shed the request.
+ */
+public class AdaptiveLimiter {
+
+    static final double TOLERANCE = 1.5;
+    static final double SMOOTHING = 0.2;
+    static final double BACKOFF = 0.9;
+    static final int LONG_WINDOW = 100;
+
+    public enum Rejection { QUEUE_FULL, TIMEOUT }
+
+    public interface Listener {
+        void rejected(Rejection reason);
+    }
+
+    /** Admission granted by {@link #tryAcquire()}; hand it back to {@link #release} exactly once. */
+    public record Permit(long startNanos, int inFlight) {}
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final int queueSize;
+    private final long maxWaitNanos;
+    private final DoubleSupplier poolPending;
+    private final LongSupplier nanoTime;
+    private final Listener listener;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition permitFreed = lock.newCondition();
+    private volatile double limit;
+    private double longRttNanos;
+    private int inFlight;
+    private int queued;
+
+    public AdaptiveLimiter(int initialLimit, int minLimit, int maxLimit, int queueSize, Duration maxWait,
+                           DoubleSupplier poolPending, LongSupplier nanoTime, Listener listener) {
+        if (minLimit < 1 || maxLimit < minLimit) {
+            throw new IllegalArgumentException("Limits must satisfy 1 <= minLimit <= maxLimit");
+        }
+        this.limit = Math.clamp(initialLimit, minLimit, maxLimit);
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.queueSize = queueSize;
+        this.maxWaitNanos = maxWait.toNanos();
+        this.poolPending = poolPending;
+        this.nanoTime = nanoTime;
+        this.listener = listener;
+    }
+
+    /** Admits the caller, waiting for a free slot if needed; null means shed the request. */
+    public Permit tryAcquire() {
+        lock.lock();
+        try {
+            if (inFlight < currentLimit()) {
+                return admit();
+            }
+            if (queued >= queueSize) {
+                listener.rejected(Rejection.QUEUE_FULL);
+                return null;
+            }
+            queued++;
+            try {
+                long remaining = maxWaitNanos;
+                while (inFlight >= currentLimit()) {
+                    if (remaining <= 0) {
+                        listener.rejected(Rejection.TIMEOUT);
+                        return null;
+                    }
+                    remaining = permitFreed.awaitNanos(remaining);
+                }
+                return admit();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                listener.rejected(Rejection.TIMEOUT);
+                return null;
+            } finally {
+                queued--;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Frees the permit's slot and feeds its latency into the limit. {@code dropped} marks a request that
+     * failed for lack of capacity downstream; it backs the limit off like a saturated pool does.
+     */
+    public void release(Permit permit, boolean dropped) {
+        long rtt = Math.max(1, nanoTime.getAsLong() - permit.startNanos());
+        lock.lock();
+        try {
+            inFlight--;
+            if (dropped || poolPending.getAsDouble() > 0) {
+                limit = Math.max(minLimit, limit * BACKOFF);
+            } else if (permit.inFlight() * 2 >= limit) {
+                adjust(rtt);
+            }
+            permitFreed.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int currentLimit() {
+        return (int) limit;
+    }
+
+    public int inFlight() {
+        lock.lock();
+        try {
+            return inFlight;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int queued() {
+        lock.lock();
+        try {
+            return queued;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private Permit admit() {
+        inFlight++;
+        return new Permit(nanoTime.getAsLong(), inFlight);
+    }
+
+    private void adjust(long rtt) {
+        longRttNanos = longRttNanos == 0 ? rtt : longRttNanos + (rtt - longRttNanos) / LONG_WINDOW;
+        // after a slow period the baseline lags behind; let it drift down once latency recovers
+        if (longRttNanos / rtt > 2) {
+            longRttNanos *= 0.95;
+        }
+        double gradient = Math.clamp(TOLERANCE * longRttNanos / rtt, 0.5, 1.0);
+        double target = limit * gradient + Math.sqrt(limit);
+        limit = Math.clamp(limit * (1 - SMOOTHING) + target * SMOOTHING, minLimit, maxLimit);
+    }
+}
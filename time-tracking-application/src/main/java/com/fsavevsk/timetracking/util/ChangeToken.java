@@ -0,0 +1,29 @@
+package com.fsavevsk.timetracking.util;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Position in a user's stream of time entry changes: the snapshot horizon the client last synced at,
+ * and the bulk-change epoch it was issued in. Encoded like {@link TimeEntryCursor}.
+ */
+public record ChangeToken(long epoch, long horizon) {
+
+    private static final char SEPARATOR = '|';
+
+    public String encode() {
+        String raw = Long.toString(epoch) + SEPARATOR + horizon;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /** Throws {@link IllegalArgumentException} (mapped to 400) when the token was not issued by {@link #encode()}. */
+    public static ChangeToken decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int sep = raw.indexOf(SEPARATOR);
+            return new ChangeToken(Long.parseLong(raw.substring(0, sep)), Long.parseLong(raw.substring(sep + 1)));
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid change token");
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.fsavevsk.timetracking.util;
+
+import com.fsavevsk.timetracking.api.exception.ServiceUnavailableException;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.function.Supplier;
+
+/**
+ * Fork/join of independent tasks on virtual threads with "shutdown on failure" semantics and an overall
+ * deadline, shaped after {@code StructuredTaskScope.ShutdownOnFailure} (still a preview API on Java 21).
+ * <p>
+ * {@link #join()} returns once every task succeeded; the first failure, or the deadline passing, cancels
+ * the remaining tasks and is rethrown. Forked results may only be read after a successful join.
+ */
+public final class ParallelScope implements AutoCloseable {
+
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final CompletionService<Object> completion = new ExecutorCompletionService<>(executor);
+    private final List<Future<?>> forked = new ArrayList<>();
+    private final long deadlineNanos;
+    private final Duration deadline;
+
+    public ParallelScope(Duration deadline) {
+        this.deadline = deadline;
+        this.deadlineNanos = System.nanoTime() + deadline.toNanos();
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> Supplier<T> fork(Callable<T> task) {
+        Future<T> future = (Future<T>) completion.submit((Callable<Object>) task);
+        forked.add(future);
+        return future::resultNow;
+    }
+
+    public void join() {
+        try {
+            for (int i = 0; i < forked.size(); i++) {
+                Future<Object> done = completion.poll(deadlineNanos - System.nanoTime(), TimeUnit.NANOSECONDS);
+                if (done == null) {
+                    throw new ServiceUnavailableException("Report did not complete within " + deadline.toMillis() + " ms");
+                }
+                done.get();
+            }
+        } catch (ExecutionException e) {
+            cancelAll();
+            if (e.getCause() instanceof RuntimeException re) throw re;
+            if (e.getCause() instanceof Error err) throw err;
+            throw new IllegalStateException(e.getCause());
+        } catch (InterruptedException e) {
+            cancelAll();
+            Thread.currentThread().interrupt();
+            throw new ServiceUnavailableException("Interrupted while waiting for report");
+        } catch (RuntimeException e) {
+            cancelAll();
+            throw e;
+        }
+    }
+
+    /** Cancels whatever is still running without waiting for it; tasks blocked in I/O finish on their own. */
+    @Override
+    public void close() {
+        cancelAll();
+        executor.shutdownNow();
+    }
+
+    private void cancelAll() {
+        forked.forEach(f -> f.cancel(true));
+    }
+}
@@ -0,0 +1,32 @@
+package com.fsavevsk.timetracking.util;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Opaque keyset position in the projects report: the sort it was issued for, and the sort key and id of the
+ * last project of the page. Encoded like {@link TimeEntryCursor}.
+ */
+public record ProjectsReportCursor(String sort, String key, long projectId) {
+
+    private static final char SEPARATOR = '|';
+
+    public String encode() {
+        String raw = sort + SEPARATOR + projectId + SEPARATOR + key;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /** Throws {@link IllegalArgumentException} (mapped to 400) when the token was not issued by {@link #encode()}. */
+    public static ProjectsReportCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            // the key goes last: project names may contain the separator
+            int first = raw.indexOf(SEPARATOR);
+            int second = raw.indexOf(SEPARATOR, first + 1);
+            return new ProjectsReportCursor(raw.substring(0, first), raw.substring(second + 1),
+                    Long.parseLong(raw.substring(first + 1, second)));
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+}
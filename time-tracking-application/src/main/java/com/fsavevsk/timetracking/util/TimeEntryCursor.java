@@ -0,0 +1,30 @@
+package com.fsavevsk.timetracking.util;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+/**
+ * Opaque keyset position over {@code (start_time, id)} for paging time entries newest-first.
+ * The wire format is URL-safe Base64 so clients treat it as a token and never build one by hand.
+ */
+public record TimeEntryCursor(LocalDateTime startTime, Long id) {
+
+    private static final char SEPARATOR = '|';
+
+    public String encode() {
+        String raw = startTime.toString() + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /** Throws {@link IllegalArgumentException} (mapped to 400) when the token was not issued by {@link #encode()}. */
+    public static TimeEntryCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int sep = raw.lastIndexOf(SEPARATOR);
+            return new TimeEntryCursor(LocalDateTime.parse(raw.substring(0, sep)), Long.parseLong(raw.substring(sep + 1)));
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.fsavevsk.timetracking.util;
+
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Per-key token buckets, kept as the generic cell rate algorithm: each key stores only the time at which
+ * its bucket would be full again (the "theoretical arrival time"), so taking a token is one map read and
+ * one compare-and-set, with no locks and no allocation once the key is known.
+ * <p>
+ * A bucket whose full-again time is more than {@code idleAfter} in the past holds nothing a fresh bucket
+ * would not, so it is dropped. The sweep runs on whichever caller first notices that it is due, at most
+ * once per {@code idleAfter}. A request racing the sweep on an evicted bucket is admitted against the
+ * discarded state, which at worst hands that key one extra token.
+ */
+public class TokenBucketRateLimiter {
+
+    /** Bucket size and the time it takes to earn one token back. */
+    public record Limit(int capacity, Duration refillInterval) {
+        public Limit {
+            if (capacity < 1 || refillInterval.isNegative() || refillInterval.isZero()) {
+                throw new IllegalArgumentException("Limit needs capacity >= 1 and a positive refill interval");
+            }
+        }
+    }
+
+    /**
+     * Outcome of {@link #tryConsume}. {@code resetNanos} is the time until the bucket is full again;
+     * {@code retryAfterNanos} is the time until the next token when the request was refused, else zero.
+     */
+    public record Decision(boolean allowed, int limit, int remaining, long resetNanos, long retryAfterNanos) {}
+
+    private final ConcurrentMap<String, AtomicLong> buckets = new ConcurrentHashMap<>();
+    private final long idleNanos;
+    private final LongSupplier nanoTime;
+    private final AtomicLong nextSweep;
+
+    public TokenBucketRateLimiter(Duration idleAfter, LongSupplier nanoTime) {
+        this.idleNanos = idleAfter.toNanos();
+        this.nanoTime = nanoTime;
+        this.nextSweep = new AtomicLong(nanoTime.getAsLong() + idleNanos);
+    }
+
+    public Decision tryConsume(String key, Limit limit) {
+        long now = nanoTime.getAsLong();
+        long interval = limit.refillInterval().toNanos();
+        long window = interval * limit.capacity();
+
+        AtomicLong bucket = buckets.get(key);
+        if (bucket == null) {
+            bucket = buckets.computeIfAbsent(key, k -> new AtomicLong(now));
+        }
+        while (true) {
+            long tat = bucket.get();
+            long next = Math.max(tat, now) + interval;
+            if (next - now > window) {
+                long retryAfter = next - now - window;
+                sweepIfDue(now);
+                return new Decision(false, limit.capacity(), 0, tat - now, retryAfter);
+            }
+            if (bucket.compareAndSet(tat, next)) {
+                sweepIfDue(now);
+                int remaining = (int) ((window - (next - now)) / interval);
+                return new Decision(true, limit.capacity(), remaining, next - now, 0);
+            }
+        }
+    }
+
+    /** Keys currently holding a bucket. */
+    public int size() {
+        return buckets.size();
+    }
+
+    private void sweepIfDue(long now) {
+        long due = nextSweep.get();
+        if (now - due < 0 || !nextSweep.compareAndSet(due, now + idleNanos)) {
+            return;
+        }
+        long horizon = now - idleNanos;
+        buckets.values().removeIf(tat -> tat.get() - horizon < 0);
+    }
+}
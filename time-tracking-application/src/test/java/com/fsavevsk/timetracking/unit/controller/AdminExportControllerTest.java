@@ -0,0 +1,102 @@
+package com.fsavevsk.timetracking.unit.controller;
+
+import com.fsavevsk.timetracking.api.controller.AdminExportController;
+import com.fsavevsk.timetracking.api.dto.admin.ExportFormat;
+import com.fsavevsk.timetracking.api.dto.admin.TimeEntryExportFilter;
+import com.fsavevsk.timetracking.api.exception.GlobalExceptionHandler;
+import com.fsavevsk.timetracking.service.TimeEntryExportService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+
+import static org.mockito.BDDMockito.*;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.jwt;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(controllers = AdminExportController.class)
+@Import({GlobalExceptionHandler.class, AdminExportControllerTest.MethodSecurity.class})
+class AdminExportControllerTest {
+
+    // the slice does not load WebSecurityConfiguration, which enables @Secured in the application
+    @TestConfiguration
+    @EnableMethodSecurity(securedEnabled = true)
+    static class MethodSecurity {
+    }
+
+    private static final SimpleGrantedAuthority ADMIN = new SimpleGrantedAuthority("ROLE_admin");
+
+    @MockitoBean
+    TimeEntryExportService service;
+
+    @Autowired
+    MockMvc mvc;
+
+    @Test
+    void should_streamCsv_withFiltersTranslatedToHalfOpenWindow() throws Exception {
+        willAnswer(inv -> {
+            OutputStream out = inv.getArgument(2);
+            out.write("id\r\n1\r\n".getBytes(StandardCharsets.UTF_8));
+            return null;
+        }).given(service).export(any(), any(), any());
+
+        var started = mvc.perform(get("/api/admin/export/time-entries")
+                        .with(jwt().authorities(ADMIN))
+                        .param("startDate", "2025-08-01")
+                        .param("endDate", "2025-08-31")
+                        .param("projectId", "7"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_TYPE, "text/csv;charset=UTF-8"))
+                .andExpect(header().string(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"time-entries.csv\""))
+                .andExpect(content().string("id\r\n1\r\n"));
+
+        var expected = new TimeEntryExportFilter(
+                LocalDateTime.of(2025, 8, 1, 0, 0), LocalDateTime.of(2025, 9, 1, 0, 0), 7L, null);
+        then(service).should().export(eq(ExportFormat.CSV), eq(expected), any());
+    }
+
+    @Test
+    void should_forbidExport_forNonAdmins() throws Exception {
+        mvc.perform(get("/api/admin/export/time-entries").with(jwt().authorities(new SimpleGrantedAuthority("ROLE_user"))))
+                .andExpect(status().isForbidden());
+
+        then(service).shouldHaveNoInteractions();
+    }
+
+    @Test
+    void should_returnBadRequest_whenFormatUnknown() throws Exception {
+        mvc.perform(get("/api/admin/export/time-entries").with(jwt().authorities(ADMIN)).param("format", "xml"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Invalid export format: xml"));
+
+        then(service).shouldHaveNoInteractions();
+    }
+
+    @Test
+    void should_returnBadRequest_whenEndDateBeforeStartDate() throws Exception {
+        mvc.perform(get("/api/admin/export/time-entries")
+                        .with(jwt().authorities(ADMIN))
+                        .param("startDate", "2025-08-10")
+                        .param("endDate", "2025-08-01"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("endDate must be on or after startDate"));
+
+        then(service).shouldHaveNoInteractions();
+    }
+}
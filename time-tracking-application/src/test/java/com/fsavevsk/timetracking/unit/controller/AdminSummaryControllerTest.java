@@ -2,18 +2,34 @@ package com.fsavevsk.timetracking.unit.controller;
 
 import com.fsavevsk.timetracking.api.controller.AdminSummaryController;
 import com.fsavevsk.timetracking.api.dto.admin.OverviewReportResponse;
+import com.fsavevsk.timetracking.api.dto.admin.ProjectsReportFilter;
+import com.fsavevsk.timetracking.api.dto.admin.ProjectsReportPage;
 import com.fsavevsk.timetracking.api.dto.admin.ProjectsReportResponse;
+import com.fsavevsk.timetracking.api.dto.admin.ProjectsReportSort;
+import com.fsavevsk.timetracking.api.dto.admin.TimeBucket;
+import com.fsavevsk.timetracking.api.dto.admin.TimeSeriesFilter;
+import com.fsavevsk.timetracking.api.dto.admin.TimeSeriesReportResponse;
 import com.fsavevsk.timetracking.api.exception.GlobalExceptionHandler;
+import com.fsavevsk.timetracking.api.exception.ServiceUnavailableException;
 import com.fsavevsk.timetracking.service.AdminReportsService;
+import com.fsavevsk.timetracking.service.TimeEntryRollupService;
+import com.fsavevsk.timetracking.service.Versioned;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.context.TestConfiguration;
 import org.springframework.context.annotation.Import;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.MediaType;
+import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.CannotCreateTransactionException;
 import org.mockito.ArgumentCaptor;
 
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
@@ -23,15 +39,25 @@ import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.BDDMockito.*;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.jwt;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 @WebMvcTest(controllers = AdminSummaryController.class)
-@Import(GlobalExceptionHandler.class)
+@Import({GlobalExceptionHandler.class, AdminSummaryControllerTest.MethodSecurity.class})
 class AdminSummaryControllerTest {
 
+    // the slice does not load WebSecurityConfiguration, which enables @Secured in the application
+    @TestConfiguration
+    @EnableMethodSecurity(securedEnabled = true)
+    static class MethodSecurity {
+    }
+
     @MockitoBean
     AdminReportsService service;
 
+    @MockitoBean
+    TimeEntryRollupService rollupService;
+
     @Autowired
     MockMvc mvc;
 
@@ -41,7 +67,8 @@ class AdminSummaryControllerTest {
         var resp = new OverviewReportResponse(12, 18.5, 240.0, top);
 
         // expect controller to call service.overview(ZoneId.of("UTC")) when timezone param is omitted
-        given(service.overview(any(ZoneId.class))).willReturn(resp);
+        given(service.overviewVersion(any(ZoneId.class))).willReturn("v1");
+        given(service.overview(any(ZoneId.class))).willReturn(new Versioned<>("v1", resp));
 
         mvc.perform(get("/api/admin/reports/overview").with(jwt()))
                 .andExpect(status().isOk())
@@ -51,6 +78,7 @@ class AdminSummaryControllerTest {
                 .andExpect(jsonPath("$.hoursThisWeek").value(240.0))
                 .andExpect(jsonPath("$.topProjectsThisWeek[0].projectName").value("TrackLight"));
 
+        then(service).should().overviewVersion(ZoneId.of("UTC"));
         then(service).should().overview(ZoneId.of("UTC"));
         then(service).shouldHaveNoMoreInteractions();
     }
@@ -58,7 +86,8 @@ class AdminSummaryControllerTest {
     @Test
     void should_returnOverview_withExplicitZone() throws Exception {
         var resp = new OverviewReportResponse(2, 3.0, 12.0, List.of());
-        given(service.overview(ZoneId.of("Europe/Skopje"))).willReturn(resp);
+        given(service.overviewVersion(ZoneId.of("Europe/Skopje"))).willReturn("v1");
+        given(service.overview(ZoneId.of("Europe/Skopje"))).willReturn(new Versioned<>("v1", resp));
 
         mvc.perform(get("/api/admin/reports/overview")
                         .with(jwt())
@@ -67,6 +96,7 @@ class AdminSummaryControllerTest {
                 .andExpect(jsonPath("$.totalProjects").value(2))
                 .andExpect(jsonPath("$.hoursThisWeek").value(12.0));
 
+        then(service).should().overviewVersion(ZoneId.of("Europe/Skopje"));
         then(service).should().overview(ZoneId.of("Europe/Skopje"));
         then(service).shouldHaveNoMoreInteractions();
     }
@@ -77,8 +107,10 @@ class AdminSummaryControllerTest {
                 new ProjectsReportResponse(3L, "TrackLight", 42.5, 156.0, 38, LocalDateTime.of(2025, 8, 10, 16, 45)),
                 new ProjectsReportResponse(7L, "SolidTime", 31.0, 120.5, 22, LocalDateTime.of(2025, 8, 10, 15, 10))
         );
+        given(service.projectsSummaryVersion(any(ZoneId.class), any(LocalDate.class), any(LocalDate.class)))
+                .willReturn("v1");
         given(service.projectsSummary(any(ZoneId.class), any(LocalDate.class), any(LocalDate.class)))
-                .willReturn(rows);
+                .willReturn(new Versioned<>("v1", rows));
 
         mvc.perform(get("/api/admin/reports/projects").with(jwt()))
                 .andExpect(status().isOk())
@@ -92,6 +124,7 @@ class AdminSummaryControllerTest {
         ArgumentCaptor<LocalDate> fromCap = ArgumentCaptor.forClass(LocalDate.class);
         ArgumentCaptor<LocalDate> toCap = ArgumentCaptor.forClass(LocalDate.class);
 
+        then(service).should().projectsSummaryVersion(any(ZoneId.class), any(LocalDate.class), any(LocalDate.class));
         then(service).should().projectsSummary(zoneCap.capture(), fromCap.capture(), toCap.capture());
         then(service).shouldHaveNoMoreInteractions();
 
@@ -106,8 +139,9 @@ class AdminSummaryControllerTest {
         var endDate = LocalDate.parse("2025-07-31");
         var rows = List.of(new ProjectsReportResponse(3L, "TrackLight", 10.0, 40.0, 8, LocalDateTime.of(2025, 8, 10, 10, 0)));
 
+        given(service.projectsSummaryVersion(ZoneId.of("Europe/Skopje"), startDate, endDate)).willReturn("v1");
         given(service.projectsSummary(ZoneId.of("Europe/Skopje"), startDate, endDate))
-                .willReturn(rows);
+                .willReturn(new Versioned<>("v1", rows));
 
         mvc.perform(get("/api/admin/reports/projects")
                         .with(jwt())
@@ -119,10 +153,155 @@ class AdminSummaryControllerTest {
                 .andExpect(jsonPath("$.length()").value(1))
                 .andExpect(jsonPath("$[0].projectId").value(3));
 
+        then(service).should().projectsSummaryVersion(ZoneId.of("Europe/Skopje"), startDate, endDate);
         then(service).should().projectsSummary(ZoneId.of("Europe/Skopje"), startDate, endDate);
         then(service).shouldHaveNoMoreInteractions();
     }
 
+    @Test
+    void should_returnProjectsPage_withSortFilterAndCursor() throws Exception {
+        var startDate = LocalDate.parse("2025-07-01");
+        var endDate = LocalDate.parse("2025-07-31");
+        var filter = new ProjectsReportFilter(ZoneId.of("UTC"), startDate, endDate, ProjectsReportSort.PROJECT_NAME,
+                false, "track", "abc", null, 20, false);
+        var rows = List.of(new ProjectsReportResponse(3L, "TrackLight", 10.0, 40.0, 8, LocalDateTime.of(2025, 8, 10, 10, 0)));
+
+        given(service.projectsSummaryVersion(ZoneId.of("UTC"), startDate, endDate)).willReturn("v1");
+        given(service.projectsPage(filter)).willReturn(new Versioned<>("v1", new ProjectsReportPage(rows, null, "next")));
+
+        mvc.perform(get("/api/admin/reports/projects")
+                        .with(jwt())
+                        .param("paged", "true")
+                        .param("startDate", "2025-07-01")
+                        .param("endDate", "2025-07-31")
+                        .param("sort", "projectName,ASC")
+                        .param("name", "track")
+                        .param("cursor", "abc")
+                        .param("size", "20")
+                        .param("total", "false"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.length()").value(1))
+                .andExpect(jsonPath("$.items[0].projectId").value(3))
+                .andExpect(jsonPath("$.nextCursor").value("next"));
+
+        then(service).should().projectsPage(filter);
+    }
+
+    @Test
+    void should_defaultProjectsPage_toWeekHoursDesc_withTotal_whenOnlyPagedIsGiven() throws Exception {
+        given(service.projectsSummaryVersion(any(ZoneId.class), any(LocalDate.class), any(LocalDate.class))).willReturn("v1");
+        given(service.projectsPage(any())).willReturn(new Versioned<>("v1", new ProjectsReportPage(List.of(), 0L, null)));
+
+        mvc.perform(get("/api/admin/reports/projects").with(jwt()).param("paged", "true"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.total").value(0));
+
+        var filterCap = ArgumentCaptor.forClass(ProjectsReportFilter.class);
+        then(service).should().projectsPage(filterCap.capture());
+        assertEquals(ProjectsReportSort.HOURS_WEEK, filterCap.getValue().sort());
+        assertTrue(filterCap.getValue().descending());
+        assertTrue(filterCap.getValue().includeTotal());
+        assertEquals(filterCap.getValue().startDate().plusDays(29), filterCap.getValue().endDate());
+    }
+
+    @Test
+    void should_returnBadRequest_whenProjectsPageSortIsInvalid() throws Exception {
+        mvc.perform(get("/api/admin/reports/projects").with(jwt()).param("paged", "true").param("sort", "budget"))
+                .andExpect(status().isBadRequest());
+        mvc.perform(get("/api/admin/reports/projects").with(jwt()).param("paged", "true").param("sort", "hoursWeek,sideways"))
+                .andExpect(status().isBadRequest());
+
+        then(service).shouldHaveNoInteractions();
+    }
+
+    @Test
+    void should_returnBadRequest_whenPageParamsComeWithoutPaged() throws Exception {
+        mvc.perform(get("/api/admin/reports/projects").with(jwt()).param("size", "10"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("size needs paged=true"));
+
+        then(service).shouldHaveNoInteractions();
+    }
+
+    @Test
+    void should_returnTimeSeries_withBucketAndFilters() throws Exception {
+        var filter = new TimeSeriesFilter(TimeBucket.WEEK, LocalDate.parse("2025-07-01"), LocalDate.parse("2025-07-31"), 3L, "u1");
+        var resp = new TimeSeriesReportResponse(TimeBucket.WEEK, filter.startDate(), filter.endDate(),
+                List.of(new TimeSeriesReportResponse.Point(LocalDateTime.parse("2025-06-30T00:00"), 90)));
+        given(service.timeSeriesVersion(filter)).willReturn("v1");
+        given(service.timeSeries(filter)).willReturn(new Versioned<>("v1", resp));
+
+        mvc.perform(get("/api/admin/reports/timeseries")
+                        .with(jwt())
+                        .param("bucket", "week")
+                        .param("startDate", "2025-07-01")
+                        .param("endDate", "2025-07-31")
+                        .param("projectId", "3")
+                        .param("userId", "u1"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"v1\""))
+                .andExpect(jsonPath("$.bucket").value("WEEK"))
+                .andExpect(jsonPath("$.points[0].minutes").value(90));
+
+        then(service).should().timeSeriesVersion(filter);
+        then(service).should().timeSeries(filter);
+        then(service).shouldHaveNoMoreInteractions();
+    }
+
+    @Test
+    void should_defaultTimeSeries_toDailyBuckets_overTheLast30Days() throws Exception {
+        ArgumentCaptor<TimeSeriesFilter> filter = ArgumentCaptor.forClass(TimeSeriesFilter.class);
+        given(service.timeSeriesVersion(filter.capture())).willReturn("v1");
+        given(service.timeSeries(any())).willReturn(new Versioned<>("v1",
+                new TimeSeriesReportResponse(TimeBucket.DAY, LocalDate.now(), LocalDate.now(), List.of())));
+
+        mvc.perform(get("/api/admin/reports/timeseries").with(jwt()).param("timezone", "Europe/Skopje"))
+                .andExpect(status().isOk());
+
+        LocalDate today = LocalDate.now(ZoneId.of("Europe/Skopje"));
+        assertEquals(new TimeSeriesFilter(TimeBucket.DAY, today.minusDays(29), today, null, null), filter.getValue());
+    }
+
+    @Test
+    void should_returnBadRequest_whenTimeSeriesBucketIsInvalidOrTooFine() throws Exception {
+        mvc.perform(get("/api/admin/reports/timeseries").with(jwt()).param("bucket", "fortnight"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Invalid bucket: fortnight"));
+        mvc.perform(get("/api/admin/reports/timeseries").with(jwt())
+                        .param("bucket", "hour")
+                        .param("startDate", "2024-01-01")
+                        .param("endDate", "2024-12-31"))
+                .andExpect(status().isBadRequest());
+
+        then(service).shouldHaveNoInteractions();
+    }
+
+    @Test
+    void should_answerNotModified_withoutComputingTheReport_whenVersionMatches() throws Exception {
+        given(service.overviewVersion(ZoneId.of("UTC"))).willReturn("2025-08-18.2025-08-18-1.1.9");
+
+        mvc.perform(get("/api/admin/reports/overview").with(jwt())
+                        .header("If-None-Match", "\"2025-08-18.2025-08-18-1.1.9\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", "\"2025-08-18.2025-08-18-1.1.9\""));
+
+        then(service).should().overviewVersion(ZoneId.of("UTC"));
+        then(service).shouldHaveNoMoreInteractions();
+    }
+
+    @Test
+    void should_tagReport_withTheVersionItWasComputedAt() throws Exception {
+        var resp = new OverviewReportResponse(1, 0.0, 0.0, List.of());
+        given(service.overviewVersion(ZoneId.of("UTC"))).willReturn("v1");
+        // a write landed between the version check and the report
+        given(service.overview(ZoneId.of("UTC"))).willReturn(new Versioned<>("v2", resp));
+
+        mvc.perform(get("/api/admin/reports/overview").with(jwt()).header("If-None-Match", "\"v0\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"v2\""))
+                .andExpect(jsonPath("$.totalProjects").value(1));
+    }
+
     @Test
     void should_returnBadRequest_whenEndDateBeforeStartDate() throws Exception {
         mvc.perform(get("/api/admin/reports/projects")
@@ -151,4 +330,56 @@ class AdminSummaryControllerTest {
 
         then(service).shouldHaveNoInteractions();
     }
-}
\ No newline at end of file
+
+    @Test
+    void should_rebuildRollups_andReturnBucketCount() throws Exception {
+        given(rollupService.rebuild()).willReturn(42);
+
+        mvc.perform(post("/api/admin/reports/rollups/rebuild").with(jwt().authorities(new SimpleGrantedAuthority("ROLE_admin"))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.buckets").value(42));
+
+        then(rollupService).should().rebuild();
+        then(service).shouldHaveNoInteractions();
+    }
+
+    @Test
+    void should_forbidRollupRebuild_forNonAdmins() throws Exception {
+        mvc.perform(post("/api/admin/reports/rollups/rebuild").with(jwt().authorities(new SimpleGrantedAuthority("ROLE_user"))))
+                .andExpect(status().isForbidden());
+
+        then(rollupService).shouldHaveNoInteractions();
+    }
+
+    @Test
+    void should_returnServiceUnavailable_whenConnectionPoolIsExhausted() throws Exception {
+        given(service.overview(any(ZoneId.class))).willThrow(new CannotCreateTransactionException(
+                "Could not open JPA EntityManager for transaction",
+                new SQLTransientConnectionException("analytics - Connection is not available, request timed out after 5000ms")));
+
+        mvc.perform(get("/api/admin/reports/overview").with(jwt()).param("timezone", "UTC"))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(jsonPath("$.status").value(503))
+                .andExpect(jsonPath("$.error").value("Service Unavailable"));
+    }
+
+    @Test
+    void should_returnInternalServerError_forOtherDataAccessFailures() throws Exception {
+        given(service.overview(any(ZoneId.class))).willThrow(new DataIntegrityViolationException("boom"));
+
+        mvc.perform(get("/api/admin/reports/overview").with(jwt()).param("timezone", "UTC"))
+                .andExpect(status().isInternalServerError())
+                .andExpect(jsonPath("$.status").value(500));
+    }
+
+    @Test
+    void should_sendRetryAfter_whenServiceIsUnavailable() throws Exception {
+        given(service.overview(any(ZoneId.class)))
+                .willThrow(new ServiceUnavailableException("Server is busy, try again later", Duration.ofMillis(1500)));
+
+        mvc.perform(get("/api/admin/reports/overview").with(jwt()).param("timezone", "UTC"))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string("Retry-After", "2"))
+                .andExpect(jsonPath("$.message").value("Server is busy, try again later"));
+    }
+}
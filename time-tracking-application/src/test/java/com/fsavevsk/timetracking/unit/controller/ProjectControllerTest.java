@@ -43,20 +43,35 @@ class ProjectControllerTest {
             var p1 = new Project(1L, "TrackLight", "Time tracking");
             var p2 = new Project(2L, "SolidTime", "Clone base");
 
+            given(projectService.projectsVersion()).willReturn("c0ffee");
             given(projectService.getAllProjects()).willReturn(List.of(p1, p2));
 
             mvc.perform(get("/api/projects").with(jwt()))
                     .andExpect(status().isOk())
                     .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                    .andExpect(header().string("ETag", "\"c0ffee\""))
                     .andExpect(jsonPath("$.length()").value(2))
                     .andExpect(jsonPath("$[0].id").value(1))
                     .andExpect(jsonPath("$[0].name").value("TrackLight"))
                     .andExpect(jsonPath("$[1].id").value(2))
                     .andExpect(jsonPath("$[1].name").value("SolidTime"));
 
+            then(projectService).should().projectsVersion();
             then(projectService).should().getAllProjects();
             then(projectService).shouldHaveNoMoreInteractions();
         }
+
+        @Test
+        void should_answerNotModified_withoutListing_whenCatalogIsUnchanged() throws Exception {
+            given(projectService.projectsVersion()).willReturn("c0ffee");
+
+            mvc.perform(get("/api/projects").with(jwt()).header("If-None-Match", "\"c0ffee\""))
+                    .andExpect(status().isNotModified())
+                    .andExpect(content().string(""));
+
+            then(projectService).should().projectsVersion();
+            then(projectService).shouldHaveNoMoreInteractions();
+        }
     }
 
     @Nested
@@ -101,6 +116,7 @@ class ProjectControllerTest {
                     .andExpect(jsonPath("$.id").value(1))
                     .andExpect(jsonPath("$.name").value("TrackLight"));
 
+            then(projectService).should().projectsVersion();
             then(projectService).should().findProjectByName("TrackLight");
             then(projectService).shouldHaveNoMoreInteractions();
         }
@@ -116,6 +132,7 @@ class ProjectControllerTest {
                     .andExpect(status().isNotFound())
                     .andExpect(jsonPath("$.message").value("Project not found"));
 
+            then(projectService).should().projectsVersion();
             then(projectService).should().findProjectByName("Nope");
             then(projectService).shouldHaveNoMoreInteractions();
         }
@@ -3,8 +3,14 @@ package com.fsavevsk.timetracking.unit.controller;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import com.fsavevsk.timetracking.api.controller.TimeEntryController;
+import com.fsavevsk.timetracking.api.dto.CreateTimeEntriesBatchRequest;
 import com.fsavevsk.timetracking.api.dto.CreateTimeEntryRequest;
+import com.fsavevsk.timetracking.api.dto.TimeEntryChanges;
+import com.fsavevsk.timetracking.api.dto.TimeEntryPage;
 import com.fsavevsk.timetracking.api.dto.TimeEntryResponse;
+import com.fsavevsk.timetracking.api.dto.TimeEntryUploadResult;
+import com.fsavevsk.timetracking.api.dto.UploadTimeEntriesRequest;
+import com.fsavevsk.timetracking.api.dto.UploadTimeEntryRequest;
 import com.fsavevsk.timetracking.api.exception.GlobalExceptionHandler;
 import com.fsavevsk.timetracking.api.exception.NotFoundException;
 import com.fsavevsk.timetracking.service.TimeEntryService;
@@ -21,6 +27,7 @@ import org.springframework.test.web.servlet.MockMvc;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.UUID;
 
 import static org.mockito.BDDMockito.*;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.jwt;
@@ -113,24 +120,206 @@ class TimeEntryControllerTest {
         }
     }
 
+    @Nested
+    @DisplayName("POST /api/time-entries/batch")
+    class CreateBatchTests {
+        @Test
+        @DisplayName("returns 200 and created entries")
+        void createBatch_ok() throws Exception {
+            var req = new CreateTimeEntriesBatchRequest(List.of(validCreateReq(), validCreateReq()));
+            given(service.createBatchForCurrentUser(anyList()))
+                    .willReturn(List.of(sampleResponse(), sampleResponse()));
+
+            mvc.perform(post("/api/time-entries/batch")
+                            .with(jwt())
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(om.writeValueAsString(req)))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.length()").value(2));
+
+            then(service).should().createBatchForCurrentUser(req.entries());
+            then(service).shouldHaveNoMoreInteractions();
+        }
+
+        @Test
+        @DisplayName("returns 400 with indexed fieldErrors when an item is invalid")
+        void createBatch_validationError() throws Exception {
+            var bad = new CreateTimeEntryRequest(
+                    10L, null,
+                    LocalDateTime.of(2025, 8, 10, 9, 0),
+                    LocalDateTime.of(2025, 8, 10, 12, 0),
+                    null
+            );
+            var req = new CreateTimeEntriesBatchRequest(List.of(validCreateReq(), bad));
+
+            mvc.perform(post("/api/time-entries/batch")
+                            .with(jwt())
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(om.writeValueAsString(req)))
+                    .andExpect(status().isBadRequest())
+                    .andExpect(jsonPath("$.error").value("Validation Failed"))
+                    .andExpect(jsonPath("$.fieldErrors[0].field").value("entries[1].title"));
+
+            then(service).shouldHaveNoInteractions();
+        }
+    }
+
     @Nested
     @DisplayName("GET /api/time-entries")
     class ListEntries {
         @Test
         @DisplayName("returns list for current user")
         void list_ok() throws Exception {
+            given(service.entriesVersion()).willReturn("1.7");
             given(service.listForCurrentUser())
                     .willReturn(List.of(sampleResponse()));
 
             mvc.perform(get("/api/time-entries").with(jwt()))
                     .andExpect(status().isOk())
                     .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                    .andExpect(header().string("ETag", "\"1.7\""))
+                    .andExpect(header().string("Cache-Control", "no-cache, private"))
                     .andExpect(jsonPath("$.length()").value(1))
                     .andExpect(jsonPath("$[0].title").value("Feature work"));
 
+            then(service).should().entriesVersion();
             then(service).should().listForCurrentUser();
             then(service).shouldHaveNoMoreInteractions();
         }
+
+        @Test
+        @DisplayName("returns 304 without reading entries when the version still matches")
+        void list_notModified() throws Exception {
+            given(service.entriesVersion()).willReturn("1.7");
+
+            mvc.perform(get("/api/time-entries").with(jwt()).header("If-None-Match", "\"1.6\", \"1.7\""))
+                    .andExpect(status().isNotModified())
+                    .andExpect(header().string("ETag", "\"1.7\""))
+                    .andExpect(content().string(""));
+
+            then(service).should().entriesVersion();
+            then(service).shouldHaveNoMoreInteractions();
+        }
+    }
+
+    @Nested
+    @DisplayName("GET /api/time-entries/page")
+    class PageEntries {
+        @Test
+        @DisplayName("returns items and next cursor")
+        void page_ok() throws Exception {
+            given(service.entriesVersion()).willReturn("1.7");
+            given(service.pageForCurrentUser("abc", 25))
+                    .willReturn(new TimeEntryPage(List.of(sampleResponse()), "next"));
+
+            mvc.perform(get("/api/time-entries/page").with(jwt())
+                            .param("cursor", "abc")
+                            .param("size", "25"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.items.length()").value(1))
+                    .andExpect(jsonPath("$.items[0].title").value("Feature work"))
+                    .andExpect(jsonPath("$.nextCursor").value("next"));
+
+            then(service).should().entriesVersion();
+            then(service).should().pageForCurrentUser("abc", 25);
+            then(service).shouldHaveNoMoreInteractions();
+        }
+
+        @Test
+        @DisplayName("returns 200 when the client holds an older version")
+        void page_modified() throws Exception {
+            given(service.entriesVersion()).willReturn("1.8");
+            given(service.pageForCurrentUser(null, null))
+                    .willReturn(new TimeEntryPage(List.of(sampleResponse()), null));
+
+            mvc.perform(get("/api/time-entries/page").with(jwt()).header("If-None-Match", "\"1.7\""))
+                    .andExpect(status().isOk())
+                    .andExpect(header().string("ETag", "\"1.8\""))
+                    .andExpect(jsonPath("$.items.length()").value(1));
+        }
+
+        @Test
+        @DisplayName("returns 400 when cursor is invalid")
+        void page_invalidCursor() throws Exception {
+            given(service.pageForCurrentUser("bad", null))
+                    .willThrow(new IllegalArgumentException("Invalid cursor"));
+
+            mvc.perform(get("/api/time-entries/page").with(jwt()).param("cursor", "bad"))
+                    .andExpect(status().isBadRequest())
+                    .andExpect(jsonPath("$.message").value("Invalid cursor"));
+        }
+    }
+
+    @Nested
+    @DisplayName("POST /api/time-entries/upload")
+    class Upload {
+        @Test
+        @DisplayName("returns the outcome of every entry")
+        void upload_ok() throws Exception {
+            var clientId = UUID.fromString("0190f6a0-0000-7000-8000-000000000001");
+            var entry = new UploadTimeEntryRequest(clientId, 1L, "Feature work",
+                    LocalDateTime.parse("2025-08-10T09:00:00"), LocalDateTime.parse("2025-08-10T10:00:00"), null);
+            given(service.uploadForCurrentUser(List.of(entry)))
+                    .willReturn(List.of(new TimeEntryUploadResult(clientId, 100L, TimeEntryUploadResult.Outcome.CREATED)));
+
+            mvc.perform(post("/api/time-entries/upload")
+                            .with(jwt())
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(om.writeValueAsString(new UploadTimeEntriesRequest(List.of(entry)))))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$[0].clientId").value(clientId.toString()))
+                    .andExpect(jsonPath("$[0].id").value(100))
+                    .andExpect(jsonPath("$[0].outcome").value("CREATED"));
+        }
+
+        @Test
+        @DisplayName("returns 400 when an entry has no client id")
+        void upload_validationError() throws Exception {
+            var entry = new UploadTimeEntryRequest(null, 1L, "Feature work",
+                    LocalDateTime.parse("2025-08-10T09:00:00"), LocalDateTime.parse("2025-08-10T10:00:00"), null);
+
+            mvc.perform(post("/api/time-entries/upload")
+                            .with(jwt())
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(om.writeValueAsString(new UploadTimeEntriesRequest(List.of(entry)))))
+                    .andExpect(status().isBadRequest())
+                    .andExpect(jsonPath("$.fieldErrors[0].field").value("entries[0].clientId"));
+
+            then(service).shouldHaveNoInteractions();
+        }
+    }
+
+    @Nested
+    @DisplayName("GET /api/time-entries/changes")
+    class Changes {
+        @Test
+        @DisplayName("returns changed entries, deleted ids and the next token")
+        void changes_ok() throws Exception {
+            given(service.changesForCurrentUser("tok"))
+                    .willReturn(new TimeEntryChanges(List.of(sampleResponse()), List.of(7L), "next", false));
+
+            mvc.perform(get("/api/time-entries/changes").with(jwt()).param("since", "tok"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.changed.length()").value(1))
+                    .andExpect(jsonPath("$.changed[0].title").value("Feature work"))
+                    .andExpect(jsonPath("$.deleted[0]").value(7))
+                    .andExpect(jsonPath("$.nextToken").value("next"))
+                    .andExpect(jsonPath("$.reset").value(false));
+
+            then(service).should().changesForCurrentUser("tok");
+            then(service).shouldHaveNoMoreInteractions();
+        }
+
+        @Test
+        @DisplayName("returns 400 when the token is invalid")
+        void changes_invalidToken() throws Exception {
+            given(service.changesForCurrentUser("bad"))
+                    .willThrow(new IllegalArgumentException("Invalid change token"));
+
+            mvc.perform(get("/api/time-entries/changes").with(jwt()).param("since", "bad"))
+                    .andExpect(status().isBadRequest())
+                    .andExpect(jsonPath("$.message").value("Invalid change token"));
+        }
     }
 
     @Nested
@@ -0,0 +1,84 @@
+package com.fsavevsk.timetracking.unit.security;
+
+import com.fsavevsk.timetracking.security.CachingJwtDecoder;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.oauth2.jwt.BadJwtException;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.*;
+
+class CachingJwtDecoderTest {
+
+    private static final Instant NOW = Instant.parse("2025-03-10T12:00:00Z");
+
+    private final AtomicInteger decodes = new AtomicInteger();
+
+    @Test
+    void should_decodeEachTokenOnce_untilItExpires() {
+        var decoder = new CachingJwtDecoder(expiringAt(NOW.plusSeconds(300)), 100, clockAt(NOW));
+
+        Jwt first = decoder.decode("token-a");
+        Jwt second = decoder.decode("token-a");
+        decoder.decode("token-b");
+
+        assertThat(second).isSameAs(first);
+        assertThat(decodes).hasValue(2);
+    }
+
+    @Test
+    void should_decodeAgain_onceTheCachedTokenHasExpired() {
+        var delegate = expiringAt(NOW.plusSeconds(60));
+        new CachingJwtDecoder(delegate, 100, clockAt(NOW)).decode("token-a");
+
+        var later = new CachingJwtDecoder(delegate, 100, clockAt(NOW.plusSeconds(61)));
+        later.decode("token-a");
+        later.decode("token-a");
+
+        assertThat(decodes).hasValue(3);
+    }
+
+    @Test
+    void should_notCacheTokensWithoutExpiry() {
+        JwtDecoder delegate = token -> {
+            decodes.incrementAndGet();
+            return Jwt.withTokenValue(token).header("alg", "none").subject("alice").build();
+        };
+        var decoder = new CachingJwtDecoder(delegate, 100, clockAt(NOW));
+
+        decoder.decode("token-a");
+        decoder.decode("token-a");
+
+        assertThat(decodes).hasValue(2);
+    }
+
+    @Test
+    void should_notCacheRejectedTokens() {
+        JwtDecoder delegate = token -> {
+            decodes.incrementAndGet();
+            throw new BadJwtException("bad signature");
+        };
+        var decoder = new CachingJwtDecoder(delegate, 100, clockAt(NOW));
+
+        assertThatThrownBy(() -> decoder.decode("token-a")).isInstanceOf(BadJwtException.class);
+        assertThatThrownBy(() -> decoder.decode("token-a")).isInstanceOf(BadJwtException.class);
+        assertThat(decodes).hasValue(2);
+    }
+
+    private JwtDecoder expiringAt(Instant exp) {
+        return token -> {
+            decodes.incrementAndGet();
+            return Jwt.withTokenValue(token).header("alg", "none").subject("alice")
+                    .issuedAt(exp.minusSeconds(600)).expiresAt(exp).build();
+        };
+    }
+
+    private static Clock clockAt(Instant instant) {
+        return Clock.fixed(instant, ZoneOffset.UTC);
+    }
+}
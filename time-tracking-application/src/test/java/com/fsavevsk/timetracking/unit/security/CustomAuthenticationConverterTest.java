@@ -0,0 +1,75 @@
+package com.fsavevsk.timetracking.unit.security;
+
+import com.fsavevsk.timetracking.security.AuthenticatedUser;
+import com.fsavevsk.timetracking.security.AuthenticatedUserToken;
+import com.fsavevsk.timetracking.security.CurrentUserServiceImpl;
+import com.fsavevsk.timetracking.security.CustomAuthenticationConverter;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.*;
+
+class CustomAuthenticationConverterTest {
+
+    private final CustomAuthenticationConverter converter = new CustomAuthenticationConverter();
+    private final CurrentUserServiceImpl currentUserService = new CurrentUserServiceImpl();
+
+    @AfterEach
+    void clearContext() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void should_buildPrincipalAndAuthorities_fromOnePassOverTheClaims() {
+        var auth = converter.convert(jwt("alice"));
+
+        assertThat(auth).isInstanceOf(AuthenticatedUserToken.class);
+        assertThat(((AuthenticatedUserToken) auth).getUser())
+                .isEqualTo(new AuthenticatedUser("alice", "alice.smith", "alice@example.com", Set.of("user", "admin")));
+        assertThat(auth.getAuthorities()).extracting(GrantedAuthority::getAuthority)
+                .containsExactlyInAnyOrder("ROLE_user", "ROLE_admin");
+    }
+
+    @Test
+    void should_serveCurrentUser_fromTheConvertedToken() {
+        var auth = (AuthenticatedUserToken) converter.convert(jwt("alice"));
+        SecurityContextHolder.getContext().setAuthentication(auth);
+
+        assertThat(currentUserService.requireUser()).isSameAs(auth.getUser());
+    }
+
+    @Test
+    void should_readClaims_forPlainJwtAuthentication() {
+        SecurityContextHolder.getContext().setAuthentication(new JwtAuthenticationToken(jwt("bob")));
+
+        assertThat(currentUserService.userId()).isEqualTo("bob");
+        assertThat(currentUserService.requireUser().roles()).containsExactlyInAnyOrder("user", "admin");
+    }
+
+    @Test
+    void should_rejectTokensWithoutSubject_whenUserIsRequired() {
+        var noSubject = Jwt.withTokenValue("t").header("alg", "none").claim("scope", "read").build();
+        var auth = converter.convert(noSubject);
+        SecurityContextHolder.getContext().setAuthentication(auth);
+
+        assertThat(auth).isNotInstanceOf(AuthenticatedUserToken.class);
+        assertThatThrownBy(currentUserService::requireUser).isInstanceOf(IllegalStateException.class);
+    }
+
+    private static Jwt jwt(String subject) {
+        return Jwt.withTokenValue("t").header("alg", "none")
+                .subject(subject)
+                .claim("preferred_username", subject + ".smith")
+                .claim("email", subject + "@example.com")
+                .claim("realm_access", Map.of("roles", List.of("user", "admin")))
+                .build();
+    }
+}
@@ -0,0 +1,180 @@
+package com.fsavevsk.timetracking.unit.security;
+
+import com.fsavevsk.timetracking.security.LocalJwkSetCache;
+import com.fsavevsk.timetracking.security.OfflineJwtConfiguration;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.crypto.RSASSASigner;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.RSAKey;
+import com.nimbusds.jose.jwk.gen.RSAKeyGenerator;
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.SignedJWT;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtException;
+
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.*;
+
+/** A JDK HTTP server stands in for the issuer's JWKS endpoint. */
+class LocalJwkSetCacheTest {
+
+    private static final String ISSUER = "http://issuer.test/realms/dev";
+
+    @TempDir
+    Path dir;
+
+    private final AtomicReference<RSAKey> issuerKey = new AtomicReference<>();
+    private final AtomicInteger issuerHits = new AtomicInteger();
+    private final MutableClock clock = new MutableClock(Instant.now());
+    private HttpServer issuer;
+    private LocalJwkSetCache keys;
+
+    @BeforeEach
+    void startIssuer() throws Exception {
+        issuerKey.set(newKey("k1"));
+        issuer = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        issuer.createContext("/certs", exchange -> {
+            issuerHits.incrementAndGet();
+            byte[] body = new JWKSet(issuerKey.get()).toPublicJWKSet().toString().getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, body.length);
+            exchange.getResponseBody().write(body);
+            exchange.close();
+        });
+        issuer.start();
+    }
+
+    @AfterEach
+    void stop() {
+        if (keys != null) keys.close();
+        issuer.stop(0);
+    }
+
+    @Test
+    void should_validateTokens_withFetchedKeys_andPersistThem() throws Exception {
+        keys = cache(Duration.ofMinutes(5));
+        assertThat(keys.refresh()).isTrue();
+
+        var jwt = decoder().decode(token(issuerKey.get()));
+
+        assertThat(jwt.getSubject()).isEqualTo("alice");
+        assertThat(JWKSet.load(dir.resolve("jwks.json").toFile()).getKeyByKeyId("k1")).isNotNull();
+        assertThat(JWKSet.load(dir.resolve("jwks.json").toFile()).getKeyByKeyId("k1").isPrivate()).isFalse();
+    }
+
+    @Test
+    void should_startFromCacheFile_withoutContactingTheIssuer() throws Exception {
+        var first = cache(Duration.ofHours(1));
+        first.refresh();
+        first.close();
+        issuerHits.set(0);
+        issuer.stop(0);
+
+        keys = cache(Duration.ofHours(1));
+        keys.start();
+        var jwt = decoder().decode(token(issuerKey.get()));
+
+        assertThat(jwt.getSubject()).isEqualTo("alice");
+        assertThat(issuerHits).hasValue(0);
+    }
+
+    @Test
+    void should_pickUpRotatedKey_inTheBackground() throws Exception {
+        keys = cache(Duration.ofHours(1));
+        keys.refresh();
+        RSAKey rotated = newKey("k2");
+        issuerKey.set(rotated);
+        String token = token(rotated);
+        JwtDecoder decoder = decoder();
+
+        // the request that sees the unknown key fails fast and only queues a refresh
+        assertThatThrownBy(() -> decoder.decode(token)).isInstanceOf(JwtException.class);
+
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (!decodes(decoder, token) && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(decoder.decode(token).getSubject()).isEqualTo("alice");
+    }
+
+    @Test
+    void should_rejectTokens_onceKeysOutliveTheGracePeriod() throws Exception {
+        keys = cache(Duration.ofMinutes(5));
+        keys.refresh();
+        issuer.stop(0);
+        String token = token(issuerKey.get());
+
+        clock.advance(Duration.ofMinutes(5).plus(Duration.ofMinutes(59)));
+        assertThat(decoder().decode(token).getSubject()).isEqualTo("alice");
+
+        clock.advance(Duration.ofMinutes(2));
+        assertThatThrownBy(() -> decoder().decode(token)).isInstanceOf(JwtException.class);
+    }
+
+    private static boolean decodes(JwtDecoder decoder, String token) {
+        try {
+            decoder.decode(token);
+            return true;
+        } catch (JwtException e) {
+            return false;
+        }
+    }
+
+    private LocalJwkSetCache cache(Duration refreshInterval) {
+        URI uri = URI.create("http://127.0.0.1:" + issuer.getAddress().getPort() + "/certs");
+        return new LocalJwkSetCache(uri, dir.resolve("jwks.json"), refreshInterval, Duration.ZERO,
+                Duration.ofHours(1), Duration.ofSeconds(2), clock, new SimpleMeterRegistry());
+    }
+
+    private JwtDecoder decoder() {
+        return OfflineJwtConfiguration.offlineDecoder(keys, ISSUER, List.of("RS256"));
+    }
+
+    private static RSAKey newKey(String kid) throws Exception {
+        return new RSAKeyGenerator(2048).keyID(kid).generate();
+    }
+
+    private static String token(RSAKey key) throws Exception {
+        var claims = new JWTClaimsSet.Builder()
+                .issuer(ISSUER)
+                .subject("alice")
+                .issueTime(new Date())
+                .expirationTime(Date.from(Instant.now().plusSeconds(300)))
+                .build();
+        var jwt = new SignedJWT(new JWSHeader.Builder(JWSAlgorithm.RS256).keyID(key.getKeyID()).build(), claims);
+        jwt.sign(new RSASSASigner(key));
+        return jwt.serialize();
+    }
+
+    private static final class MutableClock extends Clock {
+        private volatile Instant now;
+
+        MutableClock(Instant now) { this.now = now; }
+
+        void advance(Duration by) { now = now.plus(by); }
+
+        @Override public ZoneId getZone() { return ZoneOffset.UTC; }
+        @Override public Clock withZone(ZoneId zone) { return this; }
+        @Override public Instant instant() { return now; }
+    }
+}
@@ -1,21 +1,48 @@
 package com.fsavevsk.timetracking.unit.service;
 
 import com.fsavevsk.timetracking.api.dto.admin.OverviewReportResponse;
+import com.fsavevsk.timetracking.api.dto.admin.ProjectsReportFilter;
+import com.fsavevsk.timetracking.api.dto.admin.ProjectsReportResponse;
+import com.fsavevsk.timetracking.api.dto.admin.ProjectsReportSort;
+import com.fsavevsk.timetracking.api.dto.admin.TimeBucket;
+import com.fsavevsk.timetracking.api.dto.admin.TimeSeriesFilter;
+import com.fsavevsk.timetracking.api.dto.admin.TimeSeriesReportResponse;
+import com.fsavevsk.timetracking.persistence.projection.BucketMinutes;
+import com.fsavevsk.timetracking.persistence.projection.OverviewAggregate;
+import com.fsavevsk.timetracking.persistence.projection.ProjectMinutes;
 import com.fsavevsk.timetracking.persistence.projection.ProjectSummaryAggregate;
+import com.fsavevsk.timetracking.persistence.projection.ProjectSummaryPage;
 import com.fsavevsk.timetracking.persistence.repository.ProjectRepository;
+import com.fsavevsk.timetracking.persistence.repository.ProjectSummaryQuery;
+import com.fsavevsk.timetracking.persistence.repository.ProjectSummarySort;
 import com.fsavevsk.timetracking.persistence.repository.TimeEntryRepository;
+import com.fsavevsk.timetracking.persistence.repository.TimeEntryRollupRepository;
+import com.fsavevsk.timetracking.configuration.OverviewReportProperties;
+import com.fsavevsk.timetracking.configuration.ProjectsReportPagingProperties;
+import com.fsavevsk.timetracking.configuration.ReportCacheProperties;
+import com.fsavevsk.timetracking.configuration.ReportCoalescingProperties;
 import com.fsavevsk.timetracking.service.AdminReportsService;
+import com.fsavevsk.timetracking.service.analytics.TimeEntryAnalytics;
+import com.fsavevsk.timetracking.service.cache.ReportCache;
 import com.fsavevsk.timetracking.service.impl.AdminReportsServiceImpl;
+import com.fsavevsk.timetracking.service.impl.SnapshotFanout;
+import com.fsavevsk.timetracking.util.ProjectsReportCursor;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentMatchers;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
 
 import java.time.*;
 import java.util.List;
+import java.util.Optional;
+import java.util.function.Supplier;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.BDDMockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -24,10 +51,18 @@ class AdminReportsServiceImplTest {
     @Mock
     ProjectRepository projectRepository;
     @Mock
+    TimeEntryRollupRepository rollupRepository;
+    @Mock
     TimeEntryRepository timeEntryRepository;
     @Mock
+    SnapshotFanout snapshotFanout;
+    // current() answers Optional.empty() unless stubbed: reports come from the repositories
+    @Mock
+    TimeEntryAnalytics analytics;
+    @Mock
     private Clock fixedClock;
 
+    private ReportCache reportCache;
     private AdminReportsService service;
 
 
@@ -36,7 +71,14 @@ class AdminReportsServiceImplTest {
         // Monday 2025-08-18 12:00 UTC (so week boundaries are consistent)
         Instant fixedInstant = Instant.parse("2025-08-18T12:00:00Z");
         fixedClock = Clock.fixed(fixedInstant, ZoneOffset.UTC);
-        service = new AdminReportsServiceImpl(projectRepository, timeEntryRepository, fixedClock);
+        reportCache = new ReportCache(new ReportCacheProperties(true, 100, Duration.ofMinutes(1), Duration.ofMinutes(10)),
+                new ReportCoalescingProperties(true, Duration.ofSeconds(5)), new SimpleMeterRegistry(), fixedClock);
+        lenient().when(timeEntryRepository.reportVersion(any(), any())).thenReturn("1.1.0");
+        lenient().when(snapshotFanout.inSnapshot(ArgumentMatchers.<Supplier<Object>>any())).thenAnswer(inv -> ((Supplier<?>) inv.getArgument(0)).get());
+        // sequential overview; the concurrent variant needs real transactions and is covered by SnapshotFanoutIT
+        service = new AdminReportsServiceImpl(projectRepository, rollupRepository, timeEntryRepository, reportCache, snapshotFanout, analytics,
+                new OverviewReportProperties(OverviewReportProperties.Mode.SEQUENTIAL, Duration.ofSeconds(5), 10),
+                new ProjectsReportPagingProperties(50, 500), fixedClock);
     }
 
     @Test
@@ -45,22 +87,22 @@ class AdminReportsServiceImplTest {
 
         // Stub minutes today & this week
         // The exact from/to aren’t important; we just need to return values.
-        when(timeEntryRepository.sumMinutesBetweenAll(any(), any()))
-                .thenReturn(90)  // first call: today
-                .thenReturn(305) // second call: this week
+        when(rollupRepository.sumMinutesBetweenAll(any(), any()))
+                .thenReturn(90L)  // first call: today
+                .thenReturn(305L) // second call: this week
         ;
 
-        // top projects query: return 3 rows [id, name, minutes]
-        when(timeEntryRepository.topProjectsByMinutes(any(), any())).thenReturn(
-                java.util.List.of(
-                        new Object[]{1L, "A", 200},
-                        new Object[]{2L, "B", 150},
-                        new Object[]{3L, "C", 60}
+        // top projects query: return 3 rows
+        when(rollupRepository.topProjectsByMinutes(any(), any(), eq(Limit.of(10)))).thenReturn(
+                List.of(
+                        new ProjectMinutes(1L, "A", 200L),
+                        new ProjectMinutes(2L, "B", 150L),
+                        new ProjectMinutes(3L, "C", 60L)
                 )
         );
 
         ZoneId zone = ZoneId.of("UTC");
-        OverviewReportResponse res = service.overview(zone);
+        OverviewReportResponse res = service.overview(zone).value();
 
         assertEquals(5, res.totalProjects());
         assertEquals(1.5, res.hoursToday());     // 90m => 1.5h
@@ -73,19 +115,53 @@ class AdminReportsServiceImplTest {
     }
 
     @Test
-    void should_convertAggregateAndSortByWeekHoursDesc_inProjectsSummary() {
-        // mock aggregate rows
-        var a1 = agg(10L, "Alpha", 180, 600, 3L, LocalDateTime.parse("2025-08-17T10:00:00"));
-        var a2 = agg(20L, "Bravo", 60, 1200, 2L, LocalDateTime.parse("2025-08-16T09:00:00"));
-        var a3 = agg(30L, "Charlie", 240, 0, 5L, null);
+    void should_mapSingleStatementRows_inOverview() {
+        service = new AdminReportsServiceImpl(projectRepository, rollupRepository, timeEntryRepository, reportCache, snapshotFanout, analytics,
+                new OverviewReportProperties(OverviewReportProperties.Mode.SINGLE_STATEMENT, Duration.ofSeconds(5), 2),
+                new ProjectsReportPagingProperties(50, 500), fixedClock);
+        when(rollupRepository.overview(any(), any(), any(), any(), eq(2))).thenReturn(List.of(
+                overviewRow(4L, 90L, 305L, 1L, "A", 200L),
+                overviewRow(4L, 90L, 305L, 2L, "B", 105L)));
+
+        OverviewReportResponse res = service.overview(ZoneId.of("UTC")).value();
+
+        assertEquals(4, res.totalProjects());
+        assertEquals(1.5, res.hoursToday());
+        assertEquals(5.1, res.hoursThisWeek());
+        assertEquals(2, res.topProjectsThisWeek().size());
+        assertEquals("B", res.topProjectsThisWeek().get(1).projectName());
+        assertEquals(1.8, res.topProjectsThisWeek().get(1).hours()); // 105m => 1.75h => 1.8h
+        verifyNoInteractions(projectRepository);
+    }
+
+    @Test
+    void should_returnNoTopProjects_whenSingleStatementRowHasNoProject() {
+        service = new AdminReportsServiceImpl(projectRepository, rollupRepository, timeEntryRepository, reportCache, snapshotFanout, analytics,
+                new OverviewReportProperties(OverviewReportProperties.Mode.SINGLE_STATEMENT, Duration.ofSeconds(5), 10),
+                new ProjectsReportPagingProperties(50, 500), fixedClock);
+        when(rollupRepository.overview(any(), any(), any(), any(), anyInt()))
+                .thenReturn(List.of(overviewRow(3L, 0L, 0L, null, null, null)));
+
+        OverviewReportResponse res = service.overview(ZoneId.of("UTC")).value();
+
+        assertEquals(3, res.totalProjects());
+        assertEquals(0.0, res.hoursThisWeek());
+        assertEquals(List.of(), res.topProjectsThisWeek());
+    }
+
+    @Test
+    void should_convertAggregates_inTheOrderOfTheQuery_inProjectsSummary() {
+        // rows come back sorted by the statement: week minutes desc
+        var a1 = agg(30L, "Charlie", 240L, 0L, 5L, null);
+        var a2 = agg(10L, "Alpha", 180L, 600L, 3L, LocalDateTime.parse("2025-08-17T10:00:00"));
+        var a3 = agg(20L, "Bravo", 60L, 1200L, 2L, LocalDateTime.parse("2025-08-16T09:00:00"));
 
-        when(timeEntryRepository.summarizeAllProjects(any(), any(), any(), any()))
-                .thenReturn(List.of(a1, a2, a3));
+        when(rollupRepository.summarizeProjects(any(), any(), any(), any(), any()))
+                .thenReturn(new ProjectSummaryPage(List.of(a1, a2, a3), null));
 
         var zone = ZoneId.of("UTC");
-        var rows = service.projectsSummary(zone, /*startDate*/ null, /*endDate*/ null);
+        var rows = service.projectsSummary(zone, /*startDate*/ null, /*endDate*/ null).value();
 
-        // expect sorting by hoursWeek desc: Charlie(240m=4.0h), Alpha(180m=3.0h), Bravo(60m=1.0h)
         assertEquals(3, rows.size());
         assertEquals("Charlie", rows.getFirst().projectName());
         assertEquals(4.0, rows.get(0).hoursWeek());
@@ -99,12 +175,190 @@ class AdminReportsServiceImplTest {
         assertEquals(1.0, rows.get(2).hoursWeek());
         assertEquals(20.0, rows.get(2).hoursMonth()); // 1200m
 
-        // verify repo called with 4 timestamps (week & range windows)
-        verify(timeEntryRepository, times(1)).summarizeAllProjects(any(), any(), any(), any());
+        // every project, sorted in SQL
+        verify(rollupRepository, times(1)).summarizeProjects(any(), any(), any(), any(),
+                eq(ProjectSummaryQuery.all(ProjectSummarySort.MINUTES_WEEK, true)));
+    }
+
+    @Test
+    void should_pushPageDownToSql_andReturnCursorToNextPage() {
+        when(rollupRepository.summarizeProjects(any(), any(), any(), any(), any())).thenReturn(new ProjectSummaryPage(List.of(
+                agg(1L, "Alpha", 0L, 0L, 0L, null),
+                agg(2L, "Bravo", 0L, 0L, 0L, null),
+                agg(3L, "Charlie", 0L, 0L, 0L, null)), 7L));
+
+        var page = service.projectsPage(pageFilter(ProjectsReportSort.PROJECT_NAME, false, "a", null, 2, 2, true)).value();
+
+        // one row more than the page, to learn that there is a next one; the total comes from the same statement
+        verify(rollupRepository).summarizeProjects(any(), any(), any(), any(), eq(new ProjectSummaryQuery(
+                ProjectSummarySort.PROJECT_NAME, false, "a", null, null, 4, 3, true)));
+        assertEquals(List.of("Alpha", "Bravo"), page.items().stream().map(ProjectsReportResponse::projectName).toList());
+        assertEquals(7L, page.total());
+        var next = ProjectsReportCursor.decode(page.nextCursor());
+        assertEquals(new ProjectsReportCursor("projectName,asc", "Bravo", 2L), next);
+
+        when(rollupRepository.summarizeProjects(any(), any(), any(), any(), any())).thenReturn(new ProjectSummaryPage(List.of(), null));
+        var last = service.projectsPage(pageFilter(ProjectsReportSort.PROJECT_NAME, false, "a", page.nextCursor(), null, 2, false)).value();
+
+        verify(rollupRepository).summarizeProjects(any(), any(), any(), any(), eq(new ProjectSummaryQuery(
+                ProjectSummarySort.PROJECT_NAME, false, "a", "Bravo", 2L, 0, 3, false)));
+        assertEquals(null, last.nextCursor());
+        assertEquals(null, last.total());
+    }
+
+    @Test
+    void should_rejectCursor_issuedForAnotherSort() {
+        String cursor = new ProjectsReportCursor("hoursWeek,desc", "120", 2L).encode();
+
+        assertThrows(IllegalArgumentException.class, () -> service.projectsPage(
+                pageFilter(ProjectsReportSort.HOURS_WEEK, false, null, cursor, null, 10, false)));
+        assertThrows(IllegalArgumentException.class, () -> service.projectsPage(
+                pageFilter(ProjectsReportSort.HOURS_WEEK, true, null, cursor, 1, 10, false)));
+        verifyNoInteractions(rollupRepository);
+    }
+
+    @Test
+    void should_pageInMemory_likeSql_whenAnalyticsStoreIsCurrent() {
+        var view = mock(TimeEntryAnalytics.View.class);
+        when(analytics.current(any(), any())).thenReturn(Optional.of(view));
+        when(view.summarizeAllProjects(any(), any(), any(), any())).thenReturn(List.of(
+                agg(1L, "Alpha", 60L, 0L, 1L, null),
+                agg(2L, "Bravo", 120L, 0L, 1L, null),
+                agg(3L, "Charlie", 60L, 0L, 1L, null),
+                agg(4L, "Delta", 0L, 0L, 0L, null)));
+
+        var first = service.projectsPage(pageFilter(ProjectsReportSort.HOURS_WEEK, true, null, null, null, 2, true)).value();
+        var second = service.projectsPage(pageFilter(ProjectsReportSort.HOURS_WEEK, true, null, first.nextCursor(), null, 2, true)).value();
+
+        // ties on hours go by project id
+        assertEquals(List.of(2L, 1L), first.items().stream().map(ProjectsReportResponse::projectId).toList());
+        assertEquals(List.of(3L, 4L), second.items().stream().map(ProjectsReportResponse::projectId).toList());
+        assertEquals(4L, first.total());
+        assertEquals(null, second.nextCursor());
+        verifyNoInteractions(projectRepository, rollupRepository);
+    }
+
+    @Test
+    void should_answerFromAnalyticsStore_whenItIsCurrent() {
+        var view = mock(TimeEntryAnalytics.View.class);
+        when(analytics.current(any(), any())).thenReturn(Optional.of(view));
+        when(view.projectCount()).thenReturn(2L);
+        when(view.sumMinutes(any(), any())).thenReturn(30L, 120L);
+        when(view.topProjects(any(), any(), eq(10))).thenReturn(List.of(new ProjectMinutes(1L, "A", 120L)));
+
+        OverviewReportResponse res = service.overview(ZoneId.of("UTC")).value();
+
+        assertEquals(2, res.totalProjects());
+        assertEquals(0.5, res.hoursToday());
+        assertEquals(2.0, res.hoursThisWeek());
+        assertEquals("A", res.topProjectsThisWeek().getFirst().projectName());
+        // today and this week: the envelope of both windows
+        verify(analytics).current(LocalDateTime.parse("2025-08-18T00:00"), LocalDateTime.parse("2025-08-25T00:00"));
+        verifyNoInteractions(projectRepository, rollupRepository);
+    }
+
+    @Test
+    void should_serveRepeatedOverview_fromCache_untilCoveringWriteInvalidates() {
+        when(projectRepository.count()).thenReturn(1L);
+        when(rollupRepository.sumMinutesBetweenAll(any(), any())).thenReturn(60L);
+        when(rollupRepository.topProjectsByMinutes(any(), any(), any())).thenReturn(List.of());
+        ZoneId zone = ZoneId.of("UTC");
+
+        service.overview(zone);
+        service.overview(zone);
+        verify(projectRepository, times(1)).count();
+
+        // a write in an older week leaves the cached overview alone
+        reportCache.invalidateCovering(List.of(LocalDateTime.parse("2025-08-01T10:00:00")));
+        service.overview(zone);
+        verify(projectRepository, times(1)).count();
+
+        // a write this week evicts it
+        reportCache.invalidateCovering(List.of(LocalDateTime.parse("2025-08-19T10:00:00")));
+        service.overview(zone);
+        verify(projectRepository, times(2)).count();
+    }
+
+    @Test
+    void should_reloadCachedOverview_whenDataVersionMoves() {
+        // a write through another node never reaches this node's invalidator, only the version
+        when(projectRepository.count()).thenReturn(1L);
+        when(rollupRepository.sumMinutesBetweenAll(any(), any())).thenReturn(60L);
+        when(rollupRepository.topProjectsByMinutes(any(), any(), any())).thenReturn(List.of());
+        ZoneId zone = ZoneId.of("UTC");
+
+        var first = service.overview(zone);
+        when(timeEntryRepository.reportVersion(any(), any())).thenReturn("1.1.1");
+        var second = service.overview(zone);
+
+        verify(projectRepository, times(2)).count();
+        assertEquals("2025-08-18.2025-08-18-1.1.0", first.version());
+        assertEquals("2025-08-18.2025-08-18-1.1.1", second.version());
+        assertEquals(second.version(), service.overviewVersion(zone));
+    }
+
+    @Test
+    void should_readReportVersion_overEveryDayTheWindowsTouch() {
+        when(rollupRepository.summarizeProjects(any(), any(), any(), any(), any())).thenReturn(new ProjectSummaryPage(List.of(), null));
+
+        service.projectsSummary(ZoneId.of("UTC"), LocalDate.parse("2025-07-01"), LocalDate.parse("2025-07-31"));
+
+        // range July, current week Aug 18..24: the envelope of both
+        verify(timeEntryRepository, atLeastOnce()).reportVersion(LocalDate.parse("2025-07-01"), LocalDate.parse("2025-08-24"));
+    }
+
+    @Test
+    void should_cacheProjectsSummary_perWindow() {
+        when(rollupRepository.summarizeProjects(any(), any(), any(), any(), any())).thenReturn(new ProjectSummaryPage(List.of(), null));
+        ZoneId zone = ZoneId.of("UTC");
+
+        service.projectsSummary(zone, LocalDate.parse("2025-08-01"), LocalDate.parse("2025-08-31"));
+        service.projectsSummary(zone, LocalDate.parse("2025-08-01"), LocalDate.parse("2025-08-31"));
+        service.projectsSummary(zone, LocalDate.parse("2025-07-01"), LocalDate.parse("2025-07-31"));
+
+        verify(rollupRepository, times(2)).summarizeProjects(any(), any(), any(), any(), any());
+    }
+
+    @Test
+    void should_fillEmptyBuckets_inTimeSeries() {
+        var filter = new TimeSeriesFilter(TimeBucket.WEEK, LocalDate.parse("2025-07-02"), LocalDate.parse("2025-07-20"), 3L, null);
+        when(rollupRepository.minutesPerBucket("week", LocalDateTime.parse("2025-07-02T00:00"),
+                LocalDateTime.parse("2025-07-21T00:00"), 3L, null))
+                .thenReturn(List.of(new BucketMinutes(LocalDateTime.parse("2025-07-07T00:00"), 240L)));
+
+        var res = service.timeSeries(filter);
+
+        // weeks starting Monday: the first one reaches back before the range
+        assertEquals(List.of(
+                new TimeSeriesReportResponse.Point(LocalDateTime.parse("2025-06-30T00:00"), 0),
+                new TimeSeriesReportResponse.Point(LocalDateTime.parse("2025-07-07T00:00"), 240),
+                new TimeSeriesReportResponse.Point(LocalDateTime.parse("2025-07-14T00:00"), 0)), res.value().points());
+        assertEquals("2025-07-02.2025-07-20-1.1.0", res.version());
+        verify(timeEntryRepository, atLeastOnce()).reportVersion(LocalDate.parse("2025-07-02"), LocalDate.parse("2025-07-20"));
+    }
+
+    @Test
+    void should_addUpRowsOfTheSameBucket_inTimeSeries() {
+        var filter = new TimeSeriesFilter(TimeBucket.DAY, LocalDate.parse("2025-10-26"), LocalDate.parse("2025-10-26"), null, null);
+        when(rollupRepository.minutesPerBucket("day", LocalDateTime.parse("2025-10-26T00:00"),
+                LocalDateTime.parse("2025-10-27T00:00"), null, null))
+                .thenReturn(List.of(new BucketMinutes(LocalDateTime.parse("2025-10-26T00:00"), 60L),
+                        new BucketMinutes(LocalDateTime.parse("2025-10-26T00:00"), 30L)));
+
+        var res = service.timeSeries(filter);
+
+        assertEquals(List.of(new TimeSeriesReportResponse.Point(LocalDateTime.parse("2025-10-26T00:00"), 90)),
+                res.value().points());
     }
 
-    private static ProjectSummaryAggregate agg(Long id, String name, Integer minutesWeek,
-                                               Integer minutesRange, Long entriesWeek, LocalDateTime last) {
+    private static ProjectsReportFilter pageFilter(ProjectsReportSort sort, boolean descending, String name,
+                                                   String cursor, Integer page, Integer size, boolean includeTotal) {
+        return new ProjectsReportFilter(ZoneId.of("UTC"), LocalDate.parse("2025-08-01"), LocalDate.parse("2025-08-31"),
+                sort, descending, name, cursor, page, size, includeTotal);
+    }
+
+    private static ProjectSummaryAggregate agg(Long id, String name, Long minutesWeek,
+                                               Long minutesRange, Long entriesWeek, LocalDateTime last) {
         return new ProjectSummaryAggregate() {
             public Long getProjectId() {
                 return id;
@@ -114,11 +368,11 @@ class AdminReportsServiceImplTest {
                 return name;
             }
 
-            public Integer getMinutesWeek() {
+            public Long getMinutesWeek() {
                 return minutesWeek;
             }
 
-            public Integer getMinutesRange() {
+            public Long getMinutesRange() {
                 return minutesRange;
             }
 
@@ -131,4 +385,33 @@ class AdminReportsServiceImplTest {
             }
         };
     }
+
+    private static OverviewAggregate overviewRow(Long totalProjects, Long minutesToday, Long minutesWeek,
+                                                 Long projectId, String projectName, Long projectMinutes) {
+        return new OverviewAggregate() {
+            public Long getTotalProjects() {
+                return totalProjects;
+            }
+
+            public Long getMinutesToday() {
+                return minutesToday;
+            }
+
+            public Long getMinutesWeek() {
+                return minutesWeek;
+            }
+
+            public Long getProjectId() {
+                return projectId;
+            }
+
+            public String getProjectName() {
+                return projectName;
+            }
+
+            public Long getProjectMinutes() {
+                return projectMinutes;
+            }
+        };
+    }
 }
@@ -6,6 +6,8 @@ import com.fsavevsk.timetracking.api.exception.NotFoundException;
 import com.fsavevsk.timetracking.api.mapper.ProjectMapper;
 import com.fsavevsk.timetracking.persistence.entity.ProjectEntity;
 import com.fsavevsk.timetracking.persistence.repository.ProjectRepository;
+import com.fsavevsk.timetracking.service.cache.ProjectCatalog;
+import com.fsavevsk.timetracking.service.event.ProjectsChangedEvent;
 import com.fsavevsk.timetracking.service.impl.ProjectServiceImpl;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -13,6 +15,7 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mapstruct.factory.Mappers;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 
 import java.util.List;
 import java.util.Optional;
@@ -25,14 +28,18 @@ class ProjectServiceImplTest {
 
     @Mock
     private ProjectRepository projectRepository;
+    @Mock
+    private ApplicationEventPublisher events;
 
     private final ProjectMapper mapper = Mappers.getMapper(ProjectMapper.class);
 
+    private ProjectCatalog catalog;
     private ProjectServiceImpl service;
 
     @BeforeEach
     void setUp() {
-        service = new ProjectServiceImpl(projectRepository, mapper);
+        catalog = new ProjectCatalog(projectRepository, mapper);
+        service = new ProjectServiceImpl(projectRepository, mapper, catalog, events);
     }
 
     @Test
@@ -53,11 +60,13 @@ class ProjectServiceImplTest {
 
         then(projectRepository).should().save(any(ProjectEntity.class));
         then(projectRepository).shouldHaveNoMoreInteractions();
+        then(events).should().publishEvent(new ProjectsChangedEvent());
     }
 
     @Test
     void getAllProjects_mapsList() {
         // given
+        given(projectRepository.catalogVersion()).willReturn(1L);
         given(projectRepository.findAll())
                 .willReturn(List.of(
                         entity(1L, "TrackLight", "A"),
@@ -74,13 +83,96 @@ class ProjectServiceImplTest {
         assertThat(list.get(1).id()).isEqualTo(2L);
         assertThat(list.get(1).name()).isEqualTo("SolidTime");
 
+        then(projectRepository).should().catalogVersion();
         then(projectRepository).should().findAll();
         then(projectRepository).shouldHaveNoMoreInteractions();
     }
 
     @Test
-    void findProjectByName_returnsMapped_whenFound() {
+    void getAllProjects_servedFromCatalog_afterFirstLoad() {
+        // given
+        given(projectRepository.catalogVersion()).willReturn(1L);
+        given(projectRepository.findAll()).willReturn(List.of(entity(1L, "TrackLight", "A")));
+        service.getAllProjects();
+
+        // when
+        List<Project> list = service.getAllProjects();
+        Project byName = service.findProjectByName("TrackLight");
+
+        // then
+        assertThat(list).extracting(Project::name).containsExactly("TrackLight");
+        assertThat(byName.id()).isEqualTo(1L);
+        then(projectRepository).should(times(1)).findAll();
+        then(projectRepository).should(never()).findProjectByName(any());
+    }
+
+    @Test
+    void createAndDelete_swapCatalogSnapshot_withoutReloading() {
+        // given
+        given(projectRepository.catalogVersion()).willReturn(1L);
+        given(projectRepository.findAll()).willReturn(List.of(entity(1L, "TrackLight", "A")));
+        service.getAllProjects();
+        given(projectRepository.save(any(ProjectEntity.class))).willReturn(entity(2L, "SolidTime", "B"));
+        given(projectRepository.findById(1L)).willReturn(Optional.of(entity(1L, "TrackLight", "A")));
+
+        // when
+        service.createProject(new CreateProject("SolidTime", "B"));
+        service.delete(1L);
+
+        // then
+        assertThat(service.getAllProjects()).extracting(Project::name).containsExactly("SolidTime");
+        then(projectRepository).should(times(1)).findAll();
+    }
+
+    @Test
+    void projectsVersion_followsLocalWrites_andDependsOnlyOnContents() {
         // given
+        given(projectRepository.catalogVersion()).willReturn(1L);
+        given(projectRepository.findAll()).willReturn(List.of(entity(1L, "TrackLight", "A")));
+        String initial = service.projectsVersion();
+        given(projectRepository.save(any(ProjectEntity.class))).willReturn(entity(2L, "SolidTime", "B"));
+        given(projectRepository.findById(2L)).willReturn(Optional.of(entity(2L, "SolidTime", "B")));
+
+        // when
+        service.createProject(new CreateProject("SolidTime", "B"));
+        String afterCreate = service.projectsVersion();
+        service.delete(2L);
+
+        // then: a node that loaded the same projects from scratch agrees
+        assertThat(afterCreate).isNotEqualTo(initial);
+        assertThat(service.projectsVersion()).isEqualTo(initial);
+        var otherNode = new ProjectCatalog(projectRepository, mapper);
+        assertThat(otherNode.tag()).isEqualTo(initial);
+    }
+
+    @Test
+    void refreshIfChanged_reloadsOnlyWhenVersionMoved() {
+        // given
+        given(projectRepository.catalogVersion()).willReturn(1L);
+        given(projectRepository.findAll()).willReturn(List.of(entity(1L, "TrackLight", "A")));
+        service.getAllProjects();
+
+        // when: nothing changed
+        catalog.refreshIfChanged();
+
+        // then
+        then(projectRepository).should(times(1)).findAll();
+
+        // when: another node added a project
+        given(projectRepository.catalogVersion()).willReturn(2L);
+        given(projectRepository.findAll())
+                .willReturn(List.of(entity(1L, "TrackLight", "A"), entity(3L, "Elsewhere", "C")));
+        catalog.refreshIfChanged();
+
+        // then
+        assertThat(service.getAllProjects()).extracting(Project::name).containsExactly("TrackLight", "Elsewhere");
+        then(projectRepository).should(times(2)).findAll();
+    }
+
+    @Test
+    void findProjectByName_returnsMapped_whenFound() {
+        // given: created through another node, not in the catalog yet
+        given(projectRepository.findAll()).willReturn(List.of());
         given(projectRepository.findProjectByName("TrackLight"))
                 .willReturn(Optional.of(entity(1L, "TrackLight", "A")));
 
@@ -91,6 +183,8 @@ class ProjectServiceImplTest {
         assertThat(p.id()).isEqualTo(1L);
         assertThat(p.name()).isEqualTo("TrackLight");
 
+        then(projectRepository).should().catalogVersion();
+        then(projectRepository).should().findAll();
         then(projectRepository).should().findProjectByName("TrackLight");
         then(projectRepository).shouldHaveNoMoreInteractions();
     }
@@ -98,6 +192,7 @@ class ProjectServiceImplTest {
     @Test
     void findProjectByName_throwsNotFound_whenMissing() {
         // given
+        given(projectRepository.findAll()).willReturn(List.of());
         given(projectRepository.findProjectByName("Nope"))
                 .willReturn(Optional.empty());
 
@@ -106,6 +201,8 @@ class ProjectServiceImplTest {
                 .isInstanceOf(NotFoundException.class)
                 .hasMessageContaining("Project not found");
 
+        then(projectRepository).should().catalogVersion();
+        then(projectRepository).should().findAll();
         then(projectRepository).should().findProjectByName("Nope");
         then(projectRepository).shouldHaveNoMoreInteractions();
     }
@@ -124,6 +221,7 @@ class ProjectServiceImplTest {
         then(projectRepository).should().findById(5L);
         then(projectRepository).should().delete(existing);
         then(projectRepository).shouldHaveNoMoreInteractions();
+        then(events).should().publishEvent(new ProjectsChangedEvent());
     }
 
     @Test
@@ -138,6 +236,7 @@ class ProjectServiceImplTest {
 
         then(projectRepository).should().findById(999L);
         then(projectRepository).shouldHaveNoMoreInteractions();
+        then(events).shouldHaveNoInteractions();
     }
 
     private ProjectEntity entity(Long id, String name, String desc) {
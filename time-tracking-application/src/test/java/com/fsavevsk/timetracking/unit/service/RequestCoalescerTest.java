@@ -0,0 +1,113 @@
+package com.fsavevsk.timetracking.unit.service;
+
+import com.fsavevsk.timetracking.api.exception.ServiceUnavailableException;
+import com.fsavevsk.timetracking.service.cache.RequestCoalescer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.*;
+
+class RequestCoalescerTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    @Test
+    void concurrentCallersForSameKey_shareOneComputation() throws Exception {
+        var coalescer = new RequestCoalescer<String, Integer>("overview", Duration.ofSeconds(5), registry);
+        var loads = new AtomicInteger();
+        int callers = 8;
+
+        try (ExecutorService pool = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<Integer>> results = new ArrayList<>();
+            for (int i = 0; i < callers; i++) {
+                results.add(pool.submit(() -> coalescer.execute("utc-week", () -> {
+                    loads.incrementAndGet();
+                    // hold the flight open until every other caller has joined it
+                    awaitCoalesced(callers - 1);
+                    return 42;
+                })));
+            }
+            for (Future<Integer> result : results) {
+                assertThat(result.get(5, TimeUnit.SECONDS)).isEqualTo(42);
+            }
+        }
+
+        assertThat(loads).hasValue(1);
+        assertThat(coalescedCount()).isEqualTo(callers - 1);
+    }
+
+    @Test
+    void differentKeys_andSequentialCalls_areNotCoalesced() {
+        var coalescer = new RequestCoalescer<String, Integer>("overview", Duration.ofSeconds(5), registry);
+        var loads = new AtomicInteger();
+
+        coalescer.execute("a", loads::incrementAndGet);
+        coalescer.execute("b", loads::incrementAndGet);
+        coalescer.execute("a", loads::incrementAndGet);
+
+        assertThat(loads).hasValue(3);
+        assertThat(coalescedCount()).isZero();
+    }
+
+    @Test
+    void follower_timesOut_whileLeaderIsStillRunning() throws Exception {
+        var coalescer = new RequestCoalescer<String, Integer>("projects", Duration.ofMillis(50), registry);
+        var release = new CountDownLatch(1);
+        var started = new CountDownLatch(1);
+
+        try (ExecutorService pool = Executors.newVirtualThreadPerTaskExecutor()) {
+            Future<Integer> leader = pool.submit(() -> coalescer.execute("k", () -> {
+                started.countDown();
+                await(release);
+                return 1;
+            }));
+            assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+
+            assertThatThrownBy(() -> coalescer.execute("k", () -> 2))
+                    .isInstanceOf(ServiceUnavailableException.class);
+            assertThat(registry.get("reports.requests.coalesced.timeouts").tag("report", "projects").counter().count())
+                    .isEqualTo(1.0);
+
+            release.countDown();
+            assertThat(leader.get(5, TimeUnit.SECONDS)).isEqualTo(1);
+        }
+    }
+
+    @Test
+    void failure_isPropagated_andNotRemembered() {
+        var coalescer = new RequestCoalescer<String, Integer>("overview", Duration.ofSeconds(5), registry);
+
+        assertThatThrownBy(() -> coalescer.execute("k", () -> { throw new IllegalStateException("db down"); }))
+                .hasMessage("db down");
+        assertThat(coalescer.execute("k", () -> 7)).isEqualTo(7);
+    }
+
+    private double coalescedCount() {
+        return registry.get("reports.requests.coalesced").tag("report", "overview").counter().count();
+    }
+
+    private void awaitCoalesced(int followers) {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        try {
+            while (coalescedCount() < followers && System.nanoTime() < deadline) {
+                Thread.sleep(1);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
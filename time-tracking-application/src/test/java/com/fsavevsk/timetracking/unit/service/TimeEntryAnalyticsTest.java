@@ -0,0 +1,234 @@
+package com.fsavevsk.timetracking.unit.service;
+
+import com.fsavevsk.timetracking.api.dto.Project;
+import com.fsavevsk.timetracking.configuration.ReportAnalyticsProperties;
+import com.fsavevsk.timetracking.persistence.projection.ProjectMinutes;
+import com.fsavevsk.timetracking.persistence.projection.ProjectSummaryAggregate;
+import com.fsavevsk.timetracking.persistence.projection.TimeEntryFact;
+import com.fsavevsk.timetracking.persistence.repository.TimeEntryRepository;
+import com.fsavevsk.timetracking.service.analytics.TimeEntryAnalytics;
+import com.fsavevsk.timetracking.service.cache.ProjectCatalog;
+import com.fsavevsk.timetracking.service.event.TimeEntriesChangedEvent;
+import com.fsavevsk.timetracking.service.impl.SnapshotFanout;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TimeEntryAnalyticsTest {
+
+    private static final LocalDate MON = LocalDate.parse("2025-08-18");
+    private static final LocalDate TUE = MON.plusDays(1);
+
+    @Mock
+    TimeEntryRepository timeEntryRepository;
+    @Mock
+    ProjectCatalog projectCatalog;
+    @Mock
+    SnapshotFanout snapshotFanout;
+
+    private TimeEntryAnalytics analytics;
+
+    @BeforeEach
+    void setUp() {
+        lenient().when(snapshotFanout.inSnapshot(ArgumentMatchers.<Supplier<Object>>any())).thenAnswer(inv -> ((Supplier<?>) inv.getArgument(0)).get());
+        lenient().when(projectCatalog.all()).thenReturn(List.of(
+                new Project(1L, "Alpha", null), new Project(2L, "Bravo", null), new Project(3L, "Idle", null)));
+        lenient().when(projectCatalog.findById(anyLong())).thenAnswer(inv ->
+                projectCatalog.all().stream().filter(p -> p.id().equals(inv.getArgument(0))).findFirst());
+        analytics = analytics(true);
+    }
+
+    private TimeEntryAnalytics analytics(boolean enabled) {
+        // background work runs on the calling thread
+        return new TimeEntryAnalytics(timeEntryRepository, projectCatalog, snapshotFanout,
+                new ReportAnalyticsProperties(enabled), new SimpleMeterRegistry(), Runnable::run);
+    }
+
+    @Test
+    void should_answerNothing_whenDisabled() {
+        assertEquals(Optional.empty(), analytics(false).current(at(MON, 0, 0), at(TUE, 0, 0)));
+        verifyNoInteractions(timeEntryRepository);
+    }
+
+    @Test
+    void should_loadOnFirstUse_andAnswerFromMemoryAfterwards() {
+        loadMondayAndTuesday();
+
+        assertEquals(Optional.empty(), analytics.current(at(MON, 0, 0), at(TUE, 0, 0)));
+        var view = analytics.current(at(MON, 0, 0), at(TUE, 0, 0)).orElseThrow();
+
+        assertEquals(4, analytics.entries());
+        assertEquals(3, view.projectCount());
+        assertEquals(60 + 30 + 45, view.sumMinutes(at(MON, 0, 0), at(TUE, 0, 0)));
+        assertEquals(60 + 30 + 45 + 120, view.sumMinutes(at(MON, 0, 0), at(TUE.plusDays(1), 0, 0)));
+        verify(timeEntryRepository, times(1)).streamFacts(null, null);
+    }
+
+    @Test
+    void should_countMinutesByHourBucket_likeTheRollups() {
+        loadMondayAndTuesday();
+        analytics.reload();
+        var view = analytics.current(at(MON, 0, 0), at(TUE, 0, 0)).orElseThrow();
+
+        // the 09:40 entry starts in the 09:00 bucket, which starts before 09:30, and runs 10 minutes into 10:00
+        assertEquals(60 + 20, view.sumMinutes(at(MON, 9, 0), at(MON, 10, 0)));
+        assertEquals(10, view.sumMinutes(at(MON, 10, 0), at(MON, 11, 0)));
+        assertEquals(0, view.sumMinutes(at(MON, 9, 30), at(MON, 10, 0)));
+        // an end inside an hour takes that hour's bucket along
+        assertEquals(60 + 30 + 45, view.sumMinutes(at(MON, 0, 0), at(MON, 14, 1)));
+    }
+
+    @Test
+    void should_rankTopProjects_andSummarizeEveryProject() {
+        loadMondayAndTuesday();
+        analytics.reload();
+        var view = analytics.current(at(MON, 0, 0), at(TUE.plusDays(1), 0, 0)).orElseThrow();
+
+        assertEquals(List.of(new ProjectMinutes(2L, "Bravo", 165L), new ProjectMinutes(1L, "Alpha", 90L)),
+                view.topProjects(at(MON, 0, 0), at(TUE.plusDays(1), 0, 0), 10));
+        assertEquals(List.of(new ProjectMinutes(2L, "Bravo", 165L)),
+                view.topProjects(at(MON, 0, 0), at(TUE.plusDays(1), 0, 0), 1));
+
+        List<ProjectSummaryAggregate> rows = view.summarizeAllProjects(
+                at(MON, 0, 0), at(MON, 12, 0), at(MON, 0, 0), at(TUE.plusDays(1), 0, 0).minusNanos(1));
+        assertEquals(3, rows.size());
+        var alpha = rows.getFirst();
+        assertEquals(90L, alpha.getMinutesWeek());
+        assertEquals(90L, alpha.getMinutesRange());
+        assertEquals(2L, alpha.getEntriesWeek());
+        assertEquals(LocalDateTime.parse("2025-08-18T09:40:12.345678"), alpha.getLastEntryAt());
+        var bravo = rows.get(1);
+        assertEquals(0L, bravo.getMinutesWeek());
+        assertEquals(165L, bravo.getMinutesRange());
+        assertEquals(at(TUE, 8, 0), bravo.getLastEntryAt());
+        var idle = rows.get(2);
+        assertEquals(0L, idle.getMinutesRange());
+        assertNull(idle.getLastEntryAt());
+    }
+
+    @Test
+    void should_apportionOvernightEntries_overTheDaysTheyOverlap() {
+        when(timeEntryRepository.syncEpoch()).thenReturn(7L);
+        when(timeEntryRepository.dayVersions(isNull(), isNull())).thenReturn(Map.of(MON, 1L, TUE, 1L));
+        when(timeEntryRepository.dayVersions(MON, TUE)).thenReturn(Map.of(MON, 1L, TUE, 1L));
+        when(timeEntryRepository.streamFacts(null, null)).thenAnswer(inv -> List.of(
+                new TimeEntryFact(at(MON, 22, 0), 8 * 60, 1L)).stream());
+        analytics.reload();
+        var view = analytics.current(at(MON, 0, 0), at(TUE.plusDays(1), 0, 0)).orElseThrow();
+
+        assertEquals(120, view.sumMinutes(at(MON, 0, 0), at(TUE, 0, 0)));
+        assertEquals(360, view.sumMinutes(at(TUE, 0, 0), at(TUE.plusDays(1), 0, 0)));
+        // Tuesday holds minutes of the project but none of its entries
+        var tuesday = view.summarizeAllProjects(at(TUE, 0, 0), at(TUE.plusDays(1), 0, 0),
+                at(TUE, 0, 0), at(TUE.plusDays(1), 0, 0)).getFirst();
+        assertEquals(360L, tuesday.getMinutesWeek());
+        assertEquals(0L, tuesday.getEntriesWeek());
+        assertNull(tuesday.getLastEntryAt());
+        assertEquals(List.of(new ProjectMinutes(1L, "Alpha", 360L)), view.topProjects(at(TUE, 0, 0), at(TUE, 12, 0), 10));
+        assertEquals(1, analytics.entries());
+    }
+
+    @Test
+    void should_reloadOnlyChangedDays_whenTheirVersionMoves() {
+        loadMondayAndTuesday();
+        analytics.reload();
+
+        // a write through another node: Monday's version moves, its entry is gone
+        when(timeEntryRepository.dayVersions(MON, MON)).thenReturn(Map.of(MON, 2L));
+        when(timeEntryRepository.streamFacts(at(MON, 0, 0), at(TUE, 0, 0))).thenAnswer(inv -> List.of(
+                new TimeEntryFact(at(MON, 9, 0), 60, 1L)).stream());
+
+        // this report uses SQL; the refresh it schedules serves the next one
+        assertEquals(Optional.empty(), analytics.current(at(MON, 0, 0), at(TUE, 0, 0)));
+        var view = analytics.current(at(MON, 0, 0), at(TUE, 0, 0)).orElseThrow();
+
+        assertEquals(60, view.sumMinutes(at(MON, 0, 0), at(TUE, 0, 0)));
+        assertEquals(60 + 120, view.sumMinutes(at(MON, 0, 0), at(TUE.plusDays(1), 0, 0)));
+        assertEquals(2, analytics.entries());
+        verify(timeEntryRepository, times(1)).streamFacts(null, null);
+    }
+
+    @Test
+    void should_keepTheStoreAndFallBack_whenRefreshingChangedDaysFails() {
+        loadMondayAndTuesday();
+        analytics.reload();
+
+        when(timeEntryRepository.dayVersions(MON, MON)).thenReturn(Map.of(MON, 2L));
+        when(timeEntryRepository.streamFacts(at(MON, 0, 0), at(TUE, 0, 0)))
+                .thenThrow(new IllegalStateException("connection lost"));
+
+        assertEquals(Optional.empty(), analytics.current(at(MON, 0, 0), at(TUE, 0, 0)));
+        assertEquals(4, analytics.entries());
+        // Tuesday did not move, so reports over it still come from memory
+        when(timeEntryRepository.dayVersions(TUE, TUE)).thenReturn(Map.of(TUE, 2L));
+        assertTrue(analytics.current(at(TUE, 0, 0), at(TUE.plusDays(1), 0, 0)).isPresent());
+    }
+
+    @Test
+    void should_refreshWrittenDays_afterLocalWrites() {
+        loadMondayAndTuesday();
+        analytics.reload();
+
+        when(timeEntryRepository.dayVersions(TUE, TUE)).thenReturn(Map.of(TUE, 3L));
+        when(timeEntryRepository.streamFacts(at(TUE, 0, 0), at(TUE.plusDays(1), 0, 0))).thenAnswer(inv -> List.of(
+                new TimeEntryFact(at(TUE, 8, 0), 120, 2L), new TimeEntryFact(at(TUE, 15, 0), 15, 3L)).stream());
+        analytics.onTimeEntriesChanged(new TimeEntriesChangedEvent(List.of(at(TUE, 15, 0))));
+
+        when(timeEntryRepository.dayVersions(MON, TUE)).thenReturn(Map.of(MON, 1L, TUE, 3L));
+        var view = analytics.current(at(MON, 0, 0), at(TUE.plusDays(1), 0, 0)).orElseThrow();
+        assertEquals(new ProjectMinutes(3L, "Idle", 15L),
+                view.topProjects(at(TUE, 0, 0), at(TUE.plusDays(1), 0, 0), 10).getLast());
+        verify(timeEntryRepository, times(1)).streamFacts(at(TUE, 0, 0), at(TUE.plusDays(1), 0, 0));
+    }
+
+    @Test
+    void should_fallBackAndReload_whenBulkVersionMoves() {
+        loadMondayAndTuesday();
+        analytics.reload();
+
+        when(timeEntryRepository.syncEpoch()).thenReturn(8L);
+        when(timeEntryRepository.dayVersions(isNull(), isNull())).thenReturn(Map.of(TUE, 2L));
+        when(timeEntryRepository.dayVersions(MON, MON)).thenReturn(Map.of());
+        when(timeEntryRepository.streamFacts(null, null)).thenAnswer(inv -> List.of(
+                new TimeEntryFact(at(TUE, 8, 0), 120, 2L)).stream());
+
+        // the answer would mix two states; the reload it starts serves the next report
+        assertEquals(Optional.empty(), analytics.current(at(MON, 0, 0), at(TUE, 0, 0)));
+        assertEquals(1, analytics.entries());
+        assertEquals(0, analytics.current(at(MON, 0, 0), at(TUE, 0, 0)).orElseThrow()
+                .sumMinutes(at(MON, 0, 0), at(TUE, 0, 0)));
+    }
+
+    private void loadMondayAndTuesday() {
+        lenient().when(timeEntryRepository.syncEpoch()).thenReturn(7L);
+        lenient().when(timeEntryRepository.dayVersions(isNull(), isNull())).thenReturn(Map.of(MON, 1L, TUE, 2L));
+        lenient().when(timeEntryRepository.dayVersions(any(LocalDate.class), any(LocalDate.class)))
+                .thenReturn(Map.of(MON, 1L, TUE, 2L));
+        lenient().when(timeEntryRepository.streamFacts(null, null)).thenAnswer(inv -> List.of(
+                new TimeEntryFact(at(MON, 9, 0), 60, 1L),
+                new TimeEntryFact(LocalDateTime.parse("2025-08-18T09:40:12.345678"), 30, 1L),
+                new TimeEntryFact(at(MON, 14, 0), 45, 2L),
+                new TimeEntryFact(at(TUE, 8, 0), 120, 2L)).stream());
+    }
+
+    private static LocalDateTime at(LocalDate day, int hour, int minute) {
+        return day.atTime(hour, minute);
+    }
+}
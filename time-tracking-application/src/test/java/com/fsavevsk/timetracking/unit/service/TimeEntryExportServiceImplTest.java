@@ -0,0 +1,85 @@
+package com.fsavevsk.timetracking.unit.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.fsavevsk.timetracking.api.dto.admin.ExportFormat;
+import com.fsavevsk.timetracking.api.dto.admin.TimeEntryExportFilter;
+import com.fsavevsk.timetracking.persistence.projection.TimeEntryExportRow;
+import com.fsavevsk.timetracking.persistence.repository.TimeEntryRepository;
+import com.fsavevsk.timetracking.service.impl.TimeEntryExportServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.BDDMockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TimeEntryExportServiceImplTest {
+
+    @Mock
+    private TimeEntryRepository timeEntryRepository;
+
+    private TimeEntryExportServiceImpl service;
+
+    @BeforeEach
+    void setUp() {
+        ObjectMapper om = new ObjectMapper()
+                .registerModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        service = new TimeEntryExportServiceImpl(timeEntryRepository, om);
+    }
+
+    @Test
+    void export_csv_writesHeaderAndQuotesSpecialCharacters() throws Exception {
+        // given
+        var filter = new TimeEntryExportFilter(null, null, 10L, null);
+        given(timeEntryRepository.streamForExport(null, null, 10L, null))
+                .willReturn(Stream.of(row(1L, "Plain"), row(2L, "Says \"hi\", twice")));
+
+        // when
+        var out = new ByteArrayOutputStream();
+        service.export(ExportFormat.CSV, filter, out);
+
+        // then
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\r\n");
+        assertThat(lines).hasSize(3);
+        assertThat(lines[0]).startsWith("id,projectId,projectName,userId,title");
+        assertThat(lines[1]).isEqualTo("1,10,Alpha,alice,Plain,,2025-08-10T09:00,2025-08-10T10:30,90");
+        assertThat(lines[2]).contains(",\"Says \"\"hi\"\", twice\",");
+    }
+
+    @Test
+    void export_ndjson_writesOneObjectPerLine_andClosesStream() throws Exception {
+        // given
+        var closed = new AtomicBoolean();
+        var filter = new TimeEntryExportFilter(null, null, null, "alice");
+        given(timeEntryRepository.streamForExport(null, null, null, "alice"))
+                .willReturn(Stream.of(row(1L, "One"), row(2L, "Two")).onClose(() -> closed.set(true)));
+
+        // when
+        var out = new ByteArrayOutputStream();
+        service.export(ExportFormat.NDJSON, filter, out);
+
+        // then
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertThat(lines).hasSize(2);
+        assertThat(lines[0]).contains("\"id\":1").contains("\"startTime\":\"2025-08-10T09:00:00\"");
+        assertThat(lines[1]).contains("\"title\":\"Two\"");
+        assertThat(closed).isTrue();
+    }
+
+    private static TimeEntryExportRow row(Long id, String title) {
+        return new TimeEntryExportRow(id, 10L, "Alpha", "alice", title, null,
+                LocalDateTime.of(2025, 8, 10, 9, 0), LocalDateTime.of(2025, 8, 10, 10, 30), 90);
+    }
+}
@@ -0,0 +1,98 @@
+package com.fsavevsk.timetracking.unit.service;
+
+import com.fsavevsk.timetracking.configuration.TimeEntryPartitionProperties;
+import com.fsavevsk.timetracking.configuration.TimeEntryPartitionProperties.RetentionAction;
+import com.fsavevsk.timetracking.persistence.repository.TimeEntryPartitionRepository;
+import com.fsavevsk.timetracking.persistence.repository.TimeEntryRepository;
+import com.fsavevsk.timetracking.service.impl.TimeEntryPartitionServiceImpl;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.mockito.BDDMockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TimeEntryPartitionServiceImplTest {
+
+    // 2025-08-18, so the current month is 2025-08
+    private static final Clock CLOCK = Clock.fixed(Instant.parse("2025-08-18T12:00:00Z"), ZoneOffset.UTC);
+
+    @Mock
+    private TimeEntryPartitionRepository partitionRepository;
+    @Mock
+    private TimeEntryRepository timeEntryRepository;
+
+    @Test
+    void maintain_createsOnlyMissingMonthsAhead_underLock() {
+        // given
+        given(partitionRepository.findMonthlyPartitions())
+                .willReturn(List.of(YearMonth.of(2025, 7), YearMonth.of(2025, 8), YearMonth.of(2025, 9)));
+        var service = service(2, null, RetentionAction.DETACH);
+
+        // when
+        service.maintain();
+
+        // then
+        InOrder inOrder = inOrder(partitionRepository);
+        inOrder.verify(partitionRepository).lockForMaintenance();
+        inOrder.verify(partitionRepository).findMonthlyPartitions();
+        inOrder.verify(partitionRepository).createMonthlyPartition(YearMonth.of(2025, 10));
+        then(partitionRepository).shouldHaveNoMoreInteractions();
+        then(timeEntryRepository).shouldHaveNoInteractions();
+    }
+
+    @Test
+    void maintain_detachesPartitionsPastRetention() {
+        // given
+        given(partitionRepository.findMonthlyPartitions())
+                .willReturn(List.of(YearMonth.of(2025, 4), YearMonth.of(2025, 5), YearMonth.of(2025, 6),
+                        YearMonth.of(2025, 8)));
+        var service = service(0, 2, RetentionAction.DETACH);
+
+        // when
+        service.maintain();
+
+        // then (keeps 2025-06 .. 2025-08)
+        InOrder inOrder = inOrder(partitionRepository);
+        inOrder.verify(partitionRepository).removeFromRollups(YearMonth.of(2025, 4));
+        inOrder.verify(partitionRepository).detachMonthlyPartition(YearMonth.of(2025, 4));
+        then(partitionRepository).should(never()).removeFromRollups(YearMonth.of(2025, 6));
+        then(partitionRepository).should().detachMonthlyPartition(YearMonth.of(2025, 5));
+        then(partitionRepository).should(never()).detachMonthlyPartition(YearMonth.of(2025, 6));
+        then(partitionRepository).should(never()).dropMonthlyPartition(any());
+        then(partitionRepository).should(never()).createMonthlyPartition(any());
+        then(timeEntryRepository).should().bumpBulkVersion();
+    }
+
+    @Test
+    void maintain_dropsPartitionsPastRetention_whenConfigured() {
+        // given
+        given(partitionRepository.findMonthlyPartitions())
+                .willReturn(List.of(YearMonth.of(2024, 1), YearMonth.of(2025, 8)));
+        var service = service(0, 12, RetentionAction.DROP);
+
+        // when
+        service.maintain();
+
+        // then
+        then(partitionRepository).should().removeFromRollups(YearMonth.of(2024, 1));
+        then(partitionRepository).should().dropMonthlyPartition(YearMonth.of(2024, 1));
+        then(partitionRepository).should(never()).detachMonthlyPartition(any());
+        then(timeEntryRepository).should().bumpBulkVersion();
+        then(timeEntryRepository).should().bumpSyncEpoch();
+        then(timeEntryRepository).should().deleteAllTombstones();
+    }
+
+    private TimeEntryPartitionServiceImpl service(int monthsAhead, Integer retentionMonths, RetentionAction action) {
+        var properties = new TimeEntryPartitionProperties(true, monthsAhead, retentionMonths, action, "0 15 3 * * *");
+        return new TimeEntryPartitionServiceImpl(partitionRepository, timeEntryRepository, properties, CLOCK);
+    }
+}
@@ -1,15 +1,29 @@
 package com.fsavevsk.timetracking.unit.service;
 
 import com.fsavevsk.timetracking.api.dto.CreateTimeEntryRequest;
+import com.fsavevsk.timetracking.api.dto.Project;
 import com.fsavevsk.timetracking.api.dto.TimeEntryResponse;
+import com.fsavevsk.timetracking.api.dto.TimeEntryUploadResult;
+import com.fsavevsk.timetracking.api.dto.TimeEntryUploadResult.Outcome;
+import com.fsavevsk.timetracking.api.dto.UploadTimeEntryRequest;
 import com.fsavevsk.timetracking.api.exception.NotFoundException;
 import com.fsavevsk.timetracking.api.mapper.TimeEntryMapper;
+import com.fsavevsk.timetracking.configuration.TimeEntryPagingProperties;
 import com.fsavevsk.timetracking.persistence.entity.ProjectEntity;
 import com.fsavevsk.timetracking.persistence.entity.TimeEntryEntity;
+import com.fsavevsk.timetracking.persistence.projection.ClientEntryId;
+import com.fsavevsk.timetracking.persistence.projection.TimeEntryView;
 import com.fsavevsk.timetracking.persistence.repository.ProjectRepository;
 import com.fsavevsk.timetracking.persistence.repository.TimeEntryRepository;
+import com.fsavevsk.timetracking.persistence.repository.TimeEntryRollupDelta;
+import com.fsavevsk.timetracking.persistence.repository.TimeEntryRollupRepository;
+import com.fsavevsk.timetracking.persistence.repository.TimeEntryUpsert;
 import com.fsavevsk.timetracking.security.CurrentUserService;
+import com.fsavevsk.timetracking.service.cache.ProjectCatalog;
+import com.fsavevsk.timetracking.service.event.TimeEntriesChangedEvent;
 import com.fsavevsk.timetracking.service.impl.TimeEntryServiceImpl;
+import com.fsavevsk.timetracking.util.ChangeToken;
+import com.fsavevsk.timetracking.util.TimeEntryCursor;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -17,11 +31,18 @@ import org.mapstruct.factory.Mappers;
 import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
 
 import java.lang.reflect.Field;
+import java.sql.SQLException;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
 
 import static org.assertj.core.api.Assertions.*;
 import static org.mockito.BDDMockito.*;
@@ -34,7 +55,13 @@ class TimeEntryServiceImplTest {
     @Mock
     private ProjectRepository projectRepo;
     @Mock
+    private ProjectCatalog projectCatalog;
+    @Mock
+    private TimeEntryRollupRepository rollupRepo;
+    @Mock
     private CurrentUserService currentUser;
+    @Mock
+    private ApplicationEventPublisher events;
 
     private final TimeEntryMapper mapper = Mappers.getMapper(TimeEntryMapper.class);
 
@@ -42,7 +69,8 @@ class TimeEntryServiceImplTest {
 
     @BeforeEach
     void init() {
-        service = new TimeEntryServiceImpl(timeEntryRepo, projectRepo, mapper, currentUser);
+        service = new TimeEntryServiceImpl(timeEntryRepo, projectRepo, projectCatalog, rollupRepo, mapper, currentUser,
+                new TimeEntryPagingProperties(2, 3), events);
     }
 
     @Test
@@ -52,8 +80,8 @@ class TimeEntryServiceImplTest {
 
         ProjectEntity project = new ProjectEntity();
         project.setId(10L);
-        project.setName("Project A");
-        given(projectRepo.findById(10L)).willReturn(Optional.of(project));
+        given(projectCatalog.findById(10L)).willReturn(Optional.of(new Project(10L, "Project A", null)));
+        given(projectRepo.getReferenceById(10L)).willReturn(project);
 
         CreateTimeEntryRequest req = new CreateTimeEntryRequest(
                 10L, "Feature work",
@@ -68,7 +96,7 @@ class TimeEntryServiceImplTest {
             f.setAccessible(true);
             f.set(e, 1L); // simulate JPA id assignment
             return e;
-        }).given(timeEntryRepo).save(any(TimeEntryEntity.class));
+        }).given(timeEntryRepo).saveAndFlush(any(TimeEntryEntity.class));
 
         // when
         TimeEntryResponse res = service.createForCurrentUser(req);
@@ -81,14 +109,23 @@ class TimeEntryServiceImplTest {
         assertThat(res.durationMinutes()).isEqualTo(210);
 
         ArgumentCaptor<TimeEntryEntity> captor = ArgumentCaptor.forClass(TimeEntryEntity.class);
-        then(timeEntryRepo).should().save(captor.capture());
+        then(timeEntryRepo).should().saveAndFlush(captor.capture());
         TimeEntryEntity saved = captor.getValue();
         assertThat(saved.getUserId()).isEqualTo("user-123");
         assertThat(saved.getProject()).isSameAs(project);
         assertThat(saved.getDurationMinutes()).isEqualTo(210);
-        then(projectRepo).should().findById(10L);
+        then(projectRepo).should().getReferenceById(10L);
+        then(projectRepo).shouldHaveNoMoreInteractions();
         then(currentUser).should().userId();
+        then(timeEntryRepo).should().bumpVersions("user-123", List.of(LocalDate.of(2025, 8, 10)));
         then(timeEntryRepo).shouldHaveNoMoreInteractions();
+        // 09:00-12:30 is apportioned over the hours it overlaps; the entry counts where it starts
+        then(rollupRepo).should().applyDeltas(List.of(
+                new TimeEntryRollupDelta(10L, "user-123", LocalDateTime.of(2025, 8, 10, 9, 0), 60, 1, LocalDateTime.of(2025, 8, 10, 9, 0)),
+                new TimeEntryRollupDelta(10L, "user-123", LocalDateTime.of(2025, 8, 10, 10, 0), 60, 0, null),
+                new TimeEntryRollupDelta(10L, "user-123", LocalDateTime.of(2025, 8, 10, 11, 0), 60, 0, null),
+                new TimeEntryRollupDelta(10L, "user-123", LocalDateTime.of(2025, 8, 10, 12, 0), 30, 0, null)));
+        then(events).should().publishEvent(new TimeEntriesChangedEvent(List.of(LocalDateTime.of(2025, 8, 10, 9, 0))));
     }
 
     @Test
@@ -108,6 +145,7 @@ class TimeEntryServiceImplTest {
 
         then(projectRepo).shouldHaveNoInteractions();
         then(timeEntryRepo).shouldHaveNoInteractions();
+        then(rollupRepo).shouldHaveNoInteractions();
         then(currentUser).shouldHaveNoInteractions();
     }
 
@@ -115,7 +153,7 @@ class TimeEntryServiceImplTest {
     void createForCurrentUser_throwsWhenProjectMissing() {
         // given
         given(currentUser.userId()).willReturn("user-123");
-        given(projectRepo.findById(999L)).willReturn(Optional.empty());
+        given(projectCatalog.findById(999L)).willReturn(Optional.empty());
 
         CreateTimeEntryRequest req = new CreateTimeEntryRequest(
                 999L, "Feature",
@@ -129,29 +167,51 @@ class TimeEntryServiceImplTest {
                 .isInstanceOf(NotFoundException.class)
                 .hasMessageContaining("Project not found");
 
-        then(projectRepo).should().findById(999L);
+        then(projectRepo).shouldHaveNoInteractions();
         then(timeEntryRepo).shouldHaveNoInteractions();
     }
 
     @Test
-    void listForCurrentUser_mapsEntities() {
-        // given
+    void createForCurrentUser_404AndEvictsProject_whenDeletedConcurrently() {
+        // given: the catalog still lists a project another transaction has just deleted
         given(currentUser.userId()).willReturn("user-123");
+        given(projectCatalog.findById(10L)).willReturn(Optional.of(new Project(10L, "Project A", null)));
+        given(projectRepo.getReferenceById(10L)).willReturn(project(10L, "Project A"));
+        var fkViolation = new SQLException("insert violates foreign key constraint", "23503");
+        given(timeEntryRepo.saveAndFlush(any(TimeEntryEntity.class)))
+                .willThrow(new DataIntegrityViolationException("could not execute statement", fkViolation));
 
-        ProjectEntity project = new ProjectEntity();
-        project.setId(10L);
-        project.setName("Project A");
+        CreateTimeEntryRequest req = new CreateTimeEntryRequest(
+                10L, "Feature",
+                LocalDateTime.of(2025, 8, 10, 9, 0),
+                LocalDateTime.of(2025, 8, 10, 10, 0),
+                null
+        );
 
-        TimeEntryEntity e = new TimeEntryEntity();
-        e.setProject(project);
-        e.setUserId("user-123");
-        e.setTitle("Docs");
-        e.setStartTime(LocalDateTime.of(2025, 8, 10, 9, 0));
-        e.setEndTime(LocalDateTime.of(2025, 8, 10, 10, 15));
-        e.setDurationMinutes(75);
+        // when / then
+        assertThatThrownBy(() -> service.createForCurrentUser(req))
+                .isInstanceOf(NotFoundException.class)
+                .hasMessageContaining("Project not found");
 
-        given(timeEntryRepo.findByUserIdOrderByStartTimeDesc("user-123"))
-                .willReturn(List.of(e));
+        then(projectCatalog).should().remove(10L);
+        then(rollupRepo).shouldHaveNoInteractions();
+        then(events).shouldHaveNoInteractions();
+    }
+
+    @Test
+    void listForCurrentUser_mapsViews() {
+        // given
+        given(currentUser.userId()).willReturn("user-123");
+
+        TimeEntryView v = new TimeEntryView(
+                1L, 10L, "Project A", "Docs",
+                LocalDateTime.of(2025, 8, 10, 9, 0),
+                LocalDateTime.of(2025, 8, 10, 10, 15),
+                75, null
+        );
+
+        given(timeEntryRepo.findViewsByUserId("user-123"))
+                .willReturn(List.of(v));
 
         // when
         var list = service.listForCurrentUser();
@@ -164,7 +224,7 @@ class TimeEntryServiceImplTest {
         assertThat(list.get(0).durationMinutes()).isEqualTo(75);
 
         then(currentUser).should().userId();
-        then(timeEntryRepo).should().findByUserIdOrderByStartTimeDesc("user-123");
+        then(timeEntryRepo).should().findViewsByUserId("user-123");
         then(timeEntryRepo).shouldHaveNoMoreInteractions();
     }
 
@@ -175,6 +235,9 @@ class TimeEntryServiceImplTest {
 
         TimeEntryEntity e = new TimeEntryEntity();
         e.setUserId("user-123");
+        e.setProject(project(10L, "Project A"));
+        e.setStartTime(LocalDateTime.of(2025, 8, 10, 9, 40));
+        e.setDurationMinutes(50);
 
         given(timeEntryRepo.findByIdAndUserId(1L, "user-123"))
                 .willReturn(Optional.of(e));
@@ -185,7 +248,100 @@ class TimeEntryServiceImplTest {
         // then
         then(timeEntryRepo).should().findByIdAndUserId(1L, "user-123");
         then(timeEntryRepo).should().delete(e);
+        then(timeEntryRepo).should().flush();
+        then(timeEntryRepo).should().insertTombstone(null, "user-123");
+        then(timeEntryRepo).should().bumpVersions("user-123", List.of(LocalDate.of(2025, 8, 10)));
         then(timeEntryRepo).shouldHaveNoMoreInteractions();
+        then(rollupRepo).should().removeDeltas(List.of(
+                new TimeEntryRollupDelta(10L, "user-123", LocalDateTime.of(2025, 8, 10, 9, 0), 20, 1, LocalDateTime.of(2025, 8, 10, 9, 40)),
+                new TimeEntryRollupDelta(10L, "user-123", LocalDateTime.of(2025, 8, 10, 10, 0), 30, 0, null)));
+        then(events).should().publishEvent(new TimeEntriesChangedEvent(List.of(LocalDateTime.of(2025, 8, 10, 9, 40))));
+    }
+
+    @Test
+    void changesForCurrentUser_withoutToken_returnsEverything_andResets() {
+        // given
+        given(currentUser.userId()).willReturn("user-123");
+        given(timeEntryRepo.syncHorizon()).willReturn(900L);
+        given(timeEntryRepo.syncEpoch()).willReturn(3L);
+        given(timeEntryRepo.findChangedSince("user-123", 0)).willReturn(List.of(entry(1L, LocalDateTime.of(2025, 8, 10, 9, 0))));
+
+        // when
+        var changes = service.changesForCurrentUser(null);
+
+        // then
+        assertThat(changes.reset()).isTrue();
+        assertThat(changes.changed()).extracting(TimeEntryResponse::id).containsExactly(1L);
+        assertThat(changes.deleted()).isEmpty();
+        assertThat(ChangeToken.decode(changes.nextToken())).isEqualTo(new ChangeToken(3L, 900L));
+        then(timeEntryRepo).should(never()).findDeletedSince(any(), anyLong());
+    }
+
+    @Test
+    void changesForCurrentUser_returnsChangesAndTombstones_sinceTheTokensHorizon() {
+        // given
+        given(currentUser.userId()).willReturn("user-123");
+        given(timeEntryRepo.syncHorizon()).willReturn(950L);
+        given(timeEntryRepo.syncEpoch()).willReturn(3L);
+        given(timeEntryRepo.findChangedSince("user-123", 900L)).willReturn(List.of(entry(2L, LocalDateTime.of(2025, 8, 10, 9, 0))));
+        given(timeEntryRepo.findDeletedSince("user-123", 900L)).willReturn(List.of(1L));
+
+        // when
+        var changes = service.changesForCurrentUser(new ChangeToken(3L, 900L).encode());
+
+        // then
+        assertThat(changes.reset()).isFalse();
+        assertThat(changes.changed()).extracting(TimeEntryResponse::id).containsExactly(2L);
+        assertThat(changes.deleted()).containsExactly(1L);
+        assertThat(ChangeToken.decode(changes.nextToken())).isEqualTo(new ChangeToken(3L, 950L));
+    }
+
+    @Test
+    void changesForCurrentUser_resets_whenTokenPredatesABulkChange() {
+        // given
+        given(currentUser.userId()).willReturn("user-123");
+        given(timeEntryRepo.syncHorizon()).willReturn(950L);
+        given(timeEntryRepo.syncEpoch()).willReturn(4L);
+        given(timeEntryRepo.findChangedSince("user-123", 0)).willReturn(List.of(entry(2L, LocalDateTime.of(2025, 8, 10, 9, 0))));
+
+        // when
+        var changes = service.changesForCurrentUser(new ChangeToken(3L, 900L).encode());
+
+        // then
+        assertThat(changes.reset()).isTrue();
+        assertThat(changes.changed()).extracting(TimeEntryResponse::id).containsExactly(2L);
+        then(timeEntryRepo).should(never()).findDeletedSince(any(), anyLong());
+    }
+
+    @Test
+    void changesForCurrentUser_resets_whenTokenPredatesPrunedTombstones() {
+        // given
+        given(currentUser.userId()).willReturn("user-123");
+        given(timeEntryRepo.syncHorizon()).willReturn(950L);
+        given(timeEntryRepo.syncEpoch()).willReturn(3L);
+        given(timeEntryRepo.findChangedSince("user-123", 900L)).willReturn(List.of());
+        given(timeEntryRepo.findDeletedSince("user-123", 900L)).willReturn(List.of());
+        given(timeEntryRepo.syncFloor()).willReturn(901L);
+        given(timeEntryRepo.findChangedSince("user-123", 0)).willReturn(List.of(entry(2L, LocalDateTime.of(2025, 8, 10, 9, 0))));
+
+        // when
+        var changes = service.changesForCurrentUser(new ChangeToken(3L, 900L).encode());
+
+        // then
+        assertThat(changes.reset()).isTrue();
+        assertThat(changes.changed()).extracting(TimeEntryResponse::id).containsExactly(2L);
+        assertThat(changes.deleted()).isEmpty();
+        assertThat(ChangeToken.decode(changes.nextToken())).isEqualTo(new ChangeToken(3L, 950L));
+    }
+
+    @Test
+    void changesForCurrentUser_rejectsMalformedToken() {
+        given(currentUser.userId()).willReturn("user-123");
+
+        assertThatThrownBy(() -> service.changesForCurrentUser("not-a-token"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Invalid change token");
+        then(timeEntryRepo).shouldHaveNoInteractions();
     }
 
     @Test
@@ -202,5 +358,257 @@ class TimeEntryServiceImplTest {
 
         then(timeEntryRepo).should().findByIdAndUserId(999L, "user-123");
         then(timeEntryRepo).shouldHaveNoMoreInteractions();
+        then(rollupRepo).shouldHaveNoInteractions();
+        then(events).shouldHaveNoInteractions();
+    }
+
+    @Test
+    void createBatchForCurrentUser_resolvesProjectsOnce_andSavesAll() {
+        // given
+        given(currentUser.userId()).willReturn("user-123");
+        given(projectCatalog.findById(10L)).willReturn(Optional.of(new Project(10L, "Project A", null)));
+        given(projectCatalog.findById(20L)).willReturn(Optional.of(new Project(20L, "Project B", null)));
+        given(projectRepo.getReferenceById(10L)).willReturn(project(10L, null));
+        given(projectRepo.getReferenceById(20L)).willReturn(project(20L, null));
+        given(timeEntryRepo.saveAll(anyList())).willAnswer(inv -> inv.getArgument(0));
+
+        var start = LocalDateTime.of(2025, 8, 10, 9, 0);
+        var reqs = List.of(
+                new CreateTimeEntryRequest(10L, "One", start, start.plusMinutes(30), null),
+                new CreateTimeEntryRequest(20L, "Two", start, start.plusMinutes(45), null),
+                new CreateTimeEntryRequest(10L, "Three", start, start.plusMinutes(60), null)
+        );
+
+        // when
+        var res = service.createBatchForCurrentUser(reqs);
+
+        // then
+        assertThat(res).extracting(TimeEntryResponse::projectName)
+                .containsExactly("Project A", "Project B", "Project A");
+        assertThat(res).extracting(TimeEntryResponse::durationMinutes).containsExactly(30, 45, 60);
+        then(projectRepo).should().getReferenceById(10L);
+        then(projectRepo).should().getReferenceById(20L);
+        then(projectRepo).shouldHaveNoMoreInteractions();
+        then(timeEntryRepo).should().saveAll(anyList());
+        then(timeEntryRepo).should().flush();
+        then(timeEntryRepo).should().bumpVersions("user-123", List.of(start.toLocalDate(), start.toLocalDate(), start.toLocalDate()));
+        then(timeEntryRepo).shouldHaveNoMoreInteractions();
+        // both Project A entries share one hourly bucket
+        then(rollupRepo).should().applyDeltas(List.of(
+                new TimeEntryRollupDelta(10L, "user-123", start, 90, 2, start),
+                new TimeEntryRollupDelta(20L, "user-123", start, 45, 1, start)));
+        then(events).should().publishEvent(new TimeEntriesChangedEvent(List.of(start, start, start)));
+    }
+
+    @Test
+    void createBatchForCurrentUser_reportsAllInvalidIndexes() {
+        // given
+        var start = LocalDateTime.of(2025, 8, 10, 9, 0);
+        var reqs = List.of(
+                new CreateTimeEntryRequest(10L, "Bad", start, start, null),
+                new CreateTimeEntryRequest(10L, "Ok", start, start.plusMinutes(5), null),
+                new CreateTimeEntryRequest(10L, "Bad", start, start.minusMinutes(5), null)
+        );
+
+        // when / then
+        assertThatThrownBy(() -> service.createBatchForCurrentUser(reqs))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("[0, 2]");
+
+        then(projectRepo).shouldHaveNoInteractions();
+        then(timeEntryRepo).shouldHaveNoInteractions();
+    }
+
+    @Test
+    void createBatchForCurrentUser_throwsWhenAnyProjectMissing() {
+        // given
+        given(currentUser.userId()).willReturn("user-123");
+        given(projectCatalog.findById(10L)).willReturn(Optional.of(new Project(10L, "Project A", null)));
+        given(projectCatalog.findById(999L)).willReturn(Optional.empty());
+
+        var start = LocalDateTime.of(2025, 8, 10, 9, 0);
+        var reqs = List.of(
+                new CreateTimeEntryRequest(10L, "One", start, start.plusMinutes(30), null),
+                new CreateTimeEntryRequest(999L, "Two", start, start.plusMinutes(30), null)
+        );
+
+        // when / then
+        assertThatThrownBy(() -> service.createBatchForCurrentUser(reqs))
+                .isInstanceOf(NotFoundException.class)
+                .hasMessageContaining("Project not found: [999]");
+
+        then(timeEntryRepo).shouldHaveNoInteractions();
+    }
+
+    @Test
+    void pageForCurrentUser_firstPage_returnsNextCursorFromLastRow() {
+        // given
+        given(currentUser.userId()).willReturn("user-123");
+        var e1 = entry(3L, LocalDateTime.of(2025, 8, 10, 12, 0));
+        var e2 = entry(2L, LocalDateTime.of(2025, 8, 10, 11, 0));
+        var e3 = entry(1L, LocalDateTime.of(2025, 8, 10, 10, 0));
+        given(timeEntryRepo.findFirstPageByUserId("user-123", Limit.of(3)))
+                .willReturn(List.of(e1, e2, e3));
+
+        // when (no size -> default of 2, plus one look-ahead row)
+        var page = service.pageForCurrentUser(null, null);
+
+        // then
+        assertThat(page.items()).extracting(TimeEntryResponse::id).containsExactly(3L, 2L);
+        assertThat(TimeEntryCursor.decode(page.nextCursor()))
+                .isEqualTo(new TimeEntryCursor(LocalDateTime.of(2025, 8, 10, 11, 0), 2L));
+    }
+
+    @Test
+    void pageForCurrentUser_withCursor_seeksAfterPosition_andClampsSize() {
+        // given
+        given(currentUser.userId()).willReturn("user-123");
+        var start = LocalDateTime.of(2025, 8, 10, 11, 0);
+        var cursor = new TimeEntryCursor(start, 2L).encode();
+        given(timeEntryRepo.findPageByUserIdAfter("user-123", start, 2L, Limit.of(4)))
+                .willReturn(List.of(entry(1L, LocalDateTime.of(2025, 8, 10, 10, 0))));
+
+        // when (requested 100 -> clamped to max of 3)
+        var page = service.pageForCurrentUser(cursor, 100);
+
+        // then
+        assertThat(page.items()).extracting(TimeEntryResponse::id).containsExactly(1L);
+        assertThat(page.nextCursor()).isNull();
+    }
+
+    @Test
+    void pageForCurrentUser_rejectsMalformedCursor() {
+        assertThatThrownBy(() -> service.pageForCurrentUser("not-a-cursor", null))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Invalid cursor");
+
+        then(timeEntryRepo).shouldHaveNoInteractions();
+    }
+
+    @Test
+    void uploadForCurrentUser_insertsClaimedKeys_andReportsCreated() {
+        // given
+        var a = UUID.fromString("0190f6a0-0000-7000-8000-000000000001");
+        var b = UUID.fromString("0190f6a0-0000-7000-8000-000000000002");
+        var start = LocalDateTime.of(2025, 8, 10, 9, 0);
+        given(currentUser.userId()).willReturn("user-123");
+        given(projectCatalog.findById(10L)).willReturn(Optional.of(new Project(10L, "Project A", null)));
+        given(timeEntryRepo.claimClientIds("user-123", Set.of(a, b))).willReturn(List.of(
+                new ClientEntryId(a, 100L, true), new ClientEntryId(b, 150L, true)));
+
+        // when
+        var res = service.uploadForCurrentUser(List.of(
+                new UploadTimeEntryRequest(a, 10L, "One", start, start.plusMinutes(30), null),
+                new UploadTimeEntryRequest(b, 10L, "Two", start.plusMinutes(30), start.plusMinutes(45), "d")));
+
+        // then
+        assertThat(res).containsExactly(
+                new TimeEntryUploadResult(a, 100L, Outcome.CREATED),
+                new TimeEntryUploadResult(b, 150L, Outcome.CREATED));
+        then(timeEntryRepo).should().insertEntries("user-123", List.of(
+                new TimeEntryUpsert(100L, 10L, "One", null, start, start.plusMinutes(30), 30),
+                new TimeEntryUpsert(150L, 10L, "Two", "d", start.plusMinutes(30), start.plusMinutes(45), 15)));
+        then(timeEntryRepo).should().updateEntries("user-123", List.of());
+        then(timeEntryRepo).should(never()).findViewsByUserIdAndIdIn(any(), any());
+        then(rollupRepo).should().removeDeltas(List.of());
+        then(rollupRepo).should().applyDeltas(List.of(
+                new TimeEntryRollupDelta(10L, "user-123", start, 45, 2, start.plusMinutes(30))));
+        then(events).should().publishEvent(new TimeEntriesChangedEvent(List.of(start, start.plusMinutes(30))));
+    }
+
+    @Test
+    void uploadForCurrentUser_retryOfStoredEntries_writesNothing() {
+        // given
+        var a = UUID.fromString("0190f6a0-0000-7000-8000-000000000001");
+        var start = LocalDateTime.of(2025, 8, 10, 9, 0);
+        given(currentUser.userId()).willReturn("user-123");
+        given(projectCatalog.findById(10L)).willReturn(Optional.of(new Project(10L, "Project A", null)));
+        given(timeEntryRepo.claimClientIds("user-123", Set.of(a))).willReturn(List.of(new ClientEntryId(a, 100L, false)));
+        given(timeEntryRepo.findViewsByUserIdAndIdIn("user-123", List.of(100L))).willReturn(List.of(
+                new TimeEntryView(100L, 10L, "Project A", "One", start, start.plusMinutes(30), 30, null)));
+
+        // when: the client resends with nanosecond timestamps, which are stored at microseconds
+        var res = service.uploadForCurrentUser(List.of(new UploadTimeEntryRequest(
+                a, 10L, "One", start.plusNanos(10), start.plusMinutes(30).plusNanos(10), null)));
+
+        // then
+        assertThat(res).containsExactly(new TimeEntryUploadResult(a, 100L, Outcome.UNCHANGED));
+        then(timeEntryRepo).should().claimClientIds("user-123", Set.of(a));
+        then(timeEntryRepo).should().findViewsByUserIdAndIdIn("user-123", List.of(100L));
+        then(timeEntryRepo).shouldHaveNoMoreInteractions();
+        then(rollupRepo).shouldHaveNoInteractions();
+        then(events).shouldHaveNoInteractions();
+    }
+
+    @Test
+    void uploadForCurrentUser_overwritesChangedEntries_andMovesTheirRollups() {
+        // given
+        var a = UUID.fromString("0190f6a0-0000-7000-8000-000000000001");
+        var gone = UUID.fromString("0190f6a0-0000-7000-8000-000000000002");
+        var start = LocalDateTime.of(2025, 8, 10, 9, 0);
+        var moved = start.plusDays(1);
+        given(currentUser.userId()).willReturn("user-123");
+        given(projectCatalog.findById(10L)).willReturn(Optional.of(new Project(10L, "Project A", null)));
+        given(timeEntryRepo.claimClientIds("user-123", Set.of(a, gone))).willReturn(List.of(
+                new ClientEntryId(a, 100L, false), new ClientEntryId(gone, 150L, false)));
+        given(timeEntryRepo.findViewsByUserIdAndIdIn(eq("user-123"), argThat(ids -> Set.copyOf(ids).equals(Set.of(100L, 150L)))))
+                .willReturn(List.of(new TimeEntryView(100L, 10L, "Project A", "One", start, start.plusMinutes(30), 30, null)));
+
+        // when
+        var res = service.uploadForCurrentUser(List.of(
+                new UploadTimeEntryRequest(a, 10L, "One", moved, moved.plusMinutes(45), null),
+                new UploadTimeEntryRequest(gone, 10L, "Deleted meanwhile", start, start.plusMinutes(5), null)));
+
+        // then: the deleted entry is not brought back
+        assertThat(res).containsExactly(
+                new TimeEntryUploadResult(a, 100L, Outcome.UPDATED),
+                new TimeEntryUploadResult(gone, 150L, Outcome.DELETED));
+        then(timeEntryRepo).should().insertEntries("user-123", List.of());
+        then(timeEntryRepo).should().updateEntries("user-123", List.of(
+                new TimeEntryUpsert(100L, 10L, "One", null, moved, moved.plusMinutes(45), 45)));
+        then(rollupRepo).should().removeDeltas(List.of(new TimeEntryRollupDelta(10L, "user-123", start, 30, 1, start)));
+        then(rollupRepo).should().applyDeltas(List.of(new TimeEntryRollupDelta(10L, "user-123", moved, 45, 1, moved)));
+        then(timeEntryRepo).should().bumpVersions("user-123", List.of(moved.toLocalDate(), start.toLocalDate()));
+        then(events).should().publishEvent(new TimeEntriesChangedEvent(List.of(moved, start)));
+    }
+
+    @Test
+    void uploadForCurrentUser_rejectsRepeatedClientIds() {
+        // given
+        var a = UUID.fromString("0190f6a0-0000-7000-8000-000000000001");
+        var start = LocalDateTime.of(2025, 8, 10, 9, 0);
+        var req = new UploadTimeEntryRequest(a, 10L, "One", start, start.plusMinutes(30), null);
+
+        // when / then
+        assertThatThrownBy(() -> service.uploadForCurrentUser(List.of(req, req)))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Client ids must be unique within an upload (entries [1])");
+        then(timeEntryRepo).shouldHaveNoInteractions();
+    }
+
+    @Test
+    void uploadForCurrentUser_throwsWhenAProjectIsMissing() {
+        // given
+        var start = LocalDateTime.of(2025, 8, 10, 9, 0);
+        given(currentUser.userId()).willReturn("user-123");
+        given(projectCatalog.findById(99L)).willReturn(Optional.empty());
+
+        // when / then
+        assertThatThrownBy(() -> service.uploadForCurrentUser(List.of(new UploadTimeEntryRequest(
+                UUID.randomUUID(), 99L, "One", start, start.plusMinutes(30), null))))
+                .isInstanceOf(NotFoundException.class)
+                .hasMessage("Project not found: [99]");
+        then(timeEntryRepo).shouldHaveNoInteractions();
+    }
+
+    private ProjectEntity project(Long id, String name) {
+        ProjectEntity p = new ProjectEntity();
+        p.setId(id);
+        p.setName(name);
+        return p;
+    }
+
+    private TimeEntryView entry(Long id, LocalDateTime start) {
+        return new TimeEntryView(id, 10L, "Project A", "Work", start, start.plusMinutes(30), 30, null);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,134 @@
+package com.fsavevsk.timetracking.unit.util;
+
+import com.fsavevsk.timetracking.util.AdaptiveLimiter;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.*;
+
+class AdaptiveLimiterTest {
+
+    private final AtomicLong now = new AtomicLong();
+    private final AtomicLong poolPending = new AtomicLong();
+    private final List<AdaptiveLimiter.Rejection> rejections = new ArrayList<>();
+
+    @Test
+    void should_admitUpToLimit_thenShedWhenQueueIsFull() {
+        var limiter = limiter(2, 0, Duration.ofSeconds(1));
+
+        assertThat(limiter.tryAcquire()).isNotNull();
+        assertThat(limiter.tryAcquire()).isNotNull();
+        assertThat(limiter.tryAcquire()).isNull();
+
+        assertThat(limiter.inFlight()).isEqualTo(2);
+        assertThat(rejections).containsExactly(AdaptiveLimiter.Rejection.QUEUE_FULL);
+    }
+
+    @Test
+    void should_shedQueuedCaller_afterMaxWait() {
+        var limiter = limiter(1, 10, Duration.ofMillis(20));
+        limiter.tryAcquire();
+
+        assertThat(limiter.tryAcquire()).isNull();
+        assertThat(limiter.queued()).isZero();
+        assertThat(rejections).containsExactly(AdaptiveLimiter.Rejection.TIMEOUT);
+    }
+
+    @Test
+    void should_admitQueuedCaller_whenPermitIsReleased() throws Exception {
+        var limiter = limiter(1, 10, Duration.ofSeconds(5));
+        var held = limiter.tryAcquire();
+
+        var waiter = CompletableFuture.supplyAsync(limiter::tryAcquire);
+        while (limiter.queued() == 0 && !waiter.isDone()) {
+            Thread.sleep(1);
+        }
+        limiter.release(held, false);
+
+        assertThat(waiter.get(5, TimeUnit.SECONDS)).isNotNull();
+        assertThat(rejections).isEmpty();
+    }
+
+    @Test
+    void should_growLimit_whileLatencyIsSteadyAndLimitIsUsed() {
+        var limiter = limiter(10, 0, Duration.ZERO);
+
+        for (int i = 0; i < 20; i++) {
+            runBatch(limiter, limiter.currentLimit(), 10);
+        }
+
+        assertThat(limiter.currentLimit()).isGreaterThan(10);
+    }
+
+    @Test
+    void should_keepLimit_whenLoadIsWellBelowIt() {
+        var limiter = limiter(10, 0, Duration.ZERO);
+
+        for (int i = 0; i < 20; i++) {
+            runBatch(limiter, 2, 10);
+        }
+
+        assertThat(limiter.currentLimit()).isEqualTo(10);
+    }
+
+    @Test
+    void should_shrinkLimit_whenLatencyRises() {
+        var limiter = limiter(40, 0, Duration.ZERO);
+        for (int i = 0; i < 5; i++) {
+            runBatch(limiter, limiter.currentLimit(), 10);
+        }
+        int settled = limiter.currentLimit();
+
+        for (int i = 0; i < 5; i++) {
+            runBatch(limiter, limiter.currentLimit(), 100);
+        }
+
+        assertThat(limiter.currentLimit()).isLessThan(settled);
+    }
+
+    @Test
+    void should_backOff_whilePoolHasWaiters_orOnDrops() {
+        var limiter = limiter(20, 0, Duration.ZERO);
+
+        poolPending.set(3);
+        limiter.release(limiter.tryAcquire(), false);
+        assertThat(limiter.currentLimit()).isEqualTo(18);
+
+        poolPending.set(0);
+        limiter.release(limiter.tryAcquire(), true);
+        assertThat(limiter.currentLimit()).isEqualTo(16);
+    }
+
+    @Test
+    void should_neverGoBelowMinLimit() {
+        var limiter = limiter(3, 0, Duration.ZERO);
+        poolPending.set(1);
+
+        for (int i = 0; i < 50; i++) {
+            limiter.release(limiter.tryAcquire(), false);
+        }
+
+        assertThat(limiter.currentLimit()).isEqualTo(1);
+    }
+
+    /** Admits {@code concurrency} callers, advances the clock by {@code latencyMs}, then releases them all. */
+    private void runBatch(AdaptiveLimiter limiter, int concurrency, long latencyMs) {
+        List<AdaptiveLimiter.Permit> permits = new ArrayList<>();
+        for (int i = 0; i < concurrency; i++) {
+            permits.add(limiter.tryAcquire());
+        }
+        now.addAndGet(TimeUnit.MILLISECONDS.toNanos(latencyMs));
+        permits.forEach(p -> limiter.release(p, false));
+    }
+
+    private AdaptiveLimiter limiter(int initialLimit, int queueSize, Duration maxWait) {
+        return new AdaptiveLimiter(initialLimit, 1, 100, queueSize, maxWait,
+                poolPending::get, now::get, rejections::add);
+    }
+}
@@ -0,0 +1,60 @@
+package com.fsavevsk.timetracking.unit.util;
+
+import com.fsavevsk.timetracking.api.exception.ServiceUnavailableException;
+import com.fsavevsk.timetracking.util.ParallelScope;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.*;
+
+class ParallelScopeTest {
+
+    @Test
+    void should_runTasksConcurrently_andExposeResultsAfterJoin() {
+        var bothStarted = new CountDownLatch(2);
+
+        try (var scope = new ParallelScope(Duration.ofSeconds(5))) {
+            // each task only finishes once the other one has started, so a sequential run would time out
+            var a = scope.fork(() -> { bothStarted.countDown(); bothStarted.await(); return "a"; });
+            var b = scope.fork(() -> { bothStarted.countDown(); bothStarted.await(); return 2; });
+            scope.join();
+
+            assertThat(a.get()).isEqualTo("a");
+            assertThat(b.get()).isEqualTo(2);
+        }
+    }
+
+    @Test
+    void should_cancelRemainingTasks_onFirstFailure() throws Exception {
+        var interrupted = new CountDownLatch(1);
+
+        try (var scope = new ParallelScope(Duration.ofSeconds(5))) {
+            scope.fork(() -> {
+                try {
+                    Thread.sleep(10_000);
+                } catch (InterruptedException e) {
+                    interrupted.countDown();
+                }
+                return null;
+            });
+            scope.fork(() -> { throw new IllegalStateException("boom"); });
+
+            assertThatThrownBy(scope::join).isInstanceOf(IllegalStateException.class).hasMessage("boom");
+        }
+        assertThat(interrupted.await(5, TimeUnit.SECONDS)).isTrue();
+    }
+
+    @Test
+    void should_failWithServiceUnavailable_whenDeadlinePasses() {
+        try (var scope = new ParallelScope(Duration.ofMillis(50))) {
+            scope.fork(() -> { Thread.sleep(10_000); return null; });
+
+            assertThatThrownBy(scope::join)
+                    .isInstanceOf(ServiceUnavailableException.class)
+                    .hasMessageContaining("50 ms");
+        }
+    }
+}
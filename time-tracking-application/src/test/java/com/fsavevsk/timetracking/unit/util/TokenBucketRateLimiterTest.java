@@ -0,0 +1,92 @@
+package com.fsavevsk.timetracking.unit.util;
+
+import com.fsavevsk.timetracking.util.TokenBucketRateLimiter;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.*;
+
+class TokenBucketRateLimiterTest {
+
+    private static final TokenBucketRateLimiter.Limit THREE_PER_SECOND =
+            new TokenBucketRateLimiter.Limit(3, Duration.ofMillis(333));
+
+    private final AtomicLong now = new AtomicLong(1_000_000_000L);
+    private final TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(Duration.ofMinutes(1), now::get);
+
+    @Test
+    void should_allowBurstUpToCapacity_thenRefuse() {
+        assertThat(limiter.tryConsume("alice", THREE_PER_SECOND).remaining()).isEqualTo(2);
+        assertThat(limiter.tryConsume("alice", THREE_PER_SECOND).remaining()).isEqualTo(1);
+        assertThat(limiter.tryConsume("alice", THREE_PER_SECOND).remaining()).isZero();
+
+        var refused = limiter.tryConsume("alice", THREE_PER_SECOND);
+        assertThat(refused.allowed()).isFalse();
+        assertThat(refused.limit()).isEqualTo(3);
+        assertThat(refused.retryAfterNanos()).isEqualTo(Duration.ofMillis(333).toNanos());
+        assertThat(refused.resetNanos()).isEqualTo(Duration.ofMillis(999).toNanos());
+    }
+
+    @Test
+    void should_earnTokensBack_overTime() {
+        IntStream.range(0, 3).forEach(i -> limiter.tryConsume("alice", THREE_PER_SECOND));
+        assertThat(limiter.tryConsume("alice", THREE_PER_SECOND).allowed()).isFalse();
+
+        now.addAndGet(Duration.ofMillis(333).toNanos());
+
+        var decision = limiter.tryConsume("alice", THREE_PER_SECOND);
+        assertThat(decision.allowed()).isTrue();
+        assertThat(decision.remaining()).isZero();
+    }
+
+    @Test
+    void should_keepUsersIndependent() {
+        IntStream.range(0, 3).forEach(i -> limiter.tryConsume("alice", THREE_PER_SECOND));
+
+        assertThat(limiter.tryConsume("alice", THREE_PER_SECOND).allowed()).isFalse();
+        assertThat(limiter.tryConsume("bob", THREE_PER_SECOND).allowed()).isTrue();
+    }
+
+    @Test
+    void should_evictIdleBuckets() {
+        limiter.tryConsume("alice", THREE_PER_SECOND);
+        now.addAndGet(Duration.ofSeconds(30).toNanos());
+        limiter.tryConsume("bob", THREE_PER_SECOND);
+        assertThat(limiter.size()).isEqualTo(2);
+
+        now.addAndGet(Duration.ofSeconds(31).toNanos());
+        limiter.tryConsume("bob", THREE_PER_SECOND);
+
+        assertThat(limiter.size()).isEqualTo(1);
+    }
+
+    @Test
+    void should_neverAdmitMoreThanCapacity_underContention() {
+        var limit = new TokenBucketRateLimiter.Limit(100, Duration.ofHours(1));
+        var admitted = new AtomicInteger();
+
+        var workers = IntStream.range(0, 8)
+                .mapToObj(w -> CompletableFuture.runAsync(() -> {
+                    for (int i = 0; i < 1_000; i++) {
+                        if (limiter.tryConsume("alice", limit).allowed()) admitted.incrementAndGet();
+                    }
+                }))
+                .toArray(CompletableFuture[]::new);
+        CompletableFuture.allOf(workers).join();
+
+        assertThat(admitted).hasValue(100);
+    }
+
+    @Test
+    void should_rejectInvalidLimits() {
+        assertThatThrownBy(() -> new TokenBucketRateLimiter.Limit(0, Duration.ofSeconds(1)))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new TokenBucketRateLimiter.Limit(1, Duration.ZERO))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
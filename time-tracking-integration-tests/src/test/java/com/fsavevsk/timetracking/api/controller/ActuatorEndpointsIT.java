@@ -0,0 +1,31 @@
+package com.fsavevsk.timetracking.api.controller;
+
+import com.fsavevsk.timetracking.base.AbstractWebIT;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class ActuatorEndpointsIT extends AbstractWebIT {
+
+    @Test
+    void should_serveHealth_withoutAuthentication() throws Exception {
+        mockMvc.perform(get("/actuator/health"))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void should_requireAuthentication_forMetrics() throws Exception {
+        mockMvc.perform(get("/actuator/metrics"))
+                .andExpect(status().isUnauthorized());
+        mockMvc.perform(get("/actuator/metrics/jvm.memory.used"))
+                .andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    void should_serveMetrics_toAdmins() throws Exception {
+        mockMvc.perform(get("/actuator/metrics").header(HttpHeaders.AUTHORIZATION, BEARER_TOKEN))
+                .andExpect(status().isOk());
+    }
+}
@@ -0,0 +1,93 @@
+package com.fsavevsk.timetracking.api.controller;
+
+import com.fsavevsk.timetracking.base.AbstractWebIT;
+import com.fsavevsk.timetracking.persistence.entity.ProjectEntity;
+import com.fsavevsk.timetracking.persistence.entity.TimeEntryEntity;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Controller-layer integration tests for the streamed admin export.
+ */
+class AdminExportControllerIT extends AbstractWebIT {
+
+    private static final String EXPORT_ENDPOINT = "/api/admin/export/time-entries";
+
+    @Test
+    void should_exportCsv_filteredByRangeAndProject_inStartTimeOrder() throws Exception {
+        // given
+        ProjectEntity a = saveProject("Alpha");
+        ProjectEntity b = saveProject("Beta");
+        saveEntry(a, "alice", LocalDateTime.parse("2025-08-12T09:00:00"), 60, "second");
+        saveEntry(a, "bob", LocalDateTime.parse("2025-08-05T09:00:00"), 30, "first, with comma");
+        saveEntry(a, "alice", LocalDateTime.parse("2025-09-01T00:00:00"), 30, "outside range");
+        saveEntry(b, "alice", LocalDateTime.parse("2025-08-06T09:00:00"), 30, "other project");
+
+        // when
+        String body = export("?format=csv&startDate=2025-08-01&endDate=2025-08-31&projectId=" + a.getId());
+
+        // then
+        String[] lines = body.split("\r\n");
+        assertEquals(3, lines.length);
+        assertTrue(lines[0].startsWith("id,projectId,projectName"));
+        assertTrue(lines[1].contains("\"first, with comma\""));
+        assertTrue(lines[2].contains(",second,"));
+    }
+
+    @Test
+    void should_exportNdjson_filteredByUser() throws Exception {
+        // given
+        ProjectEntity a = saveProject("Alpha");
+        saveEntry(a, "alice", LocalDateTime.parse("2025-08-12T09:00:00"), 60, "mine");
+        saveEntry(a, "bob", LocalDateTime.parse("2025-08-12T10:00:00"), 60, "not mine");
+
+        // when
+        String body = export("?format=ndjson&userId=alice");
+
+        // then
+        String[] lines = body.split("\n");
+        assertEquals(1, lines.length);
+        var row = objectMapper.readTree(lines[0]);
+        assertEquals("alice", row.get("userId").asText());
+        assertEquals("Alpha", row.get("projectName").asText());
+        assertEquals(60, row.get("durationMinutes").asInt());
+    }
+
+    // ---------- helpers ----------
+
+    private String export(String query) throws Exception {
+        var started = mockMvc.perform(MockMvcRequestBuilders.get(EXPORT_ENDPOINT + query)
+                        .header(HttpHeaders.AUTHORIZATION, BEARER_TOKEN))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        var res = mockMvc.perform(MockMvcRequestBuilders.asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andReturn();
+        return res.getResponse().getContentAsString(StandardCharsets.UTF_8);
+    }
+
+    private ProjectEntity saveProject(String name) {
+        ProjectEntity p = new ProjectEntity();
+        p.setName(name);
+        return projectRepository.saveAndFlush(p);
+    }
+
+    private void saveEntry(ProjectEntity project, String userId, LocalDateTime start, int minutes, String title) {
+        TimeEntryEntity te = new TimeEntryEntity();
+        te.setProject(project);
+        te.setUserId(userId);
+        te.setTitle(title);
+        te.setStartTime(start);
+        te.setEndTime(start.plusMinutes(minutes));
+        te.setDurationMinutes(minutes);
+        timeEntryRepository.saveAndFlush(te);
+    }
+}
@@ -1,12 +1,16 @@
 package com.fsavevsk.timetracking.api.controller;
 
 import com.fasterxml.jackson.core.type.TypeReference;
+import com.fsavevsk.timetracking.api.dto.CreateTimeEntryRequest;
+import com.fsavevsk.timetracking.api.dto.TimeEntryResponse;
 import com.fsavevsk.timetracking.api.dto.admin.OverviewReportResponse;
 import com.fsavevsk.timetracking.api.dto.admin.ProjectsReportResponse;
+import com.fsavevsk.timetracking.api.dto.admin.RollupRebuildResponse;
 import com.fsavevsk.timetracking.api.exception.ApiError;
 import com.fsavevsk.timetracking.base.AbstractWebIT;
 import com.fsavevsk.timetracking.persistence.entity.ProjectEntity;
 import com.fsavevsk.timetracking.persistence.entity.TimeEntryEntity;
+import com.fsavevsk.timetracking.persistence.repository.TimeEntryRollupDelta;
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.context.TestConfiguration;
 import org.springframework.context.annotation.Bean;
@@ -27,6 +31,7 @@ class AdminSummaryControllerIT extends AbstractWebIT {
 
     private static final String ADMIN_REPORTS_OVERVIEW_ENDPOINT = "/api/admin/reports/overview";
     private static final String ADMIN_REPORTS_PROJECTS_ENDPOINT = "/api/admin/reports/projects";
+    private static final String ADMIN_REPORTS_ROLLUPS_REBUILD_ENDPOINT = "/api/admin/reports/rollups/rebuild";
 
     @TestConfiguration
     static class FixedClockConfig {
@@ -74,6 +79,23 @@ class AdminSummaryControllerIT extends AbstractWebIT {
         assertEquals(1.5, res.topProjectsThisWeek().get(1).hours());
     }
 
+    @Test
+    void should_countOvernightShift_inTheWeekItsMinutesFallIn() throws Exception {
+        ProjectEntity a = saveProject("Alpha");
+        // Sunday 22:00 to Monday 06:00: two hours last week, six this week (and today)
+        saveEntry(a, LocalDateTime.parse("2025-08-17T22:00:00"), 8 * 60);
+
+        OverviewReportResponse res = performGetRequest(
+                ADMIN_REPORTS_OVERVIEW_ENDPOINT + "?timezone=UTC",
+                OverviewReportResponse.class,
+                status().isOk()
+        );
+
+        assertEquals(6.0, res.hoursToday());
+        assertEquals(6.0, res.hoursThisWeek());
+        assertEquals(6.0, res.topProjectsThisWeek().getFirst().hours());
+    }
+
     @Test
     void should_returnOverview_withZeros_whenNoData() throws Exception {
         // when
@@ -148,6 +170,48 @@ class AdminSummaryControllerIT extends AbstractWebIT {
         assertEquals(ADMIN_REPORTS_OVERVIEW_ENDPOINT, error.path());
     }
 
+    @Test
+    void should_rebuildRollups_soReportsMatchRawEntries() throws Exception {
+        // given
+        ProjectEntity a = saveProject("Alpha");
+        saveEntry(a, LocalDateTime.parse("2025-08-18T08:00:00"), 60);
+        saveEntry(a, LocalDateTime.parse("2025-08-18T08:30:00"), 30); // same hourly bucket
+        rollupRepository.deleteAllInBatch(); // simulate drift
+
+        // when
+        RollupRebuildResponse rebuilt = performPostRequest(
+                ADMIN_REPORTS_ROLLUPS_REBUILD_ENDPOINT, null, RollupRebuildResponse.class, status().isOk());
+
+        // then
+        assertEquals(1, rebuilt.buckets());
+        OverviewReportResponse res = performGetRequest(
+                ADMIN_REPORTS_OVERVIEW_ENDPOINT + "?timezone=UTC",
+                OverviewReportResponse.class,
+                status().isOk()
+        );
+        assertEquals(1.5, res.hoursToday());
+    }
+
+    @Test
+    void should_refreshCachedOverview_afterEntryIsCreatedThroughApi() throws Exception {
+        // given: an overview cached before the write
+        ProjectEntity a = saveProject("Alpha");
+        saveEntry(a, LocalDateTime.parse("2025-08-18T08:00:00"), 60);
+        OverviewReportResponse before = performGetRequest(
+                ADMIN_REPORTS_OVERVIEW_ENDPOINT + "?timezone=UTC", OverviewReportResponse.class, status().isOk());
+        assertEquals(1.0, before.hoursToday());
+
+        // when
+        var request = new CreateTimeEntryRequest(a.getId(), "More work",
+                LocalDateTime.parse("2025-08-18T09:00:00"), LocalDateTime.parse("2025-08-18T09:30:00"), null);
+        performPostRequest("/api/time-entries", request, TimeEntryResponse.class, status().isOk());
+
+        // then
+        OverviewReportResponse after = performGetRequest(
+                ADMIN_REPORTS_OVERVIEW_ENDPOINT + "?timezone=UTC", OverviewReportResponse.class, status().isOk());
+        assertEquals(1.5, after.hoursToday());
+    }
+
     // ---------- helpers ----------
 
     private ProjectEntity saveProject(String name) {
@@ -165,5 +229,6 @@ class AdminSummaryControllerIT extends AbstractWebIT {
         te.setEndTime(start.plusMinutes(minutes));
         te.setDurationMinutes(minutes);
         timeEntryRepository.saveAndFlush(te);
+        rollupRepository.applyDeltas(TimeEntryRollupDelta.forEntries(List.of(te)));
     }
 }
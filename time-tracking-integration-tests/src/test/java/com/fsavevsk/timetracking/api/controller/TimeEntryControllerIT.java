@@ -1,21 +1,34 @@
 package com.fsavevsk.timetracking.api.controller;
 
 import com.fasterxml.jackson.core.type.TypeReference;
+import com.fsavevsk.timetracking.api.dto.CreateTimeEntriesBatchRequest;
 import com.fsavevsk.timetracking.api.dto.CreateTimeEntryRequest;
+import com.fsavevsk.timetracking.api.dto.TimeEntryChanges;
+import com.fsavevsk.timetracking.api.dto.TimeEntryPage;
 import com.fsavevsk.timetracking.api.dto.TimeEntryResponse;
+import com.fsavevsk.timetracking.api.dto.TimeEntryUploadResult;
+import com.fsavevsk.timetracking.api.dto.UploadTimeEntriesRequest;
+import com.fsavevsk.timetracking.api.dto.UploadTimeEntryRequest;
 import com.fsavevsk.timetracking.api.exception.ApiError;
 import com.fsavevsk.timetracking.base.AbstractWebIT;
 import com.fsavevsk.timetracking.persistence.entity.ProjectEntity;
 import com.fsavevsk.timetracking.persistence.entity.TimeEntryEntity;
+import com.fsavevsk.timetracking.persistence.entity.TimeEntryRollupEntity;
 import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
 
 import java.time.LocalDateTime;
 import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.UUID;
 
+import static org.hamcrest.Matchers.not;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.springframework.http.HttpStatus.BAD_REQUEST;
 import static org.springframework.http.HttpStatus.NOT_FOUND;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 /**
@@ -56,6 +69,46 @@ class TimeEntryControllerIT extends AbstractWebIT {
         assertEquals(0, timeEntries.size());
     }
 
+    @Test
+    void should_walkAllPages_withCursor() throws Exception {
+        // given
+        ProjectEntity project = seedProject();
+        for (int i = 0; i < 5; i++) {
+            TimeEntryEntity e = generateTimeEntry(project);
+            e.setStartTime(LocalDateTime.parse("2025-08-10T08:00:00").plusHours(i));
+            e.setEndTime(e.getStartTime().plusMinutes(30));
+            timeEntryRepository.save(e);
+        }
+
+        // when
+        List<TimeEntryResponse> seen = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            String url = TIME_ENTRIES_API_ENDPOINT + "/page?size=2" + (cursor != null ? "&cursor=" + cursor : "");
+            TimeEntryPage page = performGetRequest(url, TimeEntryPage.class, status().isOk());
+            seen.addAll(page.items());
+            cursor = page.nextCursor();
+            pages++;
+        } while (cursor != null);
+
+        // then
+        assertEquals(3, pages);
+        assertEquals(5, seen.size());
+        assertEquals(LocalDateTime.parse("2025-08-10T12:00:00"), seen.getFirst().startTime());
+        assertEquals(LocalDateTime.parse("2025-08-10T08:00:00"), seen.getLast().startTime());
+    }
+
+    @Test
+    void should_returnBadRequest_whenCursorIsMalformed() throws Exception {
+        // when
+        ApiError error = performGetRequest(
+                TIME_ENTRIES_API_ENDPOINT + "/page?cursor=garbage", ApiError.class, status().isBadRequest());
+
+        // then
+        assertEquals("Invalid cursor", error.message());
+    }
+
     @Test
     void should_createTimeEntry_whenRequestIsValid() throws Exception {
         // given
@@ -75,6 +128,97 @@ class TimeEntryControllerIT extends AbstractWebIT {
         assertEquals(180, timeEntry.durationMinutes());
     }
 
+    @Test
+    void should_createBatchOfTimeEntries_acrossProjects() throws Exception {
+        // given
+        ProjectEntity first = seedProject();
+        ProjectEntity second = new ProjectEntity();
+        second.setName("Second Project");
+        second = projectRepository.save(second);
+
+        var start = LocalDateTime.parse("2025-08-19T08:00:00");
+        List<CreateTimeEntryRequest> entries = new ArrayList<>();
+        for (int i = 0; i < 120; i++) {
+            Long projectId = (i % 2 == 0 ? first : second).getId();
+            entries.add(new CreateTimeEntryRequest(projectId, "Imported " + i,
+                    start.plusMinutes(i * 30L), start.plusMinutes(i * 30L + 15), null));
+        }
+
+        // when
+        List<TimeEntryResponse> created = performPostRequest(TIME_ENTRIES_API_ENDPOINT + "/batch",
+                new CreateTimeEntriesBatchRequest(entries), new TypeReference<>() {}, status().isOk());
+
+        // then
+        assertEquals(120, created.size());
+        assertEquals(120, created.stream().map(TimeEntryResponse::id).distinct().count());
+        assertEquals("Second Project", created.get(1).projectName());
+        assertEquals(120, timeEntryRepository.count());
+    }
+
+    @Test
+    void should_rejectWholeBatch_whenAProjectIsMissing() throws Exception {
+        // given
+        ProjectEntity project = seedProject();
+        var start = LocalDateTime.parse("2025-08-19T08:00:00");
+        var entries = List.of(
+                new CreateTimeEntryRequest(project.getId(), "ok", start, start.plusMinutes(15), null),
+                new CreateTimeEntryRequest(999_999L, "missing", start, start.plusMinutes(15), null)
+        );
+
+        // when
+        ApiError error = performPostRequest(TIME_ENTRIES_API_ENDPOINT + "/batch",
+                new CreateTimeEntriesBatchRequest(entries), ApiError.class, status().isNotFound());
+
+        // then
+        assertEquals("Project not found: [999999]", error.message());
+        assertEquals(0, timeEntryRepository.count());
+    }
+
+    @Test
+    void should_applyUploadsOnce_andOverwriteEntriesOnLaterUploads() throws Exception {
+        // given
+        ProjectEntity project = seedProject();
+        var start = LocalDateTime.parse("2025-08-19T08:00:00");
+        List<UploadTimeEntryRequest> entries = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            entries.add(new UploadTimeEntryRequest(UUID.randomUUID(), project.getId(), "Offline " + i,
+                    start.plusMinutes(i * 30L), start.plusMinutes(i * 30L + 15), null));
+        }
+        var upload = new UploadTimeEntriesRequest(entries);
+
+        // when
+        List<TimeEntryUploadResult> first = performPostRequest(TIME_ENTRIES_API_ENDPOINT + "/upload", upload,
+                new TypeReference<>() {}, status().isOk());
+        List<TimeEntryUploadResult> retry = performPostRequest(TIME_ENTRIES_API_ENDPOINT + "/upload", upload,
+                new TypeReference<>() {}, status().isOk());
+
+        // then: the retry changes nothing
+        assertTrue(first.stream().allMatch(r -> r.outcome() == TimeEntryUploadResult.Outcome.CREATED));
+        assertTrue(retry.stream().allMatch(r -> r.outcome() == TimeEntryUploadResult.Outcome.UNCHANGED));
+        assertEquals(first.stream().map(TimeEntryUploadResult::id).toList(),
+                retry.stream().map(TimeEntryUploadResult::id).toList());
+        assertEquals(50, timeEntryRepository.count());
+        assertEquals(50 * 15, rollupRepository.findAll().stream().mapToLong(TimeEntryRollupEntity::getMinutes).sum());
+
+        // when: one entry is edited offline, and another deleted online
+        var edited = entries.getFirst();
+        var moved = new UploadTimeEntryRequest(edited.clientId(), project.getId(), "Edited",
+                start.plusDays(40), start.plusDays(40).plusMinutes(60), null);
+        performDeleteRequestNoContent(TIME_ENTRIES_API_ENDPOINT + "/" + first.get(1).id(), status().isNoContent());
+        List<TimeEntryUploadResult> later = performPostRequest(TIME_ENTRIES_API_ENDPOINT + "/upload",
+                new UploadTimeEntriesRequest(List.of(moved, entries.get(1))), new TypeReference<>() {}, status().isOk());
+
+        // then
+        assertEquals(List.of(TimeEntryUploadResult.Outcome.UPDATED, TimeEntryUploadResult.Outcome.DELETED),
+                later.stream().map(TimeEntryUploadResult::outcome).toList());
+        assertEquals(49, timeEntryRepository.count());
+        TimeEntryEntity stored = timeEntryRepository.findById(first.getFirst().id()).orElseThrow();
+        assertEquals("Edited", stored.getTitle());
+        assertEquals(moved.startTime(), stored.getStartTime());
+        assertEquals(48 * 15 + 60, rollupRepository.findAll().stream().mapToLong(TimeEntryRollupEntity::getMinutes).sum());
+        assertFalse(rollupRepository.findAll().stream().anyMatch(r -> r.getEntryCount() <= 0));
+    }
+
     @Test
     void should_returnBadRequest_whenEndTimeIsNotAfterStartTime() throws Exception {
         // given
@@ -147,6 +291,80 @@ class TimeEntryControllerIT extends AbstractWebIT {
         assertFalse(timeEntryRepository.existsById(timeEntry.getId()));
     }
 
+    @Test
+    void should_maintainHourlyRollup_acrossCreateAndDelete() throws Exception {
+        // given
+        ProjectEntity project = seedProject();
+        var request = generateCreateTimeEntryRequest(project.getId());
+
+        // when
+        TimeEntryResponse created = performPostRequest(TIME_ENTRIES_API_ENDPOINT, request, TimeEntryResponse.class, status().isOk());
+
+        // then
+        // the three hours are spread over the hourly buckets they overlap; the entry counts in its start hour
+        var rollups = rollupRepository.findAll();
+        assertEquals(created.durationMinutes().longValue(), rollups.stream().mapToLong(TimeEntryRollupEntity::getMinutes).sum());
+        assertEquals(1, rollups.stream().mapToInt(TimeEntryRollupEntity::getEntryCount).sum());
+
+        performDeleteRequestNoContent(TIME_ENTRIES_API_ENDPOINT + "/" + created.id(), status().isNoContent());
+        assertEquals(0, rollupRepository.count());
+    }
+
+    @Test
+    void should_answerNotModified_untilTheUsersEntriesChange() throws Exception {
+        // given
+        ProjectEntity project = seedProject();
+        performPostRequest(TIME_ENTRIES_API_ENDPOINT, generateCreateTimeEntryRequest(project.getId()),
+                TimeEntryResponse.class, status().isOk());
+        String etag = mockMvc.perform(get(TIME_ENTRIES_API_ENDPOINT).header(HttpHeaders.AUTHORIZATION, BEARER_TOKEN))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertNotNull(etag);
+
+        // when & then: unchanged
+        mockMvc.perform(get(TIME_ENTRIES_API_ENDPOINT).header(HttpHeaders.AUTHORIZATION, BEARER_TOKEN)
+                        .header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+
+        // when & then: a new entry moves the version
+        performPostRequest(TIME_ENTRIES_API_ENDPOINT, generateCreateTimeEntryRequest(project.getId()),
+                TimeEntryResponse.class, status().isOk());
+        mockMvc.perform(get(TIME_ENTRIES_API_ENDPOINT).header(HttpHeaders.AUTHORIZATION, BEARER_TOKEN)
+                        .header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, not(etag)))
+                .andExpect(jsonPath("$.length()").value(2));
+    }
+
+    @Test
+    void should_syncChangesAndDeletions_sinceTheLastToken() throws Exception {
+        // given
+        ProjectEntity project = seedProject();
+        TimeEntryResponse first = performPostRequest(TIME_ENTRIES_API_ENDPOINT,
+                generateCreateTimeEntryRequest(project.getId()), TimeEntryResponse.class, status().isOk());
+
+        // when & then: the first sync returns everything
+        TimeEntryChanges initial = performGetRequest(TIME_ENTRIES_API_ENDPOINT + "/changes",
+                TimeEntryChanges.class, status().isOk());
+        assertTrue(initial.reset());
+        assertEquals(List.of(first.id()), initial.changed().stream().map(TimeEntryResponse::id).toList());
+
+        // a rollup rebuild changes no entry, so it leaves the token valid
+        mockMvc.perform(post("/api/admin/reports/rollups/rebuild").header(HttpHeaders.AUTHORIZATION, BEARER_TOKEN))
+                .andExpect(status().isOk());
+
+        // when & then: the next one only what happened since
+        TimeEntryResponse second = performPostRequest(TIME_ENTRIES_API_ENDPOINT,
+                generateCreateTimeEntryRequest(project.getId()), TimeEntryResponse.class, status().isOk());
+        performDeleteRequestNoContent(TIME_ENTRIES_API_ENDPOINT + "/" + first.id(), status().isNoContent());
+        TimeEntryChanges delta = performGetRequest(TIME_ENTRIES_API_ENDPOINT + "/changes?since=" + initial.nextToken(),
+                TimeEntryChanges.class, status().isOk());
+        assertFalse(delta.reset());
+        assertEquals(List.of(second.id()), delta.changed().stream().map(TimeEntryResponse::id).toList());
+        assertEquals(List.of(first.id()), delta.deleted());
+    }
+
     @Test
     void should_returnNotFound_whenDeleteNotExisting() throws Exception {
         // when & then
@@ -5,6 +5,9 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fsavevsk.timetracking.config.PostgresTestConfig;
 import com.fsavevsk.timetracking.persistence.repository.ProjectRepository;
 import com.fsavevsk.timetracking.persistence.repository.TimeEntryRepository;
+import com.fsavevsk.timetracking.persistence.repository.TimeEntryRollupRepository;
+import com.fsavevsk.timetracking.service.cache.ProjectCatalog;
+import com.fsavevsk.timetracking.service.cache.ReportCache;
 import org.junit.jupiter.api.BeforeEach;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
@@ -31,6 +34,9 @@ public abstract class AbstractWebIT {
     @Autowired protected ObjectMapper objectMapper;
     @Autowired protected ProjectRepository projectRepository;
     @Autowired protected TimeEntryRepository timeEntryRepository;
+    @Autowired protected TimeEntryRollupRepository rollupRepository;
+    @Autowired protected ReportCache reportCache;
+    @Autowired protected ProjectCatalog projectCatalog;
 
     protected static final String BEARER_TOKEN = "Bearer it-token";
 
@@ -77,6 +83,23 @@ public abstract class AbstractWebIT {
         return objectMapper.readValue(json, responseType);
     }
 
+    protected <T> T performPostRequest(String url,
+                                       Object body,
+                                       TypeReference<T> typeRef,
+                                       ResultMatcher expectedStatus) throws Exception {
+        var res = mockMvc.perform(MockMvcRequestBuilders.post(url)
+                        .header(HttpHeaders.AUTHORIZATION, BEARER_TOKEN)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(body))
+                        .accept(MediaType.APPLICATION_JSON)
+                )
+                .andExpect(expectedStatus)
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+                .andReturn();
+        String json = res.getResponse().getContentAsString(StandardCharsets.UTF_8);
+        return objectMapper.readValue(json, typeRef);
+    }
+
     protected void performDeleteRequestNoContent(String url, ResultMatcher expectedStatus) throws Exception {
         mockMvc.perform(MockMvcRequestBuilders.delete(url)
                         .header(HttpHeaders.AUTHORIZATION, BEARER_TOKEN)
@@ -88,8 +111,12 @@ public abstract class AbstractWebIT {
 
     @BeforeEach
     void resetDb() {
+        rollupRepository.deleteAllInBatch();
         timeEntryRepository.deleteAllInBatch();
         projectRepository.deleteAllInBatch();
+        // seeding goes straight through the repositories, which publish no invalidation events
+        reportCache.invalidateAll();
+        projectCatalog.invalidate();
     }
 
 }
@@ -0,0 +1,141 @@
+package com.fsavevsk.timetracking.persistence.repository;
+
+import com.fsavevsk.timetracking.base.AbstractJpaIT;
+import com.fsavevsk.timetracking.persistence.entity.ProjectEntity;
+import com.fsavevsk.timetracking.persistence.entity.TimeEntryEntity;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@Import(TimeEntryPartitionRepository.class)
+class TimeEntryPartitionRepositoryIT extends AbstractJpaIT {
+
+    @Autowired
+    TimeEntryPartitionRepository partitionRepository;
+    @Autowired
+    TimeEntryRepository timeEntryRepository;
+    @Autowired
+    ProjectRepository projectRepository;
+    @Autowired
+    TimeEntryRollupRepository rollupRepository;
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+    @Autowired
+    TestEntityManager em;
+
+    private ProjectEntity project;
+
+    @Test
+    void should_createPartitionsFromMigration_forCurrentMonthAndAhead() {
+        var current = YearMonth.now();
+
+        assertThat(partitionRepository.findMonthlyPartitions())
+                .contains(current, current.plusMonths(1), current.plusMonths(2), current.plusMonths(3));
+    }
+
+    @Test
+    void should_moveRowsOutOfDefault_whenCreatingTheirMonth() {
+        // a month far enough back that no migration-created partition covers it
+        var month = YearMonth.of(2001, 3);
+        var entry = entry("2001-03-15T10:00:00");
+        em.flush();
+        assertThat(rowsIn("time_entries_default")).isEqualTo(1);
+
+        partitionRepository.createMonthlyPartition(month);
+
+        assertThat(partitionRepository.findMonthlyPartitions()).contains(month);
+        assertThat(rowsIn("time_entries_default")).isZero();
+        assertThat(rowsIn(TimeEntryPartitionRepository.partitionName(month))).isEqualTo(1);
+        em.clear();
+        assertThat(timeEntryRepository.findByIdAndUserId(entry.getId(), "alice")).isPresent();
+    }
+
+    @Test
+    void should_detachAndDropPartitions() {
+        var detached = YearMonth.of(2001, 4);
+        var dropped = YearMonth.of(2001, 5);
+        partitionRepository.createMonthlyPartition(detached);
+        partitionRepository.createMonthlyPartition(dropped);
+
+        partitionRepository.detachMonthlyPartition(detached);
+        partitionRepository.dropMonthlyPartition(dropped);
+
+        assertThat(partitionRepository.findMonthlyPartitions()).doesNotContain(detached, dropped);
+        assertThat(tableExists(TimeEntryPartitionRepository.partitionName(detached))).isTrue();
+        assertThat(tableExists(TimeEntryPartitionRepository.partitionName(dropped))).isFalse();
+    }
+
+    @Test
+    void should_takeAPartitionsEntriesOutOfTheRollups_includingTheirOvernightMinutes() {
+        var month = YearMonth.of(2001, 6);
+        partitionRepository.createMonthlyPartition(month);
+        entry("2001-06-15T10:00:00", 30);
+        entry("2001-06-30T23:30:00", 120);
+        entry("2001-07-01T00:10:00", 10);
+        em.flush();
+        rollupRepository.deleteAllRollups();
+        rollupRepository.insertAllFromEntries();
+
+        partitionRepository.removeFromRollups(month);
+
+        // only the July entry is left; the overnight one no longer counts in July's first hours
+        assertThat(jdbcTemplate.queryForList("""
+                SELECT bucket_start::timestamp AS bucket, minutes, entry_count, last_start::timestamp AS last
+                FROM time_entry_hourly_rollups WHERE bucket_start < '2002-01-01'""")).containsExactly(Map.of(
+                "bucket", Timestamp.valueOf("2001-07-01 00:00:00"), "minutes", 10L, "entry_count", 1,
+                "last", Timestamp.valueOf("2001-07-01 00:10:00")));
+    }
+
+    @Test
+    void should_pruneToOneMonth_forRangeQueries() {
+        var month = YearMonth.now();
+        String plan = String.join("\n", jdbcTemplate.queryForList(
+                "EXPLAIN SELECT sum(duration_minutes) FROM time_entries"
+                        + " WHERE start_time >= '" + month.atDay(1) + "' AND start_time < '" + month.atDay(2) + "'",
+                String.class));
+
+        assertThat(plan).contains(TimeEntryPartitionRepository.partitionName(month));
+        assertThat(plan).doesNotContain(TimeEntryPartitionRepository.partitionName(month.plusMonths(1)));
+        assertThat(plan).doesNotContain("time_entries_default");
+    }
+
+    // ---------- helpers ----------
+
+    private TimeEntryEntity entry(String startIso) {
+        return entry(startIso, 30);
+    }
+
+    private TimeEntryEntity entry(String startIso, int minutes) {
+        if (project == null) {
+            project = new ProjectEntity();
+            project.setName("Partitioned");
+            projectRepository.save(project);
+        }
+
+        var te = new TimeEntryEntity();
+        te.setProject(project);
+        te.setUserId("alice");
+        te.setTitle("work");
+        te.setStartTime(LocalDateTime.parse(startIso));
+        te.setEndTime(LocalDateTime.parse(startIso).plusMinutes(minutes));
+        te.setDurationMinutes(minutes);
+        return timeEntryRepository.save(te);
+    }
+
+    private long rowsIn(String table) {
+        return jdbcTemplate.queryForObject("SELECT count(*) FROM " + table, Long.class);
+    }
+
+    private boolean tableExists(String table) {
+        return jdbcTemplate.queryForObject("SELECT to_regclass(?) IS NOT NULL", Boolean.class, table);
+    }
+}
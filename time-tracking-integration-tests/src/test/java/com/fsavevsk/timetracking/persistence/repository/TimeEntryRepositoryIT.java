@@ -4,13 +4,22 @@ package com.fsavevsk.timetracking.persistence.repository;
 import com.fsavevsk.timetracking.base.AbstractJpaIT;
 import com.fsavevsk.timetracking.persistence.entity.ProjectEntity;
 import com.fsavevsk.timetracking.persistence.entity.TimeEntryEntity;
-import com.fsavevsk.timetracking.persistence.projection.ProjectSummaryAggregate;
+import com.fsavevsk.timetracking.persistence.projection.ClientEntryId;
+import com.fsavevsk.timetracking.persistence.projection.TimeEntryView;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.Limit;
 
+import java.time.Duration;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.UUID;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -20,6 +29,8 @@ class TimeEntryRepositoryIT extends AbstractJpaIT {
     TimeEntryRepository timeEntryRepository;
     @Autowired
     ProjectRepository projectRepository;
+    @Autowired
+    TestEntityManager em;
 
     @Test
     void should_returnEntriesForUser_orderedByStartTimeDesc() {
@@ -39,6 +50,31 @@ class TimeEntryRepositoryIT extends AbstractJpaIT {
         assertThat(result).doesNotContain(t3);
     }
 
+    @Test
+    void should_walkKeysetPages_breakingStartTimeTiesById() {
+        var p = project("Keyset");
+
+        var t1 = entry(p, "alice", "2025-08-10T10:00:00", 30);
+        var t2 = entry(p, "alice", "2025-08-10T12:00:00", 15);
+        var t3 = entry(p, "alice", "2025-08-10T12:00:00", 20); // same start as t2
+        var t4 = entry(p, "alice", "2025-08-10T13:00:00", 10);
+        entry(p, "bob", "2025-08-10T11:00:00", 45); // different user
+
+        var first = timeEntryRepository.findFirstPageByUserId("alice", Limit.of(2));
+        assertThat(first).extracting(TimeEntryView::id).containsExactly(t4.getId(), t3.getId());
+
+        var last = first.getLast();
+        var second = timeEntryRepository.findPageByUserIdAfter(
+                "alice", last.startTime(), last.id(), Limit.of(2));
+        assertThat(second).extracting(TimeEntryView::id).containsExactly(t2.getId(), t1.getId());
+    }
+
+    @Test
+    void should_listViews_withSingleStatement_regardlessOfDistinctProjects() {
+        assertThat(statementsToListEntriesAcross(1)).isEqualTo(1);
+        assertThat(statementsToListEntriesAcross(10)).isEqualTo(1);
+    }
+
     @Test
     void should_findEntityOnlyWhen_idAndUserIdMatch() {
         var p = project("Demo");
@@ -57,106 +93,78 @@ class TimeEntryRepositoryIT extends AbstractJpaIT {
     }
 
     @Test
-    void should_sumMinutesBetweenAll_withInclusiveLowerExclusiveUpper() {
-        var p = project("SumProj");
-
-        save(p, "2025-08-10T00:00:00", 10);  // boundary IN
-        save(p, "2025-08-10T10:00:00", 60);  // inside
-        save(p, "2025-08-10T15:00:00", 30);  // inside
-        save(p, "2025-08-10T23:59:59", 20);  // inside
-        save(p, "2025-08-11T00:00:00", 999); // upper boundary OUT
-
-        var from = LocalDateTime.parse("2025-08-10T00:00:00");
-        var to   = LocalDateTime.parse("2025-08-11T00:00:00");
-
-        Integer minutes = timeEntryRepository.sumMinutesBetweenAll(from, to);
-        assertThat(minutes).isEqualTo(120); // 10 + 60 + 30 + 20
+    void should_sumTheDayVersionShards_ofEveryWriter() {
+        var day = LocalDate.parse("2025-08-10");
+        String before = timeEntryRepository.reportVersion(day, day);
+
+        // users on different shards, and one of them twice
+        timeEntryRepository.bumpVersions("alice", List.of(day));
+        timeEntryRepository.bumpVersions("bob", List.of(day, day.plusDays(1)));
+        timeEntryRepository.bumpVersions("alice", List.of(day));
+
+        assertThat(timeEntryRepository.dayVersions(day, day.plusDays(1)))
+                .containsEntry(day, 3L)
+                .containsEntry(day.plusDays(1), 1L);
+        assertThat(timeEntryRepository.reportVersion(day, day)).isNotEqualTo(before).endsWith(".3");
     }
 
     @Test
-    void should_returnTopProjectsByTotalMinutes_desc() {
-        var p1 = project("Alpha");
-        var p2 = project("Beta");
-        var p3 = project("Gamma");
-
-        // Window [10th, 11th)
-        rngSave(p1, "2025-08-10T09:00:00", 30);
-        rngSave(p1, "2025-08-10T12:00:00", 45);
-        rngSave(p2, "2025-08-10T13:00:00", 90);
-        rngSave(p3, "2025-08-09T23:59:59", 10); // outside (lower)
-        rngSave(p3, "2025-08-11T00:00:00", 10); // outside (upper/exclusive)
+    void should_claimIdsFromOneSequenceBlock_withoutCollidingWithHibernate() {
+        var keys = List.of(UUID.randomUUID(), UUID.randomUUID(), UUID.randomUUID());
+
+        var claims = timeEntryRepository.claimClientIds("alice", keys);
+        var retried = timeEntryRepository.claimClientIds("alice", keys);
+        var saved = entry(project("Pooled"), "alice", "2025-08-10T10:00:00", 30);
+
+        assertThat(claims).allMatch(ClientEntryId::claimed);
+        var ids = claims.stream().map(ClientEntryId::entryId).toList();
+        assertThat(ids).doesNotHaveDuplicates();
+        // one nextval covers all three
+        assertThat(Collections.max(ids) - Collections.min(ids)).isLessThan(50);
+        assertThat(retried).noneMatch(ClientEntryId::claimed);
+        assertThat(retried).extracting(ClientEntryId::entryId).containsExactlyInAnyOrderElementsOf(ids);
+        assertThat(ids).doesNotContain(saved.getId());
+    }
 
-        var from = LocalDateTime.parse("2025-08-10T00:00:00");
-        var to   = LocalDateTime.parse("2025-08-11T00:00:00");
+    @Test
+    void should_pruneExpiredTombstones_andRaiseTheSyncFloorPastThem() {
+        em.getEntityManager().createNativeQuery("""
+                INSERT INTO time_entry_tombstones (entry_id, user_id, deleted_at)
+                VALUES (1, 'alice', now() - interval '40 days')
+                """).executeUpdate();
+        long horizon = timeEntryRepository.syncHorizon();
+
+        int pruned = timeEntryRepository.pruneTombstones(Duration.ofDays(30));
+
+        assertThat(pruned).isEqualTo(1);
+        assertThat(timeEntryRepository.findDeletedSince("alice", 0)).isEmpty();
+        // a token from before the delete is now below the floor
+        assertThat(timeEntryRepository.syncFloor()).isGreaterThan(horizon);
+        assertThat(timeEntryRepository.pruneTombstones(Duration.ofDays(30))).isZero();
+    }
 
-        List<Object[]> rows = timeEntryRepository.topProjectsByMinutes(from, to);
+    // ---------- helpers ----------
 
-        // Expect Beta (90), Alpha (75). Gamma absent (0 mins and not produced by INNER grouping).
-        assertThat(rows).hasSize(2);
+    private long statementsToListEntriesAcross(int projects) {
+        timeEntryRepository.deleteAllInBatch();
+        for (int i = 0; i < projects; i++) {
+            var p = project("Stmt-" + projects + "-" + i);
+            entry(p, "carol", "2025-08-10T10:00:00", 15 + i);
+        }
+        em.flush();
+        em.clear();
 
-        // row: [projectId, projectName, totalMinutes]
-        assertThat(rows.get(0)[1]).isEqualTo("Beta");
-        assertThat(rows.get(0)[2]).isEqualTo(90L);
+        Statistics stats = em.getEntityManager().getEntityManagerFactory()
+                .unwrap(SessionFactory.class).getStatistics();
+        stats.clear();
 
-        assertThat(rows.get(1)[1]).isEqualTo("Alpha");
-        assertThat(rows.get(1)[2]).isEqualTo(75L);
-    }
+        var views = timeEntryRepository.findViewsByUserId("carol");
 
-    @Test
-    void should_summarizeAllProjects_withinWindows_andReturnLeftJoin() {
-        var p1 = project("Alpha");
-        var p2 = project("Beta");
-        var p3 = project("Empty"); // will have no entries
-
-        var weekStart  = LocalDateTime.parse("2025-08-11T00:00:00"); // Monday
-        var weekEnd    = LocalDateTime.parse("2025-08-18T00:00:00"); // next Monday (exclusive)
-        var rangeStart = LocalDateTime.parse("2025-08-01T00:00:00");
-        var rangeEnd   = LocalDateTime.parse("2025-09-01T00:00:00");
-
-        // Alpha: 2 entries within week + 1 outside week but inside range
-        var a1 = save(p1, "2025-08-12T10:00:00", 60);
-        var a2 = save(p1, "2025-08-15T15:00:00", 30);
-        save(p1, "2025-08-02T12:00:00", 45); // in range, outside week
-
-        // Beta: 1 entry in week, 1 outside range
-        var b1 = save(p2, "2025-08-13T09:00:00", 25);
-        save(p2, "2025-09-02T09:00:00", 999); // outside range
-
-        // p3: no entries
-
-        List<ProjectSummaryAggregate> rows = timeEntryRepository.summarizeAllProjects(
-                weekStart, weekEnd, rangeStart, rangeEnd
-        );
-
-        // should include ALL projects (left join)
-        assertThat(rows).extracting(ProjectSummaryAggregate::getProjectName)
-                .containsExactlyInAnyOrder("Alpha", "Beta", "Empty");
-
-        var alpha = rows.stream().filter(r -> r.getProjectName().equals("Alpha")).findFirst().orElseThrow();
-        var beta  = rows.stream().filter(r -> r.getProjectName().equals("Beta")).findFirst().orElseThrow();
-        var empty = rows.stream().filter(r -> r.getProjectName().equals("Empty")).findFirst().orElseThrow();
-
-        // Alpha assertions
-        assertThat(alpha.getMinutesWeek()).isEqualTo(60 + 30);
-        assertThat(alpha.getEntriesWeek()).isEqualTo(2);
-        assertThat(alpha.getMinutesRange()).isEqualTo(60 + 30 + 45);
-        assertThat(alpha.getLastEntryAt()).isEqualTo(LocalDateTime.parse("2025-08-15T15:00:00"));
-
-        // Beta assertions
-        assertThat(beta.getMinutesWeek()).isEqualTo(25);
-        assertThat(beta.getEntriesWeek()).isEqualTo(1);
-        assertThat(beta.getMinutesRange()).isEqualTo(25);
-        assertThat(beta.getLastEntryAt()).isEqualTo(LocalDateTime.parse("2025-08-13T09:00:00"));
-
-        // Empty project: zeros/null lastEntryAt
-        assertThat(empty.getMinutesWeek()).isEqualTo(0);
-        assertThat(empty.getEntriesWeek()).isEqualTo(0);
-        assertThat(empty.getMinutesRange()).isEqualTo(0);
-        assertThat(empty.getLastEntryAt()).isNull();
+        assertThat(views).hasSize(projects);
+        assertThat(views).allSatisfy(v -> assertThat(v.projectName()).startsWith("Stmt-"));
+        return stats.getPrepareStatementCount();
     }
 
-    // ---------- helpers ----------
-
     private ProjectEntity project(String name) {
         var p = new ProjectEntity();
         p.setName(name);
@@ -173,13 +181,5 @@ class TimeEntryRepositoryIT extends AbstractJpaIT {
         te.setDurationMinutes(minutes);
         return timeEntryRepository.save(te);
     }
-
-    private TimeEntryEntity save(ProjectEntity p, String startIso, int minutes) {
-        return entry(p, "alice", startIso, minutes);
-    }
-
-    private void rngSave(ProjectEntity p, String startIso, int minutes) {
-        save(p, startIso, minutes);
-    }
 }
 
@@ -0,0 +1,392 @@
+package com.fsavevsk.timetracking.persistence.repository;
+
+import com.fsavevsk.timetracking.base.AbstractJpaIT;
+import com.fsavevsk.timetracking.persistence.entity.ProjectEntity;
+import com.fsavevsk.timetracking.persistence.entity.TimeEntryEntity;
+import com.fsavevsk.timetracking.persistence.entity.TimeEntryRollupId;
+import com.fsavevsk.timetracking.persistence.projection.BucketMinutes;
+import com.fsavevsk.timetracking.persistence.projection.OverviewAggregate;
+import com.fsavevsk.timetracking.persistence.projection.ProjectMinutes;
+import com.fsavevsk.timetracking.persistence.projection.ProjectSummaryAggregate;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.Limit;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TimeEntryRollupRepositoryIT extends AbstractJpaIT {
+
+    @Autowired
+    TimeEntryRollupRepository rollupRepository;
+    @Autowired
+    TimeEntryRepository timeEntryRepository;
+    @Autowired
+    ProjectRepository projectRepository;
+    @Autowired
+    TestEntityManager em;
+
+    @Test
+    void should_mergeDeltasIntoOneBucketPerHour() {
+        var p = project("Merge");
+
+        save(p, "2025-08-10T10:05:00", 20);
+        save(p, "2025-08-10T10:50:00", 15); // 10 minutes in 10:00, 5 in 11:00
+        save(p, "2025-08-10T11:00:00", 30); // next bucket
+
+        var bucket = rollupRepository.findById(id(p, "2025-08-10T10:00:00")).orElseThrow();
+        assertThat(bucket.getMinutes()).isEqualTo(30L);
+        assertThat(bucket.getEntryCount()).isEqualTo(2);
+        assertThat(bucket.getLastStart()).isEqualTo(LocalDateTime.parse("2025-08-10T10:50:00"));
+        assertThat(rollupRepository.count()).isEqualTo(2);
+    }
+
+    @Test
+    void should_removeDeltas_andDropBucketsOnceEmpty() {
+        var p = project("Subtract");
+        var first = save(p, "2025-08-10T10:05:00", 20);
+        var second = save(p, "2025-08-10T10:50:00", 15); // 10 minutes in 10:00, 5 in 11:00
+
+        timeEntryRepository.delete(second);
+        em.flush();
+        rollupRepository.removeDeltas(TimeEntryRollupDelta.forEntries(List.of(second)));
+        em.clear();
+
+        var remaining = rollupRepository.findById(id(p, "2025-08-10T10:00:00")).orElseThrow();
+        assertThat(remaining.getMinutes()).isEqualTo(20L);
+        assertThat(remaining.getEntryCount()).isEqualTo(1);
+        assertThat(remaining.getLastStart()).isEqualTo(LocalDateTime.parse("2025-08-10T10:05:00"));
+        assertThat(rollupRepository.findById(id(p, "2025-08-10T11:00:00"))).isEmpty();
+
+        timeEntryRepository.deleteById(first.getId());
+        em.flush();
+        rollupRepository.removeDeltas(TimeEntryRollupDelta.forEntries(List.of(first)));
+        em.clear();
+
+        assertThat(rollupRepository.findById(id(p, "2025-08-10T10:00:00"))).isEmpty();
+    }
+
+    @Test
+    void should_apportionLongEntries_overTheHoursTheyOverlap_inDeltasAndRebuild() {
+        var p = project("Overnight");
+        save(p, "2025-08-10T22:30:00", 8 * 60); // Sunday 22:30 to Monday 06:30
+
+        var sunday = LocalDateTime.parse("2025-08-10T00:00:00");
+        var monday = LocalDateTime.parse("2025-08-11T00:00:00");
+        var tuesday = LocalDateTime.parse("2025-08-12T00:00:00");
+        assertThat(rollupRepository.sumMinutesBetweenAll(sunday, monday)).isEqualTo(90L);
+        assertThat(rollupRepository.sumMinutesBetweenAll(monday, tuesday)).isEqualTo(390L);
+        var continued = rollupRepository.findById(id(p, "2025-08-11T03:00:00")).orElseThrow();
+        assertThat(continued.getEntryCount()).isZero();
+        assertThat(continued.getLastStart()).isNull();
+
+        // the rebuild apportions the same way
+        long buckets = rollupRepository.count();
+        rollupRepository.deleteAllRollups();
+        assertThat(rollupRepository.insertAllFromEntries()).isEqualTo(buckets);
+        em.clear();
+        assertThat(rollupRepository.sumMinutesBetweenAll(monday, tuesday)).isEqualTo(390L);
+        assertThat(rollupRepository.findById(id(p, "2025-08-10T22:00:00")).orElseThrow().getEntryCount()).isEqualTo(1);
+    }
+
+    @Test
+    void should_rebuildRollups_fromRawEntries() {
+        var p = project("Rebuild");
+        save(p, "2025-08-10T10:05:00", 20);
+        save(p, "2025-08-10T12:30:00", 40); // 30 minutes in 12:00, 10 in 13:00
+        rollupRepository.deleteAllRollups();
+
+        rollupRepository.lockEntriesForRebuild();
+        int buckets = rollupRepository.insertAllFromEntries();
+        em.clear();
+
+        assertThat(buckets).isEqualTo(3);
+        assertThat(rollupRepository.findById(id(p, "2025-08-10T12:00:00")).orElseThrow().getMinutes())
+                .isEqualTo(30L);
+        assertThat(rollupRepository.findById(id(p, "2025-08-10T13:00:00")).orElseThrow().getMinutes())
+                .isEqualTo(10L);
+    }
+
+    @Test
+    void should_sumMinutesBetweenAll_withInclusiveLowerExclusiveUpper() {
+        var p = project("SumProj");
+
+        save(p, "2025-08-10T00:00:00", 10);  // boundary IN
+        save(p, "2025-08-10T10:00:00", 60);  // inside
+        save(p, "2025-08-10T15:00:00", 30);  // inside
+        save(p, "2025-08-10T23:59:59", 20);  // starts inside, 19 of its minutes are on the 11th
+        save(p, "2025-08-11T00:00:00", 999); // upper boundary OUT
+
+        var from = LocalDateTime.parse("2025-08-10T00:00:00");
+        var to   = LocalDateTime.parse("2025-08-11T00:00:00");
+
+        Long minutes = rollupRepository.sumMinutesBetweenAll(from, to);
+        assertThat(minutes).isEqualTo(101L); // 10 + 60 + 30 + 1
+    }
+
+    @Test
+    void should_sumMinutesPerBucket_inOnePass_withOptionalProjectFilter() {
+        var p1 = project("SeriesA");
+        var p2 = project("SeriesB");
+        save(p1, "2025-08-10T09:00:00", 30);
+        save(p1, "2025-08-10T23:30:00", 15);
+        save(p2, "2025-08-11T08:00:00", 60);
+        save(p1, "2025-08-13T08:00:00", 45);
+        save(p1, "2025-08-14T00:00:00", 999); // outside (upper)
+
+        var from = LocalDateTime.parse("2025-08-10T00:00:00");
+        var to   = LocalDateTime.parse("2025-08-14T00:00:00");
+
+        assertThat(rollupRepository.minutesPerBucket("day", from, to, null, null)).containsExactly(
+                new BucketMinutes(LocalDateTime.parse("2025-08-10T00:00:00"), 45L),
+                new BucketMinutes(LocalDateTime.parse("2025-08-11T00:00:00"), 60L),
+                new BucketMinutes(LocalDateTime.parse("2025-08-13T00:00:00"), 45L));
+        // Sunday 10th and Wednesday 13th fall in different ISO weeks
+        assertThat(rollupRepository.minutesPerBucket("week", from, to, p1.getId(), "alice")).containsExactly(
+                new BucketMinutes(LocalDateTime.parse("2025-08-04T00:00:00"), 45L),
+                new BucketMinutes(LocalDateTime.parse("2025-08-11T00:00:00"), 45L));
+        assertThat(rollupRepository.minutesPerBucket("month", from, to, null, "bob")).isEmpty();
+    }
+
+    @Test
+    void should_returnTopProjectsByTotalMinutes_desc() {
+        var p1 = project("Alpha");
+        var p2 = project("Beta");
+        var p3 = project("Gamma");
+
+        // Window [10th, 11th)
+        save(p1, "2025-08-10T09:00:00", 30);
+        save(p1, "2025-08-10T12:00:00", 45);
+        save(p2, "2025-08-10T13:00:00", 90);
+        save(p3, "2025-08-09T23:59:59", 10); // starts outside (lower), 9 minutes inside
+        save(p3, "2025-08-11T00:00:00", 10); // outside (upper/exclusive)
+
+        var from = LocalDateTime.parse("2025-08-10T00:00:00");
+        var to   = LocalDateTime.parse("2025-08-11T00:00:00");
+
+        List<ProjectMinutes> rows = rollupRepository.topProjectsByMinutes(from, to, Limit.of(10));
+
+        // Expect Beta (90), Alpha (75), Gamma (9, minutes only)
+        assertThat(rows).containsExactly(
+                new ProjectMinutes(p2.getId(), "Beta", 90L),
+                new ProjectMinutes(p1.getId(), "Alpha", 75L),
+                new ProjectMinutes(p3.getId(), "Gamma", 9L));
+
+        assertThat(rollupRepository.topProjectsByMinutes(from, to, Limit.of(1)))
+                .extracting(ProjectMinutes::projectName)
+                .containsExactly("Beta");
+    }
+
+    @Test
+    void should_answerOverview_inOneStatement_withTopNLimitedInSql() {
+        var p1 = project("Alpha");
+        var p2 = project("Beta");
+        var p3 = project("Gamma");
+        project("Empty");
+
+        var dayStart  = LocalDateTime.parse("2025-08-13T00:00:00");
+        var dayEnd    = LocalDateTime.parse("2025-08-14T00:00:00");
+        var weekStart = LocalDateTime.parse("2025-08-11T00:00:00");
+        var weekEnd   = LocalDateTime.parse("2025-08-18T00:00:00");
+
+        save(p1, "2025-08-13T09:00:00", 30);  // today
+        save(p1, "2025-08-11T09:00:00", 60);  // this week
+        save(p2, "2025-08-12T10:00:00", 120); // this week
+        save(p3, "2025-08-13T11:00:00", 15);  // today
+        save(p3, "2025-08-10T11:00:00", 500); // before the week
+
+        var rows = rollupRepository.overview(dayStart, dayEnd, weekStart, weekEnd, 2);
+
+        assertThat(rows).hasSize(2);
+        assertThat(rows).allSatisfy(r -> {
+            assertThat(r.getTotalProjects()).isEqualTo(4L);
+            assertThat(r.getMinutesToday()).isEqualTo(45L);
+            assertThat(r.getMinutesWeek()).isEqualTo(225L);
+        });
+        assertThat(rows).extracting(OverviewAggregate::getProjectName).containsExactly("Beta", "Alpha");
+        assertThat(rows).extracting(OverviewAggregate::getProjectMinutes).containsExactly(120L, 90L);
+    }
+
+    @Test
+    void should_returnTotalsRow_withoutProject_whenNothingBookedThisWeek() {
+        project("Alpha");
+
+        var rows = rollupRepository.overview(
+                LocalDateTime.parse("2025-08-13T00:00:00"), LocalDateTime.parse("2025-08-14T00:00:00"),
+                LocalDateTime.parse("2025-08-11T00:00:00"), LocalDateTime.parse("2025-08-18T00:00:00"), 10);
+
+        assertThat(rows).singleElement().satisfies(r -> {
+            assertThat(r.getTotalProjects()).isEqualTo(1L);
+            assertThat(r.getMinutesToday()).isZero();
+            assertThat(r.getMinutesWeek()).isZero();
+            assertThat(r.getProjectId()).isNull();
+        });
+    }
+
+    @Test
+    void should_summarizeProjects_withinWindows_andReturnLeftJoin() {
+        var p1 = project("Alpha");
+        var p2 = project("Beta");
+        project("Empty"); // will have no entries
+
+        var weekStart  = LocalDateTime.parse("2025-08-11T00:00:00"); // Monday
+        var weekEnd    = LocalDateTime.parse("2025-08-18T00:00:00"); // next Monday (exclusive)
+        var rangeStart = LocalDateTime.parse("2025-08-01T00:00:00");
+        var rangeEnd   = LocalDateTime.parse("2025-09-01T00:00:00");
+
+        // Alpha: 2 entries within week + 1 outside week but inside range
+        save(p1, "2025-08-12T10:00:00", 60);
+        save(p1, "2025-08-15T15:00:00", 30);
+        save(p1, "2025-08-02T12:00:00", 45); // in range, outside week
+
+        // Beta: 1 entry in week, 1 outside range
+        save(p2, "2025-08-13T09:00:00", 25);
+        save(p2, "2025-09-02T09:00:00", 999); // outside range
+
+        List<ProjectSummaryAggregate> rows = rollupRepository.summarizeProjects(
+                weekStart, weekEnd, rangeStart, rangeEnd, ProjectSummaryQuery.all(ProjectSummarySort.PROJECT_ID, false)
+        ).rows();
+
+        // should include ALL projects (left join)
+        assertThat(rows).extracting(ProjectSummaryAggregate::getProjectName)
+                .containsExactlyInAnyOrder("Alpha", "Beta", "Empty");
+
+        var alpha = rows.stream().filter(r -> r.getProjectName().equals("Alpha")).findFirst().orElseThrow();
+        var beta  = rows.stream().filter(r -> r.getProjectName().equals("Beta")).findFirst().orElseThrow();
+        var empty = rows.stream().filter(r -> r.getProjectName().equals("Empty")).findFirst().orElseThrow();
+
+        assertThat(alpha.getMinutesWeek()).isEqualTo(90L);
+        assertThat(alpha.getEntriesWeek()).isEqualTo(2);
+        assertThat(alpha.getMinutesRange()).isEqualTo(135L);
+        assertThat(alpha.getLastEntryAt()).isEqualTo(LocalDateTime.parse("2025-08-15T15:00:00"));
+
+        assertThat(beta.getMinutesWeek()).isEqualTo(25L);
+        assertThat(beta.getEntriesWeek()).isEqualTo(1);
+        assertThat(beta.getMinutesRange()).isEqualTo(25L);
+        assertThat(beta.getLastEntryAt()).isEqualTo(LocalDateTime.parse("2025-08-13T09:00:00"));
+
+        assertThat(empty.getMinutesWeek()).isEqualTo(0L);
+        assertThat(empty.getEntriesWeek()).isEqualTo(0);
+        assertThat(empty.getMinutesRange()).isEqualTo(0L);
+        assertThat(empty.getLastEntryAt()).isNull();
+    }
+
+    @Test
+    void should_summarizeProjects_withoutFullScanOfRollups_onLargeHistory() {
+        // ~2 years of hourly buckets for 10 projects (175k rows), plus one idle project
+        for (int i = 0; i < 10; i++) {
+            project("Plan-" + i);
+        }
+        project("Plan-idle");
+        em.flush();
+        em.getEntityManager().createNativeQuery("""
+                INSERT INTO time_entry_hourly_rollups (project_id, user_id, bucket_start, minutes, entry_count, last_start)
+                SELECT p.id, 'alice', h, 30, 1, h
+                FROM projects p
+                CROSS JOIN generate_series(timestamp '2023-09-01', timestamp '2025-08-31 23:00', interval '1 hour') h
+                WHERE p.name LIKE 'Plan-%' AND p.name <> 'Plan-idle'
+                """).executeUpdate();
+        em.getEntityManager().createNativeQuery("ANALYZE time_entry_hourly_rollups").executeUpdate();
+
+        long[] before = rollupScanCounters();
+        List<ProjectSummaryAggregate> rows = rollupRepository.summarizeProjects(
+                LocalDateTime.parse("2025-08-18T00:00:00"), LocalDateTime.parse("2025-08-25T00:00:00"),
+                LocalDateTime.parse("2025-08-01T00:00:00"), LocalDateTime.parse("2025-09-01T00:00:00"),
+                ProjectSummaryQuery.all(ProjectSummarySort.MINUTES_WEEK, true)).rows();
+        long[] after = rollupScanCounters();
+
+        assertThat(rows).hasSize(11);
+        var busy = rows.stream().filter(r -> r.getProjectName().equals("Plan-0")).findFirst().orElseThrow();
+        assertThat(busy.getMinutesWeek()).isEqualTo(7 * 24 * 30L);
+        assertThat(busy.getMinutesRange()).isEqualTo(31 * 24 * 30L);
+        var idle = rows.stream().filter(r -> r.getProjectName().equals("Plan-idle")).findFirst().orElseThrow();
+        assertThat(idle.getMinutesRange()).isEqualTo(0L);
+
+        // only in-window buckets are read through an index, never the whole table
+        assertThat(after[0] - before[0]).as("sequential scans of rollups").isZero();
+        assertThat(after[1] - before[1]).as("index scans of rollups").isPositive();
+    }
+
+    @Test
+    void should_summarizeProjects_sortedFilteredAndPaged_inSql() {
+        var alpha = project("Alpha");
+        var bravo = project("Bravo_1");
+        var charlie = project("Charlie");
+        var idle = project("Bravo-idle");
+
+        var weekStart = LocalDateTime.parse("2025-08-11T00:00:00");
+        var weekEnd = LocalDateTime.parse("2025-08-18T00:00:00");
+        save(alpha, "2025-08-12T10:00:00", 60);
+        save(bravo, "2025-08-12T11:00:00", 120);
+        save(charlie, "2025-08-13T09:00:00", 60);
+        em.flush();
+
+        var byWeekDesc = new ProjectSummaryQuery(ProjectSummarySort.MINUTES_WEEK, true, null, null, null, 0, 2, false);
+        assertThat(rollupRepository.summarizeProjects(weekStart, weekEnd, weekStart, weekEnd, byWeekDesc).rows())
+                .extracting(ProjectSummaryAggregate::getProjectId)
+                .containsExactly(bravo.getId(), alpha.getId());
+
+        // keyset after Alpha (60 minutes): ties continue by project id, then the idle project
+        var afterAlpha = new ProjectSummaryQuery(ProjectSummarySort.MINUTES_WEEK, true, null, "60", alpha.getId(), 0, 10, false);
+        assertThat(rollupRepository.summarizeProjects(weekStart, weekEnd, weekStart, weekEnd, afterAlpha).rows())
+                .extracting(ProjectSummaryAggregate::getProjectId)
+                .containsExactly(charlie.getId(), idle.getId());
+
+        // the underscore is matched literally, case is ignored
+        var named = new ProjectSummaryQuery(ProjectSummarySort.LAST_ENTRY_AT, false, "o_", null, null, 0, null, false);
+        assertThat(rollupRepository.summarizeProjects(weekStart, weekEnd, weekStart, weekEnd, named).rows())
+                .extracting(ProjectSummaryAggregate::getProjectName)
+                .containsExactly("Bravo_1");
+
+        // the total counts every match, also past the last page
+        var byNameFrom1 = new ProjectSummaryQuery(ProjectSummarySort.PROJECT_NAME, false, "bravo", null, null, 1, 5, true);
+        var page = rollupRepository.summarizeProjects(weekStart, weekEnd, weekStart, weekEnd, byNameFrom1);
+        assertThat(page.rows()).extracting(ProjectSummaryAggregate::getProjectName).containsExactly("Bravo_1");
+        assertThat(page.total()).isEqualTo(2L);
+
+        var pastTheEnd = new ProjectSummaryQuery(ProjectSummarySort.PROJECT_NAME, false, "bravo", null, null, 5, 5, true);
+        var empty = rollupRepository.summarizeProjects(weekStart, weekEnd, weekStart, weekEnd, pastTheEnd);
+        assertThat(empty.rows()).isEmpty();
+        assertThat(empty.total()).isEqualTo(2L);
+    }
+
+    // ---------- helpers ----------
+
+    /** [seq_scan, idx_scan] on the rollup table, counted for the current (test) transaction. */
+    private long[] rollupScanCounters() {
+        Object[] row = (Object[]) em.getEntityManager().createNativeQuery("""
+                SELECT seq_scan, coalesce(idx_scan, 0)
+                FROM pg_stat_xact_user_tables
+                WHERE relname = 'time_entry_hourly_rollups'
+                """).getSingleResult();
+        return new long[]{((Number) row[0]).longValue(), ((Number) row[1]).longValue()};
+    }
+
+    private ProjectEntity project(String name) {
+        var p = new ProjectEntity();
+        p.setName(name);
+        return projectRepository.save(p);
+    }
+
+    /** Saves an entry and applies its rollup delta the same way the service does. */
+    private TimeEntryEntity save(ProjectEntity p, String startIso, int minutes) {
+        var te = new TimeEntryEntity();
+        te.setProject(p);
+        te.setUserId("alice");
+        te.setTitle("work");
+        te.setStartTime(LocalDateTime.parse(startIso));
+        te.setEndTime(LocalDateTime.parse(startIso).plusMinutes(minutes));
+        te.setDurationMinutes(minutes);
+        var saved = timeEntryRepository.save(te);
+        em.flush(); // the upsert goes through JDBC, so the project row must exist first
+        rollupRepository.applyDeltas(TimeEntryRollupDelta.forEntries(List.of(saved)));
+        return saved;
+    }
+
+    private TimeEntryRollupId id(ProjectEntity p, String bucketIso) {
+        return new TimeEntryRollupId(p.getId(), "alice", LocalDateTime.parse(bucketIso));
+    }
+}
@@ -0,0 +1,126 @@
+package com.fsavevsk.timetracking.persistence.routing;
+
+import com.fsavevsk.timetracking.base.TestSecurityConfig;
+import com.fsavevsk.timetracking.config.PostgresTestConfig;
+import com.fsavevsk.timetracking.service.impl.SnapshotFanout;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+/**
+ * Two independent Postgres instances stand in for primary and replica; they are told apart by database
+ * name. The replica is not in recovery, so its measured lag is always zero.
+ */
+@Testcontainers
+@SpringBootTest
+@Import({ PostgresTestConfig.class, TestSecurityConfig.class })
+@ActiveProfiles("test")
+class ReplicaRoutingIT {
+
+    @Container
+    static final PostgreSQLContainer<?> replica = new PostgreSQLContainer<>("postgres:17")
+            .withDatabaseName("replica")
+            .withTmpFs(Map.of("/var/lib/postgresql/data", "rw"));
+
+    @DynamicPropertySource
+    static void replicas(DynamicPropertyRegistry registry) {
+        registry.add("time-tracking.datasource.read-replicas.enabled", () -> "true");
+        registry.add("time-tracking.datasource.read-replicas.lag-check-interval", () -> "500ms");
+        registry.add("time-tracking.datasource.read-replicas.replicas[0].name", () -> "r1");
+        registry.add("time-tracking.datasource.read-replicas.replicas[0].url", replica::getJdbcUrl);
+        registry.add("time-tracking.datasource.read-replicas.replicas[0].username", replica::getUsername);
+        registry.add("time-tracking.datasource.read-replicas.replicas[0].password", replica::getPassword);
+    }
+
+    @Autowired JdbcTemplate jdbcTemplate;
+    @Autowired PlatformTransactionManager transactionManager;
+    @Autowired ReplicaLagMonitor lagMonitor;
+    @Autowired SnapshotFanout snapshotFanout;
+
+    @BeforeEach
+    void pollReplicas() {
+        lagMonitor.poll();
+    }
+
+    @AfterEach
+    void clearSecurityContext() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void should_routeReadOnlyTransactionsToReplica_andWritesToPrimary() {
+        assertThat(database(true)).isEqualTo("replica");
+        assertThat(database(false)).isNotEqualTo("replica");
+    }
+
+    @Test
+    void should_keepWritersReadsOnPrimary_untilReplicaCaughtUp() {
+        signInAs("alice");
+        String primary = database(false); // any committed read-write transaction counts as a write
+
+        assertThat(database(true)).isEqualTo(primary);
+
+        signInAs("bob");
+        assertThat(database(true)).isEqualTo("replica");
+
+        signInAs("alice");
+        await().atMost(Duration.ofSeconds(5)).until(() -> database(true).equals("replica"));
+    }
+
+    @Test
+    void should_fallBackToPrimary_whenNoReplicaIsHealthy() {
+        replica.getDockerClient().pauseContainerCmd(replica.getContainerId()).exec();
+        try {
+            lagMonitor.poll();
+            assertThat(lagMonitor.lags()).isEmpty();
+            assertThat(database(true)).isEqualTo(database(false));
+        } finally {
+            replica.getDockerClient().unpauseContainerCmd(replica.getContainerId()).exec();
+        }
+    }
+
+    @Test
+    void should_importSnapshot_onTheServerThatExportedIt() {
+        List<String> seen = snapshotFanout.inSnapshot(Duration.ofSeconds(10), scope -> {
+            var first = scope.fork(() -> jdbcTemplate.queryForObject("SELECT current_database()", String.class));
+            var second = scope.fork(() -> jdbcTemplate.queryForObject("SELECT current_database()", String.class));
+            scope.join();
+            return List.of(first.get(), second.get());
+        });
+
+        assertThat(seen).containsOnly("replica");
+    }
+
+    private String database(boolean readOnly) {
+        var tx = new TransactionTemplate(transactionManager);
+        tx.setReadOnly(readOnly);
+        return tx.execute(status -> jdbcTemplate.queryForObject("SELECT current_database()", String.class));
+    }
+
+    private static void signInAs(String subject) {
+        Jwt jwt = Jwt.withTokenValue("it-token").header("alg", "none").subject(subject).build();
+        SecurityContextHolder.getContext().setAuthentication(new JwtAuthenticationToken(jwt));
+    }
+}
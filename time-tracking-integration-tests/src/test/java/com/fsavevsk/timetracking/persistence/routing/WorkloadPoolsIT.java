@@ -0,0 +1,103 @@
+package com.fsavevsk.timetracking.persistence.routing;
+
+import com.fsavevsk.timetracking.base.TestSecurityConfig;
+import com.fsavevsk.timetracking.config.PostgresTestConfig;
+import com.fsavevsk.timetracking.service.AdminReportsService;
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.core.NestedRuntimeException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+import java.time.ZoneId;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest(properties = {
+        "time-tracking.datasource.workloads.enabled=true",
+        "time-tracking.datasource.workloads.pools.analytics.maximum-pool-size=1",
+        "time-tracking.datasource.workloads.pools.analytics.connection-timeout=250ms"
+})
+@Import({ PostgresTestConfig.class, TestSecurityConfig.class })
+@ActiveProfiles("test")
+class WorkloadPoolsIT {
+
+    @Autowired JdbcTemplate jdbcTemplate;
+    @Autowired PlatformTransactionManager transactionManager;
+    @Autowired WorkloadRoutingDataSource workloadRouting;
+    @Autowired AdminReportsService adminReportsService;
+
+    @Test
+    void should_takeAnalyticsConnections_fromTheAnalyticsPool() {
+        HikariDataSource analytics = analyticsPool();
+
+        int activeInside = Workloads.callAs(Workload.ANALYTICS, () -> inTransaction(() ->
+                analytics.getHikariPoolMXBean().getActiveConnections()));
+        int activeOutside = inTransaction(() -> analytics.getHikariPoolMXBean().getActiveConnections());
+
+        assertThat(activeInside).isEqualTo(1);
+        assertThat(activeOutside).isZero();
+    }
+
+    @Test
+    void should_failFastOnSaturatedAnalyticsPool_withoutStallingInteractiveWork() throws Exception {
+        // a slow report holds the only analytics connection for two seconds
+        var holding = new CountDownLatch(1);
+        var slowReport = CompletableFuture.runAsync(() -> Workloads.callAs(Workload.ANALYTICS, () -> inTransaction(() -> {
+            holding.countDown();
+            return jdbcTemplate.queryForObject("SELECT pg_sleep(2)::text", String.class);
+        })));
+        assertThat(holding.await(10, TimeUnit.SECONDS)).isTrue();
+
+        assertThatThrownBy(() -> Workloads.callAs(Workload.ANALYTICS, () -> inTransaction(() -> null)))
+                .isInstanceOfSatisfying(NestedRuntimeException.class,
+                        e -> assertThat(e.contains(SQLTransientConnectionException.class)).isTrue());
+
+        long started = System.nanoTime();
+        assertThat(inTransaction(() -> 1)).isEqualTo(1);
+        assertThat(Duration.ofNanos(System.nanoTime() - started)).isLessThan(Duration.ofSeconds(1));
+
+        slowReport.get(10, TimeUnit.SECONDS);
+    }
+
+    @Test
+    void should_runAnnotatedServices_onTheirWorkloadPool() throws Exception {
+        var holding = new CountDownLatch(1);
+        var slowReport = CompletableFuture.runAsync(() -> Workloads.callAs(Workload.ANALYTICS, () -> inTransaction(() -> {
+            holding.countDown();
+            return jdbcTemplate.queryForObject("SELECT pg_sleep(1)::text", String.class);
+        })));
+        assertThat(holding.await(10, TimeUnit.SECONDS)).isTrue();
+
+        // AdminReportsServiceImpl is @Workload(ANALYTICS), so it queues on the saturated pool
+        assertThatThrownBy(() -> adminReportsService.overview(ZoneId.of("UTC")))
+                .isInstanceOfSatisfying(NestedRuntimeException.class,
+                        e -> assertThat(e.contains(SQLTransientConnectionException.class)).isTrue());
+
+        slowReport.get(10, TimeUnit.SECONDS);
+    }
+
+    private HikariDataSource analyticsPool() {
+        return (HikariDataSource) workloadRouting.getResolvedDataSources().get(Workload.ANALYTICS);
+    }
+
+    /** Runs {@code body} after the transaction has fetched its connection. */
+    private <T> T inTransaction(Supplier<T> body) {
+        return new TransactionTemplate(transactionManager).execute(status -> {
+            jdbcTemplate.queryForObject("SELECT 1", Integer.class);
+            return body.get();
+        });
+    }
+}
@@ -0,0 +1,80 @@
+package com.fsavevsk.timetracking.service;
+
+import com.fsavevsk.timetracking.base.AbstractWebIT;
+import com.fsavevsk.timetracking.persistence.entity.ProjectEntity;
+import com.fsavevsk.timetracking.service.impl.SnapshotFanout;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class SnapshotFanoutIT extends AbstractWebIT {
+
+    @Autowired
+    SnapshotFanout snapshotFanout;
+
+    @Test
+    void should_runForkedQueries_onTheExportedSnapshot() {
+        // given
+        saveProject("Before");
+
+        // when
+        long[] seen = snapshotFanout.inSnapshot(Duration.ofSeconds(10), scope -> {
+            // committed on another connection after the snapshot was exported
+            CompletableFuture.runAsync(() -> saveProject("After")).join();
+
+            var first = scope.fork(projectRepository::count);
+            var second = scope.fork(() -> projectRepository.findProjectByName("After").isPresent() ? 1L : 0L);
+            scope.join();
+            return new long[]{first.get(), second.get()};
+        });
+
+        // then
+        assertEquals(1, seen[0]);
+        assertEquals(0, seen[1]);
+        assertEquals(2, projectRepository.count());
+    }
+
+    @Test
+    void should_runForksBeyondTheirShareOfThePool_inTheExportingTransaction() {
+        // given: the test pool has 5 connections, so 2 forks get their own
+        saveProject("Before");
+
+        // when
+        long[] seen = snapshotFanout.inSnapshot(Duration.ofSeconds(10), scope -> {
+            CompletableFuture.runAsync(() -> saveProject("After")).join();
+
+            var forks = IntStream.range(0, 6)
+                    .mapToObj(i -> scope.fork(projectRepository::count))
+                    .toList();
+            scope.join();
+            return forks.stream().mapToLong(Supplier::get).toArray();
+        });
+
+        // then: every fork, pooled or inline, saw the exported snapshot
+        assertArrayEquals(new long[]{1, 1, 1, 1, 1, 1}, seen);
+    }
+
+    @Test
+    void should_propagateFirstFailure() {
+        assertThrows(IllegalStateException.class, () -> snapshotFanout.inSnapshot(Duration.ofSeconds(10), scope -> {
+            scope.fork(projectRepository::count);
+            scope.fork(() -> { throw new IllegalStateException("boom"); });
+            scope.join();
+            return null;
+        }));
+    }
+
+    private void saveProject(String name) {
+        ProjectEntity p = new ProjectEntity();
+        p.setName(name);
+        projectRepository.saveAndFlush(p);
+    }
+}
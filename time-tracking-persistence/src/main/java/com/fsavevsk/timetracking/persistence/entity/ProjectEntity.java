@@ -14,7 +14,8 @@ public class ProjectEntity {
 
     @Id
     @Column(name = "id")
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "projects_id_gen")
+    @SequenceGenerator(name = "projects_id_gen", sequenceName = "projects_id_seq", allocationSize = 50)
     private Long id;
 
     @Column(name = "name", nullable = false, unique = true, length = 50)
@@ -15,7 +15,8 @@ public class TimeEntryEntity {
 
     @Id
     @Column(name = "id")
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "time_entries_id_gen")
+    @SequenceGenerator(name = "time_entries_id_gen", sequenceName = "time_entries_id_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(optional = false, fetch = FetchType.LAZY)
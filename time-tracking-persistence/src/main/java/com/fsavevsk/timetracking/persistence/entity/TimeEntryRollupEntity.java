@@ -0,0 +1,40 @@
+package com.fsavevsk.timetracking.persistence.entity;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+/**
+ * Hourly aggregate of time entries per project and user. Written only through the set-based
+ * statements in {@code TimeEntryRollupRepository}; mapped as an entity so reports can query it in JPQL.
+ */
+@Entity
+@Table(name = "time_entry_hourly_rollups")
+@IdClass(TimeEntryRollupId.class)
+@Getter
+@Setter
+public class TimeEntryRollupEntity {
+
+    @Id
+    @Column(name = "project_id")
+    private Long projectId;
+
+    @Id
+    @Column(name = "user_id", length = 50)
+    private String userId;
+
+    @Id
+    @Column(name = "bucket_start")
+    private LocalDateTime bucketStart;
+
+    @Column(name = "minutes", nullable = false)
+    private Long minutes;
+
+    @Column(name = "entry_count", nullable = false)
+    private Integer entryCount;
+
+    @Column(name = "last_start")
+    private LocalDateTime lastStart;
+}
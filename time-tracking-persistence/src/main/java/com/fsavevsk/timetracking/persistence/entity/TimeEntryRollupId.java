@@ -0,0 +1,19 @@
+package com.fsavevsk.timetracking.persistence.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class TimeEntryRollupId implements Serializable {
+
+    private Long projectId;
+    private String userId;
+    private LocalDateTime bucketStart;
+
+}
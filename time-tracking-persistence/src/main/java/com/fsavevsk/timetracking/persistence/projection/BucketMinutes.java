@@ -0,0 +1,11 @@
+package com.fsavevsk.timetracking.persistence.projection;
+
+import java.time.LocalDateTime;
+
+/**
+ * Total minutes booked in one bucket of a time series.
+ */
+public record BucketMinutes(
+        LocalDateTime bucketStart,
+        long minutes
+) {}
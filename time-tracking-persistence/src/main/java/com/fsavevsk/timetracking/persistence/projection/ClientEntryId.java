@@ -0,0 +1,13 @@
+package com.fsavevsk.timetracking.persistence.projection;
+
+import java.util.UUID;
+
+/**
+ * Entry id a client-generated id stands for. {@code claimed} marks a key seen for the first time, whose
+ * entry id was just taken from the sequence and has no row yet.
+ */
+public record ClientEntryId(
+        UUID clientId,
+        Long entryId,
+        boolean claimed
+) {}
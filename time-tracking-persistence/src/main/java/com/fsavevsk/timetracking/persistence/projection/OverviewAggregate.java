@@ -0,0 +1,14 @@
+package com.fsavevsk.timetracking.persistence.projection;
+
+/**
+ * One row of the single-statement overview query. The totals repeat on every row; each row carries one
+ * of the top projects by weekly minutes, or null project columns when no project has minutes this week.
+ */
+public interface OverviewAggregate {
+    Long getTotalProjects();
+    Long getMinutesToday();
+    Long getMinutesWeek();
+    Long getProjectId();
+    String getProjectName();
+    Long getProjectMinutes();
+}
@@ -0,0 +1,10 @@
+package com.fsavevsk.timetracking.persistence.projection;
+
+/**
+ * Total minutes booked on one project within a report window.
+ */
+public record ProjectMinutes(
+        Long projectId,
+        String projectName,
+        Long minutes
+) {}
@@ -0,0 +1,23 @@
+package com.fsavevsk.timetracking.persistence.projection;
+
+import java.time.LocalDateTime;
+
+/**
+ * A {@link ProjectSummaryAggregate} row built outside of a Spring Data projection: read with JDBC, or
+ * computed by the in-memory report store.
+ */
+public record ProjectSummary(
+        Long projectId,
+        String projectName,
+        Long minutesWeek,
+        Long minutesRange,
+        Long entriesWeek,
+        LocalDateTime lastEntryAt
+) implements ProjectSummaryAggregate {
+    @Override public Long getProjectId() { return projectId; }
+    @Override public String getProjectName() { return projectName; }
+    @Override public Long getMinutesWeek() { return minutesWeek; }
+    @Override public Long getMinutesRange() { return minutesRange; }
+    @Override public Long getEntriesWeek() { return entriesWeek; }
+    @Override public LocalDateTime getLastEntryAt() { return lastEntryAt; }
+}
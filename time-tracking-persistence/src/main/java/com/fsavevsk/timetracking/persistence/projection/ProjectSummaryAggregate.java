@@ -5,8 +5,8 @@ import java.time.LocalDateTime;
 public interface ProjectSummaryAggregate {
     Long getProjectId();
     String getProjectName();
-    Integer getMinutesWeek();
-    Integer getMinutesRange();
+    Long getMinutesWeek();
+    Long getMinutesRange();
     Long getEntriesWeek();
     LocalDateTime getLastEntryAt();
 }
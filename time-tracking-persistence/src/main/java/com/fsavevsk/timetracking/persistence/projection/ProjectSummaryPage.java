@@ -0,0 +1,12 @@
+package com.fsavevsk.timetracking.persistence.projection;
+
+import java.util.List;
+
+/**
+ * A page of project summaries and, when it was asked for, the number of projects matching the name filter
+ * as of the same snapshot ({@code null} otherwise).
+ */
+public record ProjectSummaryPage(
+        List<ProjectSummaryAggregate> rows,
+        Long total
+) {}
@@ -0,0 +1,19 @@
+package com.fsavevsk.timetracking.persistence.projection;
+
+import java.time.LocalDateTime;
+
+/**
+ * Flat, unmanaged row streamed by the admin export. Carries the owning user, which the
+ * per-user {@link TimeEntryView} does not need.
+ */
+public record TimeEntryExportRow(
+        Long id,
+        Long projectId,
+        String projectName,
+        String userId,
+        String title,
+        String description,
+        LocalDateTime startTime,
+        LocalDateTime endTime,
+        Integer durationMinutes
+) {}
@@ -0,0 +1,13 @@
+package com.fsavevsk.timetracking.persistence.projection;
+
+import java.time.LocalDateTime;
+
+/**
+ * The columns of an entry the in-memory report store keeps: when it started, how long it ran, and on
+ * which project.
+ */
+public record TimeEntryFact(
+        LocalDateTime startTime,
+        Integer durationMinutes,
+        Long projectId
+) {}
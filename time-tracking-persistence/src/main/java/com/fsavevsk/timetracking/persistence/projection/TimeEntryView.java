@@ -0,0 +1,18 @@
+package com.fsavevsk.timetracking.persistence.projection;
+
+import java.time.LocalDateTime;
+
+/**
+ * Read-only row for time entry listings, built by a JPQL constructor expression over
+ * {@code time_entries join projects}. Never attached to the persistence context.
+ */
+public record TimeEntryView(
+        Long id,
+        Long projectId,
+        String projectName,
+        String title,
+        LocalDateTime startTime,
+        LocalDateTime endTime,
+        Integer durationMinutes,
+        String description
+) {}
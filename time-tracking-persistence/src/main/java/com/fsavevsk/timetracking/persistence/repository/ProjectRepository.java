@@ -2,6 +2,7 @@ package com.fsavevsk.timetracking.persistence.repository;
 
 import com.fsavevsk.timetracking.persistence.entity.ProjectEntity;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 
 import java.util.Optional;
 
@@ -9,4 +10,8 @@ public interface ProjectRepository extends JpaRepository<ProjectEntity, Long> {
 
     Optional<ProjectEntity> findProjectByName(String name);
 
+    /** Bumped by a trigger on every change to projects; see V7__catalog_versions.sql. */
+    @Query(value = "SELECT version FROM catalog_versions WHERE name = 'projects'", nativeQuery = true)
+    long catalogVersion();
+
 }
@@ -0,0 +1,73 @@
+package com.fsavevsk.timetracking.persistence.repository;
+
+import com.fsavevsk.timetracking.persistence.projection.ProjectSummaryAggregate;
+import com.fsavevsk.timetracking.persistence.projection.ProjectSummaryPage;
+
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Order, name filter and page of a projects summary. Rows are ordered by {@code sort}, ties broken by project
+ * id ascending. {@code nameContains} keeps the projects whose name contains it, ignoring case. A page starts
+ * after the row with key {@code afterKey} and id {@code afterProjectId} when those are set (keyset), skips
+ * {@code offset} rows, and holds at most {@code limit} rows ({@code null}: all of them). {@code countTotal}
+ * also counts the projects matching the name filter.
+ */
+public record ProjectSummaryQuery(
+        ProjectSummarySort sort,
+        boolean descending,
+        String nameContains,
+        String afterKey,
+        Long afterProjectId,
+        long offset,
+        Integer limit,
+        boolean countTotal
+) {
+
+    public ProjectSummaryQuery {
+        if ((afterKey == null) != (afterProjectId == null)) {
+            throw new IllegalArgumentException("afterKey and afterProjectId go together");
+        }
+        if (afterKey != null) sort.parseKey(afterKey);
+    }
+
+    /** Every project, in the given order. */
+    public static ProjectSummaryQuery all(ProjectSummarySort sort, boolean descending) {
+        return new ProjectSummaryQuery(sort, descending, null, null, null, 0, null, false);
+    }
+
+    /**
+     * The query applied to rows computed outside the database (the in-memory report store), with the same
+     * result as {@link TimeEntryRollupRepositoryCustom#summarizeProjects} gives for the same data.
+     */
+    public ProjectSummaryPage apply(Collection<? extends ProjectSummaryAggregate> rows) {
+        Comparable<?> after = afterKey != null ? sort.parseKey(afterKey) : null;
+        List<ProjectSummaryAggregate> page = rows.stream()
+                .filter(this::matchesName)
+                .filter(r -> after == null || isAfter(r, after))
+                .sorted(comparator())
+                .skip(offset)
+                .limit(limit != null ? limit : Long.MAX_VALUE)
+                .map(ProjectSummaryAggregate.class::cast)
+                .toList();
+        Long total = countTotal ? rows.stream().filter(this::matchesName).count() : null;
+        return new ProjectSummaryPage(page, total);
+    }
+
+    private boolean matchesName(ProjectSummaryAggregate row) {
+        return nameContains == null
+                || row.getProjectName().toUpperCase(Locale.ROOT).contains(nameContains.toUpperCase(Locale.ROOT));
+    }
+
+    private boolean isAfter(ProjectSummaryAggregate row, Comparable<?> after) {
+        int c = sort.compareKey(row, after);
+        return (descending ? c < 0 : c > 0) || (c == 0 && row.getProjectId() > afterProjectId);
+    }
+
+    private Comparator<ProjectSummaryAggregate> comparator() {
+        Comparator<ProjectSummaryAggregate> bySort = sort::compare;
+        return (descending ? bySort.reversed() : bySort).thenComparing(ProjectSummaryAggregate::getProjectId);
+    }
+}
@@ -0,0 +1,60 @@
+package com.fsavevsk.timetracking.persistence.repository;
+
+import com.fsavevsk.timetracking.persistence.projection.ProjectSummaryAggregate;
+
+import java.time.LocalDateTime;
+import java.util.function.Function;
+
+/**
+ * Columns a projects summary can be ordered by. Each has a sort key that is never null (a project without
+ * entries sorts as if its last entry were at {@code -infinity}) and a text form of that key for keyset
+ * cursors, which the database casts back to the column's type.
+ */
+public enum ProjectSummarySort {
+    PROJECT_ID(ProjectSummaryAggregate::getProjectId, Long::valueOf),
+    // byte order (COLLATE "C" in SQL), which is what String.compareTo gives for the rows of the in-memory store
+    PROJECT_NAME(ProjectSummaryAggregate::getProjectName, s -> s),
+    MINUTES_WEEK(ProjectSummaryAggregate::getMinutesWeek, Long::valueOf),
+    MINUTES_RANGE(ProjectSummaryAggregate::getMinutesRange, Long::valueOf),
+    ENTRIES_WEEK(ProjectSummaryAggregate::getEntriesWeek, Long::valueOf),
+    LAST_ENTRY_AT(a -> a.getLastEntryAt() != null ? a.getLastEntryAt() : LocalDateTime.MIN,
+            s -> s.equals(ProjectSummarySort.NO_ENTRY) ? LocalDateTime.MIN : LocalDateTime.parse(s));
+
+    private static final String NO_ENTRY = "-infinity";
+
+    private final Function<ProjectSummaryAggregate, Comparable<?>> key;
+    private final Function<String, Comparable<?>> parse;
+
+    ProjectSummarySort(Function<ProjectSummaryAggregate, Comparable<?>> key, Function<String, Comparable<?>> parse) {
+        this.key = key;
+        this.parse = parse;
+    }
+
+    /** The text form of the row's key, as stored in a cursor. */
+    public String cursorKey(ProjectSummaryAggregate row) {
+        Comparable<?> k = key.apply(row);
+        return LocalDateTime.MIN.equals(k) ? NO_ENTRY : k.toString();
+    }
+
+    /** Parses a key in text form; throws {@link IllegalArgumentException} (mapped to 400) when it does not. */
+    Comparable<?> parseKey(String cursorKey) {
+        try {
+            return parse.apply(cursorKey);
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+
+    int compareKey(ProjectSummaryAggregate row, Comparable<?> key) {
+        return compareKeys(this.key.apply(row), key);
+    }
+
+    int compare(ProjectSummaryAggregate a, ProjectSummaryAggregate b) {
+        return compareKeys(key.apply(a), key.apply(b));
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static int compareKeys(Comparable a, Comparable b) {
+        return a.compareTo(b);
+    }
+}
@@ -0,0 +1,136 @@
+package com.fsavevsk.timetracking.persistence.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * DDL for the monthly partitions of time_entries (see V6). Partitions are named time_entries_pYYYY_MM and
+ * bounded by month starts in the session time zone. Callers are expected to run inside a transaction.
+ * <p>
+ * The primary key has to include start_time, so it does not make ids unique across partitions by itself.
+ * They are unique because every insert takes them from time_entries_id_seq: Hibernate's pooled optimizer,
+ * the id claims of offline uploads and the column default all draw from it, and no path writes an id of its own.
+ */
+@Repository
+@RequiredArgsConstructor
+public class TimeEntryPartitionRepository {
+
+    private static final String PARENT = "time_entries";
+    private static final String DEFAULT_PARTITION = "time_entries_default";
+    private static final DateTimeFormatter SUFFIX = DateTimeFormatter.ofPattern("yyyy_MM");
+
+    /*
+     * What the entries of one partition add to the hourly rollups, apportioned over the hours they overlap as in
+     * TimeEntryRollupRepository.insertAllFromEntries. Only entries of that month start in its buckets, so those
+     * lose their last_start along with their entries; later buckets only lose the minutes of overnight entries.
+     */
+    private static final String PARTITION_ROLLUPS = """
+            SELECT s.project_id,
+                   s.user_id,
+                   b.bucket AS bucket_start,
+                   sum(extract(epoch FROM least(s.span_end, b.bucket + interval '1 hour') - greatest(s.span_start, b.bucket)) / 60)::bigint AS minutes,
+                   count(*) FILTER (WHERE b.bucket = date_trunc('hour', s.start_time)) AS entry_count
+            FROM (SELECT project_id,
+                         user_id,
+                         start_time,
+                         date_trunc('minute', start_time) AS span_start,
+                         date_trunc('minute', start_time) + coalesce(duration_minutes, 0) * interval '1 minute' AS span_end
+                  FROM %s) s
+            CROSS JOIN LATERAL generate_series(date_trunc('hour', s.start_time),
+                                               greatest(date_trunc('hour', s.start_time), date_trunc('hour', s.span_end - interval '1 minute')),
+                                               interval '1 hour') AS b(bucket)
+            GROUP BY s.project_id, s.user_id, b.bucket
+            """;
+
+    private static final String SUBTRACT_PARTITION = """
+            UPDATE time_entry_hourly_rollups r
+            SET minutes     = r.minutes - d.minutes,
+                entry_count = r.entry_count - d.entry_count,
+                last_start  = CASE WHEN d.entry_count > 0 THEN NULL ELSE r.last_start END
+            FROM (%s) d
+            WHERE r.project_id = d.project_id AND r.user_id = d.user_id AND r.bucket_start = d.bucket_start
+            """;
+
+    private static final String DELETE_EMPTY_PARTITION_BUCKETS = """
+            DELETE FROM time_entry_hourly_rollups r
+            USING (%s) d
+            WHERE r.project_id = d.project_id AND r.user_id = d.user_id AND r.bucket_start = d.bucket_start
+              AND r.entry_count <= 0 AND r.minutes <= 0
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /** Serializes maintenance across application instances until the surrounding transaction ends. */
+    public void lockForMaintenance() {
+        jdbcTemplate.queryForObject("SELECT pg_advisory_xact_lock(hashtext('time_entries_partitions'))", Object.class);
+    }
+
+    /** Months that currently have an attached partition, oldest first. */
+    public List<YearMonth> findMonthlyPartitions() {
+        return jdbcTemplate.queryForList("""
+                        SELECT c.relname
+                        FROM pg_inherits i
+                        JOIN pg_class c ON c.oid = i.inhrelid
+                        WHERE i.inhparent = to_regclass(?)
+                          AND c.relname LIKE 'time_entries\\_p%'
+                        ORDER BY c.relname
+                        """, String.class, PARENT).stream()
+                .map(TimeEntryPartitionRepository::monthOf)
+                .filter(Objects::nonNull)
+                .toList();
+    }
+
+    /**
+     * Creates and attaches the partition for {@code month}. Rows that already landed in the default
+     * partition for that month are moved first, otherwise ATTACH would fail the default's constraint check.
+     */
+    public void createMonthlyPartition(YearMonth month) {
+        String name = partitionName(month);
+        String from = month.atDay(1).toString();
+        String to = month.plusMonths(1).atDay(1).toString();
+        jdbcTemplate.execute("CREATE TABLE " + name
+                + " (LIKE " + PARENT + " INCLUDING DEFAULTS INCLUDING CONSTRAINTS)");
+        jdbcTemplate.update("WITH moved AS (DELETE FROM " + DEFAULT_PARTITION
+                + " WHERE start_time >= ?::timestamptz AND start_time < ?::timestamptz RETURNING *)"
+                + " INSERT INTO " + name + " SELECT * FROM moved", from, to);
+        jdbcTemplate.execute("ALTER TABLE " + PARENT + " ATTACH PARTITION " + name
+                + " FOR VALUES FROM ('" + from + "') TO ('" + to + "')");
+    }
+
+    /**
+     * Takes the entries of the partition for {@code month} out of the hourly rollups, dropping buckets left
+     * empty. Call it before detaching or dropping the partition, so that reports stop counting its entries.
+     */
+    public void removeFromRollups(YearMonth month) {
+        String partitionRollups = PARTITION_ROLLUPS.formatted(partitionName(month));
+        jdbcTemplate.update(SUBTRACT_PARTITION.formatted(partitionRollups));
+        jdbcTemplate.update(DELETE_EMPTY_PARTITION_BUCKETS.formatted(partitionRollups));
+    }
+
+    /** Detaches the partition; the table and its rows stay around for archiving. */
+    public void detachMonthlyPartition(YearMonth month) {
+        jdbcTemplate.execute("ALTER TABLE " + PARENT + " DETACH PARTITION " + partitionName(month));
+    }
+
+    public void dropMonthlyPartition(YearMonth month) {
+        jdbcTemplate.execute("DROP TABLE " + partitionName(month));
+    }
+
+    public static String partitionName(YearMonth month) {
+        return PARENT + "_p" + month.format(SUFFIX);
+    }
+
+    private static YearMonth monthOf(String partitionName) {
+        try {
+            return YearMonth.parse(partitionName.substring((PARENT + "_p").length()), SUFFIX);
+        } catch (RuntimeException e) {
+            return null;
+        }
+    }
+}
@@ -1,61 +1,155 @@
 package com.fsavevsk.timetracking.persistence.repository;
 
 import com.fsavevsk.timetracking.persistence.entity.TimeEntryEntity;
-import com.fsavevsk.timetracking.persistence.projection.ProjectSummaryAggregate;
+import com.fsavevsk.timetracking.persistence.projection.TimeEntryExportRow;
+import com.fsavevsk.timetracking.persistence.projection.TimeEntryView;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
-public interface TimeEntryRepository extends JpaRepository<TimeEntryEntity, Long> {
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
+
+public interface TimeEntryRepository extends JpaRepository<TimeEntryEntity, Long>, TimeEntryRepositoryCustom {
 
     List<TimeEntryEntity> findByUserIdOrderByStartTimeDesc(String userId);
 
     Optional<TimeEntryEntity> findByIdAndUserId(Long entryId, String userId);
 
+    /*
+     * Listing reads go through TimeEntryView: one joined statement, no entities, no lazy project proxies.
+     */
+    @Query("""
+              select new com.fsavevsk.timetracking.persistence.projection.TimeEntryView(
+                  te.id, p.id, p.name, te.title, te.startTime, te.endTime, te.durationMinutes, te.description)
+              from TimeEntryEntity te
+              join te.project p
+              where te.userId = :userId
+              order by te.startTime desc, te.id desc
+            """)
+    List<TimeEntryView> findViewsByUserId(String userId);
+
+    /*
+     * Keyset paging over (start_time DESC, id DESC). Both queries are driven by idx_te_user_start_desc;
+     * the redundant "startTime <= :startTime" gives the planner an index bound the OR alone would not.
+     */
     @Query("""
-              select coalesce(sum(te.durationMinutes), 0)
+              select new com.fsavevsk.timetracking.persistence.projection.TimeEntryView(
+                  te.id, p.id, p.name, te.title, te.startTime, te.endTime, te.durationMinutes, te.description)
               from TimeEntryEntity te
-              where te.startTime >= :from and te.startTime < :to
+              join te.project p
+              where te.userId = :userId
+              order by te.startTime desc, te.id desc
             """)
-    Integer sumMinutesBetweenAll(LocalDateTime from, LocalDateTime to);
+    List<TimeEntryView> findFirstPageByUserId(String userId, Limit limit);
 
     @Query("""
-              select te.project.id, te.project.name, coalesce(sum(te.durationMinutes), 0)
+              select new com.fsavevsk.timetracking.persistence.projection.TimeEntryView(
+                  te.id, p.id, p.name, te.title, te.startTime, te.endTime, te.durationMinutes, te.description)
               from TimeEntryEntity te
-              where te.startTime >= :from and te.startTime < :to
-              group by te.project.id, te.project.name
-              order by sum(te.durationMinutes) desc
+              join te.project p
+              where te.userId = :userId
+                and te.startTime <= :startTime
+                and (te.startTime < :startTime or te.id < :id)
+              order by te.startTime desc, te.id desc
             """)
-    List<Object[]> topProjectsByMinutes(LocalDateTime from, LocalDateTime to);
+    List<TimeEntryView> findPageByUserIdAfter(String userId, LocalDateTime startTime, Long id, Limit limit);
 
     @Query("""
-            select
-              p.id as projectId,
-              p.name as projectName,
-              coalesce(sum(case
-                  when te.startTime >= :weekStart and te.startTime < :weekEnd
-                  then te.durationMinutes else 0 end), 0) as minutesWeek,
-              coalesce(sum(case
-                  when te.startTime >= :rangeStart and te.startTime < :rangeEnd
-                  then te.durationMinutes else 0 end), 0) as minutesRange,
-              coalesce(sum(case
-                  when te.startTime >= :weekStart and te.startTime < :weekEnd
-                  then 1 else 0 end), 0) as entriesWeek,
-              max(case when te.startTime >= :rangeStart and te.startTime < :rangeEnd then te.startTime else null end) as lastEntryAt
-            from ProjectEntity p
-            left join TimeEntryEntity te on te.project = p
-            group by p.id, p.name
+              select new com.fsavevsk.timetracking.persistence.projection.TimeEntryView(
+                  te.id, p.id, p.name, te.title, te.startTime, te.endTime, te.durationMinutes, te.description)
+              from TimeEntryEntity te
+              join te.project p
+              where te.userId = :userId
+                and te.id in :ids
+            """)
+    List<TimeEntryView> findViewsByUserIdAndIdIn(String userId, Collection<Long> ids);
+
+    /*
+     * Export stream: must be consumed inside a (read-only) transaction so pgjdbc keeps a server-side
+     * cursor open and pulls FETCH_SIZE rows per round trip instead of materialising the result set.
+     * All filters are optional; a null parameter is cast, as Postgres cannot infer its type from {@code IS NULL}.
+     */
+    @QueryHints({
+            @QueryHint(name = HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HINT_READ_ONLY, value = "true")
+    })
+    @Query("""
+              select new com.fsavevsk.timetracking.persistence.projection.TimeEntryExportRow(
+                  te.id, p.id, p.name, te.userId, te.title, te.description,
+                  te.startTime, te.endTime, te.durationMinutes)
+              from TimeEntryEntity te
+              join te.project p
+              where (cast(:from as LocalDateTime) is null or te.startTime >= :from)
+                and (cast(:to as LocalDateTime) is null or te.startTime < :to)
+                and (cast(:projectId as Long) is null or p.id = :projectId)
+                and (cast(:userId as String) is null or te.userId = :userId)
+              order by te.startTime, te.id
             """)
-    List<ProjectSummaryAggregate> summarizeAllProjects(
-            @Param("weekStart") LocalDateTime weekStart,
-            @Param("weekEnd") LocalDateTime weekEnd,
-            @Param("rangeStart") LocalDateTime rangeStart,
-            @Param("rangeEnd") LocalDateTime rangeEnd
+    Stream<TimeEntryExportRow> streamForExport(
+            @Param("from") LocalDateTime from,
+            @Param("to") LocalDateTime to,
+            @Param("projectId") Long projectId,
+            @Param("userId") String userId
     );
 
-}
+    /*
+     * Data versions for conditional GETs (see V8__entry_versions.sql). Both are opaque tags: equal tags mean
+     * nothing they cover has changed. The report tag sums the day counters of [from, to], so any write to
+     * one of those days moves it; 'projects' and 'time_entries' cover renames, deletes and bulk changes.
+     * The entries tag moves with the sync epoch instead, which a rollup rebuild leaves alone.
+     */
+    @Query(value = """
+            SELECT concat_ws('.',
+                   (SELECT version FROM catalog_versions WHERE name = 'time_entries_sync'),
+                   coalesce((SELECT version FROM entry_versions WHERE user_id = :userId), 0))
+            """, nativeQuery = true)
+    String entriesVersion(@Param("userId") String userId);
+
+    @Query(value = """
+            SELECT concat_ws('.',
+                   (SELECT version FROM catalog_versions WHERE name = 'projects'),
+                   (SELECT version FROM catalog_versions WHERE name = 'time_entries'),
+                   coalesce((SELECT sum(version) FROM entry_day_versions WHERE day BETWEEN :from AND :to), 0))
+            """, nativeQuery = true)
+    String reportVersion(@Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    @Query(value = "SELECT version FROM catalog_versions WHERE name = 'time_entries'", nativeQuery = true)
+    long bulkVersion();
+
+    /** Epoch of the entries themselves (see V14__time_entry_sync_epoch.sql). */
+    @Query(value = "SELECT version FROM catalog_versions WHERE name = 'time_entries_sync'", nativeQuery = true)
+    long syncEpoch();
+
+    /** Records a delete for delta sync (see V9__time_entry_changes.sql), in the deleting transaction. */
+    @Modifying
+    @Query(value = "INSERT INTO time_entry_tombstones (entry_id, user_id) VALUES (:entryId, :userId)", nativeQuery = true)
+    int insertTombstone(@Param("entryId") Long entryId, @Param("userId") String userId);
 
+    /** Once the sync epoch has moved, every client resyncs from scratch and no tombstone is read again. */
+    @Modifying
+    @Query(value = "DELETE FROM time_entry_tombstones", nativeQuery = true)
+    int deleteAllTombstones();
+
+    /** For changes to the reports of every user at once, such as dropped partitions or rebuilt rollups. */
+    @Modifying
+    @Query(value = "UPDATE catalog_versions SET version = version + 1 WHERE name = 'time_entries'", nativeQuery = true)
+    int bumpBulkVersion();
+
+    /** For changes to the entries of every user at once that leave no tombstones, such as dropped partitions. */
+    @Modifying
+    @Query(value = "UPDATE catalog_versions SET version = version + 1 WHERE name = 'time_entries_sync'", nativeQuery = true)
+    int bumpSyncEpoch();
+
+}
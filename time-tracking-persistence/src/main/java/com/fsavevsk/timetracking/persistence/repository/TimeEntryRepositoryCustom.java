@@ -0,0 +1,72 @@
+package com.fsavevsk.timetracking.persistence.repository;
+
+import com.fsavevsk.timetracking.persistence.projection.ClientEntryId;
+import com.fsavevsk.timetracking.persistence.projection.TimeEntryFact;
+import com.fsavevsk.timetracking.persistence.projection.TimeEntryView;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+public interface TimeEntryRepositoryCustom {
+
+    /**
+     * Bumps the version of {@code userId}'s entries and of each of {@code days}, in one statement. Must run
+     * in the transaction that changes the entries, so that readers never see the new version without them.
+     */
+    void bumpVersions(String userId, Collection<LocalDate> days);
+
+    /**
+     * Version of every day in {@code [from, to]} that has one; both bounds may be null. Days missing from the
+     * map have never been written to since versions were introduced (version 0).
+     */
+    Map<LocalDate, Long> dayVersions(LocalDate from, LocalDate to);
+
+    /**
+     * Feed of the in-memory report store: every entry that adds to the hours of {@code [from, to)}, those
+     * starting in it and those whose span (see {@link TimeEntryRollupDelta}) overlaps it; every entry when
+     * the bounds are null (both or neither). In no particular order. Like the export it must be consumed, and closed, inside
+     * a read-only transaction.
+     */
+    Stream<TimeEntryFact> streamFacts(LocalDateTime from, LocalDateTime to);
+
+    /**
+     * Xmin of the current snapshot: every transaction below it has finished. Read it first in a sync
+     * transaction, then the changes at or above the client's previous horizon.
+     */
+    long syncHorizon();
+
+    /** The user's entries written by a transaction at or above {@code horizon}, oldest change first. */
+    List<TimeEntryView> findChangedSince(String userId, long horizon);
+
+    /** Ids of the user's entries deleted by a transaction at or above {@code horizon}. */
+    List<Long> findDeletedSince(String userId, long horizon);
+
+    /**
+     * Lowest horizon whose tombstones are all still kept; a token below it needs a full resync. Read it after
+     * the tombstones, so that a prune committed in between is noticed.
+     */
+    long syncFloor();
+
+    /** Deletes the tombstones older than {@code retention}, raising the sync floor past them. */
+    int pruneTombstones(Duration retention);
+
+    /**
+     * Entry ids behind the user's client-generated ids (see V10__time_entry_client_ids.sql). Unseen ids are
+     * claimed with a fresh entry id; every key is then locked until the transaction ends, so concurrent
+     * uploads of the same entry run one after the other. Two statements whatever the number of ids.
+     */
+    List<ClientEntryId> claimClientIds(String userId, Collection<UUID> clientIds);
+
+    /** Inserts the entries, ids included, with one {@code INSERT ... SELECT FROM unnest(...)}. */
+    void insertEntries(String userId, Collection<TimeEntryUpsert> entries);
+
+    /** Overwrites the user's entries with these ids in one statement; ids of other users are left alone. */
+    void updateEntries(String userId, Collection<TimeEntryUpsert> entries);
+
+}
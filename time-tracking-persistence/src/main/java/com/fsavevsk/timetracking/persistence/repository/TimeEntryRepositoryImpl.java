@@ -0,0 +1,308 @@
+package com.fsavevsk.timetracking.persistence.repository;
+
+import com.fsavevsk.timetracking.persistence.projection.ClientEntryId;
+import com.fsavevsk.timetracking.persistence.projection.TimeEntryFact;
+import com.fsavevsk.timetracking.persistence.projection.TimeEntryView;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+@RequiredArgsConstructor
+class TimeEntryRepositoryImpl implements TimeEntryRepositoryCustom {
+
+    // ON CONFLICT may touch each row once per statement, hence distinct days; sorted, so that concurrent
+    // writers lock shared days in the same order and cannot deadlock on them. Days are sharded by user
+    // (V13__shard_entry_day_versions.sql), so only writers of the same shard queue on a day's row.
+    private static final String BUMP = """
+            WITH user_version AS (
+                INSERT INTO entry_versions AS v (user_id, version) VALUES (?, 1)
+                ON CONFLICT (user_id) DO UPDATE SET version = v.version + 1
+            )
+            INSERT INTO entry_day_versions AS v (day, shard, version)
+            SELECT day::date, ?, 1 FROM unnest(?::text[]) AS day
+            ON CONFLICT (day, shard) DO UPDATE SET version = v.version + 1
+            """;
+
+    private static final int DAY_VERSION_SHARDS = 16;
+
+    // xid8 has no JDBC type; it travels as text and fits a long
+    private static final String CHANGED = """
+            SELECT te.id, p.id AS project_id, p.name AS project_name, te.title, te.start_time, te.end_time,
+                   te.duration_minutes, te.description
+            FROM time_entries te
+            JOIN projects p ON p.id = te.project_id
+            WHERE te.user_id = ? AND te.change_xid >= ?::text::xid8
+            ORDER BY te.change_xid, te.id
+            """;
+
+    private static final String DELETED = """
+            SELECT entry_id
+            FROM time_entry_tombstones
+            WHERE user_id = ? AND deleted_xid >= ?::text::xid8
+            ORDER BY deleted_xid, entry_id
+            """;
+
+    /*
+     * One statement, so the floor and the tombstones below it move together: a sync that reads the floor after
+     * its tombstones cannot accept a token whose tombstones it did not see. Tombstones below the old floor that
+     * committed late stay until the floor moves again.
+     */
+    private static final String PRUNE_TOMBSTONES = """
+            WITH expired AS (
+                SELECT (max(deleted_xid::text::bigint) + 1)::text::xid8 AS horizon
+                FROM time_entry_tombstones
+                WHERE deleted_at < now() - make_interval(secs => ?)
+            ), raised AS (
+                UPDATE time_entry_sync_floor f
+                SET horizon = e.horizon
+                FROM expired e
+                WHERE e.horizon > f.horizon
+                RETURNING f.horizon
+            )
+            DELETE FROM time_entry_tombstones
+            WHERE deleted_xid < (SELECT horizon FROM raised)
+            """;
+
+    /*
+     * The span predicate is the expression of idx_te_span_gist (V11__apportion_rollups_by_overlap.sql), so a
+     * day's entries, including long ones that started days earlier, come from index probes on each partition.
+     * The start predicate adds zero-length entries, whose span is empty.
+     */
+    private static final String FACTS = """
+            SELECT start_time, duration_minutes, project_id
+            FROM time_entries
+            """;
+
+    private static final String FACTS_OVERLAPPING = FACTS + """
+            WHERE (start_time >= ? AND start_time < ?)
+               OR tsrange(date_trunc('minute', start_time AT TIME ZONE 'UTC'),
+                          date_trunc('minute', start_time AT TIME ZONE 'UTC')
+                              + coalesce(duration_minutes, 0) * interval '1 minute')
+                  && tsrange(?::timestamptz AT TIME ZONE 'UTC', ?::timestamptz AT TIME ZONE 'UTC')
+            """;
+
+    private static final int FACTS_FETCH_SIZE = 10_000;
+
+    // allocationSize of TimeEntryEntity's @SequenceGenerator
+    private static final int ID_BLOCK = 50;
+
+    /*
+     * time_entries_id_seq steps by ID_BLOCK for Hibernate's pooled optimizer (V3__pooled_id_sequences.sql), which
+     * takes a value v as owning the ids (v - ID_BLOCK, v]. Claims draw whole blocks the same way, one nextval per
+     * ID_BLOCK keys that are not claimed yet, so retries reserve nothing.
+     */
+    private static final String RESERVE_IDS = """
+            SELECT nextval('time_entries_id_seq')
+            FROM generate_series(1, (SELECT (count(*) + %1$d - 1) / %1$d
+                                     FROM unnest(?::uuid[]) AS c
+                                     WHERE NOT EXISTS (SELECT 1 FROM time_entry_client_ids k
+                                                       WHERE k.user_id = ? AND k.client_id = c)))
+            """.formatted(ID_BLOCK);
+
+    // ON CONFLICT settles races with concurrent uploads, which can only leave reserved ids unused
+    private static final String CLAIM = """
+            INSERT INTO time_entry_client_ids (user_id, client_id, entry_id)
+            SELECT ?, m.c, (?::bigint[])[m.n]
+            FROM (SELECT c, row_number() OVER (ORDER BY c) AS n
+                  FROM unnest(?::uuid[]) AS c
+                  WHERE NOT EXISTS (SELECT 1 FROM time_entry_client_ids k WHERE k.user_id = ? AND k.client_id = c)) m
+            ON CONFLICT (user_id, client_id) DO NOTHING
+            RETURNING client_id
+            """;
+
+    private static final String LOCK_KEYS = """
+            SELECT client_id, entry_id
+            FROM time_entry_client_ids
+            WHERE user_id = ? AND client_id = ANY(?::uuid[])
+            ORDER BY client_id
+            FOR UPDATE
+            """;
+
+    // timestamps travel as text and are cast in the session time zone, as pgjdbc binds a LocalDateTime
+    private static final String INSERT_ENTRIES = """
+            INSERT INTO time_entries (id, project_id, user_id, title, description, start_time, end_time, duration_minutes)
+            SELECT e.id, e.project_id, ?, e.title, e.description, e.start_time, e.end_time, e.duration_minutes
+            FROM unnest(?::bigint[], ?::bigint[], ?::text[], ?::text[], ?::timestamp[], ?::timestamp[], ?::int[])
+                 AS e(id, project_id, title, description, start_time, end_time, duration_minutes)
+            """;
+
+    // a new start_time may move the row to another partition, which Postgres does as part of the UPDATE
+    private static final String UPDATE_ENTRIES = """
+            UPDATE time_entries te
+            SET project_id       = e.project_id,
+                title            = e.title,
+                description      = e.description,
+                start_time       = e.start_time,
+                end_time         = e.end_time,
+                duration_minutes = e.duration_minutes
+            FROM unnest(?::bigint[], ?::bigint[], ?::text[], ?::text[], ?::timestamp[], ?::timestamp[], ?::int[])
+                 AS e(id, project_id, title, description, start_time, end_time, duration_minutes)
+            WHERE te.id = e.id AND te.user_id = ?
+            """;
+
+    // within the range of the date type, standing in for open bounds
+    private static final LocalDate MIN_DAY = LocalDate.of(1, 1, 1);
+    private static final LocalDate MAX_DAY = LocalDate.of(9999, 12, 31);
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void bumpVersions(String userId, Collection<LocalDate> days) {
+        String[] sorted = new TreeSet<>(days).stream().map(LocalDate::toString).toArray(String[]::new);
+        // runs on the connection bound to the surrounding JPA transaction
+        jdbcTemplate.update(BUMP, ps -> {
+            ps.setString(1, userId);
+            ps.setInt(2, Math.floorMod(userId.hashCode(), DAY_VERSION_SHARDS));
+            ps.setArray(3, ps.getConnection().createArrayOf("text", sorted));
+        });
+    }
+
+    @Override
+    public Map<LocalDate, Long> dayVersions(LocalDate from, LocalDate to) {
+        Map<LocalDate, Long> versions = new HashMap<>();
+        jdbcTemplate.query("SELECT day, sum(version) AS version FROM entry_day_versions WHERE day >= ? AND day <= ? GROUP BY day",
+                rs -> {
+                    versions.put(rs.getObject("day", LocalDate.class), rs.getLong("version"));
+                },
+                from != null ? from : MIN_DAY, to != null ? to : MAX_DAY);
+        return versions;
+    }
+
+    @Override
+    public Stream<TimeEntryFact> streamFacts(LocalDateTime from, LocalDateTime to) {
+        // a cursor, not one result set: the fetch size takes effect inside the caller's transaction
+        return jdbcTemplate.queryForStream(con -> {
+            PreparedStatement ps = con.prepareStatement(from == null ? FACTS : FACTS_OVERLAPPING);
+            ps.setFetchSize(FACTS_FETCH_SIZE);
+            if (from != null) {
+                ps.setObject(1, from);
+                ps.setObject(2, to);
+                ps.setObject(3, from);
+                ps.setObject(4, to);
+            }
+            return ps;
+        }, (rs, i) -> new TimeEntryFact(rs.getObject("start_time", LocalDateTime.class),
+                rs.getObject("duration_minutes", Integer.class), rs.getLong("project_id")));
+    }
+
+    @Override
+    public long syncHorizon() {
+        return jdbcTemplate.queryForObject("SELECT pg_snapshot_xmin(pg_current_snapshot())::text::bigint", Long.class);
+    }
+
+    @Override
+    public List<TimeEntryView> findChangedSince(String userId, long horizon) {
+        // timestamps are read in the JVM zone, as Hibernate reads them for the entity
+        return jdbcTemplate.query(CHANGED, (rs, i) -> new TimeEntryView(
+                rs.getLong("id"),
+                rs.getLong("project_id"),
+                rs.getString("project_name"),
+                rs.getString("title"),
+                toLocalDateTime(rs.getTimestamp("start_time")),
+                toLocalDateTime(rs.getTimestamp("end_time")),
+                rs.getObject("duration_minutes", Integer.class),
+                rs.getString("description")), userId, Long.toString(horizon));
+    }
+
+    @Override
+    public List<Long> findDeletedSince(String userId, long horizon) {
+        return jdbcTemplate.queryForList(DELETED, Long.class, userId, Long.toString(horizon));
+    }
+
+    @Override
+    public long syncFloor() {
+        return jdbcTemplate.queryForObject("SELECT horizon::text::bigint FROM time_entry_sync_floor", Long.class);
+    }
+
+    @Override
+    public int pruneTombstones(Duration retention) {
+        return jdbcTemplate.update(PRUNE_TOMBSTONES, retention.toSeconds());
+    }
+
+    @Override
+    public List<ClientEntryId> claimClientIds(String userId, Collection<UUID> clientIds) {
+        if (clientIds.isEmpty()) return List.of();
+        // sorted, so that uploads sharing keys claim and lock them in the same order and cannot deadlock
+        UUID[] sorted = new TreeSet<>(clientIds).toArray(UUID[]::new);
+        List<Long> blocks = jdbcTemplate.query(RESERVE_IDS, ps -> {
+            ps.setArray(1, ps.getConnection().createArrayOf("uuid", sorted));
+            ps.setString(2, userId);
+        }, (rs, i) -> rs.getLong(1));
+        Long[] ids = blocks.stream()
+                .flatMap(hi -> LongStream.rangeClosed(hi - ID_BLOCK + 1, hi).boxed())
+                .toArray(Long[]::new);
+        Set<UUID> claimed = ids.length == 0 ? Set.of() : new HashSet<>(jdbcTemplate.query(CLAIM, ps -> {
+            ps.setString(1, userId);
+            ps.setArray(2, ps.getConnection().createArrayOf("int8", ids));
+            ps.setArray(3, ps.getConnection().createArrayOf("uuid", sorted));
+            ps.setString(4, userId);
+        }, (rs, i) -> rs.getObject("client_id", UUID.class)));
+        return jdbcTemplate.query(LOCK_KEYS, ps -> {
+            ps.setString(1, userId);
+            ps.setArray(2, ps.getConnection().createArrayOf("uuid", sorted));
+        }, (rs, i) -> {
+            UUID clientId = rs.getObject("client_id", UUID.class);
+            return new ClientEntryId(clientId, rs.getLong("entry_id"), claimed.contains(clientId));
+        });
+    }
+
+    @Override
+    public void insertEntries(String userId, Collection<TimeEntryUpsert> entries) {
+        if (entries.isEmpty()) return;
+        jdbcTemplate.update(INSERT_ENTRIES, ps -> {
+            ps.setString(1, userId);
+            bindEntries(ps, 2, entries);
+        });
+    }
+
+    @Override
+    public void updateEntries(String userId, Collection<TimeEntryUpsert> entries) {
+        if (entries.isEmpty()) return;
+        jdbcTemplate.update(UPDATE_ENTRIES, ps -> {
+            bindEntries(ps, 1, entries);
+            ps.setString(8, userId);
+        });
+    }
+
+    /** Binds the entries column by column, as seven arrays starting at parameter {@code first}. */
+    private static void bindEntries(PreparedStatement ps, int first, Collection<TimeEntryUpsert> entries)
+            throws SQLException {
+        Connection connection = ps.getConnection();
+        ps.setArray(first, connection.createArrayOf("int8",
+                entries.stream().map(TimeEntryUpsert::id).toArray(Long[]::new)));
+        ps.setArray(first + 1, connection.createArrayOf("int8",
+                entries.stream().map(TimeEntryUpsert::projectId).toArray(Long[]::new)));
+        ps.setArray(first + 2, connection.createArrayOf("text",
+                entries.stream().map(TimeEntryUpsert::title).toArray(String[]::new)));
+        ps.setArray(first + 3, connection.createArrayOf("text",
+                entries.stream().map(TimeEntryUpsert::description).toArray(String[]::new)));
+        ps.setArray(first + 4, connection.createArrayOf("text",
+                entries.stream().map(e -> e.startTime().toString()).toArray(String[]::new)));
+        ps.setArray(first + 5, connection.createArrayOf("text",
+                entries.stream().map(e -> Objects.toString(e.endTime(), null)).toArray(String[]::new)));
+        ps.setArray(first + 6, connection.createArrayOf("int4",
+                entries.stream().map(TimeEntryUpsert::durationMinutes).toArray(Integer[]::new)));
+    }
+
+    private static LocalDateTime toLocalDateTime(Timestamp timestamp) {
+        return timestamp != null ? timestamp.toLocalDateTime() : null;
+    }
+}
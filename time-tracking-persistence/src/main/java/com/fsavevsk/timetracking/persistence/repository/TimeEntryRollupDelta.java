@@ -0,0 +1,67 @@
+package com.fsavevsk.timetracking.persistence.repository;
+
+import com.fsavevsk.timetracking.persistence.entity.TimeEntryEntity;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+
+/**
+ * Increment to apply to one rollup bucket. Entries are merged per bucket before they are sent, so a
+ * batch never upserts the same row twice.
+ * <p>
+ * An entry occupies the minutes {@code [start truncated to the minute, + durationMinutes)}; each hourly bucket
+ * gets the minutes of that span it overlaps (see V11__apportion_rollups_by_overlap.sql). Its count and start
+ * go to the bucket it starts in, so later buckets of a long entry carry minutes only and no {@code lastStart}.
+ */
+public record TimeEntryRollupDelta(
+        Long projectId,
+        String userId,
+        LocalDateTime bucketStart,
+        long minutes,
+        int entryCount,
+        LocalDateTime lastStart
+) {
+
+    public static List<TimeEntryRollupDelta> forEntries(Collection<TimeEntryEntity> entries) {
+        return merge(entries.stream()
+                .flatMap(e -> of(e.getProject().getId(), e.getUserId(), e.getStartTime(), e.getDurationMinutes()).stream())
+                .toList());
+    }
+
+    /** The contribution of a single entry to each bucket it overlaps, in bucket order. */
+    public static List<TimeEntryRollupDelta> of(Long projectId, String userId, LocalDateTime startTime,
+                                                Integer durationMinutes) {
+        LocalDateTime spanStart = startTime.truncatedTo(ChronoUnit.MINUTES);
+        LocalDateTime spanEnd = spanStart.plusMinutes(durationMinutes != null ? durationMinutes : 0);
+        LocalDateTime bucket = startTime.truncatedTo(ChronoUnit.HOURS);
+        List<TimeEntryRollupDelta> deltas = new ArrayList<>();
+        deltas.add(new TimeEntryRollupDelta(projectId, userId, bucket, overlap(spanStart, spanEnd, bucket), 1, startTime));
+        for (bucket = bucket.plusHours(1); bucket.isBefore(spanEnd); bucket = bucket.plusHours(1)) {
+            deltas.add(new TimeEntryRollupDelta(projectId, userId, bucket, overlap(spanStart, spanEnd, bucket), 0, null));
+        }
+        return deltas;
+    }
+
+    private static long overlap(LocalDateTime spanStart, LocalDateTime spanEnd, LocalDateTime bucket) {
+        LocalDateTime from = spanStart.isAfter(bucket) ? spanStart : bucket;
+        LocalDateTime to = spanEnd.isBefore(bucket.plusHours(1)) ? spanEnd : bucket.plusHours(1);
+        return Math.max(0, ChronoUnit.MINUTES.between(from, to));
+    }
+
+    /** Sums the deltas per bucket, keeping the order in which buckets first appear. */
+    public static List<TimeEntryRollupDelta> merge(Collection<TimeEntryRollupDelta> deltas) {
+        Map<List<Object>, TimeEntryRollupDelta> merged = new LinkedHashMap<>();
+        for (TimeEntryRollupDelta delta : deltas) {
+            merged.merge(List.of(delta.projectId(), delta.userId(), delta.bucketStart()), delta, TimeEntryRollupDelta::plus);
+        }
+        return List.copyOf(merged.values());
+    }
+
+    private TimeEntryRollupDelta plus(TimeEntryRollupDelta other) {
+        LocalDateTime last = other.lastStart == null || (lastStart != null && lastStart.isAfter(other.lastStart))
+                ? lastStart : other.lastStart;
+        return new TimeEntryRollupDelta(projectId, userId, bucketStart,
+                minutes + other.minutes, entryCount + other.entryCount, last);
+    }
+}
@@ -0,0 +1,121 @@
+package com.fsavevsk.timetracking.persistence.repository;
+
+import com.fsavevsk.timetracking.persistence.entity.TimeEntryRollupEntity;
+import com.fsavevsk.timetracking.persistence.entity.TimeEntryRollupId;
+import com.fsavevsk.timetracking.persistence.projection.OverviewAggregate;
+import com.fsavevsk.timetracking.persistence.projection.ProjectMinutes;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface TimeEntryRollupRepository
+        extends JpaRepository<TimeEntryRollupEntity, TimeEntryRollupId>, TimeEntryRollupRepositoryCustom {
+
+    /*
+     * Report reads. Windows are whole hours, so "bucketStart in [from, to)" sums exactly the minutes worked
+     * in [from, to), long entries apportioned by overlap, and counts the entries starting in it.
+     */
+    @Query("""
+              select coalesce(sum(r.minutes), 0)
+              from TimeEntryRollupEntity r
+              where r.bucketStart >= :from and r.bucketStart < :to
+            """)
+    Long sumMinutesBetweenAll(LocalDateTime from, LocalDateTime to);
+
+    @Query("""
+              select new com.fsavevsk.timetracking.persistence.projection.ProjectMinutes(p.id, p.name, sum(r.minutes))
+              from TimeEntryRollupEntity r
+              join ProjectEntity p on p.id = r.projectId
+              where r.bucketStart >= :from and r.bucketStart < :to
+              group by p.id, p.name
+              order by sum(r.minutes) desc, p.id
+            """)
+    List<ProjectMinutes> topProjectsByMinutes(LocalDateTime from, LocalDateTime to, Limit limit);
+
+    /*
+     * The whole overview in one round trip: project count, today's and this week's minutes, and the
+     * top :topN projects of the week (LIMIT applied in SQL). Rollups are read once, over the envelope
+     * of both windows. Aliases are quoted because Postgres folds unquoted ones to lower case; the bounds of
+     * least/greatest are cast because Postgres cannot infer a parameter's type there.
+     */
+    @Query(value = """
+            WITH per_project AS (
+                SELECT r.project_id,
+                       sum(r.minutes) FILTER (WHERE r.bucket_start >= :dayStart AND r.bucket_start < :dayEnd) AS minutes_today,
+                       sum(r.minutes) FILTER (WHERE r.bucket_start >= :weekStart AND r.bucket_start < :weekEnd) AS minutes_week
+                FROM time_entry_hourly_rollups r
+                WHERE r.bucket_start >= least(CAST(:dayStart AS timestamp), CAST(:weekStart AS timestamp))
+                  AND r.bucket_start < greatest(CAST(:dayEnd AS timestamp), CAST(:weekEnd AS timestamp))
+                GROUP BY r.project_id
+            ),
+            totals AS (
+                SELECT (SELECT count(*) FROM projects)            AS total_projects,
+                       coalesce(sum(minutes_today), 0)::bigint    AS minutes_today,
+                       coalesce(sum(minutes_week), 0)::bigint     AS minutes_week
+                FROM per_project
+            ),
+            top_projects AS (
+                SELECT pp.project_id, p.name, pp.minutes_week::bigint AS minutes_week
+                FROM per_project pp
+                JOIN projects p ON p.id = pp.project_id
+                WHERE pp.minutes_week IS NOT NULL
+                ORDER BY pp.minutes_week DESC, pp.project_id
+                LIMIT :topN
+            )
+            SELECT t.total_projects AS "totalProjects",
+                   t.minutes_today  AS "minutesToday",
+                   t.minutes_week   AS "minutesWeek",
+                   tp.project_id    AS "projectId",
+                   tp.name          AS "projectName",
+                   tp.minutes_week  AS "projectMinutes"
+            FROM totals t
+            LEFT JOIN top_projects tp ON true
+            ORDER BY tp.minutes_week DESC NULLS LAST, tp.project_id
+            """, nativeQuery = true)
+    List<OverviewAggregate> overview(@Param("dayStart") LocalDateTime dayStart,
+                                     @Param("dayEnd") LocalDateTime dayEnd,
+                                     @Param("weekStart") LocalDateTime weekStart,
+                                     @Param("weekEnd") LocalDateTime weekEnd,
+                                     @Param("topN") int topN);
+
+    /*
+     * Full rebuild. The SHARE lock on time_entries blocks entry writes (and thus concurrent rollup
+     * updates) until the surrounding transaction commits, so the rebuilt table matches a single snapshot.
+     */
+    @Modifying
+    @Query(value = "LOCK TABLE time_entries IN SHARE MODE", nativeQuery = true)
+    void lockEntriesForRebuild();
+
+    @Modifying
+    @Query(value = "DELETE FROM time_entry_hourly_rollups", nativeQuery = true)
+    int deleteAllRollups();
+
+    /* Apportions every entry over the hours it overlaps, as TimeEntryRollupDelta.of does one at a time. */
+    @Modifying
+    @Query(value = """
+            INSERT INTO time_entry_hourly_rollups (project_id, user_id, bucket_start, minutes, entry_count, last_start)
+            SELECT s.project_id,
+                   s.user_id,
+                   b.bucket,
+                   sum(extract(epoch FROM least(s.span_end, b.bucket + interval '1 hour') - greatest(s.span_start, b.bucket)) / 60)::bigint,
+                   count(*) FILTER (WHERE b.bucket = date_trunc('hour', s.start_time)),
+                   max(s.start_time) FILTER (WHERE b.bucket = date_trunc('hour', s.start_time))
+            FROM (SELECT project_id,
+                         user_id,
+                         start_time,
+                         date_trunc('minute', start_time) AS span_start,
+                         date_trunc('minute', start_time) + coalesce(duration_minutes, 0) * interval '1 minute' AS span_end
+                  FROM time_entries) s
+            CROSS JOIN LATERAL generate_series(date_trunc('hour', s.start_time),
+                                               greatest(date_trunc('hour', s.start_time), date_trunc('hour', s.span_end - interval '1 minute')),
+                                               interval '1 hour') AS b(bucket)
+            GROUP BY s.project_id, s.user_id, b.bucket
+            """, nativeQuery = true)
+    int insertAllFromEntries();
+
+}
@@ -0,0 +1,39 @@
+package com.fsavevsk.timetracking.persistence.repository;
+
+import com.fsavevsk.timetracking.persistence.projection.BucketMinutes;
+import com.fsavevsk.timetracking.persistence.projection.ProjectSummaryPage;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+public interface TimeEntryRollupRepositoryCustom {
+
+    /** Adds the deltas to their buckets with one batched {@code INSERT ... ON CONFLICT DO UPDATE}. */
+    void applyDeltas(Collection<TimeEntryRollupDelta> deltas);
+
+    /**
+     * Takes the deltas of entries that were changed or removed back out of their buckets, in two statements,
+     * and drops buckets left empty. Call it after the entries were written: each bucket's {@code last_start}
+     * is recomputed from the entries it still holds. Deltas must be merged (one per bucket).
+     */
+    void removeDeltas(Collection<TimeEntryRollupDelta> deltas);
+
+    /**
+     * Minutes worked in {@code [from, to)} (whole hours), summed per {@code date_trunc(field)}
+     * bucket in order; buckets without minutes are absent. {@code projectId} and {@code userId} are
+     * optional filters.
+     */
+    List<BucketMinutes> minutesPerBucket(String field, LocalDateTime from, LocalDateTime to, Long projectId,
+                                         String userId);
+
+    /**
+     * Per project: minutes and entries of the week {@code [weekStart, weekEnd)}, minutes and last entry of the
+     * range {@code [rangeStart, rangeEnd)}; idle projects come back with zeros. Ordering, name filter, page
+     * and total of {@code query} are applied in the one statement.
+     */
+    ProjectSummaryPage summarizeProjects(LocalDateTime weekStart, LocalDateTime weekEnd,
+                                         LocalDateTime rangeStart, LocalDateTime rangeEnd,
+                                         ProjectSummaryQuery query);
+
+}
@@ -0,0 +1,244 @@
+package com.fsavevsk.timetracking.persistence.repository;
+
+import com.fsavevsk.timetracking.persistence.projection.BucketMinutes;
+import com.fsavevsk.timetracking.persistence.projection.ProjectSummary;
+import com.fsavevsk.timetracking.persistence.projection.ProjectSummaryAggregate;
+import com.fsavevsk.timetracking.persistence.projection.ProjectSummaryPage;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+@RequiredArgsConstructor
+class TimeEntryRollupRepositoryImpl implements TimeEntryRollupRepositoryCustom {
+
+    private static final String UPSERT = """
+            INSERT INTO time_entry_hourly_rollups AS r
+                (project_id, user_id, bucket_start, minutes, entry_count, last_start)
+            VALUES (?, ?, ?, ?, ?, ?)
+            ON CONFLICT (project_id, user_id, bucket_start) DO UPDATE
+            SET minutes     = r.minutes + excluded.minutes,
+                entry_count = r.entry_count + excluded.entry_count,
+                last_start  = greatest(r.last_start, excluded.last_start)
+            """;
+
+    // last_start cannot be decremented, so it is recomputed from the raw entries of each touched bucket
+    private static final String SUBTRACT = """
+            UPDATE time_entry_hourly_rollups r
+            SET minutes     = r.minutes - d.minutes,
+                entry_count = r.entry_count - d.entry_count,
+                last_start  = (SELECT max(te.start_time)
+                               FROM time_entries te
+                               WHERE te.project_id = r.project_id
+                                 AND te.user_id = r.user_id
+                                 AND te.start_time >= r.bucket_start
+                                 AND te.start_time < r.bucket_start + interval '1 hour')
+            FROM unnest(?::bigint[], ?::text[], ?::timestamp[], ?::bigint[], ?::int[])
+                 AS d(project_id, user_id, bucket_start, minutes, entry_count)
+            WHERE r.project_id = d.project_id AND r.user_id = d.user_id AND r.bucket_start = d.bucket_start
+            """;
+
+    private static final String DELETE_EMPTY = """
+            DELETE FROM time_entry_hourly_rollups r
+            USING unnest(?::bigint[], ?::text[], ?::timestamp[]) AS d(project_id, user_id, bucket_start)
+            WHERE r.project_id = d.project_id AND r.user_id = d.user_id AND r.bucket_start = d.bucket_start
+              AND r.entry_count <= 0 AND r.minutes <= 0
+            """;
+
+    /*
+     * One pass over the hourly buckets of the window (idx_teh_bucket_inc, or the primary key when both filters
+     * are set). date_trunc on a timestamptz works in the session time zone, the one LocalDateTime start times
+     * are written in, so days and months follow that zone's calendar across DST transitions.
+     */
+    private static final String MINUTES_PER_BUCKET = """
+            SELECT date_trunc(?, r.bucket_start)::timestamp AS bucket, sum(r.minutes) AS minutes
+            FROM time_entry_hourly_rollups r
+            WHERE r.bucket_start >= ? AND r.bucket_start < ?%s
+            GROUP BY 1
+            ORDER BY 1
+            """;
+
+    /*
+     * Windows are applied in the join, so only buckets inside the week or the range are read; idle projects
+     * still come back as zero rows. The envelope bound (least/greatest) is a single sargable range for
+     * idx_teh_project_bucket_inc, the OR then drops buckets in the gap between disjoint windows. Order, keyset
+     * and page are applied to the aggregated rows, so only the page leaves the database.
+     */
+    private static final String SUMMARIZE_PROJECTS = """
+            WITH summary AS (
+                SELECT p.id AS project_id,
+                       p.name AS project_name,
+                       coalesce(sum(r.minutes) FILTER (WHERE r.bucket_start >= :weekStart AND r.bucket_start < :weekEnd), 0)::bigint AS minutes_week,
+                       coalesce(sum(r.minutes) FILTER (WHERE r.bucket_start >= :rangeStart AND r.bucket_start < :rangeEnd), 0)::bigint AS minutes_range,
+                       coalesce(sum(r.entry_count) FILTER (WHERE r.bucket_start >= :weekStart AND r.bucket_start < :weekEnd), 0)::bigint AS entries_week,
+                       (max(r.last_start) FILTER (WHERE r.bucket_start >= :rangeStart AND r.bucket_start < :rangeEnd))::timestamp AS last_entry_at
+                FROM projects p
+                LEFT JOIN time_entry_hourly_rollups r
+                  ON r.project_id = p.id
+                 AND r.bucket_start >= least(:weekStart, :rangeStart)
+                 AND r.bucket_start < greatest(:weekEnd, :rangeEnd)
+                 AND ((r.bucket_start >= :weekStart AND r.bucket_start < :weekEnd)
+                   OR (r.bucket_start >= :rangeStart AND r.bucket_start < :rangeEnd))%s
+                GROUP BY p.id, p.name)
+            %s
+            """;
+
+    private static final String SUMMARY_PAGE = "SELECT * FROM summary s%s ORDER BY %s, s.project_id%s";
+
+    /*
+     * The count is read by the same statement, and thus from the same snapshot, as the page. The lateral join
+     * keeps one row carrying it when the page is empty; that row has no project.
+     */
+    private static final String WITH_TOTAL = """
+            SELECT s.*, t.total
+            FROM (SELECT count(*) AS total FROM summary) t
+            LEFT JOIN LATERAL (%s) s ON true
+            ORDER BY %s, s.project_id""";
+
+    private static final String WITHOUT_TOTAL = "SELECT s.*, NULL::bigint AS total FROM (%s) s ORDER BY %s, s.project_id";
+
+    private static final int BATCH_SIZE = 500;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void applyDeltas(Collection<TimeEntryRollupDelta> deltas) {
+        if (deltas.isEmpty()) return;
+        // runs on the connection bound to the surrounding JPA transaction
+        jdbcTemplate.batchUpdate(UPSERT, deltas, BATCH_SIZE, (ps, d) -> {
+            ps.setLong(1, d.projectId());
+            ps.setString(2, d.userId());
+            ps.setObject(3, d.bucketStart());
+            ps.setLong(4, d.minutes());
+            ps.setInt(5, d.entryCount());
+            // null for the later buckets of a long entry; greatest() then keeps the stored value
+            if (d.lastStart() != null) ps.setObject(6, d.lastStart());
+            else ps.setNull(6, Types.TIMESTAMP);
+        });
+    }
+
+    @Override
+    public void removeDeltas(Collection<TimeEntryRollupDelta> deltas) {
+        if (deltas.isEmpty()) return;
+        Long[] projectIds = deltas.stream().map(TimeEntryRollupDelta::projectId).toArray(Long[]::new);
+        String[] userIds = deltas.stream().map(TimeEntryRollupDelta::userId).toArray(String[]::new);
+        // buckets travel as text and are cast in the session time zone, as pgjdbc binds a LocalDateTime
+        String[] buckets = deltas.stream().map(d -> d.bucketStart().toString()).toArray(String[]::new);
+        jdbcTemplate.update(SUBTRACT, ps -> {
+            ps.setArray(1, ps.getConnection().createArrayOf("int8", projectIds));
+            ps.setArray(2, ps.getConnection().createArrayOf("text", userIds));
+            ps.setArray(3, ps.getConnection().createArrayOf("text", buckets));
+            ps.setArray(4, ps.getConnection().createArrayOf("int8",
+                    deltas.stream().map(TimeEntryRollupDelta::minutes).toArray(Long[]::new)));
+            ps.setArray(5, ps.getConnection().createArrayOf("int4",
+                    deltas.stream().map(TimeEntryRollupDelta::entryCount).toArray(Integer[]::new)));
+        });
+        jdbcTemplate.update(DELETE_EMPTY, ps -> {
+            ps.setArray(1, ps.getConnection().createArrayOf("int8", projectIds));
+            ps.setArray(2, ps.getConnection().createArrayOf("text", userIds));
+            ps.setArray(3, ps.getConnection().createArrayOf("text", buckets));
+        });
+    }
+
+    @Override
+    public List<BucketMinutes> minutesPerBucket(String field, LocalDateTime from, LocalDateTime to,
+                                                Long projectId, String userId) {
+        // filters are left out of the statement rather than disabled with "? IS NULL OR", which a generic plan cannot use
+        List<Object> args = new ArrayList<>(List.of(field, from, to));
+        StringBuilder filters = new StringBuilder();
+        if (projectId != null) {
+            filters.append(" AND r.project_id = ?");
+            args.add(projectId);
+        }
+        if (userId != null) {
+            filters.append(" AND r.user_id = ?");
+            args.add(userId);
+        }
+        return jdbcTemplate.query(MINUTES_PER_BUCKET.formatted(filters),
+                (rs, i) -> new BucketMinutes(rs.getObject("bucket", LocalDateTime.class), rs.getLong("minutes")),
+                args.toArray());
+    }
+
+    @Override
+    public ProjectSummaryPage summarizeProjects(LocalDateTime weekStart, LocalDateTime weekEnd,
+                                                LocalDateTime rangeStart, LocalDateTime rangeEnd,
+                                                ProjectSummaryQuery query) {
+        var params = new MapSqlParameterSource()
+                .addValue("weekStart", weekStart)
+                .addValue("weekEnd", weekEnd)
+                .addValue("rangeStart", rangeStart)
+                .addValue("rangeEnd", rangeEnd);
+        // as in minutesPerBucket, clauses that do not apply are left out of the statement
+        String nameFilter = "";
+        if (query.nameContains() != null) {
+            nameFilter = " WHERE upper(p.name) LIKE upper(:name) ESCAPE '\\'";
+            params.addValue("name", "%" + escapeLike(query.nameContains()) + "%");
+        }
+        String key = sortKey(query.sort());
+        String keyset = "";
+        if (query.afterKey() != null) {
+            keyset = " WHERE %1$s %2$s CAST(:afterKey AS %3$s) OR (%1$s = CAST(:afterKey AS %3$s) AND s.project_id > :afterId)"
+                    .formatted(key, query.descending() ? "<" : ">", sortType(query.sort()));
+            params.addValue("afterKey", query.afterKey()).addValue("afterId", query.afterProjectId());
+        }
+        String page = "";
+        if (query.limit() != null) {
+            page += " LIMIT :limit";
+            params.addValue("limit", query.limit());
+        }
+        if (query.offset() > 0) {
+            page += " OFFSET :offset";
+            params.addValue("offset", query.offset());
+        }
+        String order = key + (query.descending() ? " DESC" : "");
+        String pageSql = SUMMARY_PAGE.formatted(keyset, order, page);
+        String sql = SUMMARIZE_PROJECTS.formatted(nameFilter,
+                (query.countTotal() ? WITH_TOTAL : WITHOUT_TOTAL).formatted(pageSql, order));
+
+        var rows = new ArrayList<ProjectSummaryAggregate>();
+        Long[] total = new Long[1];
+        new NamedParameterJdbcTemplate(jdbcTemplate).query(sql, params, rs -> {
+            total[0] = rs.getObject("total", Long.class);
+            Long projectId = rs.getObject("project_id", Long.class);
+            if (projectId == null) return;
+            rows.add(new ProjectSummary(
+                    projectId,
+                    rs.getString("project_name"),
+                    rs.getLong("minutes_week"),
+                    rs.getLong("minutes_range"),
+                    rs.getLong("entries_week"),
+                    rs.getObject("last_entry_at", LocalDateTime.class)));
+        });
+        return new ProjectSummaryPage(rows, total[0]);
+    }
+
+    // never null, so keyset comparisons need no NULL handling; see ProjectSummarySort
+    private static String sortKey(ProjectSummarySort sort) {
+        return switch (sort) {
+            case PROJECT_ID -> "s.project_id";
+            case PROJECT_NAME -> "s.project_name COLLATE \"C\"";
+            case MINUTES_WEEK -> "s.minutes_week";
+            case MINUTES_RANGE -> "s.minutes_range";
+            case ENTRIES_WEEK -> "s.entries_week";
+            case LAST_ENTRY_AT -> "coalesce(s.last_entry_at, '-infinity')";
+        };
+    }
+
+    private static String sortType(ProjectSummarySort sort) {
+        return switch (sort) {
+            case PROJECT_ID, MINUTES_WEEK, MINUTES_RANGE, ENTRIES_WEEK -> "bigint";
+            case PROJECT_NAME -> "text";
+            case LAST_ENTRY_AT -> "timestamp";
+        };
+    }
+
+    private static String escapeLike(String s) {
+        return s.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+}
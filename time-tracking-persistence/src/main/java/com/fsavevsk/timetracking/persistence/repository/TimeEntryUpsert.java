@@ -0,0 +1,17 @@
+package com.fsavevsk.timetracking.persistence.repository;
+
+import java.time.LocalDateTime;
+
+/**
+ * Full contents of one entry to insert or overwrite, id included; written set-based through
+ * {@link TimeEntryRepositoryCustom#insertEntries} and {@link TimeEntryRepositoryCustom#updateEntries}.
+ */
+public record TimeEntryUpsert(
+        Long id,
+        Long projectId,
+        String title,
+        String description,
+        LocalDateTime startTime,
+        LocalDateTime endTime,
+        Integer durationMinutes
+) {}
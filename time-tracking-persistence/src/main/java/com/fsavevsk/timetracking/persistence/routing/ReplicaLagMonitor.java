@@ -0,0 +1,79 @@
+package com.fsavevsk.timetracking.persistence.routing;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures replay lag of every replica on a fixed interval. A replica that fails the check has no lag
+ * until it passes again, which keeps it out of rotation.
+ * <p>
+ * Lag is the age of the last replayed transaction, or zero once everything received has been replayed
+ * (an idle primary would otherwise make every replica look stale). A server that is not in recovery,
+ * e.g. a second local instance in development, reports zero.
+ */
+public class ReplicaLagMonitor implements AutoCloseable {
+
+    private static final String LAG_SQL = """
+            SELECT CASE
+                       WHEN NOT pg_is_in_recovery() THEN 0
+                       WHEN pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0
+                       ELSE coalesce(extract(epoch FROM now() - pg_last_xact_replay_timestamp()) * 1000, 0)
+                   END::bigint
+            """;
+
+    private final Map<String, JdbcTemplate> replicas = new HashMap<>();
+    private final Duration interval;
+    private final ScheduledExecutorService scheduler;
+    private volatile Map<String, Duration> lags = Map.of();
+
+    public ReplicaLagMonitor(Map<String, DataSource> replicas, Duration interval) {
+        replicas.forEach((name, dataSource) -> {
+            var jdbc = new JdbcTemplate(dataSource);
+            jdbc.setQueryTimeout(Math.max(1, (int) interval.toSeconds()));
+            this.replicas.put(name, jdbc);
+        });
+        this.interval = interval;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform()
+                .name("replica-lag-monitor").daemon(true).factory());
+    }
+
+    public void start() {
+        scheduler.scheduleWithFixedDelay(this::poll, 0, interval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    /** Runs one check of every replica; normally driven by the scheduler. */
+    public void poll() {
+        Map<String, Duration> measured = new HashMap<>();
+        replicas.forEach((name, jdbc) -> {
+            try {
+                Long millis = jdbc.queryForObject(LAG_SQL, Long.class);
+                measured.put(name, Duration.ofMillis(millis != null ? millis : 0));
+            } catch (RuntimeException e) {
+                // unreachable or failing: out of rotation until the next successful check
+            }
+        });
+        lags = Collections.unmodifiableMap(measured);
+    }
+
+    /** Last measured lag per healthy replica. */
+    public Map<String, Duration> lags() {
+        return lags;
+    }
+
+    public Duration interval() {
+        return interval;
+    }
+
+    @Override
+    public void close() {
+        scheduler.shutdownNow();
+    }
+}
@@ -0,0 +1,171 @@
+package com.fsavevsk.timetracking.persistence.routing;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Sends read-only transactions to a healthy replica (round robin) and everything else to the primary.
+ * <p>
+ * Must sit behind a {@code LazyConnectionDataSourceProxy}: the route is decided when the connection is
+ * fetched, and only the lazy proxy defers that until the transaction's read-only flag is known.
+ * <p>
+ * Read your writes: when a read-write transaction commits, its writer (see {@link WriterKeyResolver}) is
+ * remembered. That writer's reads only go to replicas whose last measured lag, plus one check interval of
+ * staleness, is shorter than the time since the commit; otherwise they stay on the primary.
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    public static final String PRIMARY = "primary";
+
+    private static final Object ROUTE_RESOURCE = new Object();
+    private static final ThreadLocal<String> PINNED = new ThreadLocal<>();
+    private static final ThreadLocal<Boolean> STICKY = new ThreadLocal<>();
+    private static final int PRUNE_THRESHOLD = 1024;
+
+    private final List<String> replicaNames;
+    private final ReplicaLagMonitor lagMonitor;
+    private final Duration maxLag;
+    private final Supplier<WriterKeyResolver> writerKeys;
+    private final Clock clock;
+    private final Map<String, Instant> lastWrites = new ConcurrentHashMap<>();
+    private final AtomicInteger next = new AtomicInteger();
+
+    public ReplicaRoutingDataSource(DataSource primary, Map<String, DataSource> replicas, ReplicaLagMonitor lagMonitor,
+                                    Duration maxLag, Supplier<WriterKeyResolver> writerKeys, Clock clock) {
+        Map<Object, Object> targets = new HashMap<>(replicas);
+        targets.put(PRIMARY, primary);
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+        this.replicaNames = List.copyOf(replicas.keySet());
+        this.lagMonitor = lagMonitor;
+        this.maxLag = maxLag;
+        this.writerKeys = writerKeys;
+        this.clock = clock;
+    }
+
+    /** Route of the current transaction's connection; null before it has one or when routing is off. */
+    public static String currentRoute() {
+        return (String) TransactionSynchronizationManager.getResource(ROUTE_RESOURCE);
+    }
+
+    /**
+     * Runs {@code body} with every connection fetched on this thread sent to {@code route}, e.g. so that
+     * tasks importing an exported snapshot reach the server that exported it. A null route does not pin.
+     */
+    public static <T> T pinnedTo(String route, Supplier<T> body) {
+        if (route == null) {
+            return body.get();
+        }
+        String previous = PINNED.get();
+        PINNED.set(route);
+        try {
+            return body.get();
+        } finally {
+            if (previous == null) PINNED.remove();
+            else PINNED.set(previous);
+        }
+    }
+
+    /**
+     * Runs {@code body} pinned to whichever route its first connection is given, so that consecutive
+     * read-only transactions never observe a replica older than one an earlier transaction already saw.
+     * Meant for reads only: a read-write transaction started in {@code body} after a replica was chosen
+     * would be sent there too.
+     */
+    public static <T> T sticky(Supplier<T> body) {
+        if (PINNED.get() != null) {
+            return body.get();
+        }
+        STICKY.set(Boolean.TRUE);
+        try {
+            return body.get();
+        } finally {
+            STICKY.remove();
+            PINNED.remove();
+        }
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        String route = PINNED.get();
+        if (route == null) {
+            route = TransactionSynchronizationManager.isCurrentTransactionReadOnly() ? readRoute() : PRIMARY;
+            if (STICKY.get() != null) {
+                PINNED.set(route);
+            }
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            track(route, !TransactionSynchronizationManager.isCurrentTransactionReadOnly());
+        }
+        return route;
+    }
+
+    private String readRoute() {
+        Map<String, Duration> lags = lagMonitor.lags();
+        Duration sinceWrite = sinceLastWrite();
+        int start = Math.floorMod(next.getAndIncrement(), Math.max(1, replicaNames.size()));
+        for (int i = 0; i < replicaNames.size(); i++) {
+            String name = replicaNames.get((start + i) % replicaNames.size());
+            Duration lag = lags.get(name);
+            if (lag == null || lag.compareTo(maxLag) > 0) continue;
+            if (sinceWrite != null && lag.plus(lagMonitor.interval()).compareTo(sinceWrite) >= 0) continue;
+            return name;
+        }
+        return PRIMARY;
+    }
+
+    private Duration sinceLastWrite() {
+        String writer = writerKey();
+        Instant last = writer != null ? lastWrites.get(writer) : null;
+        return last != null ? Duration.between(last, clock.instant()) : null;
+    }
+
+    private void track(String route, boolean writing) {
+        boolean exposeRoute = !TransactionSynchronizationManager.hasResource(ROUTE_RESOURCE);
+        String writer = writing ? writerKey() : null;
+        if (!exposeRoute && writer == null) {
+            return;
+        }
+        if (exposeRoute) {
+            TransactionSynchronizationManager.bindResource(ROUTE_RESOURCE, route);
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                if (writer != null) recordWrite(writer);
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                if (exposeRoute) TransactionSynchronizationManager.unbindResourceIfPossible(ROUTE_RESOURCE);
+            }
+        });
+    }
+
+    private void recordWrite(String writer) {
+        Instant now = clock.instant();
+        lastWrites.put(writer, now);
+        if (lastWrites.size() > PRUNE_THRESHOLD) {
+            // older writes can no longer keep anyone off a replica that is within maxLag
+            Instant horizon = now.minus(maxLag).minus(lagMonitor.interval());
+            lastWrites.values().removeIf(at -> at.isBefore(horizon));
+        }
+    }
+
+    private String writerKey() {
+        WriterKeyResolver resolver = writerKeys.get();
+        return resolver != null ? resolver.currentWriterKey() : null;
+    }
+}
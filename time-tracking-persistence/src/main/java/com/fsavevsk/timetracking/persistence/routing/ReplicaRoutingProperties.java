@@ -0,0 +1,29 @@
+package com.fsavevsk.timetracking.persistence.routing;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Read replicas that serve read-only transactions. Each replica gets its own Hikari pool, configured like
+ * the primary's ({@code spring.datasource.hikari}) except for the connection settings given here; a missing
+ * username or password falls back to the primary's. Replicas whose measured lag exceeds {@code maxLag},
+ * or that cannot be reached, are skipped until the next check finds them healthy again.
+ */
+@ConfigurationProperties(prefix = "time-tracking.datasource.read-replicas")
+public record ReplicaRoutingProperties(
+        @DefaultValue("false") boolean enabled,
+        @DefaultValue List<Replica> replicas,
+        @DefaultValue("5s") Duration maxLag,
+        @DefaultValue("1s") Duration lagCheckInterval
+) {
+    public record Replica(
+            String name,
+            String url,
+            String username,
+            String password,
+            Integer maximumPoolSize
+    ) {}
+}
@@ -0,0 +1,192 @@
+package com.fsavevsk.timetracking.persistence.routing;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.aop.Advisor;
+import org.springframework.aop.support.ComposablePointcut;
+import org.springframework.aop.support.DefaultPointcutAdvisor;
+import org.springframework.aop.support.annotation.AnnotationMatchingPointcut;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.boot.autoconfigure.condition.AnyNestedCondition;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.jdbc.JdbcConnectionDetails;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Conditional;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.annotation.Role;
+import org.springframework.core.Ordered;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.time.Clock;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Replaces the auto-configured DataSource when read replicas or workload pools are enabled. The primary
+ * pool is built from {@code spring.datasource.*} as Boot would build it; the application-wide DataSource
+ * is a lazy proxy over the routing layers, so JPA, JdbcTemplate and Flyway all go through them:
+ * <pre>
+ * lazy proxy -> ReplicaRoutingDataSource -> replicas (read-only transactions)
+ *                                        -> WorkloadRoutingDataSource -> workload pools / primary pool
+ * </pre>
+ * Either layer is left out when its feature is off. Extra pools report Hikari metrics under their pool name.
+ */
+@Configuration(proxyBeanMethods = false)
+@Conditional(RoutingDataSourceConfiguration.RoutingEnabled.class)
+@EnableConfigurationProperties({ReplicaRoutingProperties.class, WorkloadPoolsProperties.class})
+public class RoutingDataSourceConfiguration {
+
+    private static final String REPLICAS = "time-tracking.datasource.read-replicas";
+    private static final String WORKLOADS = "time-tracking.datasource.workloads";
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    HikariDataSource primaryDataSource(DataSourceProperties properties,
+                                       ObjectProvider<JdbcConnectionDetails> connectionDetails) {
+        JdbcConnectionDetails details = connectionDetails.getIfAvailable();
+        var builder = DataSourceBuilder.create(properties.getClassLoader()).type(HikariDataSource.class);
+        if (details != null) {
+            builder.driverClassName(details.getDriverClassName())
+                    .url(details.getJdbcUrl())
+                    .username(details.getUsername())
+                    .password(details.getPassword());
+        } else {
+            builder.driverClassName(properties.determineDriverClassName())
+                    .url(properties.determineUrl())
+                    .username(properties.determineUsername())
+                    .password(properties.determinePassword());
+        }
+        HikariDataSource dataSource = builder.build();
+        dataSource.setPoolName("primary");
+        return dataSource;
+    }
+
+    @Bean(destroyMethod = "close")
+    @ConditionalOnProperty(prefix = WORKLOADS, name = "enabled", havingValue = "true")
+    Pools workloadPools(HikariDataSource primaryDataSource, WorkloadPoolsProperties properties,
+                        ObjectProvider<MeterRegistry> meterRegistry) {
+        Map<String, DataSource> pools = new LinkedHashMap<>();
+        properties.pools().forEach((name, settings) -> {
+            HikariConfig config = copyOf(primaryDataSource, name);
+            if (settings.maximumPoolSize() != null) config.setMaximumPoolSize(settings.maximumPoolSize());
+            if (settings.minimumIdle() != null) config.setMinimumIdle(settings.minimumIdle());
+            if (settings.connectionTimeout() != null) config.setConnectionTimeout(settings.connectionTimeout().toMillis());
+            pools.put(name, pool(config, meterRegistry.getIfAvailable()));
+        });
+        return new Pools(pools);
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = WORKLOADS, name = "enabled", havingValue = "true")
+    WorkloadRoutingDataSource workloadRoutingDataSource(HikariDataSource primaryDataSource, Pools workloadPools) {
+        return new WorkloadRoutingDataSource(primaryDataSource, workloadPools.pools());
+    }
+
+    @Bean
+    @Role(BeanDefinition.ROLE_INFRASTRUCTURE)
+    @ConditionalOnProperty(prefix = WORKLOADS, name = "enabled", havingValue = "true")
+    static Advisor workloadAdvisor() {
+        var pointcut = new ComposablePointcut(new AnnotationMatchingPointcut(Workload.class, true))
+                .union(new AnnotationMatchingPointcut(null, Workload.class, true));
+        var advisor = new DefaultPointcutAdvisor(pointcut, new WorkloadInterceptor());
+        // outside the transaction interceptor, so the class is set before any connection is fetched
+        advisor.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return advisor;
+    }
+
+    @Bean(destroyMethod = "close")
+    @ConditionalOnProperty(prefix = REPLICAS, name = "enabled", havingValue = "true")
+    Pools replicaPools(HikariDataSource primaryDataSource, ReplicaRoutingProperties properties,
+                       ObjectProvider<MeterRegistry> meterRegistry) {
+        Map<String, DataSource> pools = new LinkedHashMap<>();
+        for (ReplicaRoutingProperties.Replica replica : properties.replicas()) {
+            HikariConfig config = copyOf(primaryDataSource, "replica-" + replica.name());
+            config.setJdbcUrl(replica.url());
+            if (replica.username() != null) config.setUsername(replica.username());
+            if (replica.password() != null) config.setPassword(replica.password());
+            if (replica.maximumPoolSize() != null) config.setMaximumPoolSize(replica.maximumPoolSize());
+            config.setReadOnly(true);
+            pools.put(replica.name(), pool(config, meterRegistry.getIfAvailable()));
+        }
+        return new Pools(pools);
+    }
+
+    @Bean(initMethod = "start", destroyMethod = "close")
+    @ConditionalOnProperty(prefix = REPLICAS, name = "enabled", havingValue = "true")
+    ReplicaLagMonitor replicaLagMonitor(Pools replicaPools, ReplicaRoutingProperties properties) {
+        return new ReplicaLagMonitor(replicaPools.pools(), properties.lagCheckInterval());
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = REPLICAS, name = "enabled", havingValue = "true")
+    ReplicaRoutingDataSource replicaRoutingDataSource(HikariDataSource primaryDataSource,
+                                                      ObjectProvider<WorkloadRoutingDataSource> workloadRouting,
+                                                      Pools replicaPools,
+                                                      ReplicaLagMonitor replicaLagMonitor,
+                                                      ReplicaRoutingProperties properties,
+                                                      ObjectProvider<WriterKeyResolver> writerKeys,
+                                                      ObjectProvider<Clock> clock) {
+        DataSource writes = workloadRouting.getIfAvailable();
+        return new ReplicaRoutingDataSource(writes != null ? writes : primaryDataSource, replicaPools.pools(),
+                replicaLagMonitor, properties.maxLag(), writerKeys::getIfUnique, clock.getIfUnique(Clock::systemUTC));
+    }
+
+    @Bean
+    @Primary
+    DataSource dataSource(HikariDataSource primaryDataSource,
+                          ObjectProvider<WorkloadRoutingDataSource> workloadRouting,
+                          ObjectProvider<ReplicaRoutingDataSource> replicaRouting) {
+        DataSource target = replicaRouting.getIfAvailable();
+        if (target == null) target = workloadRouting.getIfAvailable();
+        return new LazyConnectionDataSourceProxy(target != null ? target : primaryDataSource);
+    }
+
+    private static HikariConfig copyOf(HikariDataSource primary, String poolName) {
+        var config = new HikariConfig();
+        primary.copyStateTo(config);
+        config.setPoolName(poolName);
+        return config;
+    }
+
+    private static HikariDataSource pool(HikariConfig config, MeterRegistry meterRegistry) {
+        // started on first use, so an unreachable server does not fail startup
+        var pool = new HikariDataSource();
+        config.copyStateTo(pool);
+        if (meterRegistry != null) {
+            pool.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+        }
+        return pool;
+    }
+
+    /** Extra pools by name, closed with the context. */
+    record Pools(Map<String, DataSource> pools) implements AutoCloseable {
+        @Override
+        public void close() {
+            pools.values().forEach(pool -> ((HikariDataSource) pool).close());
+        }
+    }
+
+    static class RoutingEnabled extends AnyNestedCondition {
+
+        RoutingEnabled() {
+            super(ConfigurationPhase.REGISTER_BEAN);
+        }
+
+        @ConditionalOnProperty(prefix = REPLICAS, name = "enabled", havingValue = "true")
+        static class Replicas {
+        }
+
+        @ConditionalOnProperty(prefix = WORKLOADS, name = "enabled", havingValue = "true")
+        static class Workloads {
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package com.fsavevsk.timetracking.persistence.routing;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Assigns a bean's methods (or a single method) to a workload class. When workload pools are enabled,
+ * connections fetched during the call come from that class's pool instead of the primary pool, so a
+ * saturated workload cannot starve the others. Classes without a configured pool use the primary pool.
+ */
+@Target({ElementType.TYPE, ElementType.METHOD})
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface Workload {
+
+    /** Reports, exports and other long-running aggregations. */
+    String ANALYTICS = "analytics";
+
+    String value();
+}
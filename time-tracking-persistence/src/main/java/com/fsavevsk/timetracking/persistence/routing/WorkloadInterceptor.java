@@ -0,0 +1,31 @@
+package com.fsavevsk.timetracking.persistence.routing;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+
+import java.lang.reflect.Method;
+
+/** Runs {@link Workload}-annotated calls under their workload class; a method annotation beats the class one. */
+public class WorkloadInterceptor implements MethodInterceptor {
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        Class<?> targetClass = invocation.getThis() != null ? AopUtils.getTargetClass(invocation.getThis()) : null;
+        Method method = AopUtils.getMostSpecificMethod(invocation.getMethod(), targetClass);
+        Workload workload = AnnotatedElementUtils.findMergedAnnotation(method, Workload.class);
+        if (workload == null && targetClass != null) {
+            workload = AnnotatedElementUtils.findMergedAnnotation(targetClass, Workload.class);
+        }
+        if (workload == null) {
+            return invocation.proceed();
+        }
+        String previous = Workloads.enter(workload.value());
+        try {
+            return invocation.proceed();
+        } finally {
+            Workloads.enter(previous);
+        }
+    }
+}
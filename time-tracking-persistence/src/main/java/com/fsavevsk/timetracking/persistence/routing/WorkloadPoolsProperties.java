@@ -0,0 +1,24 @@
+package com.fsavevsk.timetracking.persistence.routing;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Dedicated primary-database pools per {@link Workload} class, keyed by class name. Each pool starts from
+ * the primary's Hikari settings; the values here override size and how long a caller waits for a
+ * connection before failing. Work not assigned to a configured class keeps using the primary pool.
+ */
+@ConfigurationProperties(prefix = "time-tracking.datasource.workloads")
+public record WorkloadPoolsProperties(
+        @DefaultValue("false") boolean enabled,
+        @DefaultValue Map<String, Pool> pools
+) {
+    public record Pool(
+            Integer maximumPoolSize,
+            Integer minimumIdle,
+            Duration connectionTimeout
+    ) {}
+}
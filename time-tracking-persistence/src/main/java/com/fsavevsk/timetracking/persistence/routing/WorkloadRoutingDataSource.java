@@ -0,0 +1,24 @@
+package com.fsavevsk.timetracking.persistence.routing;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import javax.sql.DataSource;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Picks the pool of the current {@link Workloads workload class}; unknown or unset classes get the primary
+ * pool. Like {@link ReplicaRoutingDataSource} it relies on a lazy connection proxy in front of it.
+ */
+public class WorkloadRoutingDataSource extends AbstractRoutingDataSource {
+
+    public WorkloadRoutingDataSource(DataSource primary, Map<String, DataSource> pools) {
+        setTargetDataSources(new HashMap<>(pools));
+        setDefaultTargetDataSource(primary);
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return Workloads.current();
+    }
+}
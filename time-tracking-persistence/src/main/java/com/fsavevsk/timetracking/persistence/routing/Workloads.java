@@ -0,0 +1,37 @@
+package com.fsavevsk.timetracking.persistence.routing;
+
+import java.util.function.Supplier;
+
+/**
+ * The workload class of the current thread, set around {@link Workload}-annotated calls. Work handed to
+ * another thread has to carry it over explicitly with {@link #callAs}.
+ */
+public final class Workloads {
+
+    private static final ThreadLocal<String> CURRENT = new ThreadLocal<>();
+
+    private Workloads() {
+    }
+
+    /** Current workload class, or null for the default (primary) pool. */
+    public static String current() {
+        return CURRENT.get();
+    }
+
+    public static <T> T callAs(String workload, Supplier<T> body) {
+        String previous = enter(workload);
+        try {
+            return body.get();
+        } finally {
+            enter(previous);
+        }
+    }
+
+    /** Switches to {@code workload} and returns the class it replaced, for restoring with another enter. */
+    static String enter(String workload) {
+        String previous = CURRENT.get();
+        if (workload == null) CURRENT.remove();
+        else CURRENT.set(workload);
+        return previous;
+    }
+}
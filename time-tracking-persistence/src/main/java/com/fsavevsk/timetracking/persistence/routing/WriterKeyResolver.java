@@ -0,0 +1,10 @@
+package com.fsavevsk.timetracking.persistence.routing;
+
+/**
+ * Identifies who is writing, so that their reads can be kept on the primary until the replicas have
+ * caught up with their last commit. Returning null opts the current call out of read-your-writes tracking.
+ */
+@FunctionalInterface
+public interface WriterKeyResolver {
+    String currentWriterKey();
+}
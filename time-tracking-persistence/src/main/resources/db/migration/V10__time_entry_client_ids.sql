@@ -0,0 +1,13 @@
+-- Idempotent offline uploads. Clients name every entry with a UUID they generate (time-ordered, so new keys
+-- land at the right edge of the index); the first upload of a key claims an entry id for it, and retries
+-- find the claim and update or skip that entry instead of inserting it again.
+-- A table of its own because a unique key on the partitioned time_entries would have to include
+-- start_time, which an edit may change. Keys outlive their entries, so a late retry of an entry that has
+-- since been deleted cannot bring it back.
+CREATE TABLE IF NOT EXISTS time_entry_client_ids
+(
+    user_id   VARCHAR(50) NOT NULL,
+    client_id UUID        NOT NULL,
+    entry_id  BIGINT      NOT NULL,
+    PRIMARY KEY (user_id, client_id)
+);
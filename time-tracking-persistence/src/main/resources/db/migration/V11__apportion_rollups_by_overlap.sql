@@ -0,0 +1,38 @@
+-- Entries spanning several hours (an overnight shift, a long meeting) used to put all their minutes into the
+-- bucket of their start hour, so a shift from Sunday 22:00 to Monday 06:00 counted only for the week before.
+-- Each entry now occupies the minutes [date_trunc('minute', start_time), + duration_minutes) and every hourly
+-- bucket gets the minutes of that span it overlaps. Entry counts and last_start stay with the start bucket,
+-- so a bucket may hold minutes without entries. Every window of whole hours - all report windows - thereby
+-- sums the minutes worked inside it.
+
+-- Spans of the entries, for the in-memory report store: a day is reloaded with the entries overlapping it,
+-- including those that started days before. The expression must match TimeEntryRepositoryImpl.FACTS. It is
+-- taken in UTC: date_trunc over timestamptz depends on the session zone, and an index expression may not.
+CREATE INDEX IF NOT EXISTS idx_te_span_gist
+    ON time_entries USING gist (tsrange(date_trunc('minute', start_time AT TIME ZONE 'UTC'),
+                                        date_trunc('minute', start_time AT TIME ZONE 'UTC')
+                                            + coalesce(duration_minutes, 0) * interval '1 minute'));
+
+-- Rebuild the buckets with the same statement as TimeEntryRollupRepository.insertAllFromEntries
+DELETE FROM time_entry_hourly_rollups;
+
+INSERT INTO time_entry_hourly_rollups (project_id, user_id, bucket_start, minutes, entry_count, last_start)
+SELECT s.project_id,
+       s.user_id,
+       b.bucket,
+       sum(extract(epoch FROM least(s.span_end, b.bucket + interval '1 hour') - greatest(s.span_start, b.bucket)) / 60)::bigint,
+       count(*) FILTER (WHERE b.bucket = date_trunc('hour', s.start_time)),
+       max(s.start_time) FILTER (WHERE b.bucket = date_trunc('hour', s.start_time))
+FROM (SELECT project_id,
+             user_id,
+             start_time,
+             date_trunc('minute', start_time) AS span_start,
+             date_trunc('minute', start_time) + coalesce(duration_minutes, 0) * interval '1 minute' AS span_end
+      FROM time_entries) s
+CROSS JOIN LATERAL generate_series(date_trunc('hour', s.start_time),
+                                   greatest(date_trunc('hour', s.start_time), date_trunc('hour', s.span_end - interval '1 minute')),
+                                   interval '1 hour') AS b(bucket)
+GROUP BY s.project_id, s.user_id, b.bucket;
+
+-- every report over the changed buckets reads differently now
+UPDATE catalog_versions SET version = version + 1 WHERE name = 'time_entries';
@@ -0,0 +1,13 @@
+-- Tombstones are kept for a retention period only. The floor is the lowest horizon a change token may carry
+-- and still get deletes: pruning raises it past the tombstones it removes, and an older token gets a full
+-- resync instead.
+CREATE TABLE IF NOT EXISTS time_entry_sync_floor
+(
+    id      BOOLEAN PRIMARY KEY DEFAULT TRUE CHECK (id),
+    horizon XID8 NOT NULL
+);
+
+INSERT INTO time_entry_sync_floor (id, horizon) VALUES (TRUE, '0') ON CONFLICT DO NOTHING;
+
+CREATE INDEX idx_tet_deleted_at
+    ON time_entry_tombstones (deleted_at);
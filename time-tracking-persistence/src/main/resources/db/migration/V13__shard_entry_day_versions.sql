@@ -0,0 +1,11 @@
+-- A day's version was one row that every write touching the day updated, so all users writing "today" queued
+-- on its row lock until their transactions committed. Each writer now bumps the shard of its user; a day's
+-- version is the sum over its shards, which still grows on every write.
+ALTER TABLE entry_day_versions
+    ADD COLUMN shard SMALLINT NOT NULL DEFAULT 0;
+
+ALTER TABLE entry_day_versions
+    DROP CONSTRAINT entry_day_versions_pkey;
+
+ALTER TABLE entry_day_versions
+    ADD PRIMARY KEY (day, shard);
@@ -0,0 +1,4 @@
+-- Epoch of the entries themselves, apart from the reports' 'time_entries' version: it moves only when entries of
+-- every user change at once without tombstones (retired partitions). Change tokens and the in-memory report store
+-- depend on it; a rollup rebuild, which changes no entry, leaves it alone.
+INSERT INTO catalog_versions (name, version) VALUES ('time_entries_sync', 1) ON CONFLICT DO NOTHING;
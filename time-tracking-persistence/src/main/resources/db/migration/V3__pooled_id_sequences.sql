@@ -0,0 +1,6 @@
+-- Switch id generation from IDENTITY to pooled sequences.
+-- IDENTITY forces Hibernate to INSERT each row immediately to learn its id, which disables JDBC batching.
+-- With a pooled optimizer Hibernate reserves a block of ids per nextval() call and can batch the INSERTs.
+-- INCREMENT BY must equal the allocationSize declared on the entities' @SequenceGenerator.
+ALTER SEQUENCE projects_id_seq INCREMENT BY 50;
+ALTER SEQUENCE time_entries_id_seq INCREMENT BY 50;
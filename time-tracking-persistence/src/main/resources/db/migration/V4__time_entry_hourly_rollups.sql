@@ -0,0 +1,30 @@
+-- Hourly rollup of time entries backing the admin reports.
+-- One row per (project, user, hour bucket); report cost scales with the window length instead of
+-- the number of raw entries. Maintained by the application in the same transaction as entry writes.
+-- Buckets are date_trunc('hour') in the session time zone, which pgjdbc sets to the JVM zone (UTC in
+-- our deployments) - the same space LocalDateTime start times and report windows are expressed in.
+CREATE TABLE IF NOT EXISTS time_entry_hourly_rollups
+(
+    project_id   BIGINT      NOT NULL REFERENCES projects(id) ON DELETE CASCADE,
+    user_id      VARCHAR(50) NOT NULL,
+    bucket_start TIMESTAMPTZ NOT NULL,
+    minutes      BIGINT      NOT NULL DEFAULT 0,
+    entry_count  INTEGER     NOT NULL DEFAULT 0,
+    last_start   TIMESTAMPTZ,
+    PRIMARY KEY (project_id, user_id, bucket_start)
+);
+
+-- Range scans over buckets for the window-based reports (sum, top projects, per-project summary)
+CREATE INDEX IF NOT EXISTS idx_teh_bucket_inc
+    ON time_entry_hourly_rollups (bucket_start) INCLUDE (project_id, minutes, entry_count, last_start);
+
+-- Backfill from existing history
+INSERT INTO time_entry_hourly_rollups (project_id, user_id, bucket_start, minutes, entry_count, last_start)
+SELECT project_id,
+       user_id,
+       date_trunc('hour', start_time),
+       coalesce(sum(duration_minutes), 0),
+       count(*),
+       max(start_time)
+FROM time_entries
+GROUP BY project_id, user_id, date_trunc('hour', start_time);
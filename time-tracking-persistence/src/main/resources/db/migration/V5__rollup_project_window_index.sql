@@ -0,0 +1,6 @@
+-- summarizeAllProjects(:weekStart,:weekEnd,:rangeStart,:rangeEnd)
+--    projects LEFT JOIN rollups ON project_id = p.id AND bucket_start inside the report windows
+--    Per-project range probes that read only in-window buckets; INCLUDE every aggregated column so
+--    the probes are index-only scans. The primary key cannot serve this (user_id sits between).
+CREATE INDEX IF NOT EXISTS idx_teh_project_bucket_inc
+    ON time_entry_hourly_rollups (project_id, bucket_start) INCLUDE (minutes, entry_count, last_start);
@@ -0,0 +1,71 @@
+-- Convert time_entries into a table range-partitioned by start_time month.
+-- Range queries (listing, export, report rollup maintenance) then prune to the months they touch, and
+-- retention becomes a DETACH/DROP of whole partitions instead of a large DELETE.
+-- Month boundaries are in the session time zone (UTC in our deployments), like the rollup buckets.
+-- New partitions are created ahead of time by the application (TimeEntryPartitionService); the DEFAULT
+-- partition only catches rows outside every monthly partition and is drained when their month is created.
+
+-- 1) Move the old heap out of the way, freeing its index and constraint names
+ALTER TABLE time_entries RENAME TO time_entries_legacy;
+ALTER TABLE time_entries_legacy RENAME CONSTRAINT time_entries_pkey TO time_entries_legacy_pkey;
+DROP INDEX IF EXISTS idx_te_user_start_desc;
+DROP INDEX IF EXISTS idx_te_project_start_desc_inc_minutes;
+DROP INDEX IF EXISTS idx_te_start_time_inc_minutes;
+ALTER SEQUENCE time_entries_id_seq OWNED BY NONE;
+
+-- 2) Partitioned parent. The primary key has to contain the partition key; ids still come from the
+--    pooled sequence, so (id, start_time) stays unique on id alone in practice.
+CREATE TABLE time_entries
+(
+    id               BIGINT       NOT NULL DEFAULT nextval('time_entries_id_seq'),
+    project_id       BIGINT       NOT NULL REFERENCES projects(id),
+    user_id          VARCHAR(50)  NOT NULL,
+    title            VARCHAR(100) NOT NULL,
+    description      TEXT,
+    start_time       TIMESTAMPTZ  NOT NULL,
+    end_time         TIMESTAMPTZ,
+    duration_minutes INTEGER,
+    CONSTRAINT time_entries_pkey PRIMARY KEY (id, start_time),
+    CONSTRAINT chk_end_after_start CHECK (end_time IS NULL OR end_time >= start_time),
+    CONSTRAINT chk_duration_nonnegative CHECK (duration_minutes >= 0)
+) PARTITION BY RANGE (start_time);
+
+ALTER SEQUENCE time_entries_id_seq OWNED BY time_entries.id;
+
+-- 3) Same indexes as V2, now partitioned (cascaded to every current and future partition)
+CREATE INDEX idx_te_user_start_desc
+    ON time_entries (user_id, start_time DESC);
+CREATE INDEX idx_te_project_start_desc_inc_minutes
+    ON time_entries (project_id, start_time DESC) INCLUDE (duration_minutes);
+CREATE INDEX idx_te_start_time_inc_minutes
+    ON time_entries (start_time) INCLUDE (duration_minutes);
+
+-- 4) Monthly partitions covering existing history up to three months ahead, plus the default
+CREATE TABLE time_entries_default PARTITION OF time_entries DEFAULT;
+
+DO
+$$
+DECLARE
+    first_month timestamptz;
+    last_month  timestamptz := date_trunc('month', now()) + interval '3 months';
+    m           timestamptz;
+BEGIN
+    SELECT least(date_trunc('month', min(start_time)), date_trunc('month', now()))
+    INTO first_month
+    FROM time_entries_legacy;
+
+    m := coalesce(first_month, date_trunc('month', now()));
+    WHILE m <= last_month LOOP
+        EXECUTE format('CREATE TABLE IF NOT EXISTS %I PARTITION OF time_entries FOR VALUES FROM (%L) TO (%L)',
+                       'time_entries_p' || to_char(m, 'YYYY_MM'), m, m + interval '1 month');
+        m := m + interval '1 month';
+    END LOOP;
+END
+$$;
+
+-- 5) Copy the data and drop the old heap
+INSERT INTO time_entries (id, project_id, user_id, title, description, start_time, end_time, duration_minutes)
+SELECT id, project_id, user_id, title, description, start_time, end_time, duration_minutes
+FROM time_entries_legacy;
+
+DROP TABLE time_entries_legacy;
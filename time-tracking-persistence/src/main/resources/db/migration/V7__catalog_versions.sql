@@ -0,0 +1,26 @@
+-- Version counters for data the application keeps in memory. Every node polls the counter and reloads
+-- its copy when it moves, so a change made through one node reaches the others.
+CREATE TABLE IF NOT EXISTS catalog_versions
+(
+    name    VARCHAR(50) PRIMARY KEY,
+    version BIGINT      NOT NULL
+);
+
+INSERT INTO catalog_versions (name, version) VALUES ('projects', 1) ON CONFLICT DO NOTHING;
+
+-- Statement-level, so a bulk change bumps the version once; search_path is pinned to the migration's
+CREATE OR REPLACE FUNCTION bump_projects_version() RETURNS trigger
+    LANGUAGE plpgsql
+    SET search_path FROM CURRENT
+AS
+$$
+BEGIN
+    UPDATE catalog_versions SET version = version + 1 WHERE name = 'projects';
+    RETURN NULL;
+END
+$$;
+
+CREATE TRIGGER trg_projects_version
+    AFTER INSERT OR UPDATE OR DELETE OR TRUNCATE ON projects
+    FOR EACH STATEMENT
+EXECUTE FUNCTION bump_projects_version();
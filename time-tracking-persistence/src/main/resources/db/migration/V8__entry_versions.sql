@@ -0,0 +1,17 @@
+-- Version counters behind the ETags of time entry reads. The application bumps them in the transaction
+-- that writes the entries: one row per user for their own listing, one row per day of start_time for
+-- the report windows covering it. A window's version is the sum over its days, which grows on every write.
+CREATE TABLE IF NOT EXISTS entry_versions
+(
+    user_id VARCHAR(100) PRIMARY KEY,
+    version BIGINT       NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS entry_day_versions
+(
+    day     DATE PRIMARY KEY,
+    version BIGINT NOT NULL
+);
+
+-- bulk changes that touch every user and day at once: partition drops and rollup rebuilds
+INSERT INTO catalog_versions (name, version) VALUES ('time_entries', 1) ON CONFLICT DO NOTHING;
@@ -0,0 +1,37 @@
+-- Delta sync. Every entry records the transaction that last wrote it, deletes leave a tombstone, and a
+-- client's change token is the xmin of the snapshot it last synced at: transactions below it had all
+-- finished by then, so "written by a transaction >= token" cannot miss a change that committed late,
+-- which a sequence number (assigned at write time, not at commit) could.
+
+ALTER TABLE time_entries
+    ADD COLUMN change_xid XID8 NOT NULL DEFAULT pg_current_xact_id();
+
+-- cascades to every partition; a sync reads only the user's changes, not their history
+CREATE INDEX idx_te_user_change
+    ON time_entries (user_id, change_xid);
+
+CREATE OR REPLACE FUNCTION touch_time_entry_change() RETURNS trigger
+    LANGUAGE plpgsql
+AS
+$$
+BEGIN
+    NEW.change_xid := pg_current_xact_id();
+    RETURN NEW;
+END
+$$;
+
+CREATE TRIGGER trg_time_entries_change
+    BEFORE UPDATE ON time_entries
+    FOR EACH ROW
+EXECUTE FUNCTION touch_time_entry_change();
+
+CREATE TABLE IF NOT EXISTS time_entry_tombstones
+(
+    entry_id    BIGINT PRIMARY KEY,
+    user_id     VARCHAR(50) NOT NULL,
+    deleted_xid XID8        NOT NULL DEFAULT pg_current_xact_id(),
+    deleted_at  TIMESTAMPTZ NOT NULL DEFAULT now()
+);
+
+CREATE INDEX idx_tet_user_deleted
+    ON time_entry_tombstones (user_id, deleted_xid);